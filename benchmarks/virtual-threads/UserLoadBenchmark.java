@@ -0,0 +1,273 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP load generator for the user API.
+ *
+ * <p>Opens a fixed number of keep-alive connections, each driven by its own virtual thread, and sends a mix of
+ * {@code GET /api/v1/users/{id}} and {@code PATCH /api/v1/users/{id}} requests on them until the run ends.
+ * Connections are spread over several loopback addresses, so that more of them can be opened than one address
+ * has ephemeral ports. Latencies are recorded in a log-linear histogram with about 3% precision.
+ *
+ * <p>Usage, on Java 21: {@code java UserLoadBenchmark.java <port> <connections> <seconds> <write percent> <users>}
+ */
+public class UserLoadBenchmark {
+    private static final int CONNECTIONS_PER_ADDRESS = 20_000;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int BUCKETS = 64 << SUB_BUCKET_BITS;
+    private static final int SEED_BATCH_SIZE = 1_000;
+    private static final Pattern CREATED_ID = Pattern.compile("\"status\":201,\"id\":(\\d+)");
+
+    private final int port;
+    private final long[] userIds;
+    private final int writePercent;
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    public UserLoadBenchmark(int port, long[] userIds, int writePercent) {
+        this.port = port;
+        this.userIds = userIds;
+        this.writePercent = writePercent;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        int connections = Integer.parseInt(args[1]);
+        int seconds = Integer.parseInt(args[2]);
+        int writePercent = Integer.parseInt(args[3]);
+        int users = Integer.parseInt(args[4]);
+
+        long[] userIds = seedUsers(port, users);
+        UserLoadBenchmark benchmark = new UserLoadBenchmark(port, userIds, writePercent);
+        benchmark.run(connections, seconds);
+    }
+
+    /**
+     * Creates the users that the load is run against, through the batch endpoint.
+     */
+    private static long[] seedUsers(int port, int users) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        List<Long> ids = new ArrayList<>(users);
+        for (int first = 0; first < users; first += SEED_BATCH_SIZE) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = first; i < Math.min(users, first + SEED_BATCH_SIZE); i++) {
+                body.append(i == first ? "" : ",")
+                        .append("{\"operation\":\"CREATE\",\"user\":")
+                        .append(userJson("seed" + i))
+                        .append('}');
+            }
+            body.append(']');
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/api/v1/users/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            Matcher created = CREATED_ID.matcher(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+            while (created.find()) {
+                ids.add(Long.parseLong(created.group(1)));
+            }
+        }
+        if (ids.size() != users) {
+            throw new IllegalStateException("Seeded " + ids.size() + " of " + users + " users");
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static String userJson(String name) {
+        return "{\"email\":\"" + name + "@example.com\",\"firstName\":\"" + name + "\",\"lastName\":\"User\","
+                + "\"birthDate\":\"1990-01-01\",\"phoneNumber\":\"1234567890\"}";
+    }
+
+    private void run(int connections, int seconds) throws InterruptedException {
+        List<long[]> histograms = new ArrayList<>(connections);
+        List<Thread> threads = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            long[] histogram = new long[BUCKETS];
+            histograms.add(histogram);
+            InetAddress localAddress = loopbackAddress(i / CONNECTIONS_PER_ADDRESS);
+            threads.add(Thread.ofVirtual().start(() -> drive(localAddress, histogram)));
+        }
+
+        long warmupMillis = Math.max(2_000, seconds * 200L);
+        Thread.sleep(warmupMillis);
+        measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1_000L);
+        measuring = false;
+        long elapsed = System.nanoTime() - start;
+        running = false;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] merged = new long[BUCKETS];
+        for (long[] histogram : histograms) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                merged[bucket] += histogram[bucket];
+            }
+        }
+        long requests = 0;
+        for (long count : merged) {
+            requests += count;
+        }
+        System.out.printf("connections=%d requests=%d throughput=%.0f req/s p50=%.2f ms p99=%.2f ms errors=%d%n",
+                connections, requests, requests / (elapsed / 1e9),
+                percentile(merged, requests, 0.50) / 1e3, percentile(merged, requests, 0.99) / 1e3,
+                errors.sum());
+    }
+
+    /**
+     * Sends requests over one connection until the run ends, reconnecting after errors.
+     */
+    private void drive(InetAddress localAddress, long[] histogram) {
+        byte[] buffer = new byte[8192];
+        while (running) {
+            try (Socket socket = new Socket()) {
+                socket.bind(new InetSocketAddress(localAddress, 0));
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                while (running) {
+                    byte[] request = nextRequest();
+                    long sent = System.nanoTime();
+                    out.write(request);
+                    out.flush();
+                    int status = readResponse(in, buffer);
+                    long latencyMicros = (System.nanoTime() - sent) / 1_000;
+                    if (status >= 400) {
+                        errors.increment();
+                    } else if (measuring) {
+                        histogram[bucket(latencyMicros)]++;
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    errors.increment();
+                }
+            }
+        }
+    }
+
+    private byte[] nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = userIds[random.nextInt(userIds.length)];
+        String request;
+        if (random.nextInt(100) < writePercent) {
+            String body = userJson("seed" + (id - userIds[0]));
+            request = "PATCH /api/v1/users/" + id + " HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Content-Type: application/json\r\nContent-Length: " + body.length() + "\r\n\r\n" + body;
+        } else {
+            request = "GET /api/v1/users/" + id + " HTTP/1.1\r\nHost: localhost\r\n\r\n";
+        }
+        return request.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads one response and returns its status code. Handles both fixed-length and chunked bodies.
+     */
+    private static int readResponse(InputStream in, byte[] buffer) throws IOException {
+        String statusLine = readLine(in);
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        long contentLength = 0;
+        boolean chunked = false;
+        for (String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+            String lower = header.toLowerCase();
+            if (lower.startsWith("content-length:")) {
+                contentLength = Long.parseLong(lower.substring(15).trim());
+            } else if (lower.startsWith("transfer-encoding:") && lower.contains("chunked")) {
+                chunked = true;
+            }
+        }
+        if (!chunked) {
+            skip(in, contentLength, buffer);
+            return status;
+        }
+        for (long chunk = Long.parseLong(readLine(in).trim(), 16); chunk > 0;
+                chunk = Long.parseLong(readLine(in).trim(), 16)) {
+            skip(in, chunk, buffer);
+            readLine(in);
+        }
+        readLine(in);
+        return status;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int next = in.read(); next != '\n'; next = in.read()) {
+            if (next < 0) {
+                throw new IOException("Connection closed");
+            }
+            if (next != '\r') {
+                line.append((char) next);
+            }
+        }
+        return line.toString();
+    }
+
+    private static void skip(InputStream in, long length, byte[] buffer) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new IOException("Connection closed");
+            }
+            remaining -= read;
+        }
+    }
+
+    private static InetAddress loopbackAddress(int index) {
+        try {
+            return InetAddress.getByAddress(new byte[] {127, 0, 0, (byte) (index + 1)});
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int bucket(long micros) {
+        long value = Math.max(1, micros);
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+        return (magnitude << SUB_BUCKET_BITS) | subBucket;
+    }
+
+    private static double bucketValue(int bucket) {
+        int magnitude = bucket >>> SUB_BUCKET_BITS;
+        if (magnitude < SUB_BUCKET_BITS) {
+            return bucket;
+        }
+        int subBucket = bucket & ((1 << SUB_BUCKET_BITS) - 1);
+        return (double) ((1L << SUB_BUCKET_BITS | subBucket) << (magnitude - SUB_BUCKET_BITS));
+    }
+
+    private static double percentile(long[] histogram, long total, double quantile) {
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int bucket = 0; bucket < histogram.length; bucket++) {
+            seen += histogram[bucket];
+            if (seen >= rank && histogram[bucket] > 0) {
+                return bucketValue(bucket);
+            }
+        }
+        return 0;
+    }
+}
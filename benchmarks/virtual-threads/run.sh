@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Compares platform-thread and virtual-thread request execution on the servlet stack, and the reactive stack
+# (Reactor Netty, reactive profile), under load. Starts the application once per mode with fsync=always,
+# so that requests block on the write-ahead log, and runs UserLoadBenchmark against it at every connection count.
+#
+# Usage: JAVA_HOME=<jdk 21> benchmarks/virtual-threads/run.sh [connection counts...]
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+CONNECTIONS=("${@:-1000 10000 50000}")
+SECONDS_PER_RUN=${SECONDS_PER_RUN:-30}
+WRITE_PERCENT=${WRITE_PERCENT:-10}
+USERS=${USERS:-10000}
+PORT=${PORT:-18080}
+JAVA="${JAVA_HOME:?JAVA_HOME must point to a JDK 21}/bin/java"
+
+ulimit -n "$(ulimit -Hn)" || true
+sh mvnw -B -q -DskipTests package
+JAR=$(ls target/ClearSolutions-*.jar | grep -v original | head -n 1)
+
+for mode in ${MODES:-platform virtual reactive}; do
+  for connections in ${CONNECTIONS[*]}; do
+    data=$(mktemp -d)
+    "$JAVA" -Xmx2g -jar "$JAR" \
+      --server.port="$PORT" \
+      --server.tomcat.max-connections=$((connections + 1000)) \
+      --server.tomcat.accept-count=$((connections + 1000)) \
+      --spring.threads.virtual.enabled=$([ "$mode" = virtual ] && echo true || echo false) \
+      --spring.profiles.active=$([ "$mode" = reactive ] && echo reactive || echo default) \
+      --user.wal.directory="$data" \
+      --user.wal.fsync=always \
+      --logging.level.root=warn > "$data/app.log" 2>&1 &
+    app=$!
+    until curl -s -o /dev/null "http://127.0.0.1:$PORT/api/v1/users/cache/stats"; do sleep 0.5; done
+
+    printf '%-8s ' "$mode"
+    "$JAVA" benchmarks/virtual-threads/UserLoadBenchmark.java \
+      "$PORT" "$connections" "$SECONDS_PER_RUN" "$WRITE_PERCENT" "$USERS"
+
+    kill "$app"
+    wait "$app" || true
+    rm -rf "$data"
+  done
+done
@@ -0,0 +1,90 @@
+package com.example.clearsolutions.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares a JMH JSON result with a committed baseline and fails when a benchmark regressed by more than
+ * the given tolerance. Throughput scores must not drop and average-time scores must not grow beyond it.
+ * Benchmarks that have no baseline yet are reported and skipped.
+ *
+ * <p>Usage: {@code BenchmarkBaselineComparator <baseline.json> <result.json> <tolerance>}, for example
+ * {@code 0.10} for 10%.
+ */
+public final class BenchmarkBaselineComparator {
+    private static final String THROUGHPUT_MODE = "thrpt";
+
+    private BenchmarkBaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException("Usage: BenchmarkBaselineComparator <baseline> <result> <tolerance>");
+        }
+        File baselineFile = new File(args[0]);
+        if (!baselineFile.isFile()) {
+            System.out.println("No benchmark baseline at " + baselineFile + ", skipping the comparison");
+            return;
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, Score> baseline = read(objectMapper.readTree(baselineFile));
+        Map<String, Score> result = read(objectMapper.readTree(new File(args[1])));
+        double tolerance = Double.parseDouble(args[2]);
+
+        List<String> regressions = new ArrayList<>();
+        result.forEach((key, score) -> {
+            Score expected = baseline.get(key);
+            if (expected == null) {
+                System.out.printf("%-90s %14.3f %s (no baseline)%n", key, score.value(), score.unit());
+                return;
+            }
+            double change = score.change(expected);
+            System.out.printf("%-90s %14.3f %s (%+.1f%%)%n", key, score.value(), score.unit(), change * 100);
+            if (change < -tolerance) {
+                regressions.add(String.format("%s: %.3f -> %.3f %s", key, expected.value(), score.value(),
+                        score.unit()));
+            }
+        });
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException("Benchmarks regressed by more than " + tolerance * 100 + "%:\n"
+                    + String.join("\n", regressions));
+        }
+    }
+
+    /**
+     * Reads the primary scores of a JMH JSON result, keyed by benchmark name and parameters.
+     */
+    private static Map<String, Score> read(JsonNode runs) {
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode run : runs) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            run.path("params").fields().forEachRemaining(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            JsonNode metric = run.path("primaryMetric");
+            scores.put(key.toString(), new Score(run.path("mode").asText(), metric.path("score").asDouble(),
+                    metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    /**
+     * A primary score of one benchmark run.
+     */
+    private record Score(String mode, double value, String unit) {
+
+        /**
+         * Returns the relative improvement over the expected score, negative for a regression.
+         */
+        double change(Score expected) {
+            double ratio = THROUGHPUT_MODE.equals(mode) ? value / expected.value() : expected.value() / value;
+            return ratio - 1;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.clearsolutions.benchmark;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+import org.mapstruct.factory.Mappers;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.mapper.UserMapper;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+import com.example.clearsolutions.repository.UserRepository;
+import com.example.clearsolutions.validator.BirthDateLimits;
+import com.example.clearsolutions.validator.UserConstraints;
+import com.example.clearsolutions.validator.UserDtoValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Deterministic test data shared by the benchmarks.
+ * Birth dates are spread evenly over {@value #BIRTH_DATE_SPAN_DAYS} days starting at {@link #FIRST_BIRTH_DATE}.
+ */
+final class BenchmarkUsers {
+    static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1950, 1, 1);
+    static final int BIRTH_DATE_SPAN_DAYS = 20_000;
+    static final UserMapper USER_MAPPER = Mappers.getMapper(UserMapper.class);
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private static final long BIRTH_DATE_STRIDE = 7_919;
+
+    private BenchmarkUsers() {
+    }
+
+    /**
+     * Builds the user with the given id.
+     *
+     * @param id the id of the user
+     * @return the user
+     */
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@example.com")
+                .firstName("First" + id)
+                .lastName("Last" + id)
+                .birthDate(FIRST_BIRTH_DATE.plusDays(id * BIRTH_DATE_STRIDE % BIRTH_DATE_SPAN_DAYS))
+                .address("Kyiv, Khreshchatyk " + id)
+                .phoneNumber("1234567890")
+                .build();
+    }
+
+    /**
+     * Builds a valid user data transfer object without an id.
+     *
+     * @param name the name to derive the fields from
+     * @return the user data transfer object
+     */
+    static UserDto userDto(String name) {
+        return new UserDto(null, name + "@example.com", name, "User", LocalDate.of(1990, 5, 1),
+                "Kyiv, Khreshchatyk 1", "1234567890");
+    }
+
+    /**
+     * Builds the birth date limits on the system clock.
+     *
+     * @param minAge the minimum age of a user
+     * @return the birth date limits
+     */
+    static BirthDateLimits birthDateLimits(int minAge) {
+        return new BirthDateLimits(Clock.systemDefaultZone(), minAge);
+    }
+
+    /**
+     * Builds the validator of user requests on the system clock.
+     *
+     * @param minAge the minimum age of a user
+     * @return the validator
+     */
+    static UserDtoValidator validator(int minAge) {
+        BirthDateLimits birthDateLimits = birthDateLimits(minAge);
+        UserDtoValidator userDtoValidator = new UserDtoValidator(new UserConstraints(birthDateLimits), birthDateLimits);
+        ReflectionTestUtils.setField(userDtoValidator, "minAge", minAge);
+        return userDtoValidator;
+    }
+
+    /**
+     * Builds a repository holding users with ids from 1 to the given count.
+     *
+     * @param users the number of users
+     * @return the populated repository
+     */
+    static InMemoryUserRepository repository(int users) {
+        return populate(new InMemoryUserRepository(), users);
+    }
+
+    /**
+     * Fills a repository with users with ids from 1 to the given count.
+     *
+     * @param userRepository the empty repository
+     * @param users          the number of users
+     * @param <T>            the type of the repository
+     * @return the populated repository
+     */
+    static <T extends UserRepository> T populate(T userRepository, int users) {
+        for (long id = 1; id <= users; id++) {
+            userRepository.save(user(id));
+        }
+        return userRepository;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.clearsolutions.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.clearsolutions.cache.UserResponseCache;
+import com.example.clearsolutions.changes.UserChangeFeed;
+import com.example.clearsolutions.codec.UserJsonCodec;
+import com.example.clearsolutions.dto.UserImportResultDto;
+import com.example.clearsolutions.metrics.UserMetrics;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+import com.example.clearsolutions.service.UserService;
+import com.example.clearsolutions.statistics.BirthDateStatistics;
+import com.example.clearsolutions.transfer.UserBulkExporter;
+import com.example.clearsolutions.transfer.UserBulkImporter;
+import com.example.clearsolutions.transfer.UserTransferFormat;
+import com.example.clearsolutions.validator.UserDtoValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Time to import a CSV file of a given number of users into an empty store, and to export a store of that size
+ * as CSV. Divide the number of users by the score to get the rows per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class UserBulkTransferBenchmark {
+    private static final int MIN_AGE = 18;
+    private static final int CHANGE_CAPACITY = 1 << 16;
+
+    @Param({"10000", "1000000"})
+    private int users;
+
+    private UserDtoValidator userDtoValidator;
+    private byte[] csv;
+    private UserBulkImporter userBulkImporter;
+    private UserBulkExporter userBulkExporter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        userDtoValidator = BenchmarkUsers.validator(MIN_AGE);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exporterOf(BenchmarkUsers.repository(users)).exportUsers(Channels.newChannel(output), UserTransferFormat.CSV);
+        csv = output.toByteArray();
+        userBulkExporter = exporterOf(BenchmarkUsers.repository(users));
+    }
+
+    /**
+     * Gives every import an empty store.
+     */
+    @Setup(Level.Invocation)
+    public void emptyStore() {
+        userBulkImporter = new UserBulkImporter(serviceOf(new InMemoryUserRepository()), userDtoValidator,
+                BenchmarkUsers.OBJECT_MAPPER, 0);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopImporter() {
+        userBulkImporter.destroy();
+    }
+
+    @Benchmark
+    public UserImportResultDto importCsv() throws IOException {
+        return userBulkImporter.importUsers(new ByteArrayInputStream(csv), UserTransferFormat.CSV);
+    }
+
+    @Benchmark
+    public long exportCsv() throws IOException {
+        return userBulkExporter.exportUsers(Channels.newChannel(OutputStream.nullOutputStream()),
+                UserTransferFormat.CSV);
+    }
+
+    private UserBulkExporter exporterOf(InMemoryUserRepository userRepository) {
+        return new UserBulkExporter(serviceOf(userRepository), BenchmarkUsers.OBJECT_MAPPER);
+    }
+
+    private UserService serviceOf(InMemoryUserRepository userRepository) {
+        return new UserService(BenchmarkUsers.USER_MAPPER, userRepository,
+                new UserResponseCache(new UserJsonCodec(), 1 << 20),
+                new UserMetrics(new SimpleMeterRegistry(), userRepository), new BirthDateStatistics(userRepository),
+                new UserChangeFeed(CHANGE_CAPACITY), BenchmarkUsers.birthDateLimits(MIN_AGE));
+    }
+}
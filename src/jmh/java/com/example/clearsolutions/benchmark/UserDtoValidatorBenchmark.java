@@ -0,0 +1,111 @@
+package com.example.clearsolutions.benchmark;
+
+import java.time.Clock;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.clearsolutions.dto.BatchOperationType;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.validator.BirthDateLimits;
+import com.example.clearsolutions.validator.UserConstraints;
+import com.example.clearsolutions.validator.UserDtoValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Average time of the checks that {@link UserDtoValidator} runs for a single request and for a batch item, and of
+ * the constraint checks of a user body by the precompiled {@link UserConstraints} against the reflective bean
+ * validator they replace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserDtoValidatorBenchmark {
+    private static final int MIN_AGE = 18;
+    private static final int MAX_LIMIT = 1000;
+
+    private final UserDto userDto = BenchmarkUsers.userDto("valid");
+    private final UserDto invalidUserDto = new UserDto(null, "not-an-email", "", "User", null, null, "12");
+    private final UserBatchOperationDto invalidOperation =
+            new UserBatchOperationDto(BatchOperationType.CREATE, null, invalidUserDto);
+    private final UserBatchOperationDto validOperation =
+            new UserBatchOperationDto(BatchOperationType.CREATE, null, userDto);
+
+    private ValidatorFactory validatorFactory;
+    private Validator beanValidator;
+    private UserConstraints userConstraints;
+    private UserDtoValidator userDtoValidator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = validatorFactory.getValidator();
+        BirthDateLimits birthDateLimits = new BirthDateLimits(Clock.systemDefaultZone(), MIN_AGE);
+        userConstraints = new UserConstraints(birthDateLimits);
+        userDtoValidator = new UserDtoValidator(userConstraints, birthDateLimits);
+        ReflectionTestUtils.setField(userDtoValidator, "minAge", MIN_AGE);
+        ReflectionTestUtils.setField(userDtoValidator, "maxLimit", MAX_LIMIT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public UserDto validateUser() {
+        userDtoValidator.validateUser(userDto);
+        return userDto;
+    }
+
+    @Benchmark
+    public Optional<String> checkValidOperation() {
+        return userDtoValidator.checkOperation(validOperation);
+    }
+
+    @Benchmark
+    public Optional<String> checkInvalidOperation() {
+        return userDtoValidator.checkOperation(invalidOperation);
+    }
+
+    @Benchmark
+    public int precompiledConstraints() {
+        return userConstraints.violations(userDto);
+    }
+
+    @Benchmark
+    public int precompiledInvalidConstraints() {
+        return userConstraints.violations(invalidUserDto);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDto>> beanValidatorConstraints() {
+        return beanValidator.validate(userDto);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDto>> beanValidatorInvalidConstraints() {
+        return beanValidator.validate(invalidUserDto);
+    }
+}
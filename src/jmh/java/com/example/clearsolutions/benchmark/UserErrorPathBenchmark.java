@@ -0,0 +1,105 @@
+package com.example.clearsolutions.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.example.clearsolutions.cache.UserResponse;
+import com.example.clearsolutions.cache.UserResponseCache;
+import com.example.clearsolutions.changes.UserChangeFeed;
+import com.example.clearsolutions.codec.UserJsonCodec;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.exceptions.UserException;
+import com.example.clearsolutions.handler.GlobalExceptionHandler;
+import com.example.clearsolutions.metrics.UserMetrics;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+import com.example.clearsolutions.service.UserService;
+import com.example.clearsolutions.statistics.BirthDateStatistics;
+import com.example.clearsolutions.validator.UserDtoValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Throughput of a successful user read against the two most frequent rejections, a missing user and an under-age
+ * user, each taken from the service or validator call to the response entity the controller returns.
+ * The error paths should stay within a small factor of the success path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserErrorPathBenchmark {
+    private static final long CACHE_BYTES = 64L << 20;
+    private static final int CHANGE_CAPACITY = 1 << 16;
+    private static final int MIN_AGE = 18;
+
+    @Param({"10000"})
+    private int users;
+
+    private final UserDto underAgeUser = new UserDto(null, "young@example.com", "Young", "User",
+            LocalDate.now().minusYears(10), null, "1234567890");
+
+    private UserDtoValidator userDtoValidator;
+    private UserService userService;
+    private GlobalExceptionHandler exceptionHandler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryUserRepository userRepository = BenchmarkUsers.repository(users);
+        UserMetrics userMetrics = new UserMetrics(new SimpleMeterRegistry(), userRepository);
+        userService = new UserService(BenchmarkUsers.USER_MAPPER, userRepository,
+                new UserResponseCache(new UserJsonCodec(), CACHE_BYTES),
+                userMetrics, new BirthDateStatistics(userRepository), new UserChangeFeed(CHANGE_CAPACITY),
+                BenchmarkUsers.birthDateLimits(MIN_AGE));
+        userDtoValidator = BenchmarkUsers.validator(MIN_AGE);
+        exceptionHandler = new GlobalExceptionHandler(userMetrics);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> getUser() {
+        UserResponse user = userService.getUser(randomId());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(user.body());
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> getMissingUser() {
+        try {
+            UserResponse user = userService.getUser(users + randomId());
+            return ResponseEntity.ok().body(user.body());
+        } catch (UserException e) {
+            return exceptionHandler.handleUserException(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> validateUnderAgeUser() {
+        try {
+            userDtoValidator.validateUser(underAgeUser);
+            return ResponseEntity.ok().build();
+        } catch (UserException e) {
+            return exceptionHandler.handleUserException(e);
+        }
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1L);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.clearsolutions.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.clearsolutions.codec.UserJsonCodec;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.User;
+
+/**
+ * Average time of serializing a user and a search page of {@value #PAGE_SIZE} users, and of reading a user,
+ * with the {@link UserJsonCodec} and with Jackson after mapping to {@link UserDto}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserJsonCodecBenchmark {
+    private static final int PAGE_SIZE = 100;
+
+    private final UserJsonCodec userJsonCodec = new UserJsonCodec();
+    private final User user = BenchmarkUsers.user(42);
+    private final List<User> page = LongStream.rangeClosed(1, PAGE_SIZE).mapToObj(BenchmarkUsers::user).toList();
+    private final byte[] json = userJsonCodec.toBytes(user);
+
+    @Benchmark
+    public byte[] writeUserWithCodec() {
+        return userJsonCodec.toBytes(user);
+    }
+
+    @Benchmark
+    public byte[] writeUserWithJackson() throws IOException {
+        return BenchmarkUsers.OBJECT_MAPPER.writeValueAsBytes(BenchmarkUsers.USER_MAPPER.toUserDto(user));
+    }
+
+    @Benchmark
+    public int writePageWithCodec() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(PAGE_SIZE * json.length);
+        userJsonCodec.writeArray(page, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int writePageWithJackson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(PAGE_SIZE * json.length);
+        BenchmarkUsers.OBJECT_MAPPER.writeValue(out, page.stream().map(BenchmarkUsers.USER_MAPPER::toUserDto).toList());
+        return out.size();
+    }
+
+    @Benchmark
+    public UserDto readUserWithCodec() {
+        return userJsonCodec.read(json);
+    }
+
+    @Benchmark
+    public UserDto readUserWithJackson() throws IOException {
+        return BenchmarkUsers.OBJECT_MAPPER.readValue(json, UserDto.class);
+    }
+}
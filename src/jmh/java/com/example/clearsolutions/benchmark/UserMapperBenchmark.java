@@ -0,0 +1,40 @@
+package com.example.clearsolutions.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.User;
+
+/**
+ * Average time of converting between {@link User} and {@link UserDto}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserMapperBenchmark {
+    private final User user = BenchmarkUsers.user(42);
+    private final UserDto userDto = BenchmarkUsers.USER_MAPPER.toUserDto(user);
+
+    @Benchmark
+    public UserDto toUserDto() {
+        return BenchmarkUsers.USER_MAPPER.toUserDto(user);
+    }
+
+    @Benchmark
+    public User toUser() {
+        return BenchmarkUsers.USER_MAPPER.toUser(userDto);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.clearsolutions.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+import com.example.clearsolutions.repository.ShardedUserRepository;
+import com.example.clearsolutions.repository.UserRepository;
+
+/**
+ * Throughput of concurrent repository writes and reads with one benchmark thread per available processor,
+ * for the single map {@code heap} engine and the {@code sharded} engine with one shard per processor.
+ * Run it again with {@code -t 1}, {@code -t 2}, ... to see how each engine scales with the number of writers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(Threads.MAX)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserRepositoryScalingBenchmark {
+    private static final int SEARCH_DAYS = 30;
+    private static final int PAGE_LIMIT = 100;
+
+    @Param({"10000", "1000000"})
+    private int users;
+
+    @Param({"heap", "sharded"})
+    private String engine;
+
+    private UserRepository userRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserRepository empty = "sharded".equals(engine) ? new ShardedUserRepository(0) : new InMemoryUserRepository();
+        userRepository = BenchmarkUsers.populate(empty, users);
+    }
+
+    /**
+     * Removes the users created during the iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void removeCreatedUsers() {
+        for (long id = users + 1L; id <= userRepository.lastId(); id++) {
+            userRepository.deleteById(id);
+        }
+    }
+
+    /**
+     * Allocates an id and stores a new user, which moves every secondary index.
+     */
+    @Benchmark
+    public User createUser() {
+        return userRepository.save(BenchmarkUsers.user(userRepository.nextId()));
+    }
+
+    @Benchmark
+    public Optional<User> updateUser() {
+        return userRepository.update(randomId(), user -> user.setFirstName("Updated"));
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return userRepository.findById(randomId());
+    }
+
+    /**
+     * Reads one page of a birth date range, which the sharded engine merges from every shard.
+     */
+    @Benchmark
+    public List<User> findPageByBirthDateRange() {
+        LocalDate from = BenchmarkUsers.FIRST_BIRTH_DATE.plusDays(ThreadLocalRandom.current()
+                .nextInt(BenchmarkUsers.BIRTH_DATE_SPAN_DAYS - SEARCH_DAYS));
+        return userRepository.findByBirthDateBetween(from, from.plusDays(SEARCH_DAYS)).limit(PAGE_LIMIT).toList();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1L);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.clearsolutions.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.clearsolutions.cache.UserResponse;
+import com.example.clearsolutions.cache.UserResponseCache;
+import com.example.clearsolutions.changes.UserChangeFeed;
+import com.example.clearsolutions.codec.UserJsonCodec;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.dto.UserMatchDto;
+import com.example.clearsolutions.dto.UserPageDto;
+import com.example.clearsolutions.dto.VersionedUserDto;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.metrics.UserMetrics;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+import com.example.clearsolutions.service.UserService;
+import com.example.clearsolutions.statistics.BirthDateStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Throughput of the {@link UserService} operations against an in-memory store of a given size.
+ * Every operation that changes the size of the store is undone, so the size stays the same across iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserServiceBenchmark {
+    private static final long CACHE_BYTES = 64L << 20;
+    private static final int CHANGE_CAPACITY = 1 << 16;
+    private static final int SEARCH_DAYS = 30;
+    private static final int PAGE_LIMIT = 100;
+    private static final int MIN_AGE = 18;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int users;
+
+    private InMemoryUserRepository userRepository;
+    private UserService userService;
+    private final AtomicLong createdUsers = new AtomicLong();
+    private final UserDto patch = new UserDto(null, null, "Patched", null, null, null, null);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userRepository = BenchmarkUsers.repository(users);
+        userService = new UserService(BenchmarkUsers.USER_MAPPER, userRepository,
+                new UserResponseCache(new UserJsonCodec(), CACHE_BYTES),
+                new UserMetrics(new SimpleMeterRegistry(), userRepository), new BirthDateStatistics(userRepository),
+                new UserChangeFeed(CHANGE_CAPACITY), BenchmarkUsers.birthDateLimits(MIN_AGE));
+    }
+
+    /**
+     * Removes the users created during the iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void removeCreatedUsers() {
+        for (long id = users + 1L; id <= userRepository.lastId(); id++) {
+            userRepository.deleteById(id);
+        }
+    }
+
+    /**
+     * Creates a user with a new email, since emails are unique.
+     */
+    @Benchmark
+    public UserDto createUser() {
+        return userService.createUser(BenchmarkUsers.userDto("created" + createdUsers.incrementAndGet()));
+    }
+
+    /**
+     * Looks up a user through the unique email index.
+     */
+    @Benchmark
+    public VersionedUserDto getUserByEmail() {
+        return userService.getUserByEmail("user" + randomId() + "@example.com", UserFields.ALL);
+    }
+
+    @Benchmark
+    public UserResponse getUser() {
+        return userService.getUser(randomId());
+    }
+
+    /**
+     * Reads the version of a user and updates it conditionally, as a PATCH with {@code If-Match} does.
+     */
+    @Benchmark
+    public VersionedUserDto readAndUpdateUser() {
+        long id = randomId();
+        return userService.updateUserFields(id, patch, userService.getUserVersion(id));
+    }
+
+    /**
+     * Deletes a user and puts it back through the repository, which costs one more map and index write.
+     */
+    @Benchmark
+    public void deleteUser() {
+        long id = randomId();
+        userService.deleteUser(id);
+        userRepository.save(BenchmarkUsers.user(id));
+    }
+
+    @Benchmark
+    public List<UserDto> searchUsersByBirthDateRange() {
+        LocalDate from = randomSearchStart();
+        return userService.searchUsersByBirthDateRange(from, from.plusDays(SEARCH_DAYS), UserFields.ALL);
+    }
+
+    @Benchmark
+    public UserPageDto searchUsersPageByBirthDateRange() {
+        LocalDate from = randomSearchStart();
+        return userService.searchUsersByBirthDateRange(from, from.plusDays(SEARCH_DAYS), null, PAGE_LIMIT,
+                UserFields.ALL);
+    }
+
+    /**
+     * Searches by a last name prefix with one typo allowed, which expands to exact, prefix and fuzzy tokens.
+     */
+    @Benchmark
+    public List<UserMatchDto> searchUsersByText() {
+        return userService.searchUsersByText("Last" + randomId(), 1, PAGE_LIMIT);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1L);
+    }
+
+    private LocalDate randomSearchStart() {
+        return BenchmarkUsers.FIRST_BIRTH_DATE.plusDays(ThreadLocalRandom.current()
+                .nextInt(BenchmarkUsers.BIRTH_DATE_SPAN_DAYS - SEARCH_DAYS));
+    }
+}
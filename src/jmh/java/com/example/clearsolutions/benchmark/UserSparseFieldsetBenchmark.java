@@ -0,0 +1,85 @@
+package com.example.clearsolutions.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.clearsolutions.codec.UserJsonCodec;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.repository.ColumnarUserRepository;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+import com.example.clearsolutions.repository.UserRepository;
+
+/**
+ * Average time of serving a search page of {@value #PAGE_LIMIT} users, read from the store, mapped and written
+ * as JSON, with all fields and with the sparse fieldset {@code id,email}, for the {@code heap} and the
+ * {@code columnar} engine. Every score is returned with the number of bytes written, which is about 180 bytes
+ * per user with all fields and 45 with {@code id,email}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserSparseFieldsetBenchmark {
+    private static final int SEARCH_DAYS = 365;
+    private static final int PAGE_LIMIT = 100;
+    private static final int USER_BYTES = 192;
+
+    @Param({"10000", "1000000"})
+    private int users;
+
+    @Param({"heap", "columnar"})
+    private String engine;
+
+    @Param({"all", "id,email"})
+    private String fields;
+
+    private final UserJsonCodec userJsonCodec = new UserJsonCodec();
+    private UserRepository userRepository;
+    private UserFields userFields;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserRepository empty = "columnar".equals(engine) ? new ColumnarUserRepository() : new InMemoryUserRepository();
+        userRepository = BenchmarkUsers.populate(empty, users);
+        userFields = "all".equals(fields) ? UserFields.ALL : UserFields.parse(fields);
+    }
+
+    /**
+     * Reads, maps and writes one page of a birth date range, the way the search endpoint does.
+     *
+     * @return the number of bytes written
+     * @throws IOException never, the page is written to memory
+     */
+    @Benchmark
+    public int searchPage() throws IOException {
+        LocalDate from = BenchmarkUsers.FIRST_BIRTH_DATE.plusDays(ThreadLocalRandom.current()
+                .nextInt(BenchmarkUsers.BIRTH_DATE_SPAN_DAYS - SEARCH_DAYS));
+        List<UserDto> page = userRepository.findByBirthDateBetween(from, from.plusDays(SEARCH_DAYS), null, userFields)
+                .limit(PAGE_LIMIT)
+                .map(user -> BenchmarkUsers.USER_MAPPER.toUserDto(user, userFields))
+                .toList();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(PAGE_LIMIT * USER_BYTES);
+        userJsonCodec.writeArray(page, userFields, out);
+        return out.size();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.clearsolutions.cache;
+
+/**
+ * A user serialized as a response body, along with the version it was serialized from.
+ *
+ * @param version the version of the user
+ * @param body    the serialized user
+ */
+public record UserResponse(long version, byte[] body) {
+}
@@ -0,0 +1,97 @@
+package com.example.clearsolutions.cache;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.codec.UserJsonCodec;
+import com.example.clearsolutions.dto.UserCacheStatsDto;
+import com.example.clearsolutions.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Bounded cache of serialized user responses and their versions, keyed by user id.
+ * Entries are weighed by their size in bytes and evicted with the W-TinyLFU policy,
+ * which keeps frequently read users even when a scan of cold users passes through. Users are serialized
+ * straight from the entity by the {@link UserJsonCodec}, without being mapped to a data transfer object first.
+ *
+ * <p>A missing entry is loaded atomically per key, and {@link #invalidate(Long)} waits for a load of the
+ * same key that is in progress. As long as a mutation is applied to the store before the entry is
+ * invalidated, a load can never put back a state older than the last invalidation.
+ */
+@Component
+public class UserResponseCache {
+    private final UserJsonCodec userJsonCodec;
+    private final Cache<Long, UserResponse> responses;
+    private final long maxWeightBytes;
+
+    @Autowired
+    public UserResponseCache(UserJsonCodec userJsonCodec, @Value("${user.cache.max.bytes}") long maxWeightBytes) {
+        this(userJsonCodec, maxWeightBytes, ForkJoinPool.commonPool());
+    }
+
+    UserResponseCache(UserJsonCodec userJsonCodec, long maxWeightBytes, Executor executor) {
+        this.userJsonCodec = userJsonCodec;
+        this.maxWeightBytes = maxWeightBytes;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long id, UserResponse response) -> response.body().length)
+                .executor(executor)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the serialized user, loading and serializing it on a miss.
+     *
+     * @param id     the id of the user
+     * @param loader loads the user from the store, or returns an empty optional if there is no such user
+     * @return the serialized user, or an empty optional if there is no such user
+     */
+    public Optional<UserResponse> get(Long id, Function<Long, Optional<User>> loader) {
+        return Optional.ofNullable(responses.get(id, key -> loader.apply(key)
+                .map(this::serialize)
+                .orElse(null)));
+    }
+
+    /**
+     * Drops the cached response of a user.
+     *
+     * @param id the id of the user
+     */
+    public void invalidate(Long id) {
+        responses.invalidate(id);
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the cache.
+     *
+     * @return the cache statistics
+     */
+    public UserCacheStatsDto stats() {
+        CacheStats stats = responses.stats();
+        long weight = responses.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+        return new UserCacheStatsDto(stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate(),
+                responses.estimatedSize(), weight, maxWeightBytes);
+    }
+
+    /**
+     * Runs pending maintenance, such as evictions, right away.
+     */
+    void cleanUp() {
+        responses.cleanUp();
+    }
+
+    private UserResponse serialize(User user) {
+        return new UserResponse(user.getVersion(), userJsonCodec.toBytes(user));
+    }
+}
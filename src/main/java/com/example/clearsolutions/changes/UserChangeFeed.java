@@ -0,0 +1,130 @@
+package com.example.clearsolutions.changes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.dto.UserChangeEventDto;
+import com.example.clearsolutions.dto.UserChangeType;
+import com.example.clearsolutions.dto.UserDto;
+
+/**
+ * Bounded, lock-free ring buffer of the latest user change events, numbered by a sequence that starts at 1
+ * when the application starts. Publishing claims the next sequence with one atomic increment and stores the
+ * event in its slot, overwriting the event a full ring older, so writers never wait for readers.
+ *
+ * <p>Readers keep their own position and read the events after it. An event becomes visible once its slot
+ * holds it; a reader stops at the first slot that does not hold the next sequence yet, so it never skips an
+ * event that is still being published. A reader whose position has been overwritten, or that comes from
+ * before a restart, gets a single {@link UserChangeType#RESYNC} event instead and continues after its sequence.
+ *
+ * <p>Events are published after the mutation they describe, so two writers of the same user may publish
+ * them out of order; the user version orders them.
+ */
+@Component
+public class UserChangeFeed {
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final AtomicReferenceArray<UserChangeEventDto> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Creates a feed that retains the given number of events, rounded up to a power of two.
+     *
+     * @param capacity the number of retained events
+     */
+    public UserChangeFeed(@Value("${user.changes.capacity}") int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 1));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Publishes a change event without waiting for any reader.
+     *
+     * @param type    the kind of change
+     * @param id      the id of the changed user
+     * @param version the version of the user after the change; a delete is one past the last version
+     * @param user    the user after the change, or {@code null} for a delete
+     * @return the sequence of the event
+     */
+    public long publish(UserChangeType type, Long id, long version, UserDto user) {
+        long sequence = head.incrementAndGet();
+        slots.set(index(sequence), new UserChangeEventDto(sequence, type, id, version, user));
+        return sequence;
+    }
+
+    /**
+     * Returns the sequence of the latest published or claimed event.
+     *
+     * @return the latest sequence, or zero if no event was published
+     */
+    public long lastSequence() {
+        return head.get();
+    }
+
+    /**
+     * Reads the published events after a position, without waiting.
+     *
+     * @param after the sequence of the last event the reader has seen, or zero to read from the start
+     * @param limit the maximum number of events to return
+     * @return the events in sequence order, a single resync event if the position is no longer retained,
+     *         or an empty list if there is no newer event yet
+     */
+    public List<UserChangeEventDto> read(long after, int limit) {
+        long last = head.get();
+        if (after < 0 || after > last || after < last - slots.length()) {
+            return List.of(resync(last));
+        }
+        List<UserChangeEventDto> events = new ArrayList<>(Math.min(limit, (int) (last - after)));
+        for (long sequence = after + 1; sequence <= last && events.size() < limit; sequence++) {
+            UserChangeEventDto event = slots.get(index(sequence));
+            if (event == null || event.getSequence() < sequence) {
+                break;
+            }
+            if (event.getSequence() > sequence) {
+                return events.isEmpty() ? List.of(resync(head.get())) : events;
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Reads the published events after a position, waiting up to the timeout for one to be published.
+     * The wait polls the feed, so publishers never have to wake readers up.
+     *
+     * @param after   the sequence of the last event the reader has seen, or zero to read from the start
+     * @param limit   the maximum number of events to return
+     * @param timeout the longest time to wait for an event
+     * @return the events, as {@link #read(long, int)} returns them, or an empty list if none was published in time
+     */
+    public List<UserChangeEventDto> poll(long after, int limit, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<UserChangeEventDto> events = read(after, limit);
+        while (events.isEmpty() && System.nanoTime() - deadline < 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(Math.min(POLL_INTERVAL_NANOS, deadline - System.nanoTime()));
+            events = read(after, limit);
+        }
+        return events;
+    }
+
+    private UserChangeEventDto resync(long sequence) {
+        return new UserChangeEventDto(sequence, UserChangeType.RESYNC, null, null, null);
+    }
+
+    private int index(long sequence) {
+        return (int) sequence & mask;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.clearsolutions.changes;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.clearsolutions.dto.UserChangeEventDto;
+import com.example.clearsolutions.exceptions.TooManySubscribersException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams the {@link UserChangeFeed} to Server-Sent Events subscribers. Every subscriber has its own
+ * daemon thread that reads the feed from its own position and sends each event with its sequence as the
+ * event id, so a client that reconnects with {@code Last-Event-ID} resumes where it stopped.
+ *
+ * <p>A slow subscriber only holds up its own thread: the feed keeps being written and the subscriber gets a
+ * resync event once it falls a full ring behind. Idle streams get a comment every 15 seconds, which detects
+ * clients that went away. The number of concurrent subscribers is bounded.
+ */
+@Slf4j
+@Component
+public class UserChangeStreams implements DisposableBean {
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private final UserChangeFeed changeFeed;
+    private final Semaphore subscribers;
+    private final ExecutorService executor;
+
+    public UserChangeStreams(UserChangeFeed changeFeed,
+                             @Value("${user.changes.max.subscribers}") int maxSubscribers) {
+        this.changeFeed = changeFeed;
+        this.subscribers = new Semaphore(maxSubscribers);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "user-change-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens a stream of the events after the given position.
+     *
+     * @param after the sequence of the last event the client has seen, or zero to start at the oldest event
+     * @return the emitter the events are sent to
+     * @throws TooManySubscribersException if the maximum number of subscribers is streaming already
+     */
+    public SseEmitter subscribe(long after) {
+        if (!subscribers.tryAcquire()) {
+            log.debug("Too many change subscribers");
+            throw new TooManySubscribersException("Too many change subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(error -> closed.set(true));
+        try {
+            executor.execute(() -> {
+                try {
+                    stream(emitter, after, closed);
+                } finally {
+                    subscribers.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            subscribers.release();
+            throw e;
+        }
+        return emitter;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sends events to one subscriber until it goes away or the application stops.
+     *
+     * @param emitter the emitter of the subscriber
+     * @param after   the sequence to continue after
+     * @param closed  set once the emitter completed, timed out or failed
+     */
+    private void stream(SseEmitter emitter, long after, AtomicBoolean closed) {
+        long position = after;
+        long lastSent = System.nanoTime();
+        try {
+            while (!closed.get() && !Thread.currentThread().isInterrupted()) {
+                List<UserChangeEventDto> events = changeFeed.read(position, BATCH_SIZE);
+                if (events.isEmpty()) {
+                    if (System.nanoTime() - lastSent >= HEARTBEAT_NANOS) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                        lastSent = System.nanoTime();
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+                for (UserChangeEventDto event : events) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.getSequence()))
+                            .name(event.getType().name())
+                            .data(event, MediaType.APPLICATION_JSON));
+                    position = event.getSequence();
+                }
+                lastSent = System.nanoTime();
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Change subscriber went away at sequence {}", position);
+            emitter.completeWithError(e);
+        }
+    }
+}
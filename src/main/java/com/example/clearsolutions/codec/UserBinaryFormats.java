@@ -0,0 +1,56 @@
+package com.example.clearsolutions.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.dto.UserDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Streams users in the binary formats of {@link UserMediaTypes}, for responses that are written as the users
+ * are read instead of being collected first. Users are written as a Smile or CBOR array with the mappers of the
+ * Smile and CBOR converters, or as a Protocol Buffers {@code UserList}, so a streamed response has the same
+ * shape as a collected one.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserBinaryFormats {
+    private final MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+    private final MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+    private final UserProtobufCodec userProtobufCodec;
+
+    /**
+     * Writes users as an array in a binary format, one user at a time. The stream is flushed but not closed.
+     *
+     * @param format the format, one of {@link UserMediaTypes}
+     * @param users  the users
+     * @param out    the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeArray(MediaType format, Iterator<UserDto> users, OutputStream out) throws IOException {
+        if (UserMediaTypes.PROTOBUF.equalsTypeAndSubtype(format)) {
+            userProtobufCodec.writeUsers(users, out);
+            return;
+        }
+        ObjectMapper objectMapper = UserMediaTypes.CBOR.equalsTypeAndSubtype(format)
+                ? cborHttpMessageConverter.getObjectMapper()
+                : smileHttpMessageConverter.getObjectMapper();
+        try (SequenceWriter writer = objectMapper.writerFor(UserDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValuesAsArray(out)) {
+            while (users.hasNext()) {
+                writer.write(users.next());
+            }
+        }
+        out.flush();
+    }
+}
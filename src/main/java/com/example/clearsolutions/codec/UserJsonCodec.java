@@ -0,0 +1,686 @@
+package com.example.clearsolutions.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.entity.UserField;
+import com.example.clearsolutions.entity.UserFields;
+
+/**
+ * Streaming JSON codec of users, written out field by field for the one shape it serves instead of being
+ * derived by reflection at run time. It writes the same bytes as Jackson does for a {@link UserDto}: the same
+ * field order, {@code null} for missing fields, ISO dates and the same string escapes, which escape each
+ * surrogate character on its own instead of encoding characters beyond the BMP in four bytes. Field names are
+ * encoded once, as byte constants that include the surrounding punctuation, and dates are assembled from
+ * tables of encoded years and month-days, so a user is written without formatting or allocating anything
+ * but the output.
+ *
+ * <p>Entities are written straight from the {@link User}, in the shape of its data transfer object and
+ * without its version, so the entity does not need to be mapped first. Reading accepts what Jackson accepts
+ * for a {@link UserDto} in practice: fields in any order, unknown fields that are skipped, scalars for string
+ * fields, and {@code null} or an empty string for the birth date.
+ *
+ * <p>Writers that take {@link UserFields} write a sparse fieldset: only the requested fields, in the usual
+ * order, and nothing at all for the others, not even {@code null}.
+ */
+@Component
+public class UserJsonCodec {
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] EMAIL = ascii(",\"email\":");
+    private static final byte[] FIRST_NAME = ascii(",\"firstName\":");
+    private static final byte[] LAST_NAME = ascii(",\"lastName\":");
+    private static final byte[] BIRTH_DATE = ascii(",\"birthDate\":");
+    private static final byte[] ADDRESS = ascii(",\"address\":");
+    private static final byte[] PHONE_NUMBER = ascii(",\"phoneNumber\":");
+    private static final UserField[] FIELDS = UserField.values();
+    private static final byte[][] NAMES = new byte[FIELDS.length][];
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+    private static final int MAX_CACHED_YEAR = 9999;
+    private static final int YEAR_BYTES = 5;
+    private static final int MONTH_DAY_BYTES = 7;
+    private static final byte[] YEARS = new byte[(MAX_CACHED_YEAR + 1) * YEAR_BYTES];
+    private static final byte[] MONTH_DAYS = new byte[13 * 32 * MONTH_DAY_BYTES];
+    private static final byte[] ESCAPES = new byte[128];
+    private static final int BUFFER_SIZE = 8192;
+    private static final int OBJECT_SIZE = 256;
+    private static final int MAX_CHAR_BYTES = 6;
+    private static final int ONE_BYTE_LIMIT = 0x80;
+    private static final int TWO_BYTE_LIMIT = 0x800;
+    private static final int FIRST_PRINTABLE = 0x20;
+    private static final int BYTE_MASK = 0xFF;
+    private static final char OBJECT_START = '{';
+    private static final char OBJECT_END = '}';
+    private static final char QUOTE = '"';
+    private static final char MINUS = '-';
+    private static final char UNICODE_ESCAPE = 'u';
+
+    static {
+        for (UserField field : FIELDS) {
+            NAMES[field.ordinal()] = ascii("\"" + field.getJsonName() + "\":");
+        }
+        for (int year = 0; year <= MAX_CACHED_YEAR; year++) {
+            byte[] encoded = ascii(String.format("\"%04d", year));
+            System.arraycopy(encoded, 0, YEARS, year * YEAR_BYTES, YEAR_BYTES);
+        }
+        for (int month = 1; month <= 12; month++) {
+            for (int day = 1; day <= 31; day++) {
+                byte[] encoded = ascii(String.format("-%02d-%02d\"", month, day));
+                System.arraycopy(encoded, 0, MONTH_DAYS, (month * 32 + day) * MONTH_DAY_BYTES, MONTH_DAY_BYTES);
+            }
+        }
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = 'u';
+        }
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+    }
+
+    /**
+     * Serializes a user entity in the shape of its data transfer object.
+     *
+     * @param user the user
+     * @return the UTF-8 encoded JSON object
+     */
+    public byte[] toBytes(User user) {
+        return bytesOf(user, UserFields.ALL);
+    }
+
+    /**
+     * Serializes a user data transfer object.
+     *
+     * @param user the user
+     * @return the UTF-8 encoded JSON object
+     */
+    public byte[] toBytes(UserDto user) {
+        return bytesOf(user, UserFields.ALL);
+    }
+
+    /**
+     * Serializes the requested fields of a user data transfer object.
+     *
+     * @param user   the user
+     * @param fields the fields to write
+     * @return the UTF-8 encoded JSON object
+     */
+    public byte[] toBytes(UserDto user, UserFields fields) {
+        return bytesOf(user, fields);
+    }
+
+    /**
+     * Writes users as a JSON array. The stream is flushed but not closed.
+     *
+     * @param users the users, entities or data transfer objects
+     * @param out   the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeArray(Iterable<?> users, OutputStream out) throws IOException {
+        writeArray(users, UserFields.ALL, out);
+    }
+
+    /**
+     * Writes the requested fields of users as a JSON array. The stream is flushed but not closed.
+     *
+     * @param users  the users, entities or data transfer objects
+     * @param fields the fields to write
+     * @param out    the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeArray(Iterable<?> users, UserFields fields, OutputStream out) throws IOException {
+        Output output = new Output(out, BUFFER_SIZE);
+        output.write('[');
+        boolean first = true;
+        for (Object user : users) {
+            if (!first) {
+                output.write(',');
+            }
+            first = false;
+            writeUser(output, user, fields);
+        }
+        output.write(']');
+        output.flush();
+    }
+
+    /**
+     * Writes users as newline-delimited JSON, one user per line. The stream is flushed but not closed.
+     *
+     * @param users the users
+     * @param out   the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeLines(Iterator<UserDto> users, OutputStream out) throws IOException {
+        writeLines(users, UserFields.ALL, out);
+    }
+
+    /**
+     * Writes the requested fields of users as newline-delimited JSON, one user per line. The stream is flushed
+     * but not closed.
+     *
+     * @param users  the users
+     * @param fields the fields to write
+     * @param out    the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeLines(Iterator<UserDto> users, UserFields fields, OutputStream out) throws IOException {
+        Output output = new Output(out, BUFFER_SIZE);
+        while (users.hasNext()) {
+            writeUser(output, users.next(), fields);
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    /**
+     * Writes a single user. The stream is flushed but not closed.
+     *
+     * @param user the user, an entity or a data transfer object
+     * @param out  the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(Object user, OutputStream out) throws IOException {
+        Output output = new Output(out, BUFFER_SIZE);
+        writeUser(output, user, UserFields.ALL);
+        output.flush();
+    }
+
+    /**
+     * Reads a user data transfer object.
+     *
+     * @param json the UTF-8 encoded JSON object
+     * @return the user
+     * @throws IllegalArgumentException if the input is not a JSON object or a field has a value of the wrong type
+     */
+    public UserDto read(byte[] json) {
+        return new Input(json).readUser();
+    }
+
+    private byte[] bytesOf(Object user, UserFields fields) {
+        Output output = new Output(null, OBJECT_SIZE);
+        try {
+            writeUser(output, user, fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize user", e);
+        }
+        return output.toBytes();
+    }
+
+    private void writeUser(Output output, Object user, UserFields fields) throws IOException {
+        if (user instanceof User entity) {
+            writeFields(output, fields, entity.getId(), entity.getEmail(), entity.getFirstName(),
+                    entity.getLastName(), entity.getBirthDate(), entity.getAddress(), entity.getPhoneNumber());
+        } else if (user instanceof UserDto dto) {
+            writeFields(output, fields, dto.getId(), dto.getEmail(), dto.getFirstName(), dto.getLastName(),
+                    dto.getBirthDate(), dto.getAddress(), dto.getPhoneNumber());
+        } else if (user == null) {
+            output.write(NULL);
+        } else {
+            throw new IllegalArgumentException("Not a user: " + user.getClass().getName());
+        }
+    }
+
+    private void writeFields(Output output, UserFields fields, Long id, String email, String firstName,
+                             String lastName, LocalDate birthDate, String address, String phoneNumber)
+            throws IOException {
+        if (!fields.isAll()) {
+            writeSparseFields(output, fields, id, email, firstName, lastName, birthDate, address, phoneNumber);
+            return;
+        }
+        output.write(ID);
+        output.writeId(id);
+        output.write(EMAIL);
+        output.writeString(email);
+        output.write(FIRST_NAME);
+        output.writeString(firstName);
+        output.write(LAST_NAME);
+        output.writeString(lastName);
+        output.write(BIRTH_DATE);
+        output.writeDate(birthDate);
+        output.write(ADDRESS);
+        output.writeString(address);
+        output.write(PHONE_NUMBER);
+        output.writeString(phoneNumber);
+        output.write('}');
+    }
+
+    private void writeSparseFields(Output output, UserFields fields, Long id, String email, String firstName,
+                                   String lastName, LocalDate birthDate, String address, String phoneNumber)
+            throws IOException {
+        int separator = '{';
+        for (UserField field : FIELDS) {
+            if (fields.contains(field)) {
+                output.write(separator);
+                output.write(NAMES[field.ordinal()]);
+                switch (field) {
+                    case ID -> output.writeId(id);
+                    case EMAIL -> output.writeString(email);
+                    case FIRST_NAME -> output.writeString(firstName);
+                    case LAST_NAME -> output.writeString(lastName);
+                    case BIRTH_DATE -> output.writeDate(birthDate);
+                    case ADDRESS -> output.writeString(address);
+                    default -> output.writeString(phoneNumber); // PHONE_NUMBER, the last field
+                }
+                separator = ',';
+            }
+        }
+        if (separator == OBJECT_START) {
+            output.write('{');
+        }
+        output.write('}');
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Byte buffer that is either flushed to a stream when full or grown to hold the whole output.
+     */
+    private static final class Output {
+        private final OutputStream out;
+        private byte[] buffer;
+        private int position;
+
+        private Output(OutputStream out, int size) {
+            this.out = out;
+            this.buffer = new byte[size];
+        }
+
+        private void write(int b) throws IOException {
+            ensure(1);
+            buffer[position++] = (byte) b;
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void writeId(Long id) throws IOException {
+            if (id == null) {
+                write(NULL);
+            } else {
+                writeLong(id);
+            }
+        }
+
+        private void writeLong(long value) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                write(ascii(Long.toString(value)));
+                return;
+            }
+            ensure(20);
+            long rest = value;
+            if (rest < 0) {
+                buffer[position++] = '-';
+                rest = -rest;
+            }
+            int end = position + digits(rest);
+            int index = end;
+            do {
+                buffer[--index] = (byte) ('0' + rest % 10);
+                rest /= 10;
+            } while (rest != 0);
+            position = end;
+        }
+
+        private void writeDate(LocalDate date) throws IOException {
+            if (date == null) {
+                write(NULL);
+            } else if (date.getYear() >= 0 && date.getYear() <= MAX_CACHED_YEAR) {
+                ensure(YEAR_BYTES + MONTH_DAY_BYTES);
+                System.arraycopy(YEARS, date.getYear() * YEAR_BYTES, buffer, position, YEAR_BYTES);
+                position += YEAR_BYTES;
+                int monthDay = (date.getMonthValue() * 32 + date.getDayOfMonth()) * MONTH_DAY_BYTES;
+                System.arraycopy(MONTH_DAYS, monthDay, buffer, position, MONTH_DAY_BYTES);
+                position += MONTH_DAY_BYTES;
+            } else {
+                writeString(date.toString());
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                write(NULL);
+                return;
+            }
+            int length = value.length();
+            ensure(2 + length * MAX_CHAR_BYTES);
+            byte[] bytes = buffer;
+            int pos = position;
+            bytes[pos++] = '"';
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < ONE_BYTE_LIMIT) {
+                    byte escape = ESCAPES[c];
+                    if (escape == 0) {
+                        bytes[pos++] = (byte) c;
+                    } else {
+                        bytes[pos++] = '\\';
+                        bytes[pos++] = escape;
+                        if (escape == UNICODE_ESCAPE) {
+                            bytes[pos++] = '0';
+                            bytes[pos++] = '0';
+                            bytes[pos++] = HEX[c >> 4];
+                            bytes[pos++] = HEX[c & 0xF];
+                        }
+                    }
+                } else if (c < TWO_BYTE_LIMIT) {
+                    bytes[pos++] = (byte) (0xC0 | c >> 6);
+                    bytes[pos++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    // Jackson escapes every surrogate on its own, paired or not, instead of encoding code points
+                    bytes[pos++] = '\\';
+                    bytes[pos++] = 'u';
+                    bytes[pos++] = HEX[c >> 12];
+                    bytes[pos++] = HEX[c >> 8 & 0xF];
+                    bytes[pos++] = HEX[c >> 4 & 0xF];
+                    bytes[pos++] = HEX[c & 0xF];
+                } else {
+                    bytes[pos++] = (byte) (0xE0 | c >> 12);
+                    bytes[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[pos++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            bytes[pos++] = '"';
+            position = pos;
+        }
+
+        /**
+         * Makes room for the given number of bytes, by flushing the buffer to the stream or by growing it.
+         */
+        private void ensure(int size) throws IOException {
+            if (position + size <= buffer.length) {
+                return;
+            }
+            if (out != null) {
+                flushBuffer();
+            }
+            if (position + size > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + size));
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+
+        private void flush() throws IOException {
+            flushBuffer();
+            out.flush();
+        }
+
+        private byte[] toBytes() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private static int digits(long value) {
+            int digits = 1;
+            for (long bound = 10; digits < 19 && value >= bound; bound *= 10) {
+                digits++;
+            }
+            return digits;
+        }
+    }
+
+    /**
+     * Parser of a single user object. Keys are compared as decoded strings, since escapes may appear in them.
+     */
+    private static final class Input {
+        private final byte[] json;
+        private int position;
+
+        private Input(byte[] json) {
+            this.json = json;
+        }
+
+        private UserDto readUser() {
+            skipWhitespace();
+            expect('{');
+            UserDto user = new UserDto();
+            skipWhitespace();
+            if (peek() == OBJECT_END) {
+                position++;
+                return user;
+            }
+            do {
+                skipWhitespace();
+                readField(user, readName());
+                skipWhitespace();
+            } while (next() == ',');
+            position--;
+            expect('}');
+            return user;
+        }
+
+        private String readName() {
+            String name = readString();
+            skipNameSeparator();
+            return name;
+        }
+
+        private void skipNameSeparator() {
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+        }
+
+        private void readField(UserDto user, String name) {
+            switch (name) {
+                case "id" -> user.setId(readLong());
+                case "email" -> user.setEmail(readText());
+                case "firstName" -> user.setFirstName(readText());
+                case "lastName" -> user.setLastName(readText());
+                case "birthDate" -> user.setBirthDate(readDate());
+                case "address" -> user.setAddress(readText());
+                case "phoneNumber" -> user.setPhoneNumber(readText());
+                default -> skipValue();
+            }
+        }
+
+        private Long readLong() {
+            if (readNull()) {
+                return null;
+            }
+            if (peek() == QUOTE) {
+                try {
+                    return Long.parseLong(readString());
+                } catch (NumberFormatException e) {
+                    throw error("Expected an integer");
+                }
+            }
+            int start = position;
+            if (peek() == MINUS) {
+                position++;
+            }
+            while (position < json.length && json[position] >= '0' && json[position] <= '9') {
+                position++;
+            }
+            try {
+                return Long.parseLong(new String(json, start, position - start, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw error("Expected an integer");
+            }
+        }
+
+        private String readText() {
+            if (readNull()) {
+                return null;
+            }
+            if (peek() == QUOTE) {
+                return readString();
+            }
+            int start = position;
+            skipScalar();
+            return new String(json, start, position - start, StandardCharsets.US_ASCII);
+        }
+
+        private LocalDate readDate() {
+            String text = readNull() ? null : readString();
+            if (text == null || text.isBlank()) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(text);
+            } catch (DateTimeParseException e) {
+                throw error("Expected an ISO date");
+            }
+        }
+
+        private boolean readNull() {
+            if (position + NULL.length <= json.length && json[position] == 'n') {
+                for (int i = 0; i < NULL.length; i++) {
+                    if (json[position + i] != NULL[i]) {
+                        throw error("Expected null");
+                    }
+                }
+                position += NULL.length;
+                return true;
+            }
+            return false;
+        }
+
+        private String readString() {
+            expect('"');
+            int start = position;
+            while (position < json.length && json[position] != '"' && json[position] != '\\') {
+                if ((json[position] & BYTE_MASK) < FIRST_PRINTABLE) {
+                    throw error("Unescaped control character");
+                }
+                position++;
+            }
+            if (peek() == QUOTE) {
+                return new String(json, start, position++ - start, StandardCharsets.UTF_8);
+            }
+            StringBuilder text = new StringBuilder(new String(json, start, position - start, StandardCharsets.UTF_8));
+            while (true) {
+                int segment = position;
+                while (position < json.length && json[position] != '"' && json[position] != '\\') {
+                    if ((json[position] & BYTE_MASK) < FIRST_PRINTABLE) {
+                        throw error("Unescaped control character");
+                    }
+                    position++;
+                }
+                text.append(new String(json, segment, position - segment, StandardCharsets.UTF_8));
+                if (next() == QUOTE) {
+                    return text.toString();
+                }
+                text.append(readEscape());
+            }
+        }
+
+        private char readEscape() {
+            byte escape = next();
+            return switch (escape) {
+                case '"', '\\', '/' -> (char) escape;
+                case 'b' -> '\b';
+                case 'f' -> '\f';
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                case 't' -> '\t';
+                case 'u' -> {
+                    if (position + 4 > json.length) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        String hex = new String(json, position, 4, StandardCharsets.US_ASCII);
+                        position += 4;
+                        yield (char) Integer.parseInt(hex, 16);
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                }
+                default -> throw error("Invalid escape");
+            };
+        }
+
+        private void skipValue() {
+            byte b = peek();
+            if (b == QUOTE) {
+                readString();
+            } else if (b == '{' || b == '[') {
+                skipContainer();
+            } else if (!readNull()) {
+                skipScalar();
+            }
+        }
+
+        private void skipContainer() {
+            int depth = 0;
+            do {
+                byte b = next();
+                if (b == QUOTE) {
+                    position--;
+                    readString();
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        }
+
+        private void skipScalar() {
+            int start = position;
+            while (position < json.length) {
+                byte b = json[position];
+                if (b == '-' || b == '+' || b == '.' || b >= '0' && b <= '9' || b >= 'a' && b <= 'z'
+                        || b == 'E') {
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            if (position == start) {
+                throw error("Unexpected character");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length && (json[position] == ' ' || json[position] == '\n'
+                    || json[position] == '\r' || json[position] == '\t')) {
+                position++;
+            }
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                position--;
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        private byte peek() {
+            if (position >= json.length) {
+                throw error("Unexpected end of input");
+            }
+            return json[position];
+        }
+
+        private byte next() {
+            byte b = peek();
+            position++;
+            return b;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at offset " + position + " of user JSON");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.clearsolutions.codec;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.User;
+
+/**
+ * Reads and writes users as JSON with the {@link UserJsonCodec} instead of Jackson. Being a converter bean,
+ * it is registered in front of the default converters of the servlet stack, so it takes request bodies of
+ * {@link UserDto} and responses declared as a {@link UserDto}, a {@link User} or a collection of either, or
+ * declared as any object and holding a user; every other type is left to Jackson.
+ */
+@Component
+public class UserJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    private final UserJsonCodec userJsonCodec;
+
+    public UserJsonHttpMessageConverter(UserJsonCodec userJsonCodec) {
+        super(MediaType.APPLICATION_JSON);
+        this.userJsonCodec = userJsonCodec;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return UserDto.class == clazz || User.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return UserDto.class == clazz && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return UserDto.class == type && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (type == null || Object.class == type) {
+            return canWrite(clazz, mediaType);
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve(Object.class);
+        if (Collection.class.isAssignableFrom(raw)) {
+            raw = resolved.asCollection().resolveGeneric(0);
+        }
+        return raw != null && supports(raw) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(UserDto.class, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return userJsonCodec.read(inputMessage.getBody().readAllBytes());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof Iterable<?> users) {
+            userJsonCodec.writeArray(users, outputMessage.getBody());
+        } else {
+            userJsonCodec.write(body, outputMessage.getBody());
+        }
+    }
+}
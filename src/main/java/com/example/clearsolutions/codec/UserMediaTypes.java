@@ -0,0 +1,20 @@
+package com.example.clearsolutions.codec;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Media types of the binary formats that users can be exchanged in besides JSON. Smile and CBOR are binary
+ * encodings of the JSON shape of the data transfer objects, written by Jackson; Protocol Buffers messages are
+ * declared in {@code proto/users.proto} and written by the {@link UserProtobufCodec}.
+ */
+public final class UserMediaTypes {
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    public static final String CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+    public static final String PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType SMILE = MediaType.valueOf(SMILE_VALUE);
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    public static final MediaType PROTOBUF = MediaType.valueOf(PROTOBUF_VALUE);
+
+    private UserMediaTypes() {
+    }
+}
@@ -0,0 +1,594 @@
+package com.example.clearsolutions.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.dto.BatchOperationType;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
+import com.example.clearsolutions.dto.UserBatchResultDto;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.User;
+
+/**
+ * Protocol Buffers codec of users and user batches, written by hand for the messages declared in
+ * {@code proto/users.proto} instead of being generated, so that neither the protobuf runtime nor a code
+ * generation step is needed. Messages are written in field number order, with missing fields left out, and
+ * birth dates as days since 1970-01-01. A message is sized before it is written, so nested users are written
+ * straight to the output without being buffered first.
+ *
+ * <p>A list of users is a {@code UserList}, whose repeated field is encoded as one length-prefixed user after
+ * the other, so it is written user by user and can be read by a client the same way. Reading skips unknown
+ * fields and fields of an unexpected wire type, as generated parsers do, and takes an unknown batch operation
+ * as a missing one.
+ *
+ * <p>Strings are encoded as UTF-8 the way {@link String#getBytes} encodes them, which is lossy for a string
+ * with an unpaired surrogate: a protobuf string must be valid UTF-8, so such a surrogate is written as
+ * {@code ?} and reads back as {@code ?} instead of the original character.
+ */
+@Component
+public class UserProtobufCodec {
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+    private static final int ELEMENT_TAG = 1 << 3 | LENGTH_DELIMITED;
+    private static final int ID_TAG = 1 << 3 | VARINT;
+    private static final int EMAIL_TAG = 2 << 3 | LENGTH_DELIMITED;
+    private static final int FIRST_NAME_TAG = 3 << 3 | LENGTH_DELIMITED;
+    private static final int LAST_NAME_TAG = 4 << 3 | LENGTH_DELIMITED;
+    private static final int BIRTH_DATE_TAG = 5 << 3 | VARINT;
+    private static final int ADDRESS_TAG = 6 << 3 | LENGTH_DELIMITED;
+    private static final int PHONE_NUMBER_TAG = 7 << 3 | LENGTH_DELIMITED;
+    private static final int OPERATION_TYPE_TAG = 1 << 3 | VARINT;
+    private static final int OPERATION_ID_TAG = 2 << 3 | VARINT;
+    private static final int OPERATION_USER_TAG = 3 << 3 | LENGTH_DELIMITED;
+    private static final int RESULT_INDEX_TAG = 1 << 3 | VARINT;
+    private static final int RESULT_STATUS_TAG = 2 << 3 | VARINT;
+    private static final int RESULT_ID_TAG = 3 << 3 | VARINT;
+    private static final int RESULT_USER_TAG = 4 << 3 | LENGTH_DELIMITED;
+    private static final int RESULT_ERROR_TAG = 5 << 3 | LENGTH_DELIMITED;
+    private static final BatchOperationType[] OPERATION_TYPES = BatchOperationType.values();
+    private static final int BUFFER_SIZE = 8192;
+    private static final int OBJECT_SIZE = 128;
+    private static final int MAX_VARINT_BYTES = 10;
+    private static final int ONE_BYTE_LIMIT = 0x80;
+    private static final int TWO_BYTE_LIMIT = 0x800;
+
+    /**
+     * Serializes a user data transfer object as a {@code User} message.
+     *
+     * @param user the user
+     * @return the encoded message
+     */
+    public byte[] toBytes(UserDto user) {
+        Output output = new Output(null, OBJECT_SIZE);
+        try {
+            writeUserFields(output, user);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize user", e);
+        }
+        return output.toBytes();
+    }
+
+    /**
+     * Writes a single user as a {@code User} message. The stream is flushed but not closed.
+     *
+     * @param user the user, an entity or a data transfer object
+     * @param out  the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(Object user, OutputStream out) throws IOException {
+        Output output = new Output(out, BUFFER_SIZE);
+        writeUserFields(output, user);
+        output.flush();
+    }
+
+    /**
+     * Writes users as a {@code UserList} message, one user at a time. The stream is flushed but not closed.
+     *
+     * @param users the users, entities or data transfer objects
+     * @param out   the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeUsers(Iterator<?> users, OutputStream out) throws IOException {
+        Output output = new Output(out, BUFFER_SIZE);
+        while (users.hasNext()) {
+            writeUser(output, ELEMENT_TAG, users.next());
+        }
+        output.flush();
+    }
+
+    /**
+     * Writes batch operations as a {@code BatchOperationList} message. The stream is flushed but not closed.
+     *
+     * @param operations the operations
+     * @param out        the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeBatchOperations(Iterable<UserBatchOperationDto> operations, OutputStream out)
+            throws IOException {
+        Output output = new Output(out, BUFFER_SIZE);
+        for (UserBatchOperationDto operation : operations) {
+            output.writeTag(ELEMENT_TAG);
+            output.writeVarint(operationSize(operation));
+            if (operation.getOperation() != null) {
+                output.writeTag(OPERATION_TYPE_TAG);
+                output.writeVarint(operation.getOperation().ordinal() + 1);
+            }
+            writeId(output, OPERATION_ID_TAG, operation.getId());
+            writeUser(output, OPERATION_USER_TAG, operation.getUser());
+        }
+        output.flush();
+    }
+
+    /**
+     * Writes batch results as a {@code BatchResultList} message. The stream is flushed but not closed.
+     *
+     * @param results the results
+     * @param out     the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeBatchResults(Iterable<UserBatchResultDto> results, OutputStream out) throws IOException {
+        Output output = new Output(out, BUFFER_SIZE);
+        for (UserBatchResultDto result : results) {
+            output.writeTag(ELEMENT_TAG);
+            output.writeVarint(resultSize(result));
+            writeInt(output, RESULT_INDEX_TAG, result.getIndex());
+            writeInt(output, RESULT_STATUS_TAG, result.getStatus());
+            writeId(output, RESULT_ID_TAG, result.getId());
+            writeUser(output, RESULT_USER_TAG, result.getUser());
+            writeString(output, RESULT_ERROR_TAG, result.getError());
+        }
+        output.flush();
+    }
+
+    /**
+     * Reads a {@code User} message.
+     *
+     * @param message the encoded message
+     * @return the user
+     * @throws IllegalArgumentException if the message is truncated or malformed
+     */
+    public UserDto read(byte[] message) {
+        Input input = new Input(message);
+        return input.readUser(message.length);
+    }
+
+    /**
+     * Reads a {@code UserList} message.
+     *
+     * @param message the encoded message
+     * @return the users
+     * @throws IllegalArgumentException if the message is truncated or malformed
+     */
+    public List<UserDto> readUsers(byte[] message) {
+        Input input = new Input(message);
+        List<UserDto> users = new ArrayList<>();
+        while (input.hasMore(message.length)) {
+            int tag = input.readTag();
+            if (tag == ELEMENT_TAG) {
+                users.add(input.readUser(input.readLimit(message.length)));
+            } else {
+                input.skip(tag, message.length);
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Reads a {@code BatchOperationList} message.
+     *
+     * @param message the encoded message
+     * @return the operations, in order
+     * @throws IllegalArgumentException if the message is truncated or malformed
+     */
+    public List<UserBatchOperationDto> readBatchOperations(byte[] message) {
+        Input input = new Input(message);
+        List<UserBatchOperationDto> operations = new ArrayList<>();
+        while (input.hasMore(message.length)) {
+            int tag = input.readTag();
+            if (tag == ELEMENT_TAG) {
+                operations.add(input.readOperation(input.readLimit(message.length)));
+            } else {
+                input.skip(tag, message.length);
+            }
+        }
+        return operations;
+    }
+
+    /**
+     * Reads a {@code BatchResultList} message.
+     *
+     * @param message the encoded message
+     * @return the results, in order
+     * @throws IllegalArgumentException if the message is truncated or malformed
+     */
+    public List<UserBatchResultDto> readBatchResults(byte[] message) {
+        Input input = new Input(message);
+        List<UserBatchResultDto> results = new ArrayList<>();
+        while (input.hasMore(message.length)) {
+            int tag = input.readTag();
+            if (tag == ELEMENT_TAG) {
+                results.add(input.readResult(input.readLimit(message.length)));
+            } else {
+                input.skip(tag, message.length);
+            }
+        }
+        return results;
+    }
+
+    private static void writeUser(Output output, int tag, Object user) throws IOException {
+        if (user == null) {
+            return;
+        }
+        output.writeTag(tag);
+        output.writeVarint(userSize(user));
+        writeUserFields(output, user);
+    }
+
+    private static void writeUserFields(Output output, Object user) throws IOException {
+        if (user instanceof User entity) {
+            writeUserFields(output, entity.getId(), entity.getEmail(), entity.getFirstName(), entity.getLastName(),
+                    entity.getBirthDate(), entity.getAddress(), entity.getPhoneNumber());
+        } else if (user instanceof UserDto dto) {
+            writeUserFields(output, dto.getId(), dto.getEmail(), dto.getFirstName(), dto.getLastName(),
+                    dto.getBirthDate(), dto.getAddress(), dto.getPhoneNumber());
+        } else {
+            throw new IllegalArgumentException("Not a user: " + user);
+        }
+    }
+
+    private static void writeUserFields(Output output, Long id, String email, String firstName, String lastName,
+                                        LocalDate birthDate, String address, String phoneNumber)
+            throws IOException {
+        writeId(output, ID_TAG, id);
+        writeString(output, EMAIL_TAG, email);
+        writeString(output, FIRST_NAME_TAG, firstName);
+        writeString(output, LAST_NAME_TAG, lastName);
+        if (birthDate != null) {
+            output.writeTag(BIRTH_DATE_TAG);
+            output.writeVarint(zigZag(birthDate.toEpochDay()));
+        }
+        writeString(output, ADDRESS_TAG, address);
+        writeString(output, PHONE_NUMBER_TAG, phoneNumber);
+    }
+
+    private static void writeId(Output output, int tag, Long id) throws IOException {
+        if (id != null) {
+            output.writeTag(tag);
+            output.writeVarint(id);
+        }
+    }
+
+    private static void writeInt(Output output, int tag, int value) throws IOException {
+        if (value != 0) {
+            output.writeTag(tag);
+            output.writeVarint(value);
+        }
+    }
+
+    private static void writeString(Output output, int tag, String value) throws IOException {
+        if (value != null) {
+            output.writeTag(tag);
+            output.writeVarint(utf8Length(value));
+            output.writeUtf8(value);
+        }
+    }
+
+    private static int userSize(Object user) {
+        if (user instanceof User entity) {
+            return userSize(entity.getId(), entity.getEmail(), entity.getFirstName(), entity.getLastName(),
+                    entity.getBirthDate(), entity.getAddress(), entity.getPhoneNumber());
+        }
+        if (user instanceof UserDto dto) {
+            return userSize(dto.getId(), dto.getEmail(), dto.getFirstName(), dto.getLastName(), dto.getBirthDate(),
+                    dto.getAddress(), dto.getPhoneNumber());
+        }
+        throw new IllegalArgumentException("Not a user: " + user);
+    }
+
+    private static int userSize(Long id, String email, String firstName, String lastName, LocalDate birthDate,
+                                String address, String phoneNumber) {
+        return idSize(id) + stringSize(email) + stringSize(firstName) + stringSize(lastName)
+                + (birthDate == null ? 0 : 1 + varintSize(zigZag(birthDate.toEpochDay())))
+                + stringSize(address) + stringSize(phoneNumber);
+    }
+
+    private static int operationSize(UserBatchOperationDto operation) {
+        return (operation.getOperation() == null ? 0 : 1 + varintSize(operation.getOperation().ordinal() + 1))
+                + idSize(operation.getId()) + nestedUserSize(operation.getUser());
+    }
+
+    private static int resultSize(UserBatchResultDto result) {
+        return intSize(result.getIndex()) + intSize(result.getStatus()) + idSize(result.getId())
+                + nestedUserSize(result.getUser()) + stringSize(result.getError());
+    }
+
+    private static int nestedUserSize(UserDto user) {
+        if (user == null) {
+            return 0;
+        }
+        int size = userSize(user);
+        return 1 + varintSize(size) + size;
+    }
+
+    private static int idSize(Long id) {
+        return id == null ? 0 : 1 + varintSize(id);
+    }
+
+    private static int intSize(int value) {
+        return value == 0 ? 0 : 1 + varintSize(value);
+    }
+
+    private static int stringSize(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = utf8Length(value);
+        return 1 + varintSize(length) + length;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        for (long rest = value >>> 7; rest != 0; rest >>>= 7) {
+            size++;
+        }
+        return size;
+    }
+
+    private static long zigZag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    /**
+     * Counts the UTF-8 bytes of a string as {@link String#getBytes} encodes it, with a lone surrogate replaced
+     * by a single {@code ?}, which loses the surrogate.
+     */
+    private static int utf8Length(String value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= TWO_BYTE_LIMIT) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    length += 2;
+                }
+            } else if (c >= ONE_BYTE_LIMIT) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Buffered output of encoded messages, flushed to a stream when full, or grown when there is no stream.
+     */
+    private static final class Output {
+        private final OutputStream out;
+        private byte[] buffer;
+        private int position;
+
+        private Output(OutputStream out, int size) {
+            this.out = out;
+            this.buffer = new byte[size];
+        }
+
+        private void writeTag(int tag) throws IOException {
+            ensure(1);
+            buffer[position++] = (byte) tag;
+        }
+
+        private void writeVarint(long value) throws IOException {
+            ensure(MAX_VARINT_BYTES);
+            long rest = value;
+            while ((rest & ~0x7FL) != 0) {
+                buffer[position++] = (byte) (rest & 0x7F | 0x80);
+                rest >>>= 7;
+            }
+            buffer[position++] = (byte) rest;
+        }
+
+        private void writeUtf8(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                ensure(4);
+                char c = value.charAt(i);
+                if (c < ONE_BYTE_LIMIT) {
+                    buffer[position++] = (byte) c;
+                } else if (c < TWO_BYTE_LIMIT) {
+                    buffer[position++] = (byte) (0xC0 | c >> 6);
+                    buffer[position++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                    buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    buffer[position++] = '?';
+                } else {
+                    buffer[position++] = (byte) (0xE0 | c >> 12);
+                    buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    buffer[position++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (position + bytes <= buffer.length) {
+                return;
+            }
+            if (out == null) {
+                byte[] grown = new byte[Math.max(buffer.length * 2, position + bytes)];
+                System.arraycopy(buffer, 0, grown, 0, position);
+                buffer = grown;
+            } else {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+            out.flush();
+        }
+
+        private byte[] toBytes() {
+            byte[] bytes = new byte[position];
+            System.arraycopy(buffer, 0, bytes, 0, position);
+            return bytes;
+        }
+    }
+
+    /**
+     * Reader of encoded messages. Every nested message is read up to its own limit.
+     */
+    private static final class Input {
+        private final byte[] bytes;
+        private int position;
+
+        private Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private UserDto readUser(int limit) {
+            UserDto user = new UserDto();
+            while (hasMore(limit)) {
+                int tag = readTag();
+                switch (tag) {
+                    case ID_TAG -> user.setId(readVarint(limit));
+                    case EMAIL_TAG -> user.setEmail(readString(limit));
+                    case FIRST_NAME_TAG -> user.setFirstName(readString(limit));
+                    case LAST_NAME_TAG -> user.setLastName(readString(limit));
+                    case BIRTH_DATE_TAG -> user.setBirthDate(readDate(limit));
+                    case ADDRESS_TAG -> user.setAddress(readString(limit));
+                    case PHONE_NUMBER_TAG -> user.setPhoneNumber(readString(limit));
+                    default -> skip(tag, limit);
+                }
+            }
+            return user;
+        }
+
+        private UserBatchOperationDto readOperation(int limit) {
+            UserBatchOperationDto operation = new UserBatchOperationDto();
+            while (hasMore(limit)) {
+                int tag = readTag();
+                switch (tag) {
+                    case OPERATION_TYPE_TAG -> operation.setOperation(operationType(readVarint(limit)));
+                    case OPERATION_ID_TAG -> operation.setId(readVarint(limit));
+                    case OPERATION_USER_TAG -> operation.setUser(readUser(readLimit(limit)));
+                    default -> skip(tag, limit);
+                }
+            }
+            return operation;
+        }
+
+        private UserBatchResultDto readResult(int limit) {
+            UserBatchResultDto result = new UserBatchResultDto();
+            while (hasMore(limit)) {
+                int tag = readTag();
+                switch (tag) {
+                    case RESULT_INDEX_TAG -> result.setIndex((int) readVarint(limit));
+                    case RESULT_STATUS_TAG -> result.setStatus((int) readVarint(limit));
+                    case RESULT_ID_TAG -> result.setId(readVarint(limit));
+                    case RESULT_USER_TAG -> result.setUser(readUser(readLimit(limit)));
+                    case RESULT_ERROR_TAG -> result.setError(readString(limit));
+                    default -> skip(tag, limit);
+                }
+            }
+            return result;
+        }
+
+        private boolean hasMore(int limit) {
+            if (position > limit) {
+                throw new IllegalArgumentException("Nested message overruns its parent");
+            }
+            return position < limit;
+        }
+
+        private int readTag() {
+            long tag = readVarint(bytes.length);
+            if (tag >>> 3 == 0 || tag > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid field tag " + tag);
+            }
+            return (int) tag;
+        }
+
+        private long readVarint(int limit) {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= limit) {
+                    throw new IllegalArgumentException("Truncated message");
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        /**
+         * Reads the length of a length-delimited field and returns the position at which the field ends.
+         */
+        private int readLimit(int limit) {
+            long length = readVarint(limit);
+            if (length > limit - position) {
+                throw new IllegalArgumentException("Truncated message");
+            }
+            return position + (int) length;
+        }
+
+        private String readString(int limit) {
+            int end = readLimit(limit);
+            String value = new String(bytes, position, end - position, StandardCharsets.UTF_8);
+            position = end;
+            return value;
+        }
+
+        private LocalDate readDate(int limit) {
+            long zigZag = readVarint(limit);
+            long epochDay = zigZag >>> 1 ^ -(zigZag & 1);
+            try {
+                return LocalDate.ofEpochDay(epochDay);
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Birth date out of range: " + epochDay, e);
+            }
+        }
+
+        private void skip(int tag, int limit) {
+            switch (tag & 0x7) {
+                case VARINT -> readVarint(limit);
+                case FIXED64 -> skipBytes(Long.BYTES, limit);
+                case LENGTH_DELIMITED -> position = readLimit(limit);
+                case FIXED32 -> skipBytes(Integer.BYTES, limit);
+                default -> throw new IllegalArgumentException("Unsupported wire type " + (tag & 0x7));
+            }
+        }
+
+        private void skipBytes(int count, int limit) {
+            if (count > limit - position) {
+                throw new IllegalArgumentException("Truncated message");
+            }
+            position += count;
+        }
+
+        private static BatchOperationType operationType(long number) {
+            return number >= 1 && number <= OPERATION_TYPES.length ? OPERATION_TYPES[(int) number - 1] : null;
+        }
+    }
+}
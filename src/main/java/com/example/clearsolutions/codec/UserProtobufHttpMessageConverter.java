@@ -0,0 +1,120 @@
+package com.example.clearsolutions.codec;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.dto.UserBatchOperationDto;
+import com.example.clearsolutions.dto.UserBatchResultDto;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.User;
+
+/**
+ * Reads and writes users and user batches as Protocol Buffers messages with the {@link UserProtobufCodec}.
+ * It takes request bodies of a {@link UserDto} or a list of {@link UserBatchOperationDto}, and responses
+ * declared as a {@link UserDto}, a {@link User}, or a collection of either or of {@link UserBatchResultDto}.
+ * Responses declared as any object are judged by the class of their body.
+ */
+@Component
+public class UserProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+    private final UserProtobufCodec userProtobufCodec;
+
+    public UserProtobufHttpMessageConverter(UserProtobufCodec userProtobufCodec) {
+        super(UserMediaTypes.PROTOBUF);
+        this.userProtobufCodec = userProtobufCodec;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return UserDto.class == clazz || User.class == clazz;
+    }
+
+    /**
+     * Lists the supported media types for collections too, as response bodies are matched against this list by
+     * their class alone; {@link #canWrite(Type, Class, MediaType)} checks their element type.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return UserDto.class == clazz && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        boolean operations = List.class == ResolvableType.forType(type).resolve()
+                && UserBatchOperationDto.class == elementType(type);
+        return (UserDto.class == type || operations) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (type == null || Object.class == type) {
+            return canWrite(clazz, mediaType);
+        }
+        Class<?> raw = ResolvableType.forType(type).resolve(Object.class);
+        Class<?> element = elementType(type);
+        return (supports(raw) || element != null && (supports(element) || UserBatchResultDto.class == element))
+                && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        if (UserDto.class == type) {
+            return readInternal(UserDto.class, inputMessage);
+        }
+        try {
+            return userProtobufCodec.readBatchOperations(inputMessage.getBody().readAllBytes());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Protobuf parse error: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return userProtobufCodec.read(inputMessage.getBody().readAllBytes());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Protobuf parse error: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof Iterable<?> items && UserBatchResultDto.class == elementType(type)) {
+            userProtobufCodec.writeBatchResults((Iterable<UserBatchResultDto>) items, outputMessage.getBody());
+        } else if (body instanceof Iterable<?> users) {
+            userProtobufCodec.writeUsers(users.iterator(), outputMessage.getBody());
+        } else {
+            userProtobufCodec.write(body, outputMessage.getBody());
+        }
+    }
+
+    /**
+     * Resolves the element type of a collection type.
+     *
+     * @param type the type, or {@code null}
+     * @return the element type, or {@code null} if the type is not a collection or its element is unknown
+     */
+    private static Class<?> elementType(Type type) {
+        if (type == null) {
+            return null;
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.resolve(Object.class);
+        return Collection.class.isAssignableFrom(raw) ? resolved.asCollection().resolveGeneric(0) : null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.clearsolutions.controller;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides which requests get their payload logged. Payloads are only logged at debug level,
+ * and then only for the configured share of requests, between 0 (never) and 1 (always).
+ */
+@Component
+class PayloadLogSampler {
+    private final double sampleRate;
+
+    PayloadLogSampler(@Value("${user.log.payload.sample.rate}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Checks whether the payload of the current request should be logged.
+     *
+     * @param log the logger the payload would be written to
+     * @return true if debug logging is enabled and the request is sampled
+     */
+    boolean isSampled(Logger log) {
+        return log.isDebugEnabled() && sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.clearsolutions.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
+
+import com.example.clearsolutions.dto.AgeCountDto;
+import com.example.clearsolutions.dto.BirthDateCountDto;
+import com.example.clearsolutions.dto.BirthDatePeriod;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
+import com.example.clearsolutions.dto.UserBatchResultDto;
+import com.example.clearsolutions.dto.UserCacheStatsDto;
+import com.example.clearsolutions.dto.UserCountDto;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.dto.UserMatchDto;
+import com.example.clearsolutions.dto.VersionedUserDto;
+import com.example.clearsolutions.exceptions.InvalidBatchException;
+import com.example.clearsolutions.service.ReactiveUserService;
+import com.example.clearsolutions.validator.UserDtoValidator;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive controller for managing users, active when the application runs on the reactive web stack
+ * ({@code reactive} profile). It serves the same paths, headers and status codes as {@link UserController},
+ * through the non-blocking {@link ReactiveUserService}. Request validation runs on the calling thread before
+ * any publisher is built, so invalid requests fail exactly as they do on the servlet stack.
+ */
+@Slf4j
+@Tag(name = "Reactive User Controller", description = "Operations pertaining to users")
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("api/v1/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String USER_ID_PATH = "/{id}";
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+
+    private final ReactiveUserService reactiveUserService;
+    private final UserDtoValidator userDtoValidator;
+    private final PayloadLogSampler payloadLogSampler;
+
+    /**
+     * Create a new user.
+     *
+     * @param userDto the user to create
+     * @return the created user
+     */
+    @PostMapping
+    @Operation(summary = "Create a new user")
+    public Mono<ResponseEntity<UserDto>> createUser(@Valid @RequestBody UserDto userDto) {
+        log.info("Received request to create user");
+        logPayload("create user", userDto);
+        userDtoValidator.validateUser(userDto);
+        return reactiveUserService.createUser(userDto)
+                .map(createdUser -> new ResponseEntity<>(createdUser, HttpStatus.CREATED));
+    }
+
+    /**
+     * Get a user by id, from the response cache, tagged with the version of the user. A request with a
+     * matching {@code If-None-Match} gets 304 Not Modified without the user being read or serialized.
+     *
+     * @param id          the id of the user
+     * @param ifNoneMatch the entity tags the client already has
+     * @return the user
+     */
+    @GetMapping(value = USER_ID_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get a user by id")
+    public Mono<ResponseEntity<byte[]>> getUser(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Received request to get user with id: {}", id);
+        return reactiveUserService.getUserVersion(id).flatMap(version -> {
+            String currentTag = UserEntityTags.ofUser(version);
+            if (UserEntityTags.isNotModified(ifNoneMatch, currentTag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentTag).<byte[]>build());
+            }
+            return reactiveUserService.getUser(id).map(user -> ResponseEntity.ok()
+                    .eTag(UserEntityTags.ofUser(user.version()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(user.body()));
+        });
+    }
+
+    /**
+     * Get a user by email, ignoring case, from the unique email index.
+     *
+     * @param email the email of the user
+     * @return the user
+     */
+    @GetMapping(params = "email", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get a user by email")
+    public Mono<ResponseEntity<UserDto>> getUserByEmail(@RequestParam String email) {
+        log.info("Received request to get user by email");
+        return reactiveUserService.getUserByEmail(email).map(this::taggedUser);
+    }
+
+    /**
+     * Get the hit, miss and eviction counters of the user response cache.
+     *
+     * @return the cache statistics
+     */
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Get user response cache statistics")
+    public Mono<UserCacheStatsDto> getCacheStats() {
+        return reactiveUserService.getCacheStats();
+    }
+
+    /**
+     * Count users born within a date range, without reading or serializing any user.
+     *
+     * @param from the start of the birthdate range
+     * @param to   the end of the birthdate range
+     * @return the number of users
+     */
+    @GetMapping(value = "/stats/count", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Count users by birth date range")
+    public Mono<UserCountDto> countUsersByBirthDateRange(@RequestParam LocalDate from, @RequestParam LocalDate to) {
+        log.info("Received request to count users by birth date range from: {}, to: {}", from, to);
+        userDtoValidator.validateDateRange(from, to);
+        return reactiveUserService.countUsersByBirthDateRange(from, to);
+    }
+
+    /**
+     * Count users born within a date range per birth year or month.
+     *
+     * @param from    the start of the birthdate range
+     * @param to      the end of the birthdate range
+     * @param groupBy the length of the periods, {@code YEAR} or {@code MONTH}
+     * @return the number of users per period, including empty periods
+     */
+    @GetMapping(value = "/stats/birth-dates", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Count users per birth year or month")
+    public Mono<List<BirthDateCountDto>> countUsersByBirthPeriod(@RequestParam LocalDate from,
+            @RequestParam LocalDate to, @RequestParam(defaultValue = "YEAR") BirthDatePeriod groupBy) {
+        log.info("Received request to count users per {} from: {}, to: {}", groupBy, from, to);
+        userDtoValidator.validatePeriodRange(from, to, groupBy);
+        return reactiveUserService.countUsersByBirthPeriod(from, to, groupBy);
+    }
+
+    /**
+     * Count users per age bucket as of today.
+     *
+     * @param width  the number of years per bucket
+     * @param maxAge the age at which the last bucket starts
+     * @return the number of users per bucket, youngest first
+     */
+    @GetMapping(value = "/stats/ages", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Count users per age bucket")
+    public Mono<List<AgeCountDto>> getAgeHistogram(@RequestParam(defaultValue = "10") int width,
+            @RequestParam(defaultValue = "100") int maxAge) {
+        log.info("Received request to count users per {} years of age up to {}", width, maxAge);
+        userDtoValidator.validateAgeHistogram(width, maxAge);
+        return reactiveUserService.getAgeHistogram(width, maxAge);
+    }
+
+    /**
+     * Update specific fields of a user, only if it still has the version in {@code If-Match} when one is sent.
+     *
+     * @param id      the id of the user to update
+     * @param userDto the user data to update
+     * @param ifMatch the entity tag of the version the client read
+     * @return the updated user
+     */
+    @PatchMapping(USER_ID_PATH)
+    @Operation(summary = "Update specific fields of a user")
+    public Mono<ResponseEntity<UserDto>> updateUserFields(@PathVariable Long id, @Valid @RequestBody UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("Received request to update user fields for id: {}", id);
+        logPayload("update user fields", userDto);
+        userDtoValidator.validateUser(userDto);
+        return reactiveUserService.updateUserFields(id, userDto, UserEntityTags.expectedVersion(ifMatch))
+                .map(this::taggedUser);
+    }
+
+    /**
+     * Update a user, only if it still has the version in {@code If-Match} when one is sent.
+     *
+     * @param id      the id of the user to update
+     * @param userDto the user data to update
+     * @param ifMatch the entity tag of the version the client read
+     * @return the updated user
+     */
+    @PutMapping(USER_ID_PATH)
+    @Operation(summary = "Update a user")
+    public Mono<ResponseEntity<UserDto>> updateUser(@PathVariable Long id, @Valid @RequestBody UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("Received request to update user with id: {}", id);
+        logPayload("update user", userDto);
+        userDtoValidator.validateUser(userDto);
+        return reactiveUserService.updateUser(id, userDto, UserEntityTags.expectedVersion(ifMatch))
+                .map(this::taggedUser);
+    }
+
+    /**
+     * Delete a user.
+     *
+     * @param id the id of the user to delete
+     * @return no content once the user is deleted
+     */
+    @DeleteMapping(USER_ID_PATH)
+    @Operation(summary = "Delete a user")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id) {
+        log.info("Received request to delete user with id: {}", id);
+        return reactiveUserService.deleteUser(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    /**
+     * Apply a batch of create, update, patch and delete operations given as a JSON array.
+     *
+     * @param operations the operations to apply, in order
+     * @return the result of every operation
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Apply a batch of user operations")
+    public Mono<List<UserBatchResultDto>> applyBatch(@RequestBody List<UserBatchOperationDto> operations) {
+        log.info("Received request to apply batch of {} operations", operations.size());
+        return reactiveUserService.applyBatch(operations, userDtoValidator::checkOperation);
+    }
+
+    /**
+     * Apply a batch of create, update, patch and delete operations given as newline-delimited JSON.
+     * Operations are decoded as the body arrives and applied together once it has been read.
+     *
+     * @param operations the operations, one per line
+     * @return the result of every operation
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Apply a batch of user operations given as newline-delimited JSON")
+    public Mono<List<UserBatchResultDto>> applyNdjsonBatch(@RequestBody Flux<UserBatchOperationDto> operations) {
+        return operations.collectList()
+                .onErrorMap(ServerWebInputException.class,
+                        e -> new InvalidBatchException("Malformed batch: " + e.getReason()))
+                .flatMap(batch -> {
+                    log.info("Received request to apply newline-delimited batch of {} operations", batch.size());
+                    return reactiveUserService.applyBatch(batch, userDtoValidator::checkOperation);
+                });
+    }
+
+    /**
+     * Search users by birthdate range. When a limit or a cursor is given, returns one page of users
+     * in birth date order and the cursor of the next page in the {@value #NEXT_CURSOR_HEADER} header.
+     * Results are tagged with the store version, so a request with a matching {@code If-None-Match}
+     * gets 304 Not Modified without searching.
+     *
+     * @param from        the start of the birthdate range
+     * @param to          the end of the birthdate range
+     * @param limit       the maximum number of users per page
+     * @param after       the cursor returned with the previous page
+     * @param ifNoneMatch the entity tags the client already has
+     * @return the users found
+     */
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Search users by birth date range")
+    public Mono<ResponseEntity<List<UserDto>>> searchUsersByBirthDateRange(
+            @RequestParam LocalDate from, @RequestParam LocalDate to,
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) String after,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Received request to search users by birth date range from: {}, to: {}", from, to);
+        userDtoValidator.validateDateRange(from, to);
+        boolean paged = limit != null || after != null;
+        int pageLimit = limit == null ? DEFAULT_PAGE_LIMIT : limit;
+        if (paged) {
+            userDtoValidator.validatePageLimit(pageLimit);
+        }
+        return reactiveUserService.getStoreVersion().flatMap(storeVersion -> {
+            String currentTag = UserEntityTags.ofSearch(storeVersion);
+            if (UserEntityTags.isNotModified(ifNoneMatch, currentTag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentTag)
+                        .<List<UserDto>>build());
+            }
+            if (!paged) {
+                return reactiveUserService.searchUsersByBirthDateRange(from, to)
+                        .map(users -> ResponseEntity.ok().eTag(currentTag).body(users));
+            }
+            return reactiveUserService.searchUsersByBirthDateRange(from, to, after, pageLimit).map(page -> {
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(currentTag);
+                if (page.getNextCursor() != null) {
+                    response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+                }
+                return response.body(page.getUsers());
+            });
+        });
+    }
+
+    /**
+     * Search users by first name, last name and address, best matches first.
+     *
+     * @param q        the free text query
+     * @param maxEdits the maximum number of typos per word, from 0 to 2; short words allow fewer
+     * @param limit    the maximum number of users to return
+     * @return the best matching users with their scores
+     */
+    @GetMapping(value = "/search", params = "q", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Search users by name and address")
+    public Mono<List<UserMatchDto>> searchUsersByText(@RequestParam String q,
+            @RequestParam(defaultValue = "2") int maxEdits,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.info("Received request to search users by text");
+        userDtoValidator.validateTextQuery(q, maxEdits);
+        userDtoValidator.validatePageLimit(limit);
+        return reactiveUserService.searchUsersByText(q, maxEdits, limit);
+    }
+
+    /**
+     * Stream users by birthdate range as newline-delimited JSON. Each user is read from the index only when
+     * the connection can take more, so a slow client slows the read down instead of filling the heap.
+     *
+     * @param from  the start of the birthdate range
+     * @param to    the end of the birthdate range
+     * @param after the cursor to continue after
+     * @return the streamed users
+     */
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream users by birth date range as newline-delimited JSON")
+    public Flux<UserDto> streamUsersByBirthDateRange(@RequestParam LocalDate from, @RequestParam LocalDate to,
+            @RequestParam(required = false) String after) {
+        log.info("Received request to stream users by birth date range from: {}, to: {}", from, to);
+        userDtoValidator.validateDateRange(from, to);
+        return reactiveUserService.streamUsersByBirthDateRange(from, to, after);
+    }
+
+    /**
+     * Builds the response of a single user, tagged with its version.
+     *
+     * @param user the user and its version
+     * @return the response
+     */
+    private ResponseEntity<UserDto> taggedUser(VersionedUserDto user) {
+        return ResponseEntity.ok()
+                .eTag(UserEntityTags.ofUser(user.getVersion()))
+                .body(user.getUser());
+    }
+
+    /**
+     * Logs the payload of a request at debug level, for the sampled share of requests only.
+     *
+     * @param operation the requested operation
+     * @param payload   the request payload
+     */
+    private void logPayload(String operation, Object payload) {
+        if (payloadLogSampler.isSampled(log)) {
+            log.debug("Payload of request to {}: {}", operation, payload);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.clearsolutions.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.clearsolutions.dto.UserImportResultDto;
+import com.example.clearsolutions.transfer.UserBulkExporter;
+import com.example.clearsolutions.transfer.UserBulkImporter;
+import com.example.clearsolutions.transfer.UserTransferFormat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controller for importing and exporting all users at once as CSV or newline-delimited JSON files.
+ */
+@Slf4j
+@Tag(name = "User Bulk Controller", description = "Operations pertaining to bulk import and export of users")
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("api/v1/users/bulk")
+@RequiredArgsConstructor
+public class UserBulkController {
+    private static final String RESPONSE_CODE_200 = "200";
+    private static final String RESPONSE_CODE_400 = "400";
+    private static final String RESPONSE_CODE_500 = "500";
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+    private static final String USERS_IMPORTED = "Users imported, see rejected records";
+    private static final String INVALID_IMPORT_INPUT = "Invalid import input";
+    private static final String USERS_EXPORTED_SUCCESSFULLY = "Users exported successfully";
+    private static final String INTERNAL_SERVER_ERROR = "Internal server error";
+
+    private final UserBulkImporter userBulkImporter;
+    private final UserBulkExporter userBulkExporter;
+
+    /**
+     * Import users from a CSV file with a header row, or from newline-delimited JSON. Invalid records and
+     * records with an email already in use are skipped and reported.
+     *
+     * @param contentType the content type of the request body
+     * @param body        the request body
+     * @return the number of imported and rejected users and the first errors
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Import users from CSV or newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = USERS_IMPORTED,
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = UserImportResultDto.class))}),
+            @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_IMPORT_INPUT,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<UserImportResultDto> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws IOException {
+        UserTransferFormat format = TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(contentType))
+                ? UserTransferFormat.CSV
+                : UserTransferFormat.NDJSON;
+        log.info("Received request to import users as {}", format);
+        return ResponseEntity.ok(userBulkImporter.importUsers(body, format));
+    }
+
+    /**
+     * Export every user as CSV with a header row, or as newline-delimited JSON, streaming them from the store.
+     *
+     * @param format the format of the export
+     * @return the exported users
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Export all users as CSV or newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = USERS_EXPORTED_SUCCESSFULLY,
+                    content = {@Content(mediaType = TEXT_CSV_VALUE),
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)}),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "CSV") UserTransferFormat format) {
+        log.info("Received request to export users as {}", format);
+        boolean csv = format == UserTransferFormat.CSV;
+        StreamingResponseBody body = outputStream ->
+                userBulkExporter.exportUsers(Channels.newChannel(outputStream), format);
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "users.csv" : "users.ndjson")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.clearsolutions.controller;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.clearsolutions.changes.UserChangeFeed;
+import com.example.clearsolutions.changes.UserChangeStreams;
+import com.example.clearsolutions.dto.UserChangeEventDto;
+import com.example.clearsolutions.validator.UserDtoValidator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controller for following the changes of users, either as a stream of Server-Sent Events or by long polling
+ * for newline-delimited JSON. Both resume after the sequence of the last event the client has seen.
+ */
+@Slf4j
+@Tag(name = "User Change Controller", description = "Operations pertaining to user change events")
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("api/v1/users/changes")
+@RequiredArgsConstructor
+public class UserChangeController {
+    private static final String RESPONSE_CODE_200 = "200";
+    private static final String RESPONSE_CODE_400 = "400";
+    private static final String RESPONSE_CODE_500 = "500";
+    private static final String RESPONSE_CODE_503 = "503";
+    private static final String CHANGES_STREAMED_SUCCESSFULLY = "Change events streamed successfully";
+    private static final String INVALID_PAGE_LIMIT = "Invalid page limit";
+    private static final String INTERNAL_SERVER_ERROR = "Internal server error";
+    private static final String TOO_MANY_SUBSCRIBERS = "Too many change subscribers";
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    private static final long MAX_WAIT_MS = 25_000;
+
+    private final UserChangeFeed changeFeed;
+    private final UserChangeStreams changeStreams;
+    private final UserDtoValidator userDtoValidator;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Subscribe to user change events as Server-Sent Events. The id of each event is its sequence, so a client
+     * that reconnects with {@code Last-Event-ID} continues after the last event it received.
+     *
+     * @param lastEventId the sequence of the last event received before reconnecting
+     * @param after       the sequence to continue after when there is no {@code Last-Event-ID}
+     * @return the event stream
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to user change events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = CHANGES_STREAMED_SUCCESSFULLY,
+                    content = {@Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = UserChangeEventDto.class))}),
+            @ApiResponse(responseCode = RESPONSE_CODE_503, description = TOO_MANY_SUBSCRIBERS,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public SseEmitter subscribeToChanges(
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId,
+            @RequestParam(defaultValue = "0") long after) {
+        long position = lastEventId != null ? lastEventId : after;
+        log.info("Received request to subscribe to user changes after: {}", position);
+        return changeStreams.subscribe(position);
+    }
+
+    /**
+     * Poll for the user change events after a sequence as newline-delimited JSON. If there is none yet, the
+     * request waits up to the given time for one to be published and then returns what it has, possibly nothing.
+     *
+     * @param after  the sequence of the last event the client has seen
+     * @param limit  the maximum number of events to return
+     * @param waitMs the longest time to wait for an event, in milliseconds
+     * @return the events
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Poll for user change events as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = CHANGES_STREAMED_SUCCESSFULLY,
+                    content = {@Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = UserChangeEventDto.class))}),
+            @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_PAGE_LIMIT,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<StreamingResponseBody> pollChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") long waitMs) {
+        log.info("Received request to poll user changes after: {}", after);
+        userDtoValidator.validatePageLimit(limit);
+        Duration timeout = Duration.ofMillis(Math.max(0, Math.min(waitMs, MAX_WAIT_MS)));
+        StreamingResponseBody body = outputStream -> {
+            List<UserChangeEventDto> events = changeFeed.poll(after, limit, timeout);
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                for (UserChangeEventDto event : events) {
+                    objectMapper.writeValue(generator, event);
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
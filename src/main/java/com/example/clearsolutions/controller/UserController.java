@@ -1,11 +1,19 @@
 package com.example.clearsolutions.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,13 +21,34 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.clearsolutions.cache.UserResponse;
+import com.example.clearsolutions.codec.UserBinaryFormats;
+import com.example.clearsolutions.codec.UserJsonCodec;
+import com.example.clearsolutions.codec.UserMediaTypes;
+import com.example.clearsolutions.dto.AgeCountDto;
+import com.example.clearsolutions.dto.BirthDateCountDto;
+import com.example.clearsolutions.dto.BirthDatePeriod;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
+import com.example.clearsolutions.dto.UserBatchResultDto;
+import com.example.clearsolutions.dto.UserCacheStatsDto;
+import com.example.clearsolutions.dto.UserCountDto;
 import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.dto.UserMatchDto;
+import com.example.clearsolutions.dto.UserPageDto;
+import com.example.clearsolutions.dto.VersionedUserDto;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.InvalidBatchException;
 import com.example.clearsolutions.service.UserService;
 import com.example.clearsolutions.validator.UserDtoValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -31,31 +60,62 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Controller for managing users.
+ * Controller for managing users. Users and batches are exchanged as JSON by default, and in the binary formats
+ * of {@link UserMediaTypes} when the request asks for them.
  */
 @Slf4j
 @Tag(name = "User Controller", description = "Operations pertaining to users")
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("api/v1/users")
 @RequiredArgsConstructor
 public class UserController {
     private static final String RESPONSE_CODE_200 = "200";
     private static final String RESPONSE_CODE_201 = "201";
     private static final String RESPONSE_CODE_204 = "204";
+    private static final String RESPONSE_CODE_304 = "304";
     private static final String RESPONSE_CODE_400 = "400";
     private static final String RESPONSE_CODE_404 = "404";
+    private static final String RESPONSE_CODE_409 = "409";
+    private static final String RESPONSE_CODE_412 = "412";
     private static final String RESPONSE_CODE_500 = "500";
+    private static final String USER_FOUND_SUCCESSFULLY = "User found successfully";
+    private static final String NOT_MODIFIED = "Not modified since the version in If-None-Match";
+    private static final String VERSION_MISMATCH = "User version does not match If-Match";
+    private static final String CACHE_STATS_FOUND_SUCCESSFULLY = "Cache statistics found successfully";
     private static final String USER_CREATED_SUCCESSFULLY = "User created successfully";
     private static final String INVALID_USER_INPUT = "Invalid user input";
     private static final String INTERNAL_SERVER_ERROR = "Internal server error";
     private static final String USER_UPDATED_SUCCESSFULLY = "User updated successfully";
     private static final String USER_NOT_FOUND = "User not found";
+    private static final String EMAIL_ALREADY_IN_USE = "Email is already in use";
     private static final String USER_DELETED_SUCCESSFULLY = "User deleted successfully";
     private static final String USERS_FOUND_SUCCESSFULLY = "Users found successfully";
     private static final String INVALID_DATE_RANGE_INPUT = "Invalid date range input";
+    private static final String INVALID_SEARCH_QUERY = "Invalid search query";
+    private static final String BATCH_APPLIED = "Batch applied, see per-item results";
+    private static final String INVALID_BATCH_INPUT = "Invalid batch input";
+    private static final String USERS_COUNTED_SUCCESSFULLY = "Users counted successfully";
+    private static final String INVALID_AGGREGATION_INPUT = "Invalid aggregation input";
+    private static final String INVALID_FIELDS = "Invalid fields";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String USER_ID_PATH = "/{id}";
+    private static final String SEARCH_PATH = "/search";
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+    private static final List<MediaType> JSON_FORMATS = List.of(MediaType.APPLICATION_JSON);
+    private static final List<MediaType> USER_FORMATS = List.of(MediaType.APPLICATION_JSON, UserMediaTypes.SMILE,
+            UserMediaTypes.CBOR, UserMediaTypes.PROTOBUF);
+    private static final List<MediaType> SEARCH_FIELDS_FORMATS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_NDJSON);
+    private static final List<MediaType> SEARCH_FORMATS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_NDJSON, UserMediaTypes.SMILE, UserMediaTypes.CBOR, UserMediaTypes.PROTOBUF);
 
     private final UserService userService;
     private final UserDtoValidator userDtoValidator;
+    private final ObjectMapper objectMapper;
+    private final UserJsonCodec userJsonCodec;
+    private final PayloadLogSampler payloadLogSampler;
+    private final UserBinaryFormats userBinaryFormats;
 
     /**
      * Create a new user.
@@ -71,23 +131,212 @@ public class UserController {
                             schema = @Schema(implementation = UserDto.class))}),
             @ApiResponse(responseCode = RESPONSE_CODE_404, description = INVALID_USER_INPUT,
                     content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_409, description = EMAIL_ALREADY_IN_USE,
+                    content = @Content),
             @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
                     content = @Content)})
-    public ResponseEntity<?> createUser(@Valid @RequestBody UserDto userDto) {
-        log.info("Received request to create user: {}", userDto);
+    public ResponseEntity<UserDto> createUser(@Valid @RequestBody UserDto userDto) {
+        log.info("Received request to create user");
+        logPayload("create user", userDto);
         userDtoValidator.validateUser(userDto);
         UserDto createdUser = userService.createUser(userDto);
         return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
     }
 
     /**
-     * Update specific fields of a user.
+     * Get a user by id, or a sparse fieldset of it, as JSON, Smile, CBOR or Protocol Buffers. The format is the
+     * one of {@link #USER_FORMATS} the client accepts with the highest quality, JSON on a tie, so responses vary
+     * by {@code Accept}; sparse fieldsets are written as JSON only. The full user in JSON is served from a bounded
+     * cache, while other representations are read from the store, and a sparse fieldset reads only the requested
+     * fields. The response is tagged with the version of the user, the fields and the format, so that a request
+     * with a matching {@code If-None-Match} gets 304 Not Modified without the user being read or serialized.
+     *
+     * @param id          the id of the user
+     * @param fields      the comma separated names of the fields to return, such as {@code id,email}, or
+     *                    {@code null} for all fields
+     * @param accept      the accepted media types
+     * @param ifNoneMatch the entity tags the client already has
+     * @return the user
+     * @throws HttpMediaTypeNotAcceptableException if the client accepts none of the formats of the fields
+     */
+    @GetMapping(value = USER_ID_PATH, produces = {MediaType.APPLICATION_JSON_VALUE, UserMediaTypes.SMILE_VALUE,
+            UserMediaTypes.CBOR_VALUE, UserMediaTypes.PROTOBUF_VALUE})
+    @Operation(summary = "Get a user by id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = USER_FOUND_SUCCESSFULLY,
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = UserDto.class)),
+                            @Content(mediaType = UserMediaTypes.SMILE_VALUE,
+                                    schema = @Schema(implementation = UserDto.class)),
+                            @Content(mediaType = UserMediaTypes.CBOR_VALUE,
+                                    schema = @Schema(implementation = UserDto.class)),
+                            @Content(mediaType = UserMediaTypes.PROTOBUF_VALUE)}),
+            @ApiResponse(responseCode = RESPONSE_CODE_304, description = NOT_MODIFIED,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_FIELDS,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_404, description = USER_NOT_FOUND,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<Object> getUser(@PathVariable Long id, @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws HttpMediaTypeNotAcceptableException {
+        log.info("Received request to get user with id: {}", id);
+        UserFields userFields = fieldsOf(fields);
+        MediaType format = negotiate(accept, userFields.isAll() ? USER_FORMATS : JSON_FORMATS);
+        String currentTag = UserEntityTags.ofUser(userService.getUserVersion(id), userFields, format);
+        if (UserEntityTags.isNotModified(ifNoneMatch, currentTag)) {
+            return notModified(currentTag);
+        }
+        if (userFields.isAll() && MediaType.APPLICATION_JSON.equals(format)) {
+            UserResponse user = userService.getUser(id);
+            return ok(UserEntityTags.ofUser(user.version()), format).body(user.body());
+        }
+        return userBody(userService.getUser(id, userFields), userFields, format);
+    }
+
+    /**
+     * Get a user by email, ignoring case, from the unique email index, or a sparse fieldset of it. The format is
+     * negotiated as for a user by id.
+     *
+     * @param email  the email of the user
+     * @param fields the comma separated names of the fields to return, such as {@code id,email}, or {@code null}
+     *               for all fields
+     * @param accept the accepted media types
+     * @return the user
+     * @throws HttpMediaTypeNotAcceptableException if the client accepts none of the formats of the fields
+     */
+    @GetMapping(params = "email", produces = {MediaType.APPLICATION_JSON_VALUE, UserMediaTypes.SMILE_VALUE,
+            UserMediaTypes.CBOR_VALUE, UserMediaTypes.PROTOBUF_VALUE})
+    @Operation(summary = "Get a user by email")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = USER_FOUND_SUCCESSFULLY,
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = UserDto.class)),
+                            @Content(mediaType = UserMediaTypes.SMILE_VALUE,
+                                    schema = @Schema(implementation = UserDto.class)),
+                            @Content(mediaType = UserMediaTypes.CBOR_VALUE,
+                                    schema = @Schema(implementation = UserDto.class)),
+                            @Content(mediaType = UserMediaTypes.PROTOBUF_VALUE)}),
+            @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_FIELDS,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_404, description = USER_NOT_FOUND,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<Object> getUserByEmail(@RequestParam String email,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        log.info("Received request to get user by email");
+        UserFields userFields = fieldsOf(fields);
+        MediaType format = negotiate(accept, userFields.isAll() ? USER_FORMATS : JSON_FORMATS);
+        return userBody(userService.getUserByEmail(email, userFields), userFields, format);
+    }
+
+    /**
+     * Get the hit, miss and eviction counters of the user response cache.
+     *
+     * @return the cache statistics
+     */
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Get user response cache statistics")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = CACHE_STATS_FOUND_SUCCESSFULLY,
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = UserCacheStatsDto.class))}),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<UserCacheStatsDto> getCacheStats() {
+        return new ResponseEntity<>(userService.getCacheStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Count users born within a date range, without reading or serializing any user.
+     *
+     * @param from the start of the birthdate range
+     * @param to   the end of the birthdate range
+     * @return the number of users
+     */
+    @GetMapping(value = "/stats/count", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Count users by birth date range")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = USERS_COUNTED_SUCCESSFULLY,
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = UserCountDto.class))}),
+            @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_DATE_RANGE_INPUT,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<UserCountDto> countUsersByBirthDateRange(@RequestParam LocalDate from,
+            @RequestParam LocalDate to) {
+        log.info("Received request to count users by birth date range from: {}, to: {}", from, to);
+        userDtoValidator.validateDateRange(from, to);
+        return ResponseEntity.ok(userService.countUsersByBirthDateRange(from, to));
+    }
+
+    /**
+     * Count users born within a date range per birth year or month.
+     *
+     * @param from    the start of the birthdate range
+     * @param to      the end of the birthdate range
+     * @param groupBy the length of the periods, {@code YEAR} or {@code MONTH}
+     * @return the number of users per period, including empty periods
+     */
+    @GetMapping(value = "/stats/birth-dates", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Count users per birth year or month")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = USERS_COUNTED_SUCCESSFULLY,
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = BirthDateCountDto.class))}),
+            @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_AGGREGATION_INPUT,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<List<BirthDateCountDto>> countUsersByBirthPeriod(@RequestParam LocalDate from,
+            @RequestParam LocalDate to, @RequestParam(defaultValue = "YEAR") BirthDatePeriod groupBy) {
+        log.info("Received request to count users per {} from: {}, to: {}", groupBy, from, to);
+        userDtoValidator.validatePeriodRange(from, to, groupBy);
+        return ResponseEntity.ok(userService.countUsersByBirthPeriod(from, to, groupBy));
+    }
+
+    /**
+     * Count users per age bucket as of today. Buckets start at the minimum age, and the last one
+     * starts at {@code maxAge} and has no upper bound.
+     *
+     * @param width  the number of years per bucket
+     * @param maxAge the age at which the last bucket starts
+     * @return the number of users per bucket, youngest first
+     */
+    @GetMapping(value = "/stats/ages", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Count users per age bucket")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = USERS_COUNTED_SUCCESSFULLY,
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = AgeCountDto.class))}),
+            @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_AGGREGATION_INPUT,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<List<AgeCountDto>> getAgeHistogram(@RequestParam(defaultValue = "10") int width,
+            @RequestParam(defaultValue = "100") int maxAge) {
+        log.info("Received request to count users per {} years of age up to {}", width, maxAge);
+        userDtoValidator.validateAgeHistogram(width, maxAge);
+        return ResponseEntity.ok(userService.getAgeHistogram(width, maxAge));
+    }
+
+    /**
+     * Update specific fields of a user. With an {@code If-Match} header, the update is only applied
+     * if the user still has the version the client read.
      *
      * @param id      the id of the user to update
      * @param userDto the user data to update
+     * @param ifMatch the entity tag of the version the client read
      * @return the updated user
      */
-    @PatchMapping("/{id}")
+    @PatchMapping(USER_ID_PATH)
     @Operation(summary = "Update specific fields of a user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = RESPONSE_CODE_200, description = USER_UPDATED_SUCCESSFULLY,
@@ -97,24 +346,35 @@ public class UserController {
                     content = @Content),
             @ApiResponse(responseCode = RESPONSE_CODE_404, description = USER_NOT_FOUND,
                     content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_412, description = VERSION_MISMATCH,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_409, description = EMAIL_ALREADY_IN_USE,
+                    content = @Content),
             @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
                     content = @Content)})
-    public ResponseEntity<UserDto> updateUserFields(@PathVariable Long id, @Valid @RequestBody UserDto userDto) {
-        log.info("Received request to update user fields for id: {}, with data: {}", id, userDto);
+    public ResponseEntity<UserDto> updateUserFields(@PathVariable Long id, @Valid @RequestBody UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("Received request to update user fields for id: {}", id);
+        logPayload("update user fields", userDto);
         userDtoValidator.validateUser(userDto);
-        UserDto updatedUser = userService.updateUserFields(id, userDto);
-        return new ResponseEntity<>(updatedUser, HttpStatus.OK);
+        VersionedUserDto updatedUser = userService.updateUserFields(id, userDto,
+                UserEntityTags.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(UserEntityTags.ofUser(updatedUser.getVersion()))
+                .body(updatedUser.getUser());
     }
 
     /**
-     * Update a user.
+     * Update a user. With an {@code If-Match} header, the update is only applied
+     * if the user still has the version the client read.
      *
      * @param id      the id of the user to update
      * @param userDto the user data to update
+     * @param ifMatch the entity tag of the version the client read
      * @return the updated user
      */
 
-    @PutMapping("/{id}")
+    @PutMapping(USER_ID_PATH)
     @Operation(summary = "Update a user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = RESPONSE_CODE_200, description = USER_UPDATED_SUCCESSFULLY,
@@ -124,13 +384,21 @@ public class UserController {
                     content = @Content),
             @ApiResponse(responseCode = RESPONSE_CODE_404, description = USER_NOT_FOUND,
                     content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_412, description = VERSION_MISMATCH,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_409, description = EMAIL_ALREADY_IN_USE,
+                    content = @Content),
             @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
                     content = @Content)})
-    public ResponseEntity<UserDto> updateUser(@PathVariable Long id, @Valid @RequestBody UserDto userDto) {
-        log.info("Received request to update user with id: {}, with data: {}", id, userDto);
+    public ResponseEntity<UserDto> updateUser(@PathVariable Long id, @Valid @RequestBody UserDto userDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("Received request to update user with id: {}", id);
+        logPayload("update user", userDto);
         userDtoValidator.validateUser(userDto);
-        UserDto updatedUser = userService.updateUser(id, userDto);
-        return new ResponseEntity<>(updatedUser, HttpStatus.OK);
+        VersionedUserDto updatedUser = userService.updateUser(id, userDto, UserEntityTags.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(UserEntityTags.ofUser(updatedUser.getVersion()))
+                .body(updatedUser.getUser());
     }
 
     /**
@@ -138,7 +406,7 @@ public class UserController {
      *
      * @param id the id of the user to delete
      */
-    @DeleteMapping("/{id}")
+    @DeleteMapping(USER_ID_PATH)
     @Operation(summary = "Delete a user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = RESPONSE_CODE_204, description = USER_DELETED_SUCCESSFULLY,
@@ -154,28 +422,282 @@ public class UserController {
     }
 
     /**
-     * Search users by birthdate range.
+     * Apply a batch of create, update, patch and delete operations given as a JSON, Smile or CBOR array, or as a
+     * Protocol Buffers {@code BatchOperationList}. The results are written in the format the request accepts.
      *
-     * @param from the start of the birthdate range
-     * @param to   the end of the birthdate range
+     * @param operations the operations to apply, in order
+     * @return the result of every operation
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, UserMediaTypes.SMILE_VALUE,
+            UserMediaTypes.CBOR_VALUE, UserMediaTypes.PROTOBUF_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE,
+            UserMediaTypes.SMILE_VALUE, UserMediaTypes.CBOR_VALUE, UserMediaTypes.PROTOBUF_VALUE})
+    @Operation(summary = "Apply a batch of user operations")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = BATCH_APPLIED,
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = UserBatchResultDto.class))}),
+            @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_BATCH_INPUT,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<List<UserBatchResultDto>> applyBatch(
+            @RequestBody List<UserBatchOperationDto> operations) {
+        log.info("Received request to apply batch of {} operations", operations.size());
+        List<UserBatchResultDto> results = userService.applyBatch(operations, userDtoValidator::checkOperation);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Apply a batch of create, update, patch and delete operations given as newline-delimited JSON.
+     *
+     * @param body the request body, one operation per line
+     * @return the result of every operation
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = {
+            MediaType.APPLICATION_JSON_VALUE, UserMediaTypes.SMILE_VALUE, UserMediaTypes.CBOR_VALUE,
+            UserMediaTypes.PROTOBUF_VALUE})
+    @Operation(summary = "Apply a batch of user operations given as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = BATCH_APPLIED,
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = UserBatchResultDto.class))}),
+            @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_BATCH_INPUT,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<List<UserBatchResultDto>> applyNdjsonBatch(InputStream body) throws IOException {
+        List<UserBatchOperationDto> operations;
+        try (MappingIterator<UserBatchOperationDto> iterator = objectMapper
+                .readerFor(UserBatchOperationDto.class)
+                .readValues(body)) {
+            operations = iterator.readAll();
+        } catch (JsonProcessingException e) {
+            throw new InvalidBatchException("Malformed batch: " + e.getOriginalMessage());
+        }
+        log.info("Received request to apply newline-delimited batch of {} operations", operations.size());
+        List<UserBatchResultDto> results = userService.applyBatch(operations, userDtoValidator::checkOperation);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Search users by birthdate range, or a sparse fieldset of them, as a JSON array, newline-delimited JSON, a
+     * Smile or CBOR array, or a Protocol Buffers {@code UserList}. The format is the one of
+     * {@link #SEARCH_FORMATS} the client accepts with the highest quality, JSON on a tie, so responses vary by
+     * {@code Accept}; sparse fieldsets are written as JSON only. Without a limit, the users are written as they
+     * are read from the index instead of being collected first, after the cursor in newline-delimited JSON. With a
+     * limit, or a cursor in the other formats, returns one page of users in birth date order and the cursor of the
+     * next page in the {@value #NEXT_CURSOR_HEADER} header. Only the requested fields are read from the store,
+     * mapped and serialized. Results are tagged with the store version, the fields and the format, so a request
+     * with a matching {@code If-None-Match} gets 304 Not Modified without searching.
+     *
+     * @param from        the start of the birthdate range
+     * @param to          the end of the birthdate range
+     * @param limit       the maximum number of users per page
+     * @param after       the cursor returned with the previous page
+     * @param fields      the comma separated names of the fields to return, such as {@code id,email}, or
+     *                    {@code null} for all fields
+     * @param accept      the accepted media types
+     * @param ifNoneMatch the entity tags the client already has
      * @return the users found
+     * @throws HttpMediaTypeNotAcceptableException if the client accepts none of the formats of the fields
      */
-    @GetMapping("/search")
+    @GetMapping(value = SEARCH_PATH, params = "!q", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE, UserMediaTypes.SMILE_VALUE, UserMediaTypes.CBOR_VALUE,
+            UserMediaTypes.PROTOBUF_VALUE})
     @Operation(summary = "Search users by birth date range")
     @ApiResponses(value = {
             @ApiResponse(responseCode = RESPONSE_CODE_200, description = USERS_FOUND_SUCCESSFULLY,
                     content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
-                            schema = @Schema(implementation = UserDto.class))}),
+                            schema = @Schema(implementation = UserDto.class)),
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = UserDto.class)),
+                            @Content(mediaType = UserMediaTypes.SMILE_VALUE,
+                                    schema = @Schema(implementation = UserDto.class)),
+                            @Content(mediaType = UserMediaTypes.CBOR_VALUE,
+                                    schema = @Schema(implementation = UserDto.class)),
+                            @Content(mediaType = UserMediaTypes.PROTOBUF_VALUE)}),
+            @ApiResponse(responseCode = RESPONSE_CODE_304, description = NOT_MODIFIED,
+                    content = @Content),
             @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_DATE_RANGE_INPUT,
                     content = @Content),
             @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
                     content = @Content)})
-    public ResponseEntity<?> searchUsersByBirthDateRange(
-            @RequestParam LocalDate from, @RequestParam LocalDate to) {
+    public ResponseEntity<StreamingResponseBody> searchUsersByBirthDateRange(
+            @RequestParam LocalDate from, @RequestParam LocalDate to,
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) String after,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws HttpMediaTypeNotAcceptableException {
         log.info("Received request to search users by birth date range from: {}, to: {}", from, to);
         userDtoValidator.validateDateRange(from, to);
-        List<UserDto> users = userService.searchUsersByBirthDateRange(from, to);
-        return new ResponseEntity<>(users, HttpStatus.OK);
+        UserFields userFields = fieldsOf(fields);
+        MediaType format = negotiate(accept, userFields.isAll() ? SEARCH_FORMATS : SEARCH_FIELDS_FORMATS);
+        String currentTag = UserEntityTags.ofSearch(userService.getStoreVersion(), userFields, format);
+        if (UserEntityTags.isNotModified(ifNoneMatch, currentTag)) {
+            return notModified(currentTag);
+        }
+        ResponseEntity.BodyBuilder response = ok(currentTag, format);
+        if (limit == null && (after == null || MediaType.APPLICATION_NDJSON.equals(format))) {
+            Stream<UserDto> users = userService.streamUsersByBirthDateRange(from, to, after, userFields);
+            return response.body(outputStream -> {
+                try (users) {
+                    writeUsers(users.iterator(), userFields, format, outputStream);
+                }
+            });
+        }
+
+        int pageLimit = limit == null ? DEFAULT_PAGE_LIMIT : limit;
+        userDtoValidator.validatePageLimit(pageLimit);
+        UserPageDto page = userService.searchUsersByBirthDateRange(from, to, after, pageLimit, userFields);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(outputStream -> writeUsers(page.getUsers().iterator(), userFields, format, outputStream));
+    }
+
+    /**
+     * Search users by first name, last name and address. Every word of the query must match a word of the user
+     * exactly, as a prefix, or with a few typos, and the best matches are returned first.
+     *
+     * @param q        the free text query
+     * @param maxEdits the maximum number of typos per word, from 0 to 2; short words allow fewer
+     * @param limit    the maximum number of users to return
+     * @return the best matching users with their scores
+     */
+    @GetMapping(value = SEARCH_PATH, params = "q", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Search users by name and address")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = RESPONSE_CODE_200, description = USERS_FOUND_SUCCESSFULLY,
+                    content = {@Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = UserMatchDto.class))}),
+            @ApiResponse(responseCode = RESPONSE_CODE_400, description = INVALID_SEARCH_QUERY,
+                    content = @Content),
+            @ApiResponse(responseCode = RESPONSE_CODE_500, description = INTERNAL_SERVER_ERROR,
+                    content = @Content)})
+    public ResponseEntity<List<UserMatchDto>> searchUsersByText(@RequestParam String q,
+            @RequestParam(defaultValue = "2") int maxEdits,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.info("Received request to search users by text");
+        userDtoValidator.validateTextQuery(q, maxEdits);
+        userDtoValidator.validatePageLimit(limit);
+        return ResponseEntity.ok(userService.searchUsersByText(q, maxEdits, limit));
+    }
+
+    /**
+     * Parses the fields of a sparse fieldset.
+     *
+     * @param fields the comma separated field names, or {@code null} for all fields
+     * @return the requested fields
+     */
+    private static UserFields fieldsOf(String fields) {
+        return fields == null ? UserFields.ALL : UserFields.parse(fields);
+    }
+
+    /**
+     * Chooses the format with the highest quality in an {@code Accept} header. Among formats of the same quality,
+     * the first accepted one wins, and among formats of the same accepted type, the first of the formats.
+     *
+     * @param accept  the {@code Accept} header, or {@code null} to accept any format
+     * @param formats the formats the response can be written in
+     * @return the chosen format
+     * @throws HttpMediaTypeNotAcceptableException if the header accepts none of the formats
+     */
+    private static MediaType negotiate(String accept, List<MediaType> formats)
+            throws HttpMediaTypeNotAcceptableException {
+        if (accept == null) {
+            return formats.get(0);
+        }
+        MediaType best = null;
+        double bestQuality = 0;
+        for (MediaType accepted : MediaType.parseMediaTypes(accept)) {
+            for (MediaType format : formats) {
+                if (accepted.includes(format) && accepted.getQualityValue() > bestQuality) {
+                    best = format;
+                    bestQuality = accepted.getQualityValue();
+                }
+            }
+        }
+        if (best == null) {
+            throw new HttpMediaTypeNotAcceptableException(formats);
+        }
+        return best;
+    }
+
+    /**
+     * Starts a 200 OK response in a format, which varies by {@code Accept}.
+     *
+     * @param entityTag the entity tag of the response
+     * @param format    the negotiated format
+     * @return the response builder
+     */
+    private static ResponseEntity.BodyBuilder ok(String entityTag, MediaType format) {
+        return ResponseEntity.ok()
+                .eTag(entityTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format);
+    }
+
+    /**
+     * Builds a 304 Not Modified response, which varies by {@code Accept} like the response it stands for.
+     *
+     * @param entityTag the current entity tag
+     * @param <T>       the type of the body of the response it stands for
+     * @return the response
+     */
+    private static <T> ResponseEntity<T> notModified(String entityTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    /**
+     * Builds the response of a user. A sparse fieldset is written by the JSON codec, while a full user is left to
+     * the message converter of the format.
+     *
+     * @param user   the user and its version
+     * @param fields the requested fields
+     * @param format the negotiated format
+     * @return the response
+     */
+    private ResponseEntity<Object> userBody(VersionedUserDto user, UserFields fields, MediaType format) {
+        ResponseEntity.BodyBuilder response = ok(UserEntityTags.ofUser(user.getVersion(), fields, format), format);
+        if (fields.isAll()) {
+            return response.body(user.getUser());
+        }
+        return response.body(userJsonCodec.toBytes(user.getUser(), fields));
+    }
+
+    /**
+     * Writes users in a format, one user at a time.
+     *
+     * @param users  the users
+     * @param fields the requested fields, all of them unless the format is JSON
+     * @param format the negotiated format
+     * @param out    the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    private void writeUsers(Iterator<UserDto> users, UserFields fields, MediaType format, OutputStream out)
+            throws IOException {
+        if (MediaType.APPLICATION_JSON.equals(format)) {
+            Iterable<UserDto> array = () -> users;
+            userJsonCodec.writeArray(array, fields, out);
+        } else if (MediaType.APPLICATION_NDJSON.equals(format)) {
+            userJsonCodec.writeLines(users, fields, out);
+        } else {
+            userBinaryFormats.writeArray(format, users, out);
+        }
     }
-}
 
+    /**
+     * Logs the payload of a request at debug level, for the sampled share of requests only,
+     * so that personal data and the cost of formatting it stay off the default request path.
+     *
+     * @param operation the requested operation
+     * @param payload   the request payload
+     */
+    private void logPayload(String operation, Object payload) {
+        if (payloadLogSampler.isSampled(log)) {
+            log.debug("Payload of request to {}: {}", operation, payload);
+        }
+    }
+}
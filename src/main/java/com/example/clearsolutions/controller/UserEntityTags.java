@@ -0,0 +1,139 @@
+package com.example.clearsolutions.controller;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.MediaType;
+
+import com.example.clearsolutions.codec.UserMediaTypes;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.UserVersionMismatchException;
+
+/**
+ * Builds and compares the entity tags of user resources and search results.
+ * A user is tagged with its version, and search results with the store version. The store version is
+ * not persisted, so its tags also carry the start time of the application, which keeps a tag issued
+ * before a restart from matching the store after it. A sparse fieldset is a different representation of the
+ * same resource, so its tags also carry the requested fields, and so is each format other than JSON, so the tags
+ * of newline-delimited JSON, Smile, CBOR and Protocol Buffers responses carry the format. Tags of whole users
+ * and results in JSON carry neither.
+ */
+final class UserEntityTags {
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String QUOTE = "\"";
+    private static final Pattern VERSION_TAG = Pattern.compile("\"(\\d{1,18})(?:;(?:smile|cbor|protobuf))?\"");
+    private static final String STORE_INSTANCE = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private UserEntityTags() {
+    }
+
+    /**
+     * Builds the strong entity tag of a user.
+     *
+     * @param version the version of the user
+     * @return the quoted entity tag
+     */
+    static String ofUser(long version) {
+        return QUOTE + version + QUOTE;
+    }
+
+    /**
+     * Builds the strong entity tag of the requested fields of a user in a format.
+     *
+     * @param version the version of the user
+     * @param fields  the requested fields
+     * @param format  the media type of the response
+     * @return the quoted entity tag, the same as that of the full user in JSON if all fields are requested in JSON
+     */
+    static String ofUser(long version, UserFields fields, MediaType format) {
+        return withFormat(withFields(ofUser(version), fields), format);
+    }
+
+    /**
+     * Builds the strong entity tag of search results.
+     *
+     * @param storeVersion the store version read before the results
+     * @return the quoted entity tag
+     */
+    static String ofSearch(long storeVersion) {
+        return QUOTE + STORE_INSTANCE + "-" + storeVersion + QUOTE;
+    }
+
+    /**
+     * Builds the strong entity tag of the requested fields of search results in a format.
+     *
+     * @param storeVersion the store version read before the results
+     * @param fields       the requested fields
+     * @param format       the media type of the response
+     * @return the quoted entity tag, the same as that of the full results in JSON if all fields are requested in
+     *         JSON
+     */
+    static String ofSearch(long storeVersion, UserFields fields, MediaType format) {
+        return withFormat(withFields(ofSearch(storeVersion), fields), format);
+    }
+
+    /**
+     * Checks an {@code If-None-Match} header against the current entity tag, using weak comparison.
+     *
+     * @param ifNoneMatch the header value, or {@code null} if it was not sent
+     * @param entityTag   the current entity tag
+     * @return whether the client already has the current representation
+     */
+    static boolean isNotModified(String ifNoneMatch, String entityTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)
+                .anyMatch(tag -> ANY.equals(tag) || entityTag.equals(tag));
+    }
+
+    /**
+     * Reads the version a client expects from an {@code If-Match} header.
+     * Only a single strong entity tag of a user, in any format, or {@code *} is supported.
+     *
+     * @param ifMatch the header value, or {@code null} if it was not sent
+     * @return the expected version, or {@code null} if any version is accepted
+     * @throws UserVersionMismatchException if the header cannot match any version
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        Matcher tag = VERSION_TAG.matcher(ifMatch.trim());
+        if (tag.matches()) {
+            return Long.parseLong(tag.group(1));
+        }
+        throw new UserVersionMismatchException("If-Match does not match any user version: " + ifMatch);
+    }
+
+    private static String withFields(String entityTag, UserFields fields) {
+        if (fields.isAll()) {
+            return entityTag;
+        }
+        return withSuffix(entityTag, fields.toString().replace(',', '+'));
+    }
+
+    private static String withFormat(String entityTag, MediaType format) {
+        if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(format)) {
+            return withSuffix(entityTag, "ndjson");
+        }
+        if (UserMediaTypes.SMILE.equalsTypeAndSubtype(format)) {
+            return withSuffix(entityTag, "smile");
+        }
+        if (UserMediaTypes.CBOR.equalsTypeAndSubtype(format)) {
+            return withSuffix(entityTag, "cbor");
+        }
+        if (UserMediaTypes.PROTOBUF.equalsTypeAndSubtype(format)) {
+            return withSuffix(entityTag, "protobuf");
+        }
+        return entityTag;
+    }
+
+    private static String withSuffix(String entityTag, String suffix) {
+        return entityTag.substring(0, entityTag.length() - 1) + ";" + suffix + QUOTE;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.clearsolutions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AgeCountDto {
+
+    private int fromAge;
+
+    private Integer toAge;
+
+    private long count;
+}
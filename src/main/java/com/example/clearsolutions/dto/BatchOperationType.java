@@ -0,0 +1,11 @@
+package com.example.clearsolutions.dto;
+
+/**
+ * Kind of change applied by a batch operation.
+ */
+public enum BatchOperationType {
+    CREATE,
+    UPDATE,
+    PATCH,
+    DELETE
+}
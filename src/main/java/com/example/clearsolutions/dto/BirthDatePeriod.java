@@ -0,0 +1,9 @@
+package com.example.clearsolutions.dto;
+
+/**
+ * Length of the periods that users are counted in by birth date.
+ */
+public enum BirthDatePeriod {
+    YEAR,
+    MONTH
+}
@@ -0,0 +1,25 @@
+package com.example.clearsolutions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserCacheStatsDto {
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private double hitRate;
+
+    private long entries;
+
+    private long weightBytes;
+
+    private long maxWeightBytes;
+}
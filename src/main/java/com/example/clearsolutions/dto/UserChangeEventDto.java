@@ -0,0 +1,23 @@
+package com.example.clearsolutions.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserChangeEventDto {
+
+    private long sequence;
+
+    private UserChangeType type;
+
+    private Long id;
+
+    private Long version;
+
+    private UserDto user;
+}
@@ -0,0 +1,12 @@
+package com.example.clearsolutions.dto;
+
+/**
+ * Kind of a change event. {@code RESYNC} tells a consumer that it fell behind the retained events
+ * and has to reload the users before it continues after the sequence of the event.
+ */
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    RESYNC
+}
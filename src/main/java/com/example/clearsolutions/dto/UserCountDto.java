@@ -0,0 +1,13 @@
+package com.example.clearsolutions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserCountDto {
+
+    private long count;
+}
@@ -0,0 +1,19 @@
+package com.example.clearsolutions.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportResultDto {
+
+    private long imported;
+
+    private long rejected;
+
+    private List<UserImportErrorDto> errors;
+}
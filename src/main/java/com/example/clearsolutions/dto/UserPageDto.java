@@ -0,0 +1,17 @@
+package com.example.clearsolutions.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPageDto {
+
+    private List<UserDto> users;
+
+    private String nextCursor;
+}
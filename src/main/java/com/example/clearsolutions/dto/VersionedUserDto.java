@@ -0,0 +1,15 @@
+package com.example.clearsolutions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VersionedUserDto {
+
+    private UserDto user;
+
+    private long version;
+}
@@ -0,0 +1,46 @@
+package com.example.clearsolutions.entity;
+
+import java.util.Optional;
+
+/**
+ * Field of a user that a sparse fieldset can request, named as in the JSON representation of the user.
+ */
+public enum UserField {
+    ID("id"),
+    EMAIL("email"),
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName"),
+    BIRTH_DATE("birthDate"),
+    ADDRESS("address"),
+    PHONE_NUMBER("phoneNumber");
+
+    private final String jsonName;
+
+    UserField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    /**
+     * Returns the name of the field in the JSON representation of a user.
+     *
+     * @return the JSON field name
+     */
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * Finds a field by its JSON name, which is case-sensitive.
+     *
+     * @param jsonName the JSON field name
+     * @return the field, or an empty optional if no field has the name
+     */
+    public static Optional<UserField> ofJsonName(String jsonName) {
+        for (UserField field : values()) {
+            if (field.jsonName.equals(jsonName)) {
+                return Optional.of(field);
+            }
+        }
+        return Optional.empty();
+    }
+}
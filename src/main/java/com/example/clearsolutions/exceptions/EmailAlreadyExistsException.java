@@ -0,0 +1,13 @@
+package com.example.clearsolutions.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.CONFLICT, reason = "Email is already in use")
+public class EmailAlreadyExistsException extends UserException {
+    private static final long serialVersionUID = 1L;
+
+    public EmailAlreadyExistsException(String message) {
+        super(message);
+    }
+}
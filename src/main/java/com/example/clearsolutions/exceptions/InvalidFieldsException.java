@@ -0,0 +1,13 @@
+package com.example.clearsolutions.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST, reason = "Invalid fields")
+public class InvalidFieldsException extends UserException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.clearsolutions.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST, reason = "Invalid page limit")
+public class InvalidPageLimitException extends UserException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidPageLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.clearsolutions.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE, reason = "Too many change subscribers")
+public class TooManySubscribersException extends UserException {
+    private static final long serialVersionUID = 1L;
+
+    public TooManySubscribersException(String message) {
+        super(message);
+    }
+}
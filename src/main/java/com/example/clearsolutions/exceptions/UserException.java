@@ -1,9 +1,14 @@
 package com.example.clearsolutions.exceptions;
 
+/**
+ * Base class of the exceptions that reject a user request with the status of their {@code ResponseStatus}.
+ * They are expected outcomes rather than failures, so they record no stack trace and no suppressed
+ * exceptions, and throwing one costs little more than allocating it.
+ */
 public class UserException extends RuntimeException {
     private static final long serialVersionUID = 1L;
 
     public UserException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,13 @@
+package com.example.clearsolutions.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.PRECONDITION_FAILED, reason = "User version does not match")
+public class UserVersionMismatchException extends UserException {
+    private static final long serialVersionUID = 1L;
+
+    public UserVersionMismatchException(String message) {
+        super(message);
+    }
+}
@@ -4,37 +4,59 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import com.example.clearsolutions.exceptions.UserException;
+import com.example.clearsolutions.metrics.UserMetrics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Global exception handler for handling all exceptions thrown across the application.
+ * Handled user exceptions are counted by type in {@link UserMetrics} and answered with problem details
+ * built from the {@link ProblemResponses} table, so the error path reads no annotation and runs no serializer.
+ * Invalid request bodies are answered with their field errors on both the servlet and the reactive stack, always
+ * as JSON like the problem details, so that clients of the binary formats get them too.
  */
 @Slf4j
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
     private static final long serialVersionUID = 1L;
 
+    private final UserMetrics userMetrics;
+    private final ProblemResponses problemResponses =
+            new ProblemResponses(Thread.currentThread().getContextClassLoader());
+
     @ExceptionHandler(UserException.class)
-    public ResponseEntity<?> handleUserException(UserException e) {
-        log.error("Handle user exception: {}", e.getMessage());
-        HttpStatus httpStatus = e.getClass().getAnnotation(ResponseStatus.class).code();
-        return new ResponseEntity<>(e.getMessage(), httpStatus);
+    public ResponseEntity<byte[]> handleUserException(UserException e) {
+        log.debug("Handle user exception: {}", e.getMessage());
+        userMetrics.countError(e);
+        return problemResponses.responseOf(e);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException e) {
+        return validationErrors(e.getBindingResult());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleWebExchangeBindException(WebExchangeBindException e) {
+        return validationErrors(e.getBindingResult());
+    }
+
+    private ResponseEntity<Map<String, String>> validationErrors(BindingResult bindingResult) {
         Map<String, String> errors = new HashMap<>();
-        e.getBindingResult().getFieldErrors().forEach(error ->
+        bindingResult.getFieldErrors().forEach(error ->
                 errors.put(error.getField(), error.getDefaultMessage()));
-        log.error("Validation error: {}", errors);
-        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+        log.debug("Validation error: {}", errors);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON).body(errors);
     }
 }
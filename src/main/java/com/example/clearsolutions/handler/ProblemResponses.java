@@ -0,0 +1,84 @@
+package com.example.clearsolutions.handler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.example.clearsolutions.exceptions.UserException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Table of the error response of every {@link UserException} type, resolved once from its {@code ResponseStatus}
+ * annotation. The responses are RFC 9457 problem details whose JSON is serialized up to the detail, so an error
+ * response is built by appending the escaped exception message to a cached prefix, without reflection and
+ * without an object mapper. The exception types of the exceptions package are resolved at startup; any other
+ * type is resolved when it is first handled.
+ */
+final class ProblemResponses {
+    private static final String EXCEPTIONS_PACKAGE = UserException.class.getPackageName();
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ClassValue<Problem> problems = new ClassValue<>() {
+        @Override
+        protected Problem computeValue(Class<?> type) {
+            return Problem.of(type);
+        }
+    };
+
+    /**
+     * Creates the table and resolves the exception types of the exceptions package.
+     *
+     * @param classLoader the loader of the application classes, used to scan and load the exception types
+     */
+    ProblemResponses(ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+        scanner.addIncludeFilter(new AssignableTypeFilter(UserException.class));
+        scanner.findCandidateComponents(EXCEPTIONS_PACKAGE).forEach(candidate -> problems.get(
+                ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader)));
+    }
+
+    /**
+     * Builds the error response of an exception.
+     *
+     * @param exception the handled exception
+     * @return the problem details response with the status of the exception type
+     */
+    ResponseEntity<byte[]> responseOf(UserException exception) {
+        Problem problem = problems.get(exception.getClass());
+        String message = exception.getMessage();
+        byte[] detail = message == null ? new byte[0] : JsonStringEncoder.getInstance().quoteAsUTF8(message);
+        byte[] body = Arrays.copyOf(problem.prefix(), problem.prefix().length + detail.length + SUFFIX.length);
+        System.arraycopy(detail, 0, body, problem.prefix().length, detail.length);
+        System.arraycopy(SUFFIX, 0, body, problem.prefix().length + detail.length, SUFFIX.length);
+        return ResponseEntity.status(problem.status())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(body);
+    }
+
+    /**
+     * The status of the responses to one exception type and their serialized JSON up to the detail.
+     */
+    private record Problem(HttpStatus status, byte[] prefix) {
+
+        private static Problem of(Class<?> type) {
+            ResponseStatus annotation = type.getAnnotation(ResponseStatus.class);
+            HttpStatus status = annotation == null ? HttpStatus.INTERNAL_SERVER_ERROR : annotation.code();
+            String title = annotation == null || annotation.reason().isEmpty()
+                    ? status.getReasonPhrase()
+                    : annotation.reason();
+            String prefix = "{\"type\":\"about:blank\",\"title\":\""
+                    + new String(JsonStringEncoder.getInstance().quoteAsString(title))
+                    + "\",\"status\":" + status.value() + ",\"detail\":\"";
+            return new Problem(status, prefix.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.clearsolutions.handler;
+
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.InitBinder;
+
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.validator.UserConstraints;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Validates {@code @Valid} user request bodies with the precompiled {@link UserConstraints} instead of the
+ * reflective bean validator, on both the servlet and the reactive stack. Violations are still reported as
+ * field errors of the binding result, so invalid bodies are answered as before by the
+ * {@link GlobalExceptionHandler}.
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class UserValidationAdvice {
+    private final UserConstraints userConstraints;
+
+    @InitBinder
+    public void initBinder(WebDataBinder binder) {
+        if (binder.getTarget() instanceof UserDto) {
+            binder.setValidator(userConstraints);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.mapstruct.Mapping;
 
 import com.example.clearsolutions.dto.UserDto;
 import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.entity.UserField;
+import com.example.clearsolutions.entity.UserFields;
 
 /**
  * Mapper interface for converting between User and UserDto objects.
@@ -28,6 +30,42 @@ public interface UserMapper {
     @Mapping(source = "phoneNumber", target = "phoneNumber")
     UserDto toUserDto(User user);
 
+    /**
+     * Converts the requested fields of a User entity to a UserDto, leaving the other fields null.
+     *
+     * @param user   the User entity
+     * @param fields the fields to convert
+     * @return the UserDto
+     */
+    default UserDto toUserDto(User user, UserFields fields) {
+        if (fields.isAll()) {
+            return toUserDto(user);
+        }
+        UserDto userDto = new UserDto();
+        if (fields.contains(UserField.ID)) {
+            userDto.setId(user.getId());
+        }
+        if (fields.contains(UserField.EMAIL)) {
+            userDto.setEmail(user.getEmail());
+        }
+        if (fields.contains(UserField.FIRST_NAME)) {
+            userDto.setFirstName(user.getFirstName());
+        }
+        if (fields.contains(UserField.LAST_NAME)) {
+            userDto.setLastName(user.getLastName());
+        }
+        if (fields.contains(UserField.BIRTH_DATE)) {
+            userDto.setBirthDate(user.getBirthDate());
+        }
+        if (fields.contains(UserField.ADDRESS)) {
+            userDto.setAddress(user.getAddress());
+        }
+        if (fields.contains(UserField.PHONE_NUMBER)) {
+            userDto.setPhoneNumber(user.getPhoneNumber());
+        }
+        return userDto;
+    }
+
     /**
      * Converts a UserDto to a User entity.
      *
@@ -40,5 +78,6 @@ public interface UserMapper {
     @Mapping(source = "birthDate", target = "birthDate")
     @Mapping(source = "address", target = "address")
     @Mapping(source = "phoneNumber", target = "phoneNumber")
+    @Mapping(target = "version", ignore = true)
     User toUser(UserDto userDto);
 }
\ No newline at end of file
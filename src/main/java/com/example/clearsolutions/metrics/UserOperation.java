@@ -0,0 +1,20 @@
+package com.example.clearsolutions.metrics;
+
+/**
+ * User service operation, timed under its own {@code operation} tag.
+ */
+public enum UserOperation {
+    CREATE,
+    GET,
+    GET_VERSION,
+    GET_BY_EMAIL,
+    UPDATE,
+    PATCH,
+    DELETE,
+    BATCH,
+    SEARCH,
+    SEARCH_PAGE,
+    SEARCH_TEXT,
+    AGGREGATE,
+    IMPORT
+}
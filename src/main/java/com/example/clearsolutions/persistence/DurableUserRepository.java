@@ -0,0 +1,255 @@
+package com.example.clearsolutions.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+import com.example.clearsolutions.repository.BirthDateCursor;
+import com.example.clearsolutions.repository.RecoverableUserRepository;
+import com.example.clearsolutions.repository.UserMatch;
+import com.example.clearsolutions.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * User repository that records every mutation in a {@link UserWriteAheadLog} before acknowledging it,
+ * and rebuilds the configured storage engine from the latest snapshot and the log written after it on startup.
+ * Saves, updates and deletes are logged inside the per-id atomic section of the store, so the log order of
+ * concurrent mutations of the same user always matches the order they were applied in.
+ *
+ * <p>Snapshots are taken in the background while writers keep running. The log is rotated first, then
+ * the snapshot waits for the mutations already in flight, so that every record in the old segments is
+ * visible in the store before it is scanned. Records that land in the new segment may or may not be in
+ * the snapshot; replaying them on top of it yields the same state either way, because every save record
+ * holds the full user. Once the snapshot is durable, the old segments and snapshots are deleted.
+ *
+ * <p>Users saved together with {@link #saveAll(List)} are committed once, so a bulk import waits for one
+ * fsync per list rather than one per user.
+ */
+@Slf4j
+@Primary
+@Repository
+@ConditionalOnProperty(name = "user.wal.enabled", havingValue = "true")
+public class DurableUserRepository implements UserRepository, DisposableBean {
+    private final RecoverableUserRepository delegate;
+    private final Path directory;
+    private final UserWriteAheadLog writeAheadLog;
+    private final WriterEpochGate writerGate = new WriterEpochGate();
+    private final ScheduledExecutorService snapshotScheduler;
+    private long recordsAtLastSnapshot;
+
+    public DurableUserRepository(RecoverableUserRepository delegate,
+                                 @Value("${user.wal.directory}") Path directory,
+                                 @Value("${user.wal.fsync}") FsyncPolicy fsyncPolicy,
+                                 @Value("${user.wal.fsync.interval.ms}") long fsyncIntervalMs,
+                                 @Value("${user.wal.snapshot.interval.ms}") long snapshotIntervalMs)
+            throws IOException {
+        this.delegate = delegate;
+        this.directory = directory;
+        Files.createDirectories(directory);
+        Optional<UserSnapshotFile.Snapshot> snapshot = UserSnapshotFile.loadLatest(directory, delegate::restore);
+        snapshot.ifPresent(loaded -> {
+            delegate.reserveIds(loaded.lastId());
+            log.info("Loaded {} users from the snapshot of generation {}", loaded.count(), loaded.generation());
+        });
+        this.writeAheadLog = UserWriteAheadLog.open(directory,
+                snapshot.map(UserSnapshotFile.Snapshot::generation).orElse(0L),
+                fsyncPolicy, fsyncIntervalMs, delegate::restore, delegate::deleteById);
+        log.info("Restored {} users from {}", delegate.count(), directory);
+
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotIfChanged,
+                snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a snapshot of every stored user and deletes the log segments and snapshots it supersedes.
+     * Writers are not blocked while the snapshot is taken.
+     *
+     * @throws IOException if the snapshot cannot be written or the superseded files cannot be deleted
+     */
+    public synchronized void snapshot() throws IOException {
+        final long records = writeAheadLog.appendedRecords();
+        long generation = writeAheadLog.rotate();
+        writerGate.advance();
+        UserSnapshotFile.Snapshot snapshot;
+        try (Stream<User> users = delegate.findAll()) {
+            snapshot = UserSnapshotFile.write(directory, generation, delegate.lastId(), users.iterator());
+        }
+        writeAheadLog.deleteSegmentsBefore(generation);
+        UserSnapshotFile.deleteBefore(directory, generation);
+        recordsAtLastSnapshot = records;
+        log.info("Wrote a snapshot of {} users at generation {}", snapshot.count(), generation);
+    }
+
+    @Override
+    public long nextId() {
+        return delegate.nextId();
+    }
+
+    @Override
+    public long lastId() {
+        return delegate.lastId();
+    }
+
+    @Override
+    public void reserveIds(long lastId) {
+        delegate.reserveIds(lastId);
+    }
+
+    @Override
+    public User save(User user) {
+        AtomicLong sequence = new AtomicLong();
+        long epoch = writerGate.enter();
+        try {
+            delegate.save(user, saved -> sequence.set(writeAheadLog.appendSave(saved)));
+        } finally {
+            writerGate.exit(epoch);
+        }
+        writeAheadLog.commit(sequence.get());
+        return user;
+    }
+
+    @Override
+    public List<User> saveAll(List<User> users) {
+        List<User> saved = new ArrayList<>(users.size());
+        AtomicLong sequence = new AtomicLong(-1);
+        long epoch = writerGate.enter();
+        try {
+            for (User user : users) {
+                try {
+                    delegate.save(user, stored -> sequence.set(writeAheadLog.appendSave(stored)));
+                } catch (EmailAlreadyExistsException e) {
+                    continue;
+                }
+                saved.add(user);
+            }
+        } finally {
+            writerGate.exit(epoch);
+        }
+        if (sequence.get() >= 0) {
+            writeAheadLog.commit(sequence.get());
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<User> findById(Long id, UserFields fields) {
+        return delegate.findById(id, fields);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public Optional<User> update(Long id, Consumer<User> modifier) {
+        AtomicLong sequence = new AtomicLong();
+        Optional<User> updated;
+        long epoch = writerGate.enter();
+        try {
+            updated = delegate.update(id, modifier, user -> sequence.set(writeAheadLog.appendSave(user)));
+        } finally {
+            writerGate.exit(epoch);
+        }
+        updated.ifPresent(user -> writeAheadLog.commit(sequence.get()));
+        return updated;
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id) {
+        AtomicLong sequence = new AtomicLong();
+        Optional<User> deleted;
+        long epoch = writerGate.enter();
+        try {
+            deleted = delegate.deleteById(id, user -> sequence.set(writeAheadLog.appendDelete(id)));
+        } finally {
+            writerGate.exit(epoch);
+        }
+        deleted.ifPresent(user -> writeAheadLog.commit(sequence.get()));
+        return deleted;
+    }
+
+    @Override
+    public Stream<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<User> findByBirthDateBetween(LocalDate from, LocalDate to, BirthDateCursor after) {
+        return delegate.findByBirthDateBetween(from, to, after);
+    }
+
+    @Override
+    public Stream<User> findByBirthDateBetween(LocalDate from, LocalDate to, BirthDateCursor after,
+                                              UserFields fields) {
+        return delegate.findByBirthDateBetween(from, to, after, fields);
+    }
+
+    @Override
+    public List<UserMatch> findByText(String query, int maxEdits, int limit) {
+        return delegate.findByText(query, maxEdits, limit);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public Map<String, Long> indexSizes() {
+        return delegate.indexSizes();
+    }
+
+    @Override
+    public long version() {
+        return delegate.version();
+    }
+
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        snapshotScheduler.shutdown();
+        snapshotScheduler.awaitTermination(1, TimeUnit.MINUTES);
+        writeAheadLog.close();
+    }
+
+    private synchronized void snapshotIfChanged() {
+        if (writeAheadLog.appendedRecords() == recordsAtLastSnapshot) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException e) {
+            log.error("Failed to write a user snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.clearsolutions.persistence;
+
+/**
+ * When appended log records are forced to the storage device.
+ */
+public enum FsyncPolicy {
+    /**
+     * Every write waits until its record is fsynced. Concurrent writers share one fsync (group commit).
+     */
+    ALWAYS,
+    /**
+     * Records are fsynced by a background task every configured interval. Writers never wait,
+     * and at most one interval of writes can be lost on power failure.
+     */
+    INTERVAL,
+    /**
+     * Every write waits until its record is handed to the operating system, which decides when to flush it.
+     * Writes survive a process crash but not a power failure.
+     */
+    OS
+}
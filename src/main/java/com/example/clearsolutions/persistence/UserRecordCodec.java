@@ -0,0 +1,96 @@
+package com.example.clearsolutions.persistence;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import com.example.clearsolutions.entity.User;
+
+/**
+ * Compact binary encoding of users.
+ * A user is written as its id, its version, its birth date as an epoch day and its string fields as
+ * length-prefixed UTF-8, with {@value #NULL_LENGTH} as the length of a missing string
+ * and {@link Long#MIN_VALUE} as a missing birth date.
+ */
+final class UserRecordCodec {
+    private static final int NULL_LENGTH = -1;
+    private static final int FIXED_SIZE = Long.BYTES * 3;
+    private static final int STRING_FIELDS = 5;
+
+    private UserRecordCodec() {
+    }
+
+    /**
+     * Encodes a user.
+     *
+     * @param user the user
+     * @return the encoded user
+     */
+    static byte[] encode(User user) {
+        byte[] email = utf8(user.getEmail());
+        byte[] firstName = utf8(user.getFirstName());
+        byte[] lastName = utf8(user.getLastName());
+        byte[] address = utf8(user.getAddress());
+        byte[] phoneNumber = utf8(user.getPhoneNumber());
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + Integer.BYTES * STRING_FIELDS
+                + length(email) + length(firstName) + length(lastName) + length(address) + length(phoneNumber));
+        buffer.putLong(user.getId());
+        buffer.putLong(user.getVersion());
+        buffer.putLong(user.getBirthDate() == null ? Long.MIN_VALUE : user.getBirthDate().toEpochDay());
+        writeString(buffer, email);
+        writeString(buffer, firstName);
+        writeString(buffer, lastName);
+        writeString(buffer, address);
+        writeString(buffer, phoneNumber);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a user written by {@link #encode(User)}.
+     *
+     * @param buffer the buffer positioned at the start of the user
+     * @return the user
+     */
+    static User read(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        long version = buffer.getLong();
+        long epochDay = buffer.getLong();
+        return User.builder()
+                .id(id)
+                .version(version)
+                .birthDate(epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay))
+                .email(readString(buffer))
+                .firstName(readString(buffer))
+                .lastName(readString(buffer))
+                .address(readString(buffer))
+                .phoneNumber(readString(buffer))
+                .build();
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void writeString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.clearsolutions.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import com.example.clearsolutions.entity.User;
+
+/**
+ * Snapshot of every stored user, written and read through memory-mapped windows.
+ *
+ * <p>The file starts with a header of {@code [int magic][int crc32c][long generation][long lastId][long count]},
+ * followed by the users framed as {@code [int length][encoded user]}. The checksum covers everything after the
+ * header. A snapshot is written to a temporary file, with its header written last, and atomically renamed,
+ * so a crash while writing never leaves a partial snapshot behind. The directory is forced after the rename,
+ * so the snapshot is durable before the log segments and snapshots it replaces are deleted.
+ *
+ * <p>The generation of a snapshot is the generation of the first log segment that it does not cover.
+ */
+final class UserSnapshotFile {
+    private static final String SNAPSHOT_PREFIX = "users-";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x55534e50;
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES * 3;
+    private static final int WINDOW_SIZE = 1 << 23;
+
+    private UserSnapshotFile() {
+    }
+
+    /**
+     * Describes a snapshot.
+     *
+     * @param generation the generation of the first log segment not covered by the snapshot
+     * @param lastId     the highest user id allocated when the snapshot was taken
+     * @param count      the number of users in the snapshot
+     */
+    record Snapshot(long generation, long lastId, long count) {
+    }
+
+    /**
+     * Writes a snapshot and makes it durable.
+     *
+     * @param directory  the directory holding the snapshots
+     * @param generation the generation of the first log segment not covered by the snapshot
+     * @param lastId     the highest allocated user id
+     * @param users      the users to write
+     * @return the written snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    static Snapshot write(Path directory, long generation, long lastId, Iterator<User> users) throws IOException {
+        Path target = snapshotPath(directory, generation);
+        Path temporary = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            CRC32C crc = new CRC32C();
+            long windowStart = HEADER_SIZE;
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, WINDOW_SIZE);
+            while (users.hasNext()) {
+                byte[] user = UserRecordCodec.encode(users.next());
+                int size = Integer.BYTES + user.length;
+                if (window.remaining() < size) {
+                    windowStart += finishWindow(window, crc);
+                    window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW_SIZE, size));
+                }
+                window.putInt(user.length).put(user);
+                count++;
+            }
+            long end = windowStart + finishWindow(window, crc);
+            channel.truncate(end);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt((int) crc.getValue())
+                    .putLong(generation)
+                    .putLong(lastId)
+                    .putLong(count)
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(directory);
+        return new Snapshot(generation, lastId, count);
+    }
+
+    /**
+     * Loads the latest snapshot, if there is one.
+     * The checksum is verified before any user is passed on.
+     *
+     * @param directory the directory holding the snapshots
+     * @param onUser    receives every user of the snapshot
+     * @return the loaded snapshot, or an empty optional if there is none
+     * @throws IOException if the latest snapshot cannot be read or is corrupt
+     */
+    static Optional<Snapshot> loadLatest(Path directory, Consumer<User> onUser) throws IOException {
+        List<Long> generations = UserWriteAheadLog.listGenerations(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (generations.isEmpty()) {
+            return Optional.empty();
+        }
+        Path file = snapshotPath(directory, generations.get(generations.size() - 1));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Snapshot " + file + " has an unknown format");
+            }
+            int checksum = header.getInt();
+            Snapshot snapshot = new Snapshot(header.getLong(), header.getLong(), header.getLong());
+
+            CRC32C crc = new CRC32C();
+            for (long position = HEADER_SIZE; position < channel.size(); position += WINDOW_SIZE) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(WINDOW_SIZE, channel.size() - position)));
+            }
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Snapshot " + file + " is corrupt");
+            }
+            readUsers(channel, snapshot.count(), onUser);
+            return Optional.of(snapshot);
+        }
+    }
+
+    /**
+     * Deletes the snapshots older than the given generation, along with abandoned temporary files.
+     *
+     * @param directory      the directory holding the snapshots
+     * @param oldestRetained the generation of the oldest snapshot to keep
+     * @throws IOException if a snapshot cannot be deleted
+     */
+    static void deleteBefore(Path directory, long oldestRetained) throws IOException {
+        for (long generation : UserWriteAheadLog.listGenerations(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (generation < oldestRetained) {
+                Files.deleteIfExists(snapshotPath(directory, generation));
+            }
+        }
+        for (long generation : UserWriteAheadLog.listGenerations(directory, SNAPSHOT_PREFIX,
+                SNAPSHOT_SUFFIX + TEMPORARY_SUFFIX)) {
+            if (generation < oldestRetained) {
+                Files.deleteIfExists(directory.resolve(snapshotPath(directory, generation).getFileName()
+                        + TEMPORARY_SUFFIX));
+            }
+        }
+    }
+
+    /**
+     * Forces the entries of a directory, such as a rename into it, to the storage device.
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException ignored) {
+            // Windows cannot open a directory, and makes a rename durable by itself
+        }
+    }
+
+    private static Path snapshotPath(Path directory, long generation) {
+        return directory.resolve(SNAPSHOT_PREFIX + UserWriteAheadLog.formatGeneration(generation) + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Adds the written part of a window to the checksum.
+     *
+     * @return the number of bytes written to the window
+     */
+    private static int finishWindow(MappedByteBuffer window, CRC32C crc) {
+        int written = window.position();
+        crc.update(window.duplicate().flip());
+        window.force();
+        return written;
+    }
+
+    private static void readUsers(FileChannel channel, long count, Consumer<User> onUser) throws IOException {
+        long windowStart = HEADER_SIZE;
+        MappedByteBuffer window = map(channel, windowStart, WINDOW_SIZE);
+        for (long i = 0; i < count; i++) {
+            if (window.remaining() < Integer.BYTES) {
+                windowStart += window.position();
+                window = map(channel, windowStart, WINDOW_SIZE);
+            }
+            int length = window.getInt(window.position());
+            if (window.remaining() < Integer.BYTES + length) {
+                windowStart += window.position();
+                window = map(channel, windowStart, Math.max(WINDOW_SIZE, Integer.BYTES + length));
+            }
+            window.position(window.position() + Integer.BYTES);
+            onUser.accept(UserRecordCodec.read(window.slice(window.position(), length)));
+            window.position(window.position() + length);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size, channel.size() - position));
+    }
+}
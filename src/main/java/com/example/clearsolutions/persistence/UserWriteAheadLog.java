@@ -0,0 +1,462 @@
+package com.example.clearsolutions.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import com.example.clearsolutions.entity.User;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of user mutations, split into segments numbered by generation.
+ *
+ * <p>Each record is framed as {@code [int length][int crc32c][byte type][payload]}, where the payload is an
+ * encoded user for a save and a user id for a delete. Appends only copy the record into an in-memory buffer;
+ * the buffer is written to the current segment with a single {@link FileChannel#write} per group of records,
+ * and forced according to the {@link FsyncPolicy}. A torn or corrupt record at the end of the last segment,
+ * left by a crash in the middle of a write, is truncated when the log is opened. A corrupt record in any
+ * earlier segment cannot be explained by a crash, so opening the log fails instead of skipping the records
+ * after it. Once a write fails, every later flush fails too, so that records lost with the failed write
+ * are never reported as durable.
+ *
+ * <p>Appends never park, so they are safe to call while holding a monitor on a virtual thread.
+ * Commits may block on the file system, and must be called outside of the atomic section of the store.
+ *
+ * <p>{@link #rotate()} starts a new segment, so that the segments before it can be dropped once a snapshot
+ * covers them.
+ */
+@Slf4j
+public final class UserWriteAheadLog implements Closeable {
+    private static final String SEGMENT_PREFIX = "users-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final int MAX_RECORD_SIZE = 1 << 24;
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+    private static final byte SAVE = 1;
+    private static final byte DELETE = 2;
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final ScheduledExecutorService fsyncScheduler;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private FileChannel channel;
+    private long generation;
+    private ByteBuffer pending = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+    private ByteBuffer flushing = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+    private long lastSequence;
+    private volatile long flushedRecords;
+    private IOException writeFailure;
+
+    private UserWriteAheadLog(Path directory, FileChannel channel, long generation,
+                              FsyncPolicy fsyncPolicy, long fsyncIntervalMs) {
+        this.directory = directory;
+        this.channel = channel;
+        this.generation = generation;
+        this.fsyncPolicy = fsyncPolicy;
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            fsyncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "user-wal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            fsyncScheduler.scheduleWithFixedDelay(this::flushQuietly,
+                    fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            fsyncScheduler = null;
+        }
+    }
+
+    /**
+     * Opens a log, replaying the records of every segment from the given generation on
+     * before it accepts new appends.
+     *
+     * @param directory       the directory holding the segments, created if it does not exist
+     * @param fromGeneration  the first generation to replay; older segments are ignored
+     * @param fsyncPolicy     when appended records are forced to disk
+     * @param fsyncIntervalMs the fsync interval for {@link FsyncPolicy#INTERVAL}
+     * @param onSave          receives every saved user, in log order
+     * @param onDelete        receives every deleted user id, in log order
+     * @return the opened log
+     * @throws IOException if the log cannot be read or opened, or a segment before the last one is corrupt
+     */
+    @SuppressWarnings("PMD.CloseResource") // the channel of the last segment is owned by the returned log
+    public static UserWriteAheadLog open(Path directory, long fromGeneration,
+                                         FsyncPolicy fsyncPolicy, long fsyncIntervalMs,
+                                         Consumer<User> onSave, LongConsumer onDelete) throws IOException {
+        Files.createDirectories(directory);
+        List<Long> generations = listGenerations(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX).stream()
+                .filter(segment -> segment >= fromGeneration)
+                .toList();
+        long records = 0;
+        for (int i = 0; i < generations.size() - 1; i++) {
+            Path path = segmentPath(directory, generations.get(i));
+            try (FileChannel segment = FileChannel.open(path, StandardOpenOption.READ)) {
+                Replay replay = replay(segment, onSave, onDelete);
+                if (segment.size() > replay.validLength()) {
+                    throw new IOException("Corrupt user log record at byte " + replay.validLength() + " of " + path);
+                }
+                records += replay.records();
+            }
+        }
+
+        long lastGeneration = generations.isEmpty() ? fromGeneration : generations.get(generations.size() - 1);
+        Path lastSegment = segmentPath(directory, lastGeneration);
+        FileChannel channel = FileChannel.open(lastSegment,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            Replay replay = replay(channel, onSave, onDelete);
+            if (channel.size() > replay.validLength()) {
+                log.warn("Truncating {} bytes of torn records at the end of {}",
+                        channel.size() - replay.validLength(), lastSegment);
+                channel.truncate(replay.validLength());
+            }
+            channel.position(replay.validLength());
+            log.info("Replayed {} user log records", records + replay.records());
+            return new UserWriteAheadLog(directory, channel, lastGeneration, fsyncPolicy, fsyncIntervalMs);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a save record.
+     *
+     * @param user the new state of the user
+     * @return the sequence number to pass to {@link #commit(long)}
+     */
+    public long appendSave(User user) {
+        return append(SAVE, UserRecordCodec.encode(user));
+    }
+
+    /**
+     * Appends a delete record.
+     *
+     * @param id the id of the deleted user
+     * @return the sequence number to pass to {@link #commit(long)}
+     */
+    public long appendDelete(long id) {
+        return append(DELETE, ByteBuffer.allocate(Long.BYTES).putLong(id).array());
+    }
+
+    /**
+     * Waits until the record with the given sequence number is as durable as the fsync policy requires.
+     * Concurrent callers share a single write and fsync.
+     *
+     * @param sequence the sequence number returned by an append
+     * @throws UncheckedIOException if the log cannot be written
+     */
+    public void commit(long sequence) {
+        try {
+            switch (fsyncPolicy) {
+                case ALWAYS -> flush(sequence, true);
+                case OS -> flush(sequence, false);
+                default -> {
+                    // INTERVAL: the scheduler forces the log in the background
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the user log", e);
+        }
+    }
+
+    /**
+     * Writes and forces every appended record.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public void sync() throws IOException {
+        flush(Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Counts the records appended since the log was opened.
+     *
+     * @return the number of appended records
+     */
+    public long appendedRecords() {
+        appendLock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Forces every record appended so far into the current segment and starts a new one.
+     * Appends are only blocked while the buffers are swapped.
+     *
+     * @return the generation of the new segment
+     * @throws IOException if the segments cannot be written or created
+     */
+    @SuppressWarnings("PMD.CloseResource") // the new segment is closed by the next rotation or by close()
+    public long rotate() throws IOException {
+        flushLock.lock();
+        try {
+            checkNotFailed();
+            FileChannel next = FileChannel.open(segmentPath(directory, generation + 1),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileChannel previous = channel;
+            long batchEnd;
+            appendLock.lock();
+            try {
+                batchEnd = swapBuffers();
+                channel = next;
+                generation++;
+            } finally {
+                appendLock.unlock();
+            }
+            try (previous) {
+                write(previous, true);
+            }
+            flushedRecords = batchEnd;
+            return generation;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments older than the given generation.
+     *
+     * @param oldestRetained the generation of the oldest segment to keep
+     * @throws IOException if a segment cannot be deleted
+     */
+    public void deleteSegmentsBefore(long oldestRetained) throws IOException {
+        for (long segment : listGenerations(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (segment < oldestRetained) {
+                Files.deleteIfExists(segmentPath(directory, segment));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fsyncScheduler != null) {
+            fsyncScheduler.shutdown();
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Lists the generations of the files in a directory named {@code <prefix><generation><suffix>}.
+     *
+     * @param directory the directory
+     * @param prefix    the file name prefix
+     * @param suffix    the file name suffix
+     * @return the generations in ascending order
+     * @throws IOException if the directory cannot be listed
+     */
+    static List<Long> listGenerations(Path directory, String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> name.substring(prefix.length(), name.length() - suffix.length()))
+                    .filter(generation -> !generation.isEmpty() && generation.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Formats a generation so that file names sort in generation order.
+     *
+     * @param generation the generation
+     * @return the zero-padded generation
+     */
+    static String formatGeneration(long generation) {
+        return String.format("%020d", generation);
+    }
+
+    private static Path segmentPath(Path directory, long generation) {
+        return directory.resolve(SEGMENT_PREFIX + formatGeneration(generation) + SEGMENT_SUFFIX);
+    }
+
+    private long append(byte type, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(payload);
+        int length = 1 + payload.length;
+
+        lockWithoutParking();
+        try {
+            ensureCapacity(HEADER_SIZE + length);
+            pending.putInt(length)
+                    .putInt((int) crc.getValue())
+                    .put(type)
+                    .put(payload);
+            return ++lastSequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Acquires the append lock by spinning instead of parking. Appends run inside the atomic section of the
+     * store, which holds a monitor, and a virtual thread that parks while holding a monitor pins its carrier.
+     * Every holder of the append lock only copies a few bytes, so the wait is short.
+     */
+    private void lockWithoutParking() {
+        int spins = 0;
+        while (!appendLock.tryLock()) {
+            spins++;
+            if (spins % SPINS_BEFORE_YIELD == 0) {
+                Thread.yield();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (pending.remaining() < size) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(pending.capacity() * 2, pending.position() + size));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+    }
+
+    private void flush(long sequence, boolean force) throws IOException {
+        if (flushedRecords >= sequence) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (flushedRecords >= sequence) {
+                return;
+            }
+            checkNotFailed();
+            long batchEnd;
+            appendLock.lock();
+            try {
+                batchEnd = swapBuffers();
+            } finally {
+                appendLock.unlock();
+            }
+            write(channel, force);
+            flushedRecords = batchEnd;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private long swapBuffers() {
+        ByteBuffer batch = pending;
+        pending = flushing;
+        flushing = batch;
+        return lastSequence;
+    }
+
+    private void checkNotFailed() throws IOException {
+        if (writeFailure != null) {
+            throw new IOException("The user log failed to write earlier records", writeFailure);
+        }
+    }
+
+    private void write(FileChannel target, boolean force) throws IOException {
+        flushing.flip();
+        boolean written = flushing.hasRemaining();
+        try {
+            while (flushing.hasRemaining()) {
+                target.write(flushing);
+            }
+            if (written && force) {
+                target.force(false);
+            }
+        } catch (IOException e) {
+            writeFailure = e;
+            throw e;
+        } finally {
+            flushing.clear();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            log.error("Failed to sync the user log", e);
+        }
+    }
+
+    private static Replay replay(FileChannel channel, Consumer<User> onSave, LongConsumer onDelete)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long position = 0;
+        long records = 0;
+        while (readFully(channel, header.clear(), position)) {
+            header.flip();
+            int length = header.getInt();
+            final int checksum = header.getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length);
+            if (!readFully(channel, record, position + HEADER_SIZE)) {
+                break;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(record.array());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            record.flip();
+            byte type = record.get();
+            if (type == SAVE) {
+                onSave.accept(UserRecordCodec.read(record));
+            } else if (type == DELETE) {
+                onDelete.accept(record.getLong());
+            } else {
+                break;
+            }
+            position += HEADER_SIZE + length;
+            records++;
+        }
+        return new Replay(position, records);
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    /**
+     * Outcome of replaying one segment.
+     *
+     * @param validLength the length of the segment up to the end of its last valid record
+     * @param records     the number of replayed records
+     */
+    private record Replay(long validLength, long records) {
+    }
+}
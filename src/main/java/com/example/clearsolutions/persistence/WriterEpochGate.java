@@ -0,0 +1,70 @@
+package com.example.clearsolutions.persistence;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tracks in-flight writers by epoch, so that a snapshot can wait for every writer that started
+ * before a point in time without blocking the writers that start after it.
+ *
+ * <p>Writers register with the current epoch. {@link #advance()} moves new writers to the next epoch and
+ * waits until the writers still registered with the previous one have left. Only one thread may advance
+ * the gate at a time.
+ */
+final class WriterEpochGate {
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int SPINS_BEFORE_PARKING = 100;
+
+    private final AtomicLong[] writers = {new AtomicLong(), new AtomicLong()};
+    private volatile long epoch;
+
+    /**
+     * Registers a writer with the current epoch.
+     *
+     * @return the epoch to pass to {@link #exit(long)}
+     */
+    long enter() {
+        while (true) {
+            long current = epoch;
+            AtomicLong counter = counter(current);
+            counter.incrementAndGet();
+            if (epoch == current) {
+                return current;
+            }
+            // The gate advanced before the writer was counted, so the writer must join the new epoch
+            counter.decrementAndGet();
+        }
+    }
+
+    /**
+     * Unregisters a writer.
+     *
+     * @param writerEpoch the epoch returned by {@link #enter()}
+     */
+    void exit(long writerEpoch) {
+        counter(writerEpoch).decrementAndGet();
+    }
+
+    /**
+     * Starts a new epoch and waits until every writer of the previous epoch has left.
+     */
+    void advance() {
+        long previous = epoch;
+        epoch = previous + 1;
+        AtomicLong counter = counter(previous);
+        int spins = 0;
+        while (counter.get() != 0) {
+            if (spins < SPINS_BEFORE_PARKING) {
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    private AtomicLong counter(long writerEpoch) {
+        return writers[(int) (writerEpoch & 1)];
+    }
+}
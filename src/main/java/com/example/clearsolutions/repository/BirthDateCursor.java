@@ -0,0 +1,67 @@
+package com.example.clearsolutions.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.exceptions.InvalidCursorException;
+
+/**
+ * Position in the birth date order of users, used for keyset pagination.
+ * Clients only see it as an opaque token.
+ *
+ * @param epochDay the birth date of the last returned user as an epoch day
+ * @param id       the id of the last returned user
+ */
+public record BirthDateCursor(long epochDay, long id) implements Comparable<BirthDateCursor> {
+    private static final String SEPARATOR = ":";
+    private static final int PARTS = 2;
+    private static final Comparator<BirthDateCursor> ORDER = Comparator.comparingLong(BirthDateCursor::epochDay)
+            .thenComparingLong(BirthDateCursor::id);
+
+    /**
+     * Creates a cursor pointing at the given user.
+     *
+     * @param user the last user of a page
+     * @return the cursor
+     */
+    public static BirthDateCursor of(User user) {
+        return new BirthDateCursor(user.getBirthDate().toEpochDay(), user.getId());
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token the opaque token
+     * @return the cursor
+     * @throws InvalidCursorException if the token is malformed
+     */
+    public static BirthDateCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split(SEPARATOR);
+            if (parts.length != PARTS) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            return new BirthDateCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Encodes the cursor as an opaque URL-safe token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((epochDay + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int compareTo(BirthDateCursor other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.clearsolutions.repository;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import com.example.clearsolutions.entity.User;
+
+/**
+ * Secondary index of users ordered by birth date and then by id.
+ * Range lookups cost O(log n + k) where k is the number of matching users.
+ * Users without a birth date are not indexed.
+ */
+class BirthDateIndex {
+    private final ConcurrentNavigableMap<BirthDateCursor, User> users = new ConcurrentSkipListMap<>();
+
+    /**
+     * Adds a user to the index.
+     *
+     * @param user the user to add
+     */
+    void add(User user) {
+        if (user.getBirthDate() != null) {
+            users.put(BirthDateCursor.of(user), user);
+        }
+    }
+
+    /**
+     * Removes a user from the index.
+     *
+     * @param user the user to remove
+     */
+    void remove(User user) {
+        if (user.getBirthDate() != null) {
+            users.remove(BirthDateCursor.of(user));
+        }
+    }
+
+    /**
+     * Replaces the indexed state of a user.
+     *
+     * @param previous the state currently indexed
+     * @param current  the new state
+     */
+    void replace(User previous, User current) {
+        remove(previous);
+        add(current);
+    }
+
+    /**
+     * Streams users born within the range, ordered by birth date and id.
+     *
+     * @param from  the start of the range, inclusive
+     * @param to    the end of the range, inclusive
+     * @param after the position to continue after, or {@code null} to start at the beginning of the range
+     * @return the matching users
+     */
+    Stream<User> findBetween(LocalDate from, LocalDate to, BirthDateCursor after) {
+        BirthDateCursor lower = new BirthDateCursor(from.toEpochDay(), Long.MIN_VALUE);
+        BirthDateCursor upper = new BirthDateCursor(to.toEpochDay(), Long.MAX_VALUE);
+        if (after != null && after.compareTo(upper) >= 0) {
+            return Stream.empty();
+        }
+        if (after != null && after.compareTo(lower) >= 0) {
+            return users.subMap(after, false, upper, true).values().stream();
+        }
+        return users.subMap(lower, true, upper, true).values().stream();
+    }
+
+    /**
+     * Counts the indexed users.
+     *
+     * @return the number of indexed users
+     */
+    int size() {
+        return users.size();
+    }
+}
@@ -0,0 +1,353 @@
+package com.example.clearsolutions.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+
+/**
+ * Compact user repository that keeps users off the heap, encoded in a {@link UserArena}, and builds
+ * {@link User} objects only when they are read. The heap holds an id-addressed column of record offsets,
+ * a birth date index of primitive ids and a hash table of email hashes, which together cost a few dozen
+ * bytes per user instead of several hundred for a map of user objects, and give the garbage collector
+ * almost nothing to trace. The text index is shared with {@link InMemoryUserRepository}.
+ *
+ * <p>Writes are serialized by a single lock, and each one appends a new record and publishes its offset
+ * before the secondary indexes move, so readers never block and never see a partially written user.
+ * Emails are unique as in {@link InMemoryUserRepository}, and the store version is incremented after each
+ * mutation is published.
+ */
+@Repository
+@ConditionalOnProperty(name = "user.storage.engine", havingValue = "columnar")
+public class ColumnarUserRepository implements RecoverableUserRepository {
+    private static final String BIRTH_DATE_INDEX = "birthDate";
+    private static final String EMAIL_INDEX = "email";
+    private static final String TEXT_INDEX = "text";
+
+    private final UserArena arena = new UserArena();
+    private final OffsetTable offsets = new OffsetTable();
+    private final EpochDayIndex birthDateIndex = new EpochDayIndex();
+    private final EmailHashIndex emailIndex = new EmailHashIndex();
+    private final TextIndex textIndex = new TextIndex();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicLong storeVersion = new AtomicLong();
+    private final AtomicLong userCount = new AtomicLong();
+
+    @Override
+    public long nextId() {
+        return counter.incrementAndGet();
+    }
+
+    @Override
+    public long lastId() {
+        return counter.get();
+    }
+
+    @Override
+    public void reserveIds(long lastId) {
+        counter.accumulateAndGet(lastId, Math::max);
+    }
+
+    @Override
+    public User save(User user) {
+        return save(user, saved -> {
+        });
+    }
+
+    @Override
+    public User save(User user, Consumer<User> onSaved) {
+        return store(user, false, onSaved);
+    }
+
+    @Override
+    public User restore(User user) {
+        return store(user, true, restored -> {
+        });
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(read(id));
+    }
+
+    @Override
+    public Optional<User> findById(Long id, UserFields fields) {
+        return Optional.ofNullable(read(id, fields));
+    }
+
+    @Override
+    public Optional<User> update(Long id, Consumer<User> modifier) {
+        return update(id, modifier, user -> {
+        });
+    }
+
+    @Override
+    public Optional<User> update(Long id, Consumer<User> modifier, Consumer<User> onUpdated) {
+        User updated;
+        writeLock.lock();
+        try {
+            User existing = read(id);
+            if (existing == null) {
+                return Optional.empty();
+            }
+            updated = existing.toBuilder().build();
+            modifier.accept(updated);
+            updated.setVersion(existing.getVersion() + 1);
+            boolean claimed = claimEmail(updated, false);
+            try {
+                onUpdated.accept(updated);
+            } catch (RuntimeException e) {
+                if (claimed) {
+                    releaseEmail(updated);
+                }
+                throw e;
+            }
+            write(existing, updated);
+        } finally {
+            writeLock.unlock();
+        }
+        storeVersion.incrementAndGet();
+        return Optional.of(updated);
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id) {
+        return deleteById(id, user -> {
+        });
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id, Consumer<User> onDeleted) {
+        User existing;
+        writeLock.lock();
+        try {
+            existing = read(id);
+            if (existing == null) {
+                return Optional.empty();
+            }
+            onDeleted.accept(existing);
+            arena.discard(offsets.set(id, UserArena.NO_RECORD));
+            userCount.decrementAndGet();
+            birthDateIndex.remove(existing);
+            releaseEmail(existing);
+            textIndex.replace(existing, null);
+            arena.compact(offsets);
+        } finally {
+            writeLock.unlock();
+        }
+        storeVersion.incrementAndGet();
+        return Optional.of(existing);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        String normalized = EmailIndex.normalize(email);
+        for (long id : emailIndex.candidates(normalized.hashCode())) {
+            User user = read(id);
+            if (user != null && user.getEmail() != null && EmailIndex.normalize(user.getEmail()).equals(normalized)) {
+                return Optional.of(user);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Stream<User> findAll() {
+        return LongStream.rangeClosed(1, counter.get())
+                .mapToObj(this::read)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Stream<User> findByBirthDateBetween(LocalDate from, LocalDate to, BirthDateCursor after) {
+        return birthDateIndex.findBetween(from, to, after, this::read);
+    }
+
+    @Override
+    public Stream<User> findByBirthDateBetween(LocalDate from, LocalDate to, BirthDateCursor after,
+                                              UserFields fields) {
+        return birthDateIndex.findBetween(from, to, after, id -> read(id, fields));
+    }
+
+    @Override
+    public List<UserMatch> findByText(String query, int maxEdits, int limit) {
+        return textIndex.search(query, maxEdits, limit).stream()
+                .flatMap(match -> Optional.ofNullable(read(match.getKey()))
+                        .map(user -> new UserMatch(user, match.getValue()))
+                        .stream())
+                .toList();
+    }
+
+    @Override
+    public long count() {
+        return userCount.get();
+    }
+
+    @Override
+    public Map<String, Long> indexSizes() {
+        return Map.of(BIRTH_DATE_INDEX, birthDateIndex.size(), EMAIL_INDEX, (long) emailIndex.size(),
+                TEXT_INDEX, (long) textIndex.size());
+    }
+
+    @Override
+    public long version() {
+        return storeVersion.get();
+    }
+
+    /**
+     * Counts the off-heap bytes held by the user records, including space not yet reclaimed from
+     * overwritten and deleted records.
+     *
+     * @return the number of allocated off-heap bytes
+     */
+    public long allocatedBytes() {
+        return arena.allocatedBytes();
+    }
+
+    private User store(User user, boolean recovering, Consumer<User> onStored) {
+        writeLock.lock();
+        try {
+            User existing = read(user.getId());
+            boolean claimed = claimEmail(user, recovering);
+            try {
+                onStored.accept(user);
+            } catch (RuntimeException e) {
+                if (claimed) {
+                    releaseEmail(user);
+                }
+                throw e;
+            }
+            write(existing, user);
+        } finally {
+            writeLock.unlock();
+        }
+        counter.accumulateAndGet(user.getId(), Math::max);
+        storeVersion.incrementAndGet();
+        return user;
+    }
+
+    /**
+     * Publishes the new record of a user and moves the secondary indexes to it.
+     * The new email must already be claimed.
+     *
+     * @param previous the state currently stored, or {@code null} for a new user
+     * @param current  the new state
+     */
+    private void write(User previous, User current) {
+        long previousOffset = offsets.set(current.getId(), arena.append(current));
+        if (previous == null) {
+            userCount.incrementAndGet();
+        } else {
+            arena.discard(previousOffset);
+            releaseEmailIfChanged(previous, current);
+            birthDateIndex.remove(previous);
+        }
+        birthDateIndex.add(current);
+        textIndex.replace(previous, current);
+        arena.compact(offsets);
+    }
+
+    /**
+     * Reads the current state of a user, looking its offset up again if its record moves while it is read.
+     *
+     * @param id the id of the user
+     * @return the user, or {@code null} if there is no such user
+     */
+    private User read(long id) {
+        return read(id, UserFields.ALL);
+    }
+
+    /**
+     * Reads the current state of a user, decoding only the requested string fields.
+     *
+     * @param id     the id of the user
+     * @param fields the fields to decode
+     * @return the user, or {@code null} if there is no such user
+     */
+    private User read(long id, UserFields fields) {
+        while (true) {
+            long offset = offsets.get(id);
+            if (offset == UserArena.NO_RECORD) {
+                return null;
+            }
+            User user = arena.read(offset, fields);
+            if (user != null) {
+                return user;
+            }
+        }
+    }
+
+    /**
+     * Claims the email of a user. Every candidate with the same hash is checked before the user is found to
+     * hold the email already, because a user keeps its entry when it changes to another email with the
+     * same hash.
+     *
+     * @param user     the user that takes the email
+     * @param takeOver whether to take the email over from another user that holds it, as recovery does
+     * @return true if the email was claimed now, false if the user already held it or has no email
+     * @throws EmailAlreadyExistsException if another user holds the email and it may not be taken over
+     */
+    private boolean claimEmail(User user, boolean takeOver) {
+        if (user.getEmail() == null) {
+            return false;
+        }
+        String email = EmailIndex.normalize(user.getEmail());
+        int hash = email.hashCode();
+        boolean held = false;
+        for (long owner : emailIndex.candidates(hash)) {
+            if (owner == user.getId()) {
+                held = true;
+                continue;
+            }
+            User holder = read(owner);
+            if (holder != null && holder.getEmail() != null && EmailIndex.normalize(holder.getEmail()).equals(email)) {
+                if (!takeOver) {
+                    throw new EmailAlreadyExistsException("Email is already in use");
+                }
+                emailIndex.remove(hash, owner);
+            }
+        }
+        if (held) {
+            return false;
+        }
+        emailIndex.add(hash, user.getId());
+        return true;
+    }
+
+    private void releaseEmail(User user) {
+        if (user.getEmail() != null) {
+            emailIndex.remove(EmailIndex.normalize(user.getEmail()).hashCode(), user.getId());
+        }
+    }
+
+    /**
+     * Releases the previous email of a user whose email has changed. An email with the same hash as the new one
+     * shares its entry, which stays.
+     *
+     * @param previous the previous state of the user
+     * @param current  the new state of the user
+     */
+    private void releaseEmailIfChanged(User previous, User current) {
+        if (previous.getEmail() == null) {
+            return;
+        }
+        int previousHash = EmailIndex.normalize(previous.getEmail()).hashCode();
+        if (current.getEmail() == null || EmailIndex.normalize(current.getEmail()).hashCode() != previousHash) {
+            emailIndex.remove(previousHash, previous.getId());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.clearsolutions.repository;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing hash table from the hash of a normalized email to the ids of the users whose email has that
+ * hash. It holds no strings: callers compare the email of each candidate user. Each slot packs the hash into
+ * its high half and the id into its low half, so the table costs one primitive slot per user and ids must stay
+ * below {@value #MAX_ID}. Readers probe optimistically and retry under a read lock only if a write overlapped
+ * them; only one thread may write at a time.
+ */
+class EmailHashIndex {
+    static final long MAX_ID = 0xFFFF_FFFEL;
+
+    private static final long EMPTY = 0;
+    private static final long REMOVED = -1;
+    private static final long ID_MASK = 0xFFFF_FFFFL;
+    private static final int HASH_SHIFT = 32;
+    private static final int MIN_CAPACITY = 16;
+    private static final int LOAD_NUMERATOR = 3;
+    private static final int LOAD_DENOMINATOR = 4;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] slots = new long[MIN_CAPACITY];
+    private int occupied;
+    private volatile int entries;
+
+    /**
+     * Adds a user under the hash of its email.
+     *
+     * @param hash the hash of the normalized email
+     * @param id   the id of the user
+     * @throws IllegalArgumentException if the id is not positive or above {@value #MAX_ID}
+     */
+    void add(int hash, long id) {
+        if (id <= 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("User ids must be between 1 and " + MAX_ID + ": " + id);
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (occupied >= slots.length / LOAD_DENOMINATOR * LOAD_NUMERATOR) {
+                rehash();
+            }
+            int mask = slots.length - 1;
+            int slot = spread(hash) & mask;
+            while (slots[slot] != EMPTY && slots[slot] != REMOVED) {
+                slot = (slot + 1) & mask;
+            }
+            if (slots[slot] == EMPTY) {
+                occupied++;
+            }
+            slots[slot] = pack(hash, id);
+            entries++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a user from under the hash of its email, if it is there.
+     *
+     * @param hash the hash of the normalized email
+     * @param id   the id of the user
+     */
+    void remove(int hash, long id) {
+        long stamp = lock.writeLock();
+        try {
+            long packed = pack(hash, id);
+            int mask = slots.length - 1;
+            for (int slot = spread(hash) & mask; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (slots[slot] == packed) {
+                    slots[slot] = REMOVED;
+                    entries--;
+                    return;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Finds the users whose email may have the given hash.
+     *
+     * @param hash the hash of the normalized email
+     * @return the ids of the users, usually at most one
+     */
+    long[] candidates(int hash) {
+        long stamp = lock.tryOptimisticRead();
+        long[] found = probe(hash);
+        if (lock.validate(stamp)) {
+            return found;
+        }
+        stamp = lock.readLock();
+        try {
+            return probe(hash);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Counts the indexed users.
+     *
+     * @return the number of indexed users
+     */
+    int size() {
+        return entries;
+    }
+
+    private long[] probe(int hash) {
+        long[] current = slots;
+        int mask = current.length - 1;
+        long[] found = new long[0];
+        int slot = spread(hash) & mask;
+        for (int probes = 0; probes < current.length && current[slot] != EMPTY; probes++) {
+            if (current[slot] != REMOVED && (int) (current[slot] >>> HASH_SHIFT) == hash) {
+                found = Arrays.copyOf(found, found.length + 1);
+                found[found.length - 1] = current[slot] & ID_MASK;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return found;
+    }
+
+    private void rehash() {
+        final long[] old = slots;
+        int capacity = MIN_CAPACITY;
+        while ((entries + 1) * 2 > capacity) {
+            capacity <<= 1;
+        }
+        slots = new long[capacity];
+        occupied = 0;
+        int mask = capacity - 1;
+        for (long packed : old) {
+            if (packed != EMPTY && packed != REMOVED) {
+                int slot = spread((int) (packed >>> HASH_SHIFT)) & mask;
+                while (slots[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = packed;
+                occupied++;
+            }
+        }
+    }
+
+    private static long pack(int hash, long id) {
+        return (long) hash << HASH_SHIFT | id;
+    }
+
+    private static int spread(int hash) {
+        return hash * 0x9e3779b9 ^ hash >>> 16;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.clearsolutions.repository;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+
+/**
+ * Unique secondary index from email to user id. Emails are compared after trimming them and
+ * converting them to lower case, so addresses that differ only in case belong to the same user.
+ * Claims are atomic per email, so two users can never hold the same email, whichever ids they have.
+ * Users without an email are not indexed.
+ */
+class EmailIndex {
+    private final ConcurrentMap<String, Long> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Normalizes an email for comparison.
+     *
+     * @param email the email as entered
+     * @return the trimmed, lower case email
+     */
+    static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Claims the email of a user.
+     *
+     * @param user the user that takes the email
+     * @return true if the email was claimed now, false if the user already held it or has no email
+     * @throws EmailAlreadyExistsException if another user holds the email
+     */
+    boolean claim(User user) {
+        if (user.getEmail() == null) {
+            return false;
+        }
+        Long owner = ids.putIfAbsent(normalize(user.getEmail()), user.getId());
+        if (owner == null) {
+            return true;
+        }
+        if (owner.longValue() != user.getId().longValue()) {
+            throw new EmailAlreadyExistsException("Email is already in use");
+        }
+        return false;
+    }
+
+    /**
+     * Gives the email of a user to that user, even if another user holds it.
+     * Used while recovering a state in which a later record takes over the email.
+     *
+     * @param user the user that takes the email
+     */
+    void force(User user) {
+        if (user.getEmail() != null) {
+            ids.put(normalize(user.getEmail()), user.getId());
+        }
+    }
+
+    /**
+     * Releases the email of a user, unless another user has taken it over since.
+     *
+     * @param user the user that gives up its email
+     */
+    void release(User user) {
+        if (user.getEmail() != null) {
+            ids.remove(normalize(user.getEmail()), user.getId());
+        }
+    }
+
+    /**
+     * Releases the previous email of a user whose email has changed.
+     * The new email must already be claimed.
+     *
+     * @param previous the previous state of the user
+     * @param current  the new state of the user
+     */
+    void releaseIfChanged(User previous, User current) {
+        if (previous.getEmail() != null && (current.getEmail() == null
+                || !normalize(previous.getEmail()).equals(normalize(current.getEmail())))) {
+            release(previous);
+        }
+    }
+
+    /**
+     * Finds the id of the user holding an email.
+     *
+     * @param email the email, in any case
+     * @return the id of the user, or an empty optional if no user holds the email
+     */
+    Optional<Long> find(String email) {
+        return Optional.ofNullable(ids.get(normalize(email)));
+    }
+
+    /**
+     * Counts the indexed emails.
+     *
+     * @return the number of indexed emails
+     */
+    int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.clearsolutions.repository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+import com.example.clearsolutions.entity.User;
+
+/**
+ * Secondary index of user ids ordered by birth date and then by id, without references to user objects.
+ * Each epoch day holds a sorted array of ids that is copied on write, so it costs eight bytes per user and
+ * readers never see a partially updated day. Users without a birth date are not indexed.
+ */
+class EpochDayIndex {
+    private final ConcurrentNavigableMap<Long, long[]> idsByDay = new ConcurrentSkipListMap<>();
+    private final AtomicLong indexedUsers = new AtomicLong();
+
+    /**
+     * Adds a user to the index.
+     *
+     * @param user the user to add
+     */
+    void add(User user) {
+        if (user.getBirthDate() == null) {
+            return;
+        }
+        idsByDay.compute(user.getBirthDate().toEpochDay(), (day, ids) -> {
+            long[] current = ids == null ? new long[0] : ids;
+            int position = Arrays.binarySearch(current, user.getId());
+            if (position >= 0) {
+                return current;
+            }
+            int insertion = -position - 1;
+            long[] grown = new long[current.length + 1];
+            System.arraycopy(current, 0, grown, 0, insertion);
+            grown[insertion] = user.getId();
+            System.arraycopy(current, insertion, grown, insertion + 1, current.length - insertion);
+            indexedUsers.incrementAndGet();
+            return grown;
+        });
+    }
+
+    /**
+     * Removes a user from the index.
+     *
+     * @param user the user to remove
+     */
+    void remove(User user) {
+        if (user.getBirthDate() == null) {
+            return;
+        }
+        idsByDay.computeIfPresent(user.getBirthDate().toEpochDay(), (day, ids) -> {
+            int position = Arrays.binarySearch(ids, user.getId());
+            if (position < 0) {
+                return ids;
+            }
+            indexedUsers.decrementAndGet();
+            long[] shrunk = new long[ids.length - 1];
+            System.arraycopy(ids, 0, shrunk, 0, position);
+            System.arraycopy(ids, position + 1, shrunk, position, shrunk.length - position);
+            return shrunk.length == 0 ? null : shrunk;
+        });
+    }
+
+    /**
+     * Streams users born within the range, ordered by birth date and id.
+     * Users read after their birth date has changed are left out, since they are also indexed under the new date.
+     *
+     * @param from   the start of the range, inclusive
+     * @param to     the end of the range, inclusive
+     * @param after  the position to continue after, or {@code null} to start at the beginning of the range
+     * @param reader reads the current state of a user by id, or returns {@code null} if it has been deleted
+     * @return the matching users
+     */
+    Stream<User> findBetween(LocalDate from, LocalDate to, BirthDateCursor after, LongFunction<User> reader) {
+        long lower = from.toEpochDay();
+        long upper = to.toEpochDay();
+        if (after != null && after.epochDay() > upper) {
+            return Stream.empty();
+        }
+        BirthDateCursor start = after != null && after.epochDay() >= lower ? after : null;
+        ConcurrentNavigableMap<Long, long[]> days = idsByDay.subMap(
+                start == null ? lower : start.epochDay(), true, upper, true);
+        return days.entrySet().stream()
+                .flatMap(day -> Arrays.stream(day.getValue(), firstAfter(day, start), day.getValue().length)
+                        .mapToObj(reader)
+                        .filter(Objects::nonNull)
+                        .filter(user -> user.getBirthDate() != null
+                                && user.getBirthDate().toEpochDay() == day.getKey()));
+    }
+
+    /**
+     * Counts the indexed users.
+     *
+     * @return the number of indexed users
+     */
+    long size() {
+        return indexedUsers.get();
+    }
+
+    private static int firstAfter(Map.Entry<Long, long[]> day, BirthDateCursor start) {
+        if (start == null || day.getKey() != start.epochDay()) {
+            return 0;
+        }
+        int position = Arrays.binarySearch(day.getValue(), start.id());
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.clearsolutions.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates user ids in blocks, so that concurrent writers rarely touch the shared counter.
+ * Each calling thread is mapped to one of a fixed number of stripes, and a stripe hands out the ids of
+ * the block it took last before it takes the next {@value #BLOCK_SIZE} ids from the shared counter.
+ * Stripes are chosen by thread rather than kept per thread, so short-lived virtual threads do not
+ * abandon a block each.
+ *
+ * <p>Ids are unique but not ordered across stripes, and ids left in the blocks of a stopped process are
+ * never used. Ids up to a reserved one are never handed out: a stripe whose block starts at or below it
+ * takes a new block.
+ */
+class IdBlockAllocator {
+    static final int BLOCK_SIZE = 64;
+
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicLong reserved = new AtomicLong();
+    private final Stripe[] stripes;
+
+    /**
+     * Creates an allocator.
+     *
+     * @param stripeCount the number of stripes, a power of two
+     */
+    IdBlockAllocator(int stripeCount) {
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Allocates the next id of the stripe of the calling thread.
+     *
+     * @return a new unique id
+     */
+    long next() {
+        int index = ShardedUserRepository.spread(Thread.currentThread().getId()) & (stripes.length - 1);
+        Stripe stripe = stripes[index];
+        synchronized (stripe) {
+            if (stripe.next > stripe.limit || stripe.next <= reserved.get()) {
+                stripe.limit = counter.addAndGet(BLOCK_SIZE);
+                stripe.next = stripe.limit - BLOCK_SIZE + 1;
+            }
+            return stripe.next++;
+        }
+    }
+
+    /**
+     * Returns the highest id taken from the shared counter, which is at least the highest id handed out.
+     *
+     * @return the last allocated id, or zero if none was allocated
+     */
+    long last() {
+        return counter.get();
+    }
+
+    /**
+     * Makes sure that ids up to the given one are never handed out, including the ids left in the blocks
+     * that stripes have already taken. Writes only when the id is above the highest reserved one.
+     *
+     * @param lastId the highest id to reserve
+     */
+    void reserve(long lastId) {
+        if (lastId > reserved.get()) {
+            reserved.accumulateAndGet(lastId, Math::max);
+            counter.accumulateAndGet(lastId, Math::max);
+        }
+    }
+
+    /**
+     * Block of ids of one stripe, guarded by the stripe itself.
+     */
+    private static final class Stripe {
+        private long next = 1;
+        private long limit;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.clearsolutions.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+
+/**
+ * Default user repository backed by a concurrent id-keyed map of heap objects.
+ * Lookups and deletes are O(1), and writes to different users never contend on a shared lock.
+ * Secondary indexes are maintained inside the per-id atomic section of the map,
+ * so they always reflect the latest state of every user. Emails are unique: a write that would give a user
+ * the email of another user fails with {@link EmailAlreadyExistsException} and leaves the store unchanged.
+ * The store version is incremented after each mutation is published, so a reader that sees a new
+ * store version always sees the mutation behind it.
+ */
+@Repository
+@ConditionalOnProperty(name = "user.storage.engine", havingValue = "heap", matchIfMissing = true)
+public class InMemoryUserRepository implements RecoverableUserRepository {
+    private static final String BIRTH_DATE_INDEX = "birthDate";
+    private static final String EMAIL_INDEX = "email";
+    private static final String TEXT_INDEX = "text";
+
+    private final ConcurrentMap<Long, User> users = new ConcurrentHashMap<>();
+    private final BirthDateIndex birthDateIndex = new BirthDateIndex();
+    private final EmailIndex emailIndex;
+    private final TextIndex textIndex = new TextIndex();
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicLong storeVersion = new AtomicLong();
+
+    public InMemoryUserRepository() {
+        this(new EmailIndex());
+    }
+
+    /**
+     * Creates a repository that claims emails in the given index, so that emails stay unique across
+     * every repository sharing it. Used for the shards of a {@link ShardedUserRepository}.
+     *
+     * @param emailIndex the email index, possibly shared
+     */
+    InMemoryUserRepository(EmailIndex emailIndex) {
+        this.emailIndex = emailIndex;
+    }
+
+    @Override
+    public long nextId() {
+        return counter.incrementAndGet();
+    }
+
+    @Override
+    public long lastId() {
+        return counter.get();
+    }
+
+    @Override
+    public void reserveIds(long lastId) {
+        counter.accumulateAndGet(lastId, Math::max);
+    }
+
+    @Override
+    public User save(User user) {
+        return save(user, saved -> {
+        });
+    }
+
+    @Override
+    public User save(User user, Consumer<User> onSaved) {
+        users.compute(user.getId(), (key, existing) -> {
+            boolean claimed = emailIndex.claim(user);
+            try {
+                onSaved.accept(user);
+            } catch (RuntimeException e) {
+                if (claimed) {
+                    emailIndex.release(user);
+                }
+                throw e;
+            }
+            index(existing, user);
+            return user;
+        });
+        counter.accumulateAndGet(user.getId(), Math::max);
+        storeVersion.incrementAndGet();
+        return user;
+    }
+
+    @Override
+    public User restore(User user) {
+        users.compute(user.getId(), (key, existing) -> {
+            emailIndex.force(user);
+            index(existing, user);
+            return user;
+        });
+        counter.accumulateAndGet(user.getId(), Math::max);
+        storeVersion.incrementAndGet();
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public Optional<User> update(Long id, Consumer<User> modifier) {
+        return update(id, modifier, user -> {
+        });
+    }
+
+    @Override
+    public Optional<User> update(Long id, Consumer<User> modifier, Consumer<User> onUpdated) {
+        Optional<User> result = Optional.ofNullable(users.computeIfPresent(id, (key, existing) -> {
+            User updated = existing.toBuilder().build();
+            modifier.accept(updated);
+            updated.setVersion(existing.getVersion() + 1);
+            boolean claimed = emailIndex.claim(updated);
+            try {
+                onUpdated.accept(updated);
+            } catch (RuntimeException e) {
+                if (claimed) {
+                    emailIndex.release(updated);
+                }
+                throw e;
+            }
+            index(existing, updated);
+            return updated;
+        }));
+        result.ifPresent(user -> storeVersion.incrementAndGet());
+        return result;
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id) {
+        return deleteById(id, user -> {
+        });
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id, Consumer<User> onDeleted) {
+        AtomicReference<User> deleted = new AtomicReference<>();
+        users.computeIfPresent(id, (key, existing) -> {
+            onDeleted.accept(existing);
+            birthDateIndex.remove(existing);
+            emailIndex.release(existing);
+            textIndex.replace(existing, null);
+            deleted.set(existing);
+            return null;
+        });
+        Optional<User> result = Optional.ofNullable(deleted.get());
+        result.ifPresent(user -> storeVersion.incrementAndGet());
+        return result;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return emailIndex.find(email)
+                .map(users::get)
+                .filter(user -> user.getEmail() != null
+                        && EmailIndex.normalize(user.getEmail()).equals(EmailIndex.normalize(email)));
+    }
+
+    @Override
+    public Stream<User> findAll() {
+        return users.values().stream();
+    }
+
+    @Override
+    public Stream<User> findByBirthDateBetween(LocalDate from, LocalDate to, BirthDateCursor after) {
+        return birthDateIndex.findBetween(from, to, after);
+    }
+
+    @Override
+    public List<UserMatch> findByText(String query, int maxEdits, int limit) {
+        return textIndex.search(query, maxEdits, limit).stream()
+                .flatMap(match -> Optional.ofNullable(users.get(match.getKey()))
+                        .map(user -> new UserMatch(user, match.getValue()))
+                        .stream())
+                .toList();
+    }
+
+    @Override
+    public long count() {
+        return users.size();
+    }
+
+    @Override
+    public Map<String, Long> indexSizes() {
+        return Map.of(BIRTH_DATE_INDEX, (long) birthDateIndex.size(), EMAIL_INDEX, (long) emailIndex.size(),
+                TEXT_INDEX, (long) textIndex.size());
+    }
+
+    @Override
+    public long version() {
+        return storeVersion.get();
+    }
+
+    /**
+     * Moves the secondary indexes from the previous state of a user to the new one.
+     * The new email must already be claimed.
+     *
+     * @param previous the state currently indexed, or {@code null} for a new user
+     * @param current  the new state
+     */
+    private void index(User previous, User current) {
+        if (previous != null) {
+            emailIndex.releaseIfChanged(previous, current);
+            birthDateIndex.remove(previous);
+        }
+        birthDateIndex.add(current);
+        textIndex.replace(previous, current);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.clearsolutions.repository;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Id-addressed column of record offsets, split into fixed-size chunks that are allocated as ids grow.
+ * User ids are allocated sequentially, so the column is dense and costs eight bytes per id.
+ * Reads are lock-free; only one thread may write at a time.
+ */
+class OffsetTable {
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+    /**
+     * Returns the offset of the current record of a user.
+     *
+     * @param id the id of the user
+     * @return the offset, or {@link UserArena#NO_RECORD} if there is no such user
+     */
+    long get(long id) {
+        AtomicLongArray[] current = chunks;
+        long chunk = id >>> CHUNK_BITS;
+        if (id <= 0 || chunk >= current.length || current[(int) chunk] == null) {
+            return UserArena.NO_RECORD;
+        }
+        return current[(int) chunk].get((int) (id & CHUNK_MASK));
+    }
+
+    /**
+     * Publishes the offset of the current record of a user.
+     *
+     * @param id     the id of the user
+     * @param offset the new offset, or {@link UserArena#NO_RECORD} to remove the user
+     * @return the previous offset, or {@link UserArena#NO_RECORD} if there was no such user
+     */
+    long set(long id, long offset) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("User ids must be positive: " + id);
+        }
+        int chunk = Math.toIntExact(id >>> CHUNK_BITS);
+        AtomicLongArray[] current = chunks;
+        if (chunk >= current.length) {
+            current = Arrays.copyOf(current, chunk + 1);
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new AtomicLongArray(CHUNK_SIZE);
+            chunks = current;
+        }
+        return current[chunk].getAndSet((int) (id & CHUNK_MASK), offset);
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.clearsolutions.repository;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable sorted set of user ids. Up to {@value #MAX_SMALL_SIZE} ids are kept in a plain sorted array.
+ * Larger sets are split into blocks of {@value #BLOCK_SIZE} consecutive ids; a block holds the low 16 bits of
+ * its ids as a sorted array while it is sparse, and as a bitmap once it holds more than
+ * {@value #MAX_ARRAY_SIZE} ids. A set costs at most eight bytes per id, about two in large sets and one bit in
+ * dense ranges, instead of a map entry and a boxed id. Adding or removing an id copies at most one block.
+ */
+final class PostingList {
+    static final PostingList EMPTY = new PostingList(new long[0], new int[0], new Block[0], 0);
+
+    private static final int BLOCK_BITS = 16;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+    private static final int LOW_MASK = BLOCK_SIZE - 1;
+    private static final int MAX_ARRAY_SIZE = 4096;
+    private static final int WORD_BITS = 6;
+    private static final int MAX_SMALL_SIZE = 64;
+
+    private final long[] small;
+    private final int[] keys;
+    private final Block[] blocks;
+    private final int cardinality;
+
+    private PostingList(long[] small, int[] keys, Block[] blocks, int cardinality) {
+        this.small = small;
+        this.keys = keys;
+        this.blocks = blocks;
+        this.cardinality = cardinality;
+    }
+
+    private static PostingList ofSmall(long[] ids) {
+        return new PostingList(ids, EMPTY.keys, EMPTY.blocks, ids.length);
+    }
+
+    /**
+     * Returns a set that also holds an id.
+     *
+     * @param id the id to add
+     * @return the new set, or this set if it already holds the id
+     */
+    PostingList add(long id) {
+        if (blocks.length == 0) {
+            return addSmall(id);
+        }
+        int key = key(id);
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            int insertion = -index - 1;
+            int[] grownKeys = new int[keys.length + 1];
+            Block[] grownBlocks = new Block[blocks.length + 1];
+            System.arraycopy(keys, 0, grownKeys, 0, insertion);
+            System.arraycopy(blocks, 0, grownBlocks, 0, insertion);
+            grownKeys[insertion] = key;
+            grownBlocks[insertion] = new ArrayBlock(new char[] {low(id)});
+            System.arraycopy(keys, insertion, grownKeys, insertion + 1, keys.length - insertion);
+            System.arraycopy(blocks, insertion, grownBlocks, insertion + 1, blocks.length - insertion);
+            return new PostingList(small, grownKeys, grownBlocks, cardinality + 1);
+        }
+        Block block = blocks[index].add(low(id));
+        if (block == null) {
+            return this;
+        }
+        Block[] replaced = blocks.clone();
+        replaced[index] = block;
+        return new PostingList(small, keys, replaced, cardinality + 1);
+    }
+
+    /**
+     * Returns a set without an id.
+     *
+     * @param id the id to remove
+     * @return the new set, or this set if it does not hold the id
+     */
+    PostingList remove(long id) {
+        if (blocks.length == 0) {
+            return removeSmall(id);
+        }
+        int index = Arrays.binarySearch(keys, key(id));
+        if (index < 0) {
+            return this;
+        }
+        Block block = blocks[index].remove(low(id));
+        if (block == null) {
+            return this;
+        }
+        if (cardinality <= MAX_SMALL_SIZE / 2) {
+            long[] ids = new long[cardinality - 1];
+            int[] next = {0};
+            forEach(value -> {
+                if (value != id) {
+                    ids[next[0]] = value;
+                    next[0]++;
+                }
+            });
+            return ofSmall(ids);
+        }
+        if (block.size() > 0) {
+            Block[] replaced = blocks.clone();
+            replaced[index] = block;
+            return new PostingList(small, keys, replaced, cardinality - 1);
+        }
+        int[] shrunkKeys = new int[keys.length - 1];
+        Block[] shrunkBlocks = new Block[blocks.length - 1];
+        System.arraycopy(keys, 0, shrunkKeys, 0, index);
+        System.arraycopy(blocks, 0, shrunkBlocks, 0, index);
+        System.arraycopy(keys, index + 1, shrunkKeys, index, shrunkKeys.length - index);
+        System.arraycopy(blocks, index + 1, shrunkBlocks, index, shrunkBlocks.length - index);
+        return new PostingList(small, shrunkKeys, shrunkBlocks, cardinality - 1);
+    }
+
+    /**
+     * Passes every id to an action, in ascending order.
+     *
+     * @param action the action
+     */
+    void forEach(LongConsumer action) {
+        for (long id : small) {
+            action.accept(id);
+        }
+        for (int index = 0; index < blocks.length; index++) {
+            blocks[index].forEach((long) keys[index] << BLOCK_BITS, action);
+        }
+    }
+
+    /**
+     * Counts the ids.
+     *
+     * @return the number of ids
+     */
+    int size() {
+        return cardinality;
+    }
+
+    private PostingList addSmall(long id) {
+        int index = Arrays.binarySearch(small, id);
+        if (index >= 0) {
+            return this;
+        }
+        if (small.length == MAX_SMALL_SIZE) {
+            PostingList blocked = new PostingList(EMPTY.small, new int[] {key(small[0])},
+                    new Block[] {new ArrayBlock(new char[] {low(small[0])})}, 1);
+            for (int i = 1; i < small.length; i++) {
+                blocked = blocked.add(small[i]);
+            }
+            return blocked.add(id);
+        }
+        int insertion = -index - 1;
+        long[] grown = new long[small.length + 1];
+        System.arraycopy(small, 0, grown, 0, insertion);
+        grown[insertion] = id;
+        System.arraycopy(small, insertion, grown, insertion + 1, small.length - insertion);
+        return ofSmall(grown);
+    }
+
+    private PostingList removeSmall(long id) {
+        int index = Arrays.binarySearch(small, id);
+        if (index < 0) {
+            return this;
+        }
+        long[] shrunk = new long[small.length - 1];
+        System.arraycopy(small, 0, shrunk, 0, index);
+        System.arraycopy(small, index + 1, shrunk, index, shrunk.length - index);
+        return ofSmall(shrunk);
+    }
+
+    private static int key(long id) {
+        return Math.toIntExact(id >>> BLOCK_BITS);
+    }
+
+    private static char low(long id) {
+        return (char) (id & LOW_MASK);
+    }
+
+    /**
+     * Ids of one block, by their low 16 bits. Updates return a new block, or {@code null} if nothing changed.
+     */
+    private interface Block {
+
+        Block add(char low);
+
+        Block remove(char low);
+
+        void forEach(long base, LongConsumer action);
+
+        int size();
+    }
+
+    /**
+     * Sparse block of sorted low bits, which become a bitmap once there are too many of them.
+     */
+    private record ArrayBlock(char[] values) implements Block {
+
+        @Override
+        public Block add(char low) {
+            int index = Arrays.binarySearch(values, low);
+            if (index >= 0) {
+                return null;
+            }
+            if (values.length == MAX_ARRAY_SIZE) {
+                BitmapBlock bitmap = new BitmapBlock(new long[BLOCK_SIZE >>> WORD_BITS], values.length);
+                for (char value : values) {
+                    bitmap.words()[value >>> WORD_BITS] |= 1L << value;
+                }
+                return bitmap.add(low);
+            }
+            int insertion = -index - 1;
+            char[] grown = new char[values.length + 1];
+            System.arraycopy(values, 0, grown, 0, insertion);
+            grown[insertion] = low;
+            System.arraycopy(values, insertion, grown, insertion + 1, values.length - insertion);
+            return new ArrayBlock(grown);
+        }
+
+        @Override
+        public Block remove(char low) {
+            int index = Arrays.binarySearch(values, low);
+            if (index < 0) {
+                return null;
+            }
+            char[] shrunk = new char[values.length - 1];
+            System.arraycopy(values, 0, shrunk, 0, index);
+            System.arraycopy(values, index + 1, shrunk, index, shrunk.length - index);
+            return new ArrayBlock(shrunk);
+        }
+
+        @Override
+        public void forEach(long base, LongConsumer action) {
+            for (char value : values) {
+                action.accept(base | value);
+            }
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    /**
+     * Dense block with one bit per id, which becomes an array again once it is sparse.
+     */
+    private record BitmapBlock(long[] words, int cardinality) implements Block {
+
+        @Override
+        public Block add(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> WORD_BITS] & bit) != 0) {
+                return null;
+            }
+            long[] copy = words.clone();
+            copy[low >>> WORD_BITS] |= bit;
+            return new BitmapBlock(copy, cardinality + 1);
+        }
+
+        @Override
+        public Block remove(char low) {
+            long bit = 1L << low;
+            if ((words[low >>> WORD_BITS] & bit) == 0) {
+                return null;
+            }
+            if (cardinality > MAX_ARRAY_SIZE) {
+                long[] copy = words.clone();
+                copy[low >>> WORD_BITS] &= ~bit;
+                return new BitmapBlock(copy, cardinality - 1);
+            }
+            char[] values = new char[cardinality - 1];
+            int next = 0;
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    char value = (char) (word << WORD_BITS | Long.numberOfTrailingZeros(bits));
+                    if (value != low) {
+                        values[next] = value;
+                        next++;
+                    }
+                    bits &= bits - 1;
+                }
+            }
+            return new ArrayBlock(values);
+        }
+
+        @Override
+        public void forEach(long base, LongConsumer action) {
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    action.accept(base | (long) word << WORD_BITS | Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return cardinality;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.clearsolutions.repository;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+
+/**
+ * Storage engine that a durable repository can rebuild on startup and log mutations of
+ * inside the atomic section of each save, update and delete.
+ */
+public interface RecoverableUserRepository extends UserRepository {
+
+    /**
+     * Stores a user while recovering the store, replacing any user with the same id.
+     * Unlike {@link #save(User)}, the user takes over its email even if another user holds it, because
+     * recovered states are replayed in log order and a later record may reassign an email that a stale
+     * snapshot entry still holds.
+     *
+     * @param user the user to store, with its id already assigned
+     * @return the stored user
+     */
+    User restore(User user);
+
+    /**
+     * Stores a user, as {@link #save(User)} does, and passes it to a listener before the write is published.
+     *
+     * @param user    the user to store, with its id already assigned
+     * @param onSaved receives the user inside the atomic section, once its email is claimed
+     * @return the stored user
+     * @throws EmailAlreadyExistsException if another user has the same email
+     */
+    User save(User user, Consumer<User> onSaved);
+
+    /**
+     * Atomically updates an existing user, as {@link #update(Long, Consumer)} does, and passes the final
+     * state of the user to a listener before the update is published.
+     *
+     * @param id        the id of the user to update
+     * @param modifier  the changes to apply to the copy
+     * @param onUpdated receives the updated user, with its new version, inside the atomic section
+     * @return the updated user, or an empty optional if there is no such user
+     */
+    Optional<User> update(Long id, Consumer<User> modifier, Consumer<User> onUpdated);
+
+    /**
+     * Deletes a user by id, as {@link #deleteById(Long)} does, and passes the deleted user to a listener
+     * before the delete is published.
+     *
+     * @param id        the id of the user to delete
+     * @param onDeleted receives the deleted user inside the atomic section
+     * @return the deleted user, or an empty optional if there is no such user
+     */
+    Optional<User> deleteById(Long id, Consumer<User> onDeleted);
+}
@@ -0,0 +1,265 @@
+package com.example.clearsolutions.repository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+
+/**
+ * User repository partitioned into shards by a hash of the user id, for stores written by many cores at once.
+ * Each shard is an {@link InMemoryUserRepository} with its own map, birth date index, text index and store
+ * version, so writes to users of different shards share no index and no counter. Ids are allocated in blocks
+ * by an {@link IdBlockAllocator}, and the store version is the sum of the shard versions, which changes after
+ * every mutation and only once the mutated user is visible.
+ *
+ * <p>The email index is the one structure shared by all shards, since emails must be unique across them.
+ * It is a concurrent hash map, so claims of different emails do not contend, and a write that would give a
+ * user the email of another user fails with {@link EmailAlreadyExistsException} whichever shard holds it.
+ *
+ * <p>Birth date ranges are read from every shard and merged lazily in birth date and id order, so pages
+ * and cursors behave as in a single store. Text searches fan out to the shards in parallel and merge the
+ * best matches of each shard; scores do not depend on the shard, so the merged ranking is the same as that
+ * of a single store. Counts and index sizes are summed over the shards.
+ */
+@Repository
+@ConditionalOnProperty(name = "user.storage.engine", havingValue = "sharded")
+public class ShardedUserRepository implements RecoverableUserRepository {
+    private static final String BIRTH_DATE_INDEX = "birthDate";
+    private static final String EMAIL_INDEX = "email";
+    private static final String TEXT_INDEX = "text";
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final Comparator<User> BIRTH_DATE_ORDER = Comparator.comparing(User::getBirthDate)
+            .thenComparingLong(User::getId);
+    private static final Comparator<UserMatch> RANKING = Comparator.comparingDouble(UserMatch::score).reversed()
+            .thenComparingLong(match -> match.user().getId());
+
+    private final EmailIndex emailIndex = new EmailIndex();
+    private final InMemoryUserRepository[] shards;
+    private final IdBlockAllocator ids;
+
+    /**
+     * Creates a repository with the given number of shards, rounded up to a power of two.
+     *
+     * @param shardCount the number of shards, or zero for one per available processor
+     */
+    public ShardedUserRepository(@Value("${user.storage.shards}") int shardCount) {
+        int requested = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        int size = Integer.highestOneBit(requested);
+        if (size < requested) {
+            size <<= 1;
+        }
+        shards = new InMemoryUserRepository[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new InMemoryUserRepository(emailIndex);
+        }
+        ids = new IdBlockAllocator(size);
+    }
+
+    /**
+     * Mixes the bits of a value, so that consecutive values spread evenly over shards and stripes.
+     *
+     * @param value the value to mix
+     * @return the mixed value
+     */
+    static int spread(long value) {
+        long mixed = value * GOLDEN_GAMMA;
+        return (int) (mixed ^ mixed >>> 32);
+    }
+
+    @Override
+    public long nextId() {
+        return ids.next();
+    }
+
+    @Override
+    public long lastId() {
+        return ids.last();
+    }
+
+    @Override
+    public void reserveIds(long lastId) {
+        ids.reserve(lastId);
+    }
+
+    @Override
+    public User save(User user) {
+        return save(user, saved -> {
+        });
+    }
+
+    @Override
+    public User save(User user, Consumer<User> onSaved) {
+        shardOf(user.getId()).save(user, onSaved);
+        if (user.getId() > ids.last()) {
+            ids.reserve(user.getId());
+        }
+        return user;
+    }
+
+    @Override
+    public User restore(User user) {
+        shardOf(user.getId()).restore(user);
+        ids.reserve(user.getId());
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return shardOf(id).findById(id);
+    }
+
+    @Override
+    public Optional<User> update(Long id, Consumer<User> modifier) {
+        return shardOf(id).update(id, modifier);
+    }
+
+    @Override
+    public Optional<User> update(Long id, Consumer<User> modifier, Consumer<User> onUpdated) {
+        return shardOf(id).update(id, modifier, onUpdated);
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id) {
+        return shardOf(id).deleteById(id);
+    }
+
+    @Override
+    public Optional<User> deleteById(Long id, Consumer<User> onDeleted) {
+        return shardOf(id).deleteById(id, onDeleted);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return emailIndex.find(email)
+                .flatMap(this::findById)
+                .filter(user -> user.getEmail() != null
+                        && EmailIndex.normalize(user.getEmail()).equals(EmailIndex.normalize(email)));
+    }
+
+    @Override
+    public Stream<User> findAll() {
+        return Arrays.stream(shards).flatMap(InMemoryUserRepository::findAll);
+    }
+
+    @Override
+    public Stream<User> findByBirthDateBetween(LocalDate from, LocalDate to, BirthDateCursor after) {
+        List<Stream<User>> ranges = Arrays.stream(shards)
+                .map(shard -> shard.findByBirthDateBetween(from, to, after))
+                .toList();
+        MergingIterator merged = new MergingIterator(ranges.stream().map(Stream::iterator).toList());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+                        Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false)
+                .onClose(() -> ranges.forEach(Stream::close));
+    }
+
+    @Override
+    public List<UserMatch> findByText(String query, int maxEdits, int limit) {
+        return Arrays.stream(shards)
+                .parallel()
+                .flatMap(shard -> shard.findByText(query, maxEdits, limit).stream())
+                .sorted(RANKING)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public long count() {
+        return Arrays.stream(shards).mapToLong(InMemoryUserRepository::count).sum();
+    }
+
+    @Override
+    public Map<String, Long> indexSizes() {
+        Map<String, Long> sizes = new HashMap<>();
+        for (InMemoryUserRepository shard : shards) {
+            shard.indexSizes().forEach((name, size) -> sizes.merge(name, size, Long::sum));
+        }
+        return Map.of(BIRTH_DATE_INDEX, sizes.get(BIRTH_DATE_INDEX), EMAIL_INDEX, (long) emailIndex.size(),
+                TEXT_INDEX, sizes.get(TEXT_INDEX));
+    }
+
+    @Override
+    public long version() {
+        long version = 0;
+        for (InMemoryUserRepository shard : shards) {
+            version += shard.version();
+        }
+        return version;
+    }
+
+    /**
+     * Counts the shards.
+     *
+     * @return the number of shards, a power of two
+     */
+    int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Finds the shard that holds a user.
+     *
+     * @param id the id of the user
+     * @return the shard
+     */
+    private InMemoryUserRepository shardOf(long id) {
+        return shards[spread(id) & (shards.length - 1)];
+    }
+
+    /**
+     * Merges iterators that are each ordered by birth date and id into one iterator in the same order.
+     * Each step costs O(log s) for s shards.
+     */
+    private static final class MergingIterator implements Iterator<User> {
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::user,
+                BIRTH_DATE_ORDER));
+
+        private MergingIterator(List<Iterator<User>> sources) {
+            sources.forEach(this::advance);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public User next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.rest());
+            return head.user();
+        }
+
+        private void advance(Iterator<User> source) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+
+        /**
+         * The next user of one source and the rest of that source.
+         */
+        private record Head(User user, Iterator<User> rest) {
+        }
+    }
+}
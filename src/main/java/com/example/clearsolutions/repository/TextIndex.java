@@ -0,0 +1,331 @@
+package com.example.clearsolutions.repository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import com.example.clearsolutions.entity.User;
+
+/**
+ * Inverted index over the tokens of the first name, last name and address of every user.
+ * Tokens are normalized by stripping diacritics and converting them to lower case.
+ *
+ * <p>The index keeps an immutable {@link PostingList} of user ids per token, a sorted dictionary of tokens
+ * for prefix lookups, and a trigram index over the dictionary that narrows fuzzy lookups down to the tokens
+ * that can be within the allowed number of edits, before the edit distance is computed. A token, its
+ * dictionary entry and its trigrams are added and removed together, inside the atomic section of
+ * its posting list.
+ *
+ * <p>Every query token is expanded to at most {@value #MAX_EXPANSIONS} indexed tokens: the exact token,
+ * then tokens it is a prefix of, then tokens within the edit distance. A user matches when each query
+ * token matches one of its tokens, and is scored by the sum of the best match of each query token.
+ */
+class TextIndex {
+    static final int MAX_EDITS = 2;
+
+    private static final int MAX_EXPANSIONS = 128;
+    private static final int GRAM_SIZE = 3;
+    private static final String GRAM_PADDING = "$$";
+    private static final int MIN_LENGTH_FOR_ONE_EDIT = 3;
+    private static final int MIN_LENGTH_FOR_TWO_EDITS = 8;
+    private static final double EXACT_SCORE = 1.0;
+    private static final double PREFIX_SCORE = 0.5;
+    private static final double FUZZY_SCORE = 0.8;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ConcurrentMap<String, PostingList> postings = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, Boolean> terms = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Set<String>> termsByGram = new ConcurrentHashMap<>();
+
+    /**
+     * Splits text into distinct normalized tokens.
+     *
+     * @param text the text, or {@code null}
+     * @return the tokens in order of first occurrence
+     */
+    static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Replaces the indexed tokens of a user.
+     *
+     * @param previous the state currently indexed, or {@code null} for a new user
+     * @param current  the new state, or {@code null} for a deleted user
+     */
+    void replace(User previous, User current) {
+        Set<String> previousTokens = previous == null ? Set.of() : tokensOf(previous);
+        Set<String> currentTokens = current == null ? Set.of() : tokensOf(current);
+        for (String token : previousTokens) {
+            if (!currentTokens.contains(token)) {
+                remove(token, previous.getId());
+            }
+        }
+        for (String token : currentTokens) {
+            if (!previousTokens.contains(token)) {
+                add(token, current.getId());
+            }
+        }
+    }
+
+    /**
+     * Finds the best matching users for a free text query.
+     *
+     * @param query    the query, matched token by token
+     * @param maxEdits the maximum number of edits per token, further limited by the token length
+     * @param limit    the maximum number of matches to return
+     * @return the ids and scores of the best matches, best first, ties broken by id
+     */
+    List<Map.Entry<Long, Double>> search(String query, int maxEdits, int limit) {
+        List<Map<Long, Double>> scoresPerToken = new ArrayList<>();
+        for (String token : tokens(query)) {
+            Map<Long, Double> scores = score(token, Math.min(maxEdits, allowedEdits(token)));
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+            scoresPerToken.add(scores);
+        }
+        if (scoresPerToken.isEmpty()) {
+            return List.of();
+        }
+        scoresPerToken.sort(Comparator.comparingInt(Map::size));
+
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(limit + 1, ranking);
+        for (Map.Entry<Long, Double> candidate : scoresPerToken.get(0).entrySet()) {
+            double score = candidate.getValue();
+            for (int i = 1; i < scoresPerToken.size() && score > 0; i++) {
+                Double tokenScore = scoresPerToken.get(i).get(candidate.getKey());
+                score = tokenScore == null ? 0 : score + tokenScore;
+            }
+            if (score > 0) {
+                best.add(Map.entry(candidate.getKey(), score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<Map.Entry<Long, Double>> matches = new ArrayList<>(best);
+        matches.sort(Collections.reverseOrder(ranking));
+        return matches;
+    }
+
+    /**
+     * Counts the distinct indexed tokens.
+     *
+     * @return the number of tokens
+     */
+    int size() {
+        return postings.size();
+    }
+
+    /**
+     * Scores the users that have a token matching one query token, keeping the best match per user.
+     *
+     * @param token    the normalized query token
+     * @param maxEdits the maximum number of edits
+     * @return the score per user id
+     */
+    private Map<Long, Double> score(String token, int maxEdits) {
+        Map<String, Double> expansions = expand(token, maxEdits);
+        Map<Long, Double> scores = new HashMap<>();
+        expansions.forEach((term, termScore) -> {
+            PostingList ids = postings.get(term);
+            if (ids != null) {
+                ids.forEach(id -> scores.merge(id, termScore, Math::max));
+            }
+        });
+        return scores;
+    }
+
+    /**
+     * Expands a query token into the indexed tokens it matches, with the score of each match.
+     *
+     * @param token    the normalized query token
+     * @param maxEdits the maximum number of edits
+     * @return the matching tokens and their scores, at most {@value #MAX_EXPANSIONS}
+     */
+    private Map<String, Double> expand(String token, int maxEdits) {
+        Map<String, Double> expansions = new LinkedHashMap<>();
+        if (terms.containsKey(token)) {
+            expansions.put(token, EXACT_SCORE);
+        }
+        for (String term : terms.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+            if (expansions.size() >= MAX_EXPANSIONS) {
+                return expansions;
+            }
+            expansions.put(term, PREFIX_SCORE + PREFIX_SCORE * token.length() / term.length());
+        }
+        if (maxEdits > 0) {
+            for (Map.Entry<String, Integer> candidate : fuzzyCandidates(token, maxEdits).entrySet()) {
+                if (expansions.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                expansions.putIfAbsent(candidate.getKey(), FUZZY_SCORE / (1 + candidate.getValue()));
+            }
+        }
+        return expansions;
+    }
+
+    /**
+     * Finds the indexed tokens within the edit distance of a query token. Only tokens that share enough
+     * trigrams with the query token to be within the distance are compared with it: an edit changes at most
+     * {@value #GRAM_SIZE} trigrams, and a transposition at most one more.
+     *
+     * @param token    the normalized query token
+     * @param maxEdits the maximum number of edits
+     * @return the matching tokens and their distances, closest first
+     */
+    private Map<String, Integer> fuzzyCandidates(String token, int maxEdits) {
+        Map<String, Integer> sharedGrams = new HashMap<>();
+        for (String gram : grams(token)) {
+            Set<String> gramTerms = termsByGram.get(gram);
+            if (gramTerms != null) {
+                for (String term : gramTerms) {
+                    if (Math.abs(term.length() - token.length()) <= maxEdits) {
+                        sharedGrams.merge(term, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        List<Map.Entry<String, Integer>> matches = new ArrayList<>();
+        sharedGrams.forEach((term, shared) -> {
+            int required = Math.max(term.length(), token.length()) + GRAM_SIZE - 1 - (GRAM_SIZE + 1) * maxEdits;
+            if (shared >= required && !term.equals(token)) {
+                int distance = boundedDistance(token, term, maxEdits);
+                if (distance <= maxEdits) {
+                    matches.add(Map.entry(term, distance));
+                }
+            }
+        });
+        matches.sort(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        matches.forEach(match -> candidates.put(match.getKey(), match.getValue()));
+        return candidates;
+    }
+
+    private void add(String token, long id) {
+        postings.compute(token, (key, ids) -> {
+            if (ids == null) {
+                terms.put(key, Boolean.TRUE);
+                for (String gram : grams(key)) {
+                    termsByGram.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(key);
+                }
+                return PostingList.EMPTY.add(id);
+            }
+            return ids.add(id);
+        });
+    }
+
+    private void remove(String token, long id) {
+        postings.computeIfPresent(token, (key, ids) -> {
+            PostingList updated = ids.remove(id);
+            if (updated.size() > 0) {
+                return updated;
+            }
+            terms.remove(key);
+            for (String gram : grams(key)) {
+                termsByGram.computeIfPresent(gram, (g, gramTerms) -> {
+                    gramTerms.remove(key);
+                    return gramTerms.isEmpty() ? null : gramTerms;
+                });
+            }
+            return null;
+        });
+    }
+
+    private static Set<String> tokensOf(User user) {
+        Set<String> tokens = tokens(user.getFirstName());
+        tokens.addAll(tokens(user.getLastName()));
+        tokens.addAll(tokens(user.getAddress()));
+        return tokens;
+    }
+
+    /**
+     * Returns the number of edits allowed for a token of its length: none for very short tokens,
+     * where almost every other short token would match, and two only for tokens long enough
+     * for the trigram filter to stay selective.
+     */
+    private static int allowedEdits(String token) {
+        if (token.length() >= MIN_LENGTH_FOR_TWO_EDITS) {
+            return MAX_EDITS;
+        }
+        return token.length() >= MIN_LENGTH_FOR_ONE_EDIT ? 1 : 0;
+    }
+
+    /**
+     * Splits a token into overlapping trigrams, padded at both ends so that every character
+     * appears in {@value #GRAM_SIZE} of them.
+     */
+    private static Set<String> grams(String token) {
+        String padded = GRAM_PADDING + token + GRAM_PADDING;
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    /**
+     * Computes the optimal string alignment distance, in which an insertion, deletion, substitution or
+     * transposition of adjacent characters is one edit, and stops as soon as it exceeds the bound.
+     *
+     * @return the distance, or {@code maxEdits + 1} if it is larger than {@code maxEdits}
+     */
+    static int boundedDistance(String source, String target, int maxEdits) {
+        int[] beforePrevious = new int[target.length() + 1];
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= target.length(); j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && source.charAt(i - 1) == target.charAt(j - 2)
+                        && source.charAt(i - 2) == target.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[target.length()], maxEdits + 1);
+    }
+}
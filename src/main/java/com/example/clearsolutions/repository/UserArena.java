@@ -0,0 +1,294 @@
+package com.example.clearsolutions.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.entity.UserField;
+import com.example.clearsolutions.entity.UserFields;
+
+/**
+ * Append-only off-heap storage of encoded users, split into direct buffer segments.
+ * A user is written as variable-length integers holding its id, its version and its birth date as a zigzag
+ * encoded epoch day plus one, followed by its string fields as UTF-8, each prefixed with its length plus one
+ * as a variable-length integer. Zero stands for a missing birth date or string, so a typical user takes
+ * about a hundred bytes.
+ *
+ * <p>A record is addressed by an offset that holds its segment number in the upper half and its position in
+ * the lower half. Segment numbers are never reused and a record never changes once its offset is published,
+ * so a reader that holds an old offset either reads the record it pointed to, or finds its segment released
+ * and looks the offset up again. Only one thread may append, discard or compact at a time.
+ *
+ * <p>Rewriting a user leaves its previous record behind. Once a full segment holds less than half of live
+ * records, {@link #compact(OffsetTable)} copies them to the tail and releases the segment, so the arena stays
+ * within about twice the size of the live records and no pause copies more than one segment.
+ */
+class UserArena {
+    static final long NO_RECORD = 0;
+
+    private static final int SEGMENT_SIZE = 1 << 22;
+    private static final int POSITION_BITS = 32;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+    private static final int NUMBER_FIELDS = 3;
+    private static final int STRING_FIELDS = 5;
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7f;
+    private static final int VARINT_CONTINUATION = 0x80;
+
+    private volatile ByteBuffer[] segments = new ByteBuffer[1];
+    private int[] segmentLiveBytes = new int[1];
+    private final Deque<Integer> sparseSegments = new ArrayDeque<>();
+    private int tail;
+    private long totalSegmentBytes;
+    private long totalRecordBytes;
+
+    /**
+     * Appends a user.
+     *
+     * @param user the user, with its id assigned
+     * @return the offset of the record
+     */
+    long append(User user) {
+        byte[][] strings = {utf8(user.getEmail()), utf8(user.getFirstName()), utf8(user.getLastName()),
+                utf8(user.getAddress()), utf8(user.getPhoneNumber())};
+        long birthDate = user.getBirthDate() == null ? 0 : zigzag(user.getBirthDate().toEpochDay()) + 1;
+        int size = varLongSize(user.getId()) + varLongSize(user.getVersion()) + varLongSize(birthDate);
+        for (byte[] string : strings) {
+            size += varLongSize(string == null ? 0 : string.length + 1) + (string == null ? 0 : string.length);
+        }
+        long offset = allocate(size);
+        ByteBuffer record = view(segments[segment(offset)], position(offset));
+        writeVarLong(record, user.getId());
+        writeVarLong(record, user.getVersion());
+        writeVarLong(record, birthDate);
+        for (byte[] string : strings) {
+            writeString(record, string);
+        }
+        return offset;
+    }
+
+    /**
+     * Decodes a user.
+     *
+     * @param offset the offset of the record
+     * @return the user, or {@code null} if the segment of the record has been released since the offset was read
+     */
+    User read(long offset) {
+        return read(offset, UserFields.ALL);
+    }
+
+    /**
+     * Decodes the id, version and birth date of a user and only the requested string fields, skipping over
+     * the bytes of the others without decoding them.
+     *
+     * @param offset the offset of the record
+     * @param fields the fields to decode; string fields that are not requested are left {@code null}
+     * @return the user, or {@code null} if the segment of the record has been released since the offset was read
+     */
+    User read(long offset, UserFields fields) {
+        ByteBuffer segment = segments[segment(offset)];
+        if (segment == null) {
+            return null;
+        }
+        ByteBuffer record = view(segment, position(offset));
+        long id = readVarLong(record);
+        long version = readVarLong(record);
+        long birthDate = readVarLong(record);
+        return User.builder()
+                .id(id)
+                .version(version)
+                .birthDate(birthDate == 0 ? null : LocalDate.ofEpochDay(unzigzag(birthDate - 1)))
+                .email(readString(record, fields.contains(UserField.EMAIL)))
+                .firstName(readString(record, fields.contains(UserField.FIRST_NAME)))
+                .lastName(readString(record, fields.contains(UserField.LAST_NAME)))
+                .address(readString(record, fields.contains(UserField.ADDRESS)))
+                .phoneNumber(readString(record, fields.contains(UserField.PHONE_NUMBER)))
+                .build();
+    }
+
+    /**
+     * Marks a record as no longer current, so that its space can be reclaimed.
+     *
+     * @param offset the offset of the record
+     */
+    void discard(long offset) {
+        int index = segment(offset);
+        int size = size(segments[index], position(offset));
+        segmentLiveBytes[index] -= size;
+        totalRecordBytes -= size;
+        if (index != tail && isSparse(index) && !sparseSegments.contains(index)) {
+            sparseSegments.add(index);
+        }
+    }
+
+    /**
+     * Moves the current records out of the full segments that are less than half live and releases them.
+     *
+     * @param offsets the current record of every user, updated as records move
+     */
+    @SuppressWarnings("PMD.NullAssignment") // a released segment is marked by a missing buffer
+    void compact(OffsetTable offsets) {
+        while (!sparseSegments.isEmpty()) {
+            int index = sparseSegments.poll();
+            ByteBuffer segment = segments[index];
+            int end = segment.position();
+            int position = 0;
+            while (position < end) {
+                int size = size(segment, position);
+                long id = readVarLong(view(segment, position));
+                long offset = offset(index, position);
+                if (offsets.get(id) == offset) {
+                    long copy = allocate(size);
+                    segments[segment(copy)].put(position(copy), segment, position, size);
+                    offsets.set(id, copy);
+                    segmentLiveBytes[index] -= size;
+                    totalRecordBytes -= size;
+                }
+                position += size;
+            }
+            ByteBuffer[] remaining = segments.clone();
+            remaining[index] = null;
+            segments = remaining;
+            totalSegmentBytes -= segment.capacity();
+        }
+    }
+
+    /**
+     * Counts the bytes of the segments that have not been released.
+     *
+     * @return the number of allocated off-heap bytes
+     */
+    long allocatedBytes() {
+        return totalSegmentBytes;
+    }
+
+    /**
+     * Counts the bytes of the current records.
+     *
+     * @return the number of live bytes
+     */
+    long recordBytes() {
+        return totalRecordBytes;
+    }
+
+    private long allocate(int size) {
+        ByteBuffer segment = segments[tail];
+        if (segment == null || segment.remaining() < size) {
+            if (segment != null && isSparse(tail)) {
+                sparseSegments.add(tail);
+            }
+            segment = ByteBuffer.allocateDirect(Math.max(SEGMENT_SIZE, size));
+            ByteBuffer[] grown = Arrays.copyOf(segments, tail + 2);
+            segmentLiveBytes = Arrays.copyOf(segmentLiveBytes, tail + 2);
+            tail++;
+            grown[tail] = segment;
+            totalSegmentBytes += segment.capacity();
+            segments = grown;
+        }
+        int position = segment.position();
+        segment.position(position + size);
+        segmentLiveBytes[tail] += size;
+        totalRecordBytes += size;
+        return offset(tail, position);
+    }
+
+    private boolean isSparse(int index) {
+        return segmentLiveBytes[index] < segments[index].capacity() / 2;
+    }
+
+    private static ByteBuffer view(ByteBuffer segment, int position) {
+        return segment.duplicate().position(position);
+    }
+
+    private static long offset(int segment, int position) {
+        return (long) segment << POSITION_BITS | position;
+    }
+
+    private static int segment(long offset) {
+        return (int) (offset >>> POSITION_BITS);
+    }
+
+    private static int position(long offset) {
+        return (int) (offset & POSITION_MASK);
+    }
+
+    private static int size(ByteBuffer segment, int position) {
+        ByteBuffer record = view(segment, position);
+        for (int field = 0; field < NUMBER_FIELDS; field++) {
+            readVarLong(record);
+        }
+        for (int field = 0; field < STRING_FIELDS; field++) {
+            long length = readVarLong(record);
+            if (length > 0) {
+                record.position(record.position() + (int) length - 1);
+            }
+        }
+        return record.position() - position;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(ByteBuffer record, byte[] bytes) {
+        writeVarLong(record, bytes == null ? 0 : bytes.length + 1);
+        if (bytes != null) {
+            record.put(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer record, boolean decode) {
+        int length = (int) readVarLong(record);
+        if (length == 0) {
+            return null;
+        }
+        if (!decode) {
+            record.position(record.position() + length - 1);
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> (Long.SIZE - 1);
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        for (long rest = value >>> VARINT_BITS; rest != 0; rest >>>= VARINT_BITS) {
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarLong(ByteBuffer record, long value) {
+        long rest = value;
+        while ((rest & ~VARINT_MASK) != 0) {
+            record.put((byte) (rest & VARINT_MASK | VARINT_CONTINUATION));
+            rest >>>= VARINT_BITS;
+        }
+        record.put((byte) rest);
+    }
+
+    private static long readVarLong(ByteBuffer record) {
+        long value = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = record.get();
+            value |= (long) (next & VARINT_MASK) << shift;
+            shift += VARINT_BITS;
+        } while ((next & VARINT_CONTINUATION) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.clearsolutions.repository;
+
+import com.example.clearsolutions.entity.User;
+
+/**
+ * User found by a text search, with the relevance of the match.
+ *
+ * @param user  the matching user
+ * @param score the relevance, higher is better
+ */
+public record UserMatch(User user, double score) {
+}
@@ -0,0 +1,196 @@
+package com.example.clearsolutions.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+
+/**
+ * Storage abstraction for users.
+ */
+public interface UserRepository {
+
+    /**
+     * Allocates the next user id.
+     *
+     * @return a new unique id
+     */
+    long nextId();
+
+    /**
+     * Returns the highest id allocated so far.
+     *
+     * @return the last allocated id, or zero if none was allocated
+     */
+    long lastId();
+
+    /**
+     * Makes sure that ids up to the given one are never allocated again.
+     *
+     * @param lastId the highest id to reserve
+     */
+    void reserveIds(long lastId);
+
+    /**
+     * Stores a user, replacing any user with the same id.
+     *
+     * @param user the user to store, with its id already assigned
+     * @return the stored user
+     * @throws EmailAlreadyExistsException if another user has the same email
+     */
+    User save(User user);
+
+    /**
+     * Stores new users one after the other, skipping those whose email is already taken, including by a user
+     * stored earlier in the same call. Stores that make writes durable may do so once for the whole list.
+     *
+     * @param users the users to store, with their ids already assigned
+     * @return the stored users, in the same order
+     */
+    default List<User> saveAll(List<User> users) {
+        List<User> saved = new ArrayList<>(users.size());
+        for (User user : users) {
+            try {
+                saved.add(save(user));
+            } catch (EmailAlreadyExistsException e) {
+                continue;
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Finds a user by id.
+     *
+     * @param id the id of the user
+     * @return the user, or an empty optional if there is no such user
+     */
+    Optional<User> findById(Long id);
+
+    /**
+     * Finds a user by id, reading only the requested fields where the store can skip the others.
+     * The id, version and birth date are always read; any other field that is not requested may be left
+     * {@code null}.
+     *
+     * @param id     the id of the user
+     * @param fields the fields to read
+     * @return the user, or an empty optional if there is no such user
+     */
+    default Optional<User> findById(Long id, UserFields fields) {
+        return findById(id);
+    }
+
+    /**
+     * Atomically updates an existing user. The modifier receives a copy of the current user,
+     * so readers never observe a partially updated instance. The version of the copy is incremented
+     * after the modifier runs; a modifier that throws leaves the user unchanged.
+     *
+     * @param id       the id of the user to update
+     * @param modifier the changes to apply to the copy
+     * @return the updated user, or an empty optional if there is no such user
+     * @throws EmailAlreadyExistsException if the modifier gives the user the email of another user
+     */
+    Optional<User> update(Long id, Consumer<User> modifier);
+
+    /**
+     * Finds a user by email, ignoring case and surrounding whitespace, in constant time.
+     *
+     * @param email the email of the user
+     * @return the user, or an empty optional if there is no such user
+     */
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Deletes a user by id.
+     *
+     * @param id the id of the user to delete
+     * @return the deleted user, or an empty optional if there is no such user
+     */
+    Optional<User> deleteById(Long id);
+
+    /**
+     * Streams all stored users in no particular order.
+     *
+     * @return a stream of users
+     */
+    Stream<User> findAll();
+
+    /**
+     * Streams users born within the range, ordered by birth date and then by id.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, inclusive
+     * @return a stream of matching users
+     */
+    default Stream<User> findByBirthDateBetween(LocalDate from, LocalDate to) {
+        return findByBirthDateBetween(from, to, null);
+    }
+
+    /**
+     * Streams users born within the range that come after the cursor,
+     * ordered by birth date and then by id.
+     *
+     * @param from  the start of the range, inclusive
+     * @param to    the end of the range, inclusive
+     * @param after the position to continue after, or {@code null} to start at the beginning of the range
+     * @return a stream of matching users
+     */
+    Stream<User> findByBirthDateBetween(LocalDate from, LocalDate to, BirthDateCursor after);
+
+    /**
+     * Streams users born within the range that come after the cursor, ordered by birth date and then by id,
+     * reading only the requested fields where the store can skip the others. The id, version and birth date
+     * are always read, as the order and the cursor depend on them; any other field that is not requested may
+     * be left {@code null}.
+     *
+     * @param from   the start of the range, inclusive
+     * @param to     the end of the range, inclusive
+     * @param after  the position to continue after, or {@code null} to start at the beginning of the range
+     * @param fields the fields to read
+     * @return a stream of matching users
+     */
+    default Stream<User> findByBirthDateBetween(LocalDate from, LocalDate to, BirthDateCursor after,
+                                                UserFields fields) {
+        return findByBirthDateBetween(from, to, after);
+    }
+
+    /**
+     * Finds the users whose first name, last name or address best match a free text query.
+     * Every query token must match a token of the user exactly, as a prefix, or within the edit distance.
+     *
+     * @param query    the free text query
+     * @param maxEdits the maximum number of edits per query token, from 0 to 2
+     * @param limit    the maximum number of users to return
+     * @return the best matches, best first
+     */
+    List<UserMatch> findByText(String query, int maxEdits, int limit);
+
+    /**
+     * Counts the stored users.
+     *
+     * @return the number of users
+     */
+    long count();
+
+    /**
+     * Counts the entries of each secondary index. The set of index names never changes.
+     *
+     * @return the number of entries per index, keyed by index name
+     */
+    Map<String, Long> indexSizes();
+
+    /**
+     * Returns the version of the whole store, which changes after every mutation of any user.
+     * The change becomes visible only after the mutated user does.
+     *
+     * @return the store version
+     */
+    long version();
+}
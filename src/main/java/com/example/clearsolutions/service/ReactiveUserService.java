@@ -0,0 +1,245 @@
+package com.example.clearsolutions.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import com.example.clearsolutions.cache.UserResponse;
+import com.example.clearsolutions.dto.AgeCountDto;
+import com.example.clearsolutions.dto.BirthDateCountDto;
+import com.example.clearsolutions.dto.BirthDatePeriod;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
+import com.example.clearsolutions.dto.UserBatchResultDto;
+import com.example.clearsolutions.dto.UserCacheStatsDto;
+import com.example.clearsolutions.dto.UserCountDto;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.dto.UserMatchDto;
+import com.example.clearsolutions.dto.UserPageDto;
+import com.example.clearsolutions.dto.VersionedUserDto;
+import com.example.clearsolutions.entity.UserFields;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking facade of {@link UserService} for the reactive web stack.
+ * Reads are served from the in-memory store and never wait, so they run on the thread that subscribes,
+ * usually an event loop. Mutations may wait for the write-ahead log to be forced to disk, so they run on
+ * the bounded elastic scheduler and never hold an event loop. Exceptions of the service are signalled as
+ * errors of the returned publisher.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+    private final UserService userService;
+    private final Scheduler writeScheduler = Schedulers.boundedElastic();
+
+    /**
+     * Creates a new user.
+     *
+     * @param userDto the user data transfer object
+     * @return the created user data transfer object
+     */
+    public Mono<UserDto> createUser(UserDto userDto) {
+        return write(() -> userService.createUser(userDto));
+    }
+
+    /**
+     * Gets a user serialized as JSON, from the response cache when possible.
+     *
+     * @param id the id of the user
+     * @return the serialized user and its version
+     */
+    public Mono<UserResponse> getUser(Long id) {
+        return Mono.fromSupplier(() -> userService.getUser(id));
+    }
+
+    /**
+     * Gets the current version of a user, without reading or serializing the rest of it.
+     *
+     * @param id the id of the user
+     * @return the version of the user
+     */
+    public Mono<Long> getUserVersion(Long id) {
+        return Mono.fromSupplier(() -> userService.getUserVersion(id));
+    }
+
+    /**
+     * Gets a user by email, ignoring case.
+     *
+     * @param email the email of the user
+     * @return the user and its version
+     */
+    public Mono<VersionedUserDto> getUserByEmail(String email) {
+        return Mono.fromSupplier(() -> userService.getUserByEmail(email, UserFields.ALL));
+    }
+
+    /**
+     * Gets the store version, which changes after every mutation.
+     *
+     * @return the store version
+     */
+    public Mono<Long> getStoreVersion() {
+        return Mono.fromSupplier(userService::getStoreVersion);
+    }
+
+    /**
+     * Gets the statistics of the user response cache.
+     *
+     * @return the cache statistics
+     */
+    public Mono<UserCacheStatsDto> getCacheStats() {
+        return Mono.fromSupplier(userService::getCacheStats);
+    }
+
+    /**
+     * Updates specific fields of a user, if it still has the expected version.
+     *
+     * @param id              the id of the user
+     * @param userDto         the fields to update
+     * @param expectedVersion the version the client read, or {@code null} to accept any version
+     * @return the updated user and its new version
+     */
+    public Mono<VersionedUserDto> updateUserFields(Long id, UserDto userDto, Long expectedVersion) {
+        return write(() -> userService.updateUserFields(id, userDto, expectedVersion));
+    }
+
+    /**
+     * Updates a user, if it still has the expected version.
+     *
+     * @param id              the id of the user
+     * @param userDto         the new user data
+     * @param expectedVersion the version the client read, or {@code null} to accept any version
+     * @return the updated user and its new version
+     */
+    public Mono<VersionedUserDto> updateUser(Long id, UserDto userDto, Long expectedVersion) {
+        return write(() -> userService.updateUser(id, userDto, expectedVersion));
+    }
+
+    /**
+     * Deletes a user.
+     *
+     * @param id the id of the user
+     * @return completes once the user is deleted
+     */
+    public Mono<Void> deleteUser(Long id) {
+        return Mono.<Void>fromRunnable(() -> userService.deleteUser(id)).subscribeOn(writeScheduler);
+    }
+
+    /**
+     * Applies a batch of create, update, patch and delete operations in a single pass.
+     *
+     * @param operations the operations, applied in order
+     * @param checker    returns the validation error of an operation, or an empty optional if it is valid
+     * @return one result per operation, in the same order
+     */
+    public Mono<List<UserBatchResultDto>> applyBatch(List<UserBatchOperationDto> operations,
+                                                     Function<UserBatchOperationDto, Optional<String>> checker) {
+        return write(() -> userService.applyBatch(operations, checker));
+    }
+
+    /**
+     * Searches all users by birthdate range.
+     *
+     * @param from the start of the date range
+     * @param to   the end of the date range
+     * @return the users found, in birth date order
+     */
+    public Mono<List<UserDto>> searchUsersByBirthDateRange(LocalDate from, LocalDate to) {
+        return Mono.fromSupplier(() -> userService.searchUsersByBirthDateRange(from, to, UserFields.ALL));
+    }
+
+    /**
+     * Searches one page of users by birthdate range.
+     *
+     * @param from  the start of the date range
+     * @param to    the end of the date range
+     * @param after the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit the maximum number of users in the page
+     * @return the page of users and the cursor of the next page
+     */
+    public Mono<UserPageDto> searchUsersByBirthDateRange(LocalDate from, LocalDate to, String after, int limit) {
+        return Mono.fromSupplier(() -> userService.searchUsersByBirthDateRange(from, to, after, limit,
+                UserFields.ALL));
+    }
+
+    /**
+     * Searches users by first name, last name and address.
+     *
+     * @param query    the free text query
+     * @param maxEdits the maximum number of typos per word
+     * @param limit    the maximum number of users to return
+     * @return the best matching users with their scores
+     */
+    public Mono<List<UserMatchDto>> searchUsersByText(String query, int maxEdits, int limit) {
+        return Mono.fromSupplier(() -> userService.searchUsersByText(query, maxEdits, limit));
+    }
+
+    /**
+     * Counts users born within a date range.
+     *
+     * @param from the start of the date range
+     * @param to   the end of the date range
+     * @return the number of users
+     */
+    public Mono<UserCountDto> countUsersByBirthDateRange(LocalDate from, LocalDate to) {
+        return Mono.fromSupplier(() -> userService.countUsersByBirthDateRange(from, to));
+    }
+
+    /**
+     * Counts users born within a date range per birth year or month.
+     *
+     * @param from   the start of the date range
+     * @param to     the end of the date range
+     * @param period the length of the periods
+     * @return the number of users per period
+     */
+    public Mono<List<BirthDateCountDto>> countUsersByBirthPeriod(LocalDate from, LocalDate to,
+                                                                 BirthDatePeriod period) {
+        return Mono.fromSupplier(() -> userService.countUsersByBirthPeriod(from, to, period));
+    }
+
+    /**
+     * Counts users per age bucket as of today.
+     *
+     * @param width  the number of years per bucket
+     * @param maxAge the age at which the last bucket starts
+     * @return the number of users per bucket, youngest first
+     */
+    public Mono<List<AgeCountDto>> getAgeHistogram(int width, int maxAge) {
+        return Mono.fromSupplier(() -> userService.getAgeHistogram(width, maxAge));
+    }
+
+    /**
+     * Streams users by birthdate range in birth date order. Users are read from the index only as the
+     * subscriber requests them, so a slow client holds back the read instead of buffering the range, and the
+     * read is closed when the subscriber cancels.
+     *
+     * @param from  the start of the date range
+     * @param to    the end of the date range
+     * @param after the cursor to continue after, or {@code null} to start at the beginning of the range
+     * @return the users, emitted on demand
+     */
+    public Flux<UserDto> streamUsersByBirthDateRange(LocalDate from, LocalDate to, String after) {
+        return Flux.fromStream(() -> userService.streamUsersByBirthDateRange(from, to, after, UserFields.ALL));
+    }
+
+    /**
+     * Runs a mutation on the write scheduler.
+     *
+     * @param mutation the mutation
+     * @param <T>      the type of the result
+     * @return the result of the mutation
+     */
+    private <T> Mono<T> write(Callable<T> mutation) {
+        return Mono.fromCallable(mutation).subscribeOn(writeScheduler);
+    }
+}
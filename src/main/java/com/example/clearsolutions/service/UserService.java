@@ -1,31 +1,72 @@
 package com.example.clearsolutions.service;
 
 import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import com.example.clearsolutions.cache.UserResponse;
+import com.example.clearsolutions.cache.UserResponseCache;
+import com.example.clearsolutions.changes.UserChangeFeed;
+import com.example.clearsolutions.dto.AgeCountDto;
+import com.example.clearsolutions.dto.BirthDateCountDto;
+import com.example.clearsolutions.dto.BirthDatePeriod;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
+import com.example.clearsolutions.dto.UserBatchResultDto;
+import com.example.clearsolutions.dto.UserCacheStatsDto;
+import com.example.clearsolutions.dto.UserChangeType;
+import com.example.clearsolutions.dto.UserCountDto;
 import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.dto.UserMatchDto;
+import com.example.clearsolutions.dto.UserPageDto;
+import com.example.clearsolutions.dto.VersionedUserDto;
 import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
 import com.example.clearsolutions.exceptions.UserNotFoundException;
+import com.example.clearsolutions.exceptions.UserVersionMismatchException;
 import com.example.clearsolutions.mapper.UserMapper;
+import com.example.clearsolutions.metrics.UserMetrics;
+import com.example.clearsolutions.metrics.UserOperation;
+import com.example.clearsolutions.repository.BirthDateCursor;
+import com.example.clearsolutions.repository.UserRepository;
+import com.example.clearsolutions.statistics.BirthDateStatistics;
+import com.example.clearsolutions.validator.BirthDateLimits;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service class for managing users.
+ * Every public operation is timed by {@link UserMetrics}, and every mutation keeps the
+ * {@link BirthDateStatistics} that aggregations are served from up to date and is published to the
+ * {@link UserChangeFeed} once it is applied.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    private static final String USER_NOT_FOUND = "User not found";
+
     private final UserMapper userMapper;
-    private final List<User> users = new ArrayList<>();
-    private final AtomicLong counter = new AtomicLong();
+    private final UserRepository userRepository;
+    private final UserResponseCache userResponseCache;
+    private final UserMetrics userMetrics;
+    private final BirthDateStatistics birthDateStatistics;
+    private final UserChangeFeed userChangeFeed;
+    private final BirthDateLimits birthDateLimits;
+
+    @Value("${user.min.age}")
+    private int minAge;
 
     /**
      * Creates a new user.
@@ -34,12 +75,96 @@ public class UserService {
      * @return the created user data transfer object
      */
     public UserDto createUser(UserDto userDto) {
-        log.info("Creating user with data: {}", userDto);
-        User user = userMapper.toUser(userDto);
-        user.setId(counter.incrementAndGet());
-        users.add(user);
-        log.debug("User created: {}", user);
-        return userMapper.toUserDto(user);
+        return userMetrics.time(UserOperation.CREATE, () -> {
+            log.debug("Creating user");
+            User user = userMapper.toUser(userDto);
+            user.setId(userRepository.nextId());
+            userRepository.save(user);
+            birthDateStatistics.add(user.getBirthDate());
+            UserDto createdUser = userMapper.toUserDto(user);
+            userChangeFeed.publish(UserChangeType.CREATED, user.getId(), user.getVersion(), createdUser);
+            log.debug("User created with id: {}", user.getId());
+            return createdUser;
+        });
+    }
+
+    /**
+     * Gets a user serialized as JSON, from the response cache when possible.
+     *
+     * @param id the id of the user
+     * @return the serialized user and its version
+     */
+    public UserResponse getUser(Long id) {
+        return userMetrics.time(UserOperation.GET, () -> {
+            log.debug("Getting user with id: {}", id);
+            return userResponseCache.get(id, userRepository::findById)
+                    .orElseThrow(() -> userNotFound(id));
+        });
+    }
+
+    /**
+     * Gets the requested fields of a user, reading and mapping no other fields and bypassing the response
+     * cache, which holds full users only.
+     *
+     * @param id     the id of the user
+     * @param fields the fields to get
+     * @return the user data transfer object with only the requested fields set, and its version
+     */
+    public VersionedUserDto getUser(Long id, UserFields fields) {
+        return userMetrics.time(UserOperation.GET, () -> {
+            log.debug("Getting fields {} of user with id: {}", fields, id);
+            User user = userRepository.findById(id, fields).orElseThrow(() -> userNotFound(id));
+            return new VersionedUserDto(userMapper.toUserDto(user, fields), user.getVersion());
+        });
+    }
+
+    /**
+     * Gets the current version of a user, without reading or serializing the rest of it.
+     *
+     * @param id the id of the user
+     * @return the version of the user
+     */
+    public long getUserVersion(Long id) {
+        return userMetrics.time(UserOperation.GET_VERSION, () -> userRepository.findById(id)
+                .map(User::getVersion)
+                .orElseThrow(() -> userNotFound(id)));
+    }
+
+    /**
+     * Gets the requested fields of a user by email, ignoring case.
+     *
+     * @param email  the email of the user
+     * @param fields the fields to get, {@link UserFields#ALL} for the whole user
+     * @return the user data transfer object with only the requested fields set, and its version
+     */
+    public VersionedUserDto getUserByEmail(String email, UserFields fields) {
+        return userMetrics.time(UserOperation.GET_BY_EMAIL, () -> {
+            User user = userRepository.findByEmail(email).orElseThrow(() -> {
+                log.debug("User not found by email");
+                return new UserNotFoundException(USER_NOT_FOUND);
+            });
+            log.debug("User found by email, id: {}, fields: {}", user.getId(), fields);
+            return new VersionedUserDto(userMapper.toUserDto(user, fields), user.getVersion());
+        });
+    }
+
+    /**
+     * Gets the version of the whole user store, which changes after every mutation.
+     * Read it before the data it describes, so that a concurrent mutation can only make it older.
+     *
+     * @return the store version
+     */
+    public long getStoreVersion() {
+        return userRepository.version();
+    }
+
+    /**
+     * Gets the statistics of the user response cache.
+     *
+     * @return the hit, miss and eviction counters of the cache
+     */
+    public UserCacheStatsDto getCacheStats() {
+        return userResponseCache.stats();
     }
 
     /**
@@ -50,18 +175,34 @@ public class UserService {
      * @return the updated user data transfer object
      */
     public UserDto updateUserFields(Long id, UserDto userDto) {
-        log.info("Updating user fields for id: {}, with data: {}", id, userDto);
-        User existingUser = readById(id);
+        return updateUserFields(id, userDto, null).getUser();
+    }
 
-        Optional.ofNullable(userDto.getEmail()).ifPresent(existingUser::setEmail);
-        Optional.ofNullable(userDto.getFirstName()).ifPresent(existingUser::setFirstName);
-        Optional.ofNullable(userDto.getLastName()).ifPresent(existingUser::setLastName);
-        Optional.ofNullable(userDto.getBirthDate()).ifPresent(existingUser::setBirthDate);
-        Optional.ofNullable(userDto.getAddress()).ifPresent(existingUser::setAddress);
-        Optional.ofNullable(userDto.getPhoneNumber()).ifPresent(existingUser::setPhoneNumber);
+    /**
+     * Updates the fields of an existing user if it still has the expected version.
+     *
+     * @param id              the id of the user to update
+     * @param userDto         the user data transfer object with the new values
+     * @param expectedVersion the version the user must have, or {@code null} to update any version
+     * @return the updated user data transfer object and its new version
+     */
+    public VersionedUserDto updateUserFields(Long id, UserDto userDto, Long expectedVersion) {
+        return userMetrics.time(UserOperation.PATCH, () -> {
+            log.debug("Updating user fields for id: {}", id);
+            AtomicReference<LocalDate> previousBirthDate = new AtomicReference<>();
+            User existingUser = userRepository.update(id, user -> {
+                checkVersion(user, expectedVersion);
+                previousBirthDate.set(user.getBirthDate());
+                copyPresentFields(userDto, user);
+            }).orElseThrow(() -> userNotFound(id));
+            userResponseCache.invalidate(id);
+            birthDateStatistics.move(previousBirthDate.get(), existingUser.getBirthDate());
+            UserDto updatedUser = userMapper.toUserDto(existingUser);
+            userChangeFeed.publish(UserChangeType.UPDATED, id, existingUser.getVersion(), updatedUser);
 
-        log.debug("User fields updated for id: {}, user: {}", id, existingUser);
-        return userMapper.toUserDto(existingUser);
+            log.debug("User fields updated for id: {}, version: {}", id, existingUser.getVersion());
+            return new VersionedUserDto(updatedUser, existingUser.getVersion());
+        });
     }
 
     /**
@@ -72,18 +213,34 @@ public class UserService {
      * @return the updated user data transfer object
      */
     public UserDto updateUser(Long id, UserDto userDto) {
-        log.info("Updating user with id: {}, with data: {}", id, userDto);
-        User existingUser = readById(id);
+        return updateUser(id, userDto, null).getUser();
+    }
 
-        existingUser.setEmail(userDto.getEmail());
-        existingUser.setFirstName(userDto.getFirstName());
-        existingUser.setLastName(userDto.getLastName());
-        existingUser.setBirthDate(userDto.getBirthDate());
-        existingUser.setAddress(userDto.getAddress());
-        existingUser.setPhoneNumber(userDto.getPhoneNumber());
+    /**
+     * Updates an existing user if it still has the expected version.
+     *
+     * @param id              the id of the user to update
+     * @param userDto         the user data transfer object with the new values
+     * @param expectedVersion the version the user must have, or {@code null} to update any version
+     * @return the updated user data transfer object and its new version
+     */
+    public VersionedUserDto updateUser(Long id, UserDto userDto, Long expectedVersion) {
+        return userMetrics.time(UserOperation.UPDATE, () -> {
+            log.debug("Updating user with id: {}", id);
+            AtomicReference<LocalDate> previousBirthDate = new AtomicReference<>();
+            User existingUser = userRepository.update(id, user -> {
+                checkVersion(user, expectedVersion);
+                previousBirthDate.set(user.getBirthDate());
+                copyAllFields(userDto, user);
+            }).orElseThrow(() -> userNotFound(id));
+            userResponseCache.invalidate(id);
+            birthDateStatistics.move(previousBirthDate.get(), existingUser.getBirthDate());
+            UserDto updatedUser = userMapper.toUserDto(existingUser);
+            userChangeFeed.publish(UserChangeType.UPDATED, id, existingUser.getVersion(), updatedUser);
 
-        log.debug("User updated for id: {}, user: {}", id, existingUser);
-        return userMapper.toUserDto(existingUser);
+            log.debug("User updated for id: {}, version: {}", id, existingUser.getVersion());
+            return new VersionedUserDto(updatedUser, existingUser.getVersion());
+        });
     }
 
     /**
@@ -92,45 +249,381 @@ public class UserService {
      * @param id the id of the user to delete
      */
     public void deleteUser(Long id) {
-        log.info("Deleting user with id: {}", id);
-        User user = readById(id);
-        users.remove(user);
-        log.debug("User deleted for id: {}", id);
+        userMetrics.time(UserOperation.DELETE, () -> {
+            log.debug("Deleting user with id: {}", id);
+            User deletedUser = userRepository.deleteById(id).orElseThrow(() -> userNotFound(id));
+            userResponseCache.invalidate(id);
+            birthDateStatistics.remove(deletedUser.getBirthDate());
+            userChangeFeed.publish(UserChangeType.DELETED, id, deletedUser.getVersion() + 1, null);
+            log.debug("User deleted for id: {}", id);
+        });
+    }
+
+    /**
+     * Applies a batch of create, update, patch and delete operations in a single pass.
+     * Failures are reported per item instead of being thrown, so one bad item does not abort the batch.
+     *
+     * @param operations the operations, applied in order
+     * @param checker    returns the validation error of an operation, or an empty optional if it is valid
+     * @return one result per operation, in the same order
+     */
+    public List<UserBatchResultDto> applyBatch(List<UserBatchOperationDto> operations,
+                                               Function<UserBatchOperationDto, Optional<String>> checker) {
+        return userMetrics.time(UserOperation.BATCH, () -> {
+            log.debug("Applying batch of {} operations", operations.size());
+            userMetrics.recordBatchSize(operations.size());
+            List<UserBatchResultDto> results = new ArrayList<>(operations.size());
+            for (int index = 0; index < operations.size(); index++) {
+                UserBatchOperationDto operation = operations.get(index);
+                Optional<String> error = checker.apply(operation);
+                if (error.isPresent()) {
+                    results.add(new UserBatchResultDto(index, HttpStatus.BAD_REQUEST.value(), operation.getId(),
+                            null, error.get()));
+                } else {
+                    results.add(applyOperation(index, operation));
+                }
+            }
+            log.debug("Batch applied: {} operations", results.size());
+            return results;
+        });
+    }
+
+    /**
+     * Creates a chunk of valid users with a single repository call, so that a durable store commits the chunk
+     * once. A user whose email is already taken, including by an earlier user of the chunk, is skipped.
+     *
+     * @param users the users to create, already validated
+     * @return the id of each created user in the same order, or {@code null} for a skipped user
+     */
+    public List<Long> importUsers(List<UserDto> users) {
+        return userMetrics.time(UserOperation.IMPORT, () -> {
+            log.debug("Importing {} users", users.size());
+            List<User> newUsers = new ArrayList<>(users.size());
+            for (UserDto userDto : users) {
+                User user = userMapper.toUser(userDto);
+                user.setId(userRepository.nextId());
+                newUsers.add(user);
+            }
+            List<User> saved = userRepository.saveAll(newUsers);
+            List<Long> ids = new ArrayList<>(users.size());
+            int next = 0;
+            for (User user : newUsers) {
+                if (next < saved.size() && saved.get(next).getId().equals(user.getId())) {
+                    next++;
+                    birthDateStatistics.add(user.getBirthDate());
+                    userChangeFeed.publish(UserChangeType.CREATED, user.getId(), user.getVersion(),
+                            userMapper.toUserDto(user));
+                    ids.add(user.getId());
+                } else {
+                    ids.add(null);
+                }
+            }
+            log.debug("Users imported: {}", saved.size());
+            return ids;
+        });
+    }
+
+    /**
+     * Streams every user in no particular order, reading them from the store as the stream is consumed.
+     * The caller must close the stream.
+     *
+     * @return a stream of user data transfer objects
+     */
+    public Stream<UserDto> streamAllUsers() {
+        log.debug("Streaming all users");
+        return userRepository.findAll().map(userMapper::toUserDto);
+    }
+
+    /**
+     * Searches the requested fields of all users by birthdate range, reading and mapping no other fields.
+     *
+     * @param from   the start of the date range
+     * @param to     the end of the date range
+     * @param fields the fields to get, {@link UserFields#ALL} for whole users
+     * @return a list of user data transfer objects with only the requested fields set
+     */
+    public List<UserDto> searchUsersByBirthDateRange(LocalDate from, LocalDate to, UserFields fields) {
+        return userMetrics.time(UserOperation.SEARCH, () -> {
+            log.debug("Searching fields {} of users by birth date range from: {}, to: {}", fields, from, to);
+            List<UserDto> foundUsers = userRepository.findByBirthDateBetween(from, to, null, fields)
+                    .map(user -> userMapper.toUserDto(user, fields))
+                    .collect(Collectors.toList());
+            log.debug("Users found: {}", foundUsers.size());
+            return foundUsers;
+        });
+    }
+
+    /**
+     * Searches the requested fields of one page of users by birthdate range, using keyset pagination over the
+     * birth date order and reading and mapping no other fields. The cursor of the next page does not depend on
+     * the fields.
+     *
+     * @param from   the start of the date range
+     * @param to     the end of the date range
+     * @param after  the cursor returned with the previous page, or {@code null} for the first page
+     * @param limit  the maximum number of users on the page
+     * @param fields the fields to get, {@link UserFields#ALL} for whole users
+     * @return the page of users with only the requested fields set and the cursor of the next page, if any
+     */
+    public UserPageDto searchUsersByBirthDateRange(LocalDate from, LocalDate to, String after, int limit,
+                                                   UserFields fields) {
+        return userMetrics.time(UserOperation.SEARCH_PAGE, () -> {
+            log.debug("Searching fields {} of users page by birth date range from: {}, to: {}, after: {}, "
+                    + "limit: {}", fields, from, to, after, limit);
+            return toPage(userRepository.findByBirthDateBetween(from, to, decodeCursor(after), fields), limit,
+                    user -> userMapper.toUserDto(user, fields));
+        });
+    }
+
+    /**
+     * Searches users by first name, last name and address, ranked by how well they match.
+     *
+     * @param query    the free text query
+     * @param maxEdits the maximum number of edits per query token
+     * @param limit    the maximum number of users to return
+     * @return the best matching users with their scores, best first
+     */
+    public List<UserMatchDto> searchUsersByText(String query, int maxEdits, int limit) {
+        return userMetrics.time(UserOperation.SEARCH_TEXT, () -> {
+            log.debug("Searching users by text, max edits: {}, limit: {}", maxEdits, limit);
+            List<UserMatchDto> matches = userRepository.findByText(query, maxEdits, limit).stream()
+                    .map(match -> new UserMatchDto(userMapper.toUserDto(match.user()), match.score()))
+                    .collect(Collectors.toList());
+            log.debug("Users found by text: {}", matches.size());
+            return matches;
+        });
     }
 
     /**
-     * Searches users by birthdate range.
+     * Counts users born within a range from the birth date statistics, without reading any user.
      *
      * @param from the start of the date range
      * @param to   the end of the date range
-     * @return a list of user data transfer objects that match the date range
-     */
-    public List<UserDto> searchUsersByBirthDateRange(LocalDate from, LocalDate to) {
-        log.info("Searching users by birth date range from: {}, to: {}", from, to);
-        List<User> filteredUsers = users.stream()
-                .filter(user -> !user.getBirthDate().isBefore(from) && !user.getBirthDate().isAfter(to))
-                .toList();
-        log.debug("Users found: {}", users);
-        return filteredUsers.stream()
-                .map(userMapper::toUserDto)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Retrieves a user by id.
-     *
-     * @param id the id of the user to retrieve
-     * @return the user
-     * @throws UserNotFoundException if the user is not found
-     */
-    private User readById(Long id) {
-        log.info("Reading user by id: {}", id);
-        return users.stream()
-                .filter(u -> u.getId().equals(id))
-                .findFirst()
-                .orElseThrow(() -> {
-                    log.error("User not found for id: {}", id);
-                    return new UserNotFoundException("User not found");
+     * @return the number of users born within the range
+     */
+    public UserCountDto countUsersByBirthDateRange(LocalDate from, LocalDate to) {
+        return userMetrics.time(UserOperation.AGGREGATE, () -> {
+            log.debug("Counting users by birth date range from: {}, to: {}", from, to);
+            return new UserCountDto(birthDateStatistics.count(from, to));
+        });
+    }
+
+    /**
+     * Counts users born within a range per birth year or month, from the birth date statistics.
+     * The first and last periods are cut to the range.
+     *
+     * @param from   the start of the date range
+     * @param to     the end of the date range
+     * @param period the length of the periods
+     * @return the number of users per period, in date order, including empty periods
+     */
+    public List<BirthDateCountDto> countUsersByBirthPeriod(LocalDate from, LocalDate to, BirthDatePeriod period) {
+        return userMetrics.time(UserOperation.AGGREGATE, () -> {
+            log.debug("Counting users per {} from: {}, to: {}", period, from, to);
+            List<BirthDateCountDto> counts = new ArrayList<>();
+            LocalDate start = from;
+            while (!start.isAfter(to)) {
+                LocalDate next = switch (period) {
+                    case YEAR -> start.withDayOfYear(1).plusYears(1);
+                    case MONTH -> start.withDayOfMonth(1).plusMonths(1);
+                };
+                LocalDate end = next.isAfter(to) ? to : next.minusDays(1);
+                String label = switch (period) {
+                    case YEAR -> Year.from(start).toString();
+                    case MONTH -> YearMonth.from(start).toString();
+                };
+                counts.add(new BirthDateCountDto(label, birthDateStatistics.count(start, end)));
+                start = next;
+            }
+            return counts;
+        });
+    }
+
+    /**
+     * Counts users per age bucket as of today by the clock of {@link BirthDateLimits}, from the birth date
+     * statistics. Buckets are {@code width} years
+     * wide and start at the minimum age; the last bucket starts at {@code maxAge} and has no upper bound.
+     *
+     * @param width  the number of years per bucket
+     * @param maxAge the age at which the last bucket starts
+     * @return the number of users per bucket, youngest first
+     */
+    public List<AgeCountDto> getAgeHistogram(int width, int maxAge) {
+        return userMetrics.time(UserOperation.AGGREGATE, () -> {
+            log.debug("Counting users per {} years of age up to {}", width, maxAge);
+            LocalDate today = birthDateLimits.today();
+            List<AgeCountDto> counts = new ArrayList<>();
+            for (int fromAge = minAge; fromAge < maxAge; fromAge += width) {
+                int toAge = Math.min(fromAge + width, maxAge);
+                counts.add(new AgeCountDto(fromAge, toAge, birthDateStatistics.count(
+                        today.minusYears(toAge).plusDays(1), today.minusYears(fromAge))));
+            }
+            counts.add(new AgeCountDto(maxAge, null, birthDateStatistics.count(LocalDate.MIN,
+                    today.minusYears(maxAge))));
+            return counts;
+        });
+    }
+
+    /**
+     * Streams the requested fields of users by birthdate range lazily, in birth date order, without
+     * materializing the result and reading and mapping no other fields.
+     *
+     * @param from   the start of the date range
+     * @param to     the end of the date range
+     * @param after  the cursor to continue after, or {@code null} to start at the beginning of the range
+     * @param fields the fields to get, {@link UserFields#ALL} for whole users
+     * @return a lazy stream of user data transfer objects with only the requested fields set
+     */
+    public Stream<UserDto> streamUsersByBirthDateRange(LocalDate from, LocalDate to, String after,
+                                                       UserFields fields) {
+        log.debug("Streaming fields {} of users by birth date range from: {}, to: {}, after: {}", fields, from, to,
+                after);
+        return userRepository.findByBirthDateBetween(from, to, decodeCursor(after), fields)
+                .map(user -> userMapper.toUserDto(user, fields));
+    }
+
+    /**
+     * Applies a single valid batch operation. An operation that would give a user the email of another user
+     * is reported as a conflict.
+     *
+     * @param index     the position of the operation in the batch
+     * @param operation the operation
+     * @return the result of the operation
+     */
+    private UserBatchResultDto applyOperation(int index, UserBatchOperationDto operation) {
+        Long id = operation.getId();
+        UserDto userDto = operation.getUser();
+        AtomicReference<LocalDate> previousBirthDate = new AtomicReference<>();
+        Optional<User> user;
+        try {
+            user = switch (operation.getOperation()) {
+                case CREATE -> {
+                    User newUser = userMapper.toUser(userDto);
+                    newUser.setId(userRepository.nextId());
+                    yield Optional.of(userRepository.save(newUser));
+                }
+                case UPDATE -> userRepository.update(id, existing -> {
+                    previousBirthDate.set(existing.getBirthDate());
+                    copyAllFields(userDto, existing);
+                });
+                case PATCH -> userRepository.update(id, existing -> {
+                    previousBirthDate.set(existing.getBirthDate());
+                    copyPresentFields(userDto, existing);
                 });
+                case DELETE -> userRepository.deleteById(id);
+            };
+        } catch (EmailAlreadyExistsException e) {
+            return new UserBatchResultDto(index, HttpStatus.CONFLICT.value(), id, null, e.getMessage());
+        }
+        if (user.isEmpty()) {
+            return new UserBatchResultDto(index, HttpStatus.NOT_FOUND.value(), id, null, USER_NOT_FOUND);
+        }
+        User u = user.get();
+        userResponseCache.invalidate(u.getId());
+        return switch (operation.getOperation()) {
+            case CREATE -> {
+                birthDateStatistics.add(u.getBirthDate());
+                UserDto createdUser = userMapper.toUserDto(u);
+                userChangeFeed.publish(UserChangeType.CREATED, u.getId(), u.getVersion(), createdUser);
+                yield new UserBatchResultDto(index, HttpStatus.CREATED.value(), u.getId(), createdUser, null);
+            }
+            case DELETE -> {
+                birthDateStatistics.remove(u.getBirthDate());
+                userChangeFeed.publish(UserChangeType.DELETED, u.getId(), u.getVersion() + 1, null);
+                yield new UserBatchResultDto(index, HttpStatus.NO_CONTENT.value(), u.getId(), null, null);
+            }
+            default -> {
+                birthDateStatistics.move(previousBirthDate.get(), u.getBirthDate());
+                UserDto updatedUser = userMapper.toUserDto(u);
+                userChangeFeed.publish(UserChangeType.UPDATED, u.getId(), u.getVersion(), updatedUser);
+                yield new UserBatchResultDto(index, HttpStatus.OK.value(), u.getId(), updatedUser, null);
+            }
+        };
+    }
+
+    /**
+     * Copies every field of the data transfer object to the user, as a full update does.
+     *
+     * @param userDto the new values
+     * @param user    the user to modify
+     */
+    private void copyAllFields(UserDto userDto, User user) {
+        user.setEmail(userDto.getEmail());
+        user.setFirstName(userDto.getFirstName());
+        user.setLastName(userDto.getLastName());
+        user.setBirthDate(userDto.getBirthDate());
+        user.setAddress(userDto.getAddress());
+        user.setPhoneNumber(userDto.getPhoneNumber());
+    }
+
+    /**
+     * Copies the non-null fields of the data transfer object to the user, as a partial update does.
+     *
+     * @param userDto the new values
+     * @param user    the user to modify
+     */
+    private void copyPresentFields(UserDto userDto, User user) {
+        Optional.ofNullable(userDto.getEmail()).ifPresent(user::setEmail);
+        Optional.ofNullable(userDto.getFirstName()).ifPresent(user::setFirstName);
+        Optional.ofNullable(userDto.getLastName()).ifPresent(user::setLastName);
+        Optional.ofNullable(userDto.getBirthDate()).ifPresent(user::setBirthDate);
+        Optional.ofNullable(userDto.getAddress()).ifPresent(user::setAddress);
+        Optional.ofNullable(userDto.getPhoneNumber()).ifPresent(user::setPhoneNumber);
+    }
+
+    /**
+     * Rejects an update of a user whose version has changed since the client read it.
+     * Runs inside the atomic section of the update, so the check and the write cannot interleave
+     * with another update of the same user.
+     *
+     * @param user            the current state of the user
+     * @param expectedVersion the version the client read, or {@code null} to skip the check
+     */
+    private void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && user.getVersion() != expectedVersion.longValue()) {
+            log.debug("User version mismatch for id: {}, expected: {}, actual: {}",
+                    user.getId(), expectedVersion, user.getVersion());
+            throw new UserVersionMismatchException("User version does not match");
+        }
+    }
+
+    /**
+     * Builds the exception reported when a user does not exist.
+     *
+     * @param id the id of the missing user
+     * @return the exception to throw
+     */
+    private UserNotFoundException userNotFound(Long id) {
+        log.debug("User not found for id: {}", id);
+        return new UserNotFoundException(USER_NOT_FOUND);
+    }
+
+    /**
+     * Takes one page of users, reading one more user than the limit to find out whether there is a next page.
+     *
+     * @param users  the users from the position of the page on, in birth date order
+     * @param limit  the maximum number of users on the page
+     * @param mapper converts a user of the page to its data transfer object
+     * @return the page of users and the cursor of the next page, if there is one
+     */
+    private UserPageDto toPage(Stream<User> users, int limit, Function<User, UserDto> mapper) {
+        List<User> found = users.limit(limit + 1L).toList();
+        boolean hasNextPage = found.size() > limit;
+        List<User> page = hasNextPage ? found.subList(0, limit) : found;
+        String nextCursor = hasNextPage ? BirthDateCursor.of(page.get(page.size() - 1)).encode() : null;
+        log.debug("Users page found: {}, next cursor: {}", page.size(), nextCursor);
+        return new UserPageDto(page.stream()
+                .map(mapper)
+                .collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Decodes an optional pagination cursor.
+     *
+     * @param after the opaque cursor token, or {@code null}
+     * @return the decoded cursor, or {@code null} if no token was given
+     */
+    private BirthDateCursor decodeCursor(String after) {
+        return after == null ? null : BirthDateCursor.decode(after);
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.example.clearsolutions.statistics;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.repository.UserRepository;
+
+/**
+ * Number of stored users per birth date, kept up to date by every mutation of {@code UserService}, so that
+ * counts over any date range are answered in O(log n) without reading a single user. The counts are seeded
+ * from the store once, after it has been recovered.
+ *
+ * <p>Birth dates before {@value #FIRST_YEAR} are counted as the first day of that year, and users without
+ * a birth date are not counted.
+ */
+@Component
+public class BirthDateStatistics {
+    static final int FIRST_YEAR = 1800;
+    static final int LAST_YEAR = 2199;
+
+    private final EpochDayFenwickTree counts = new EpochDayFenwickTree(LocalDate.of(FIRST_YEAR, 1, 1).toEpochDay(),
+            LocalDate.of(LAST_YEAR, 12, 31).toEpochDay());
+
+    public BirthDateStatistics(UserRepository userRepository) {
+        try (Stream<User> users = userRepository.findAll()) {
+            users.forEach(user -> add(user.getBirthDate()));
+        }
+    }
+
+    /**
+     * Counts a user born on the given date.
+     *
+     * @param birthDate the birth date, or {@code null}
+     */
+    public void add(LocalDate birthDate) {
+        if (birthDate != null) {
+            counts.add(birthDate.toEpochDay(), 1);
+        }
+    }
+
+    /**
+     * Stops counting a user born on the given date.
+     *
+     * @param birthDate the birth date, or {@code null}
+     */
+    public void remove(LocalDate birthDate) {
+        if (birthDate != null) {
+            counts.add(birthDate.toEpochDay(), -1);
+        }
+    }
+
+    /**
+     * Moves a user from its previous birth date to its current one.
+     *
+     * @param previous the previous birth date, or {@code null}
+     * @param current  the current birth date, or {@code null}
+     */
+    public void move(LocalDate previous, LocalDate current) {
+        if (previous == null || !previous.equals(current)) {
+            remove(previous);
+            add(current);
+        }
+    }
+
+    /**
+     * Counts the users born within a range.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, inclusive
+     * @return the number of users, or zero if the range is empty
+     */
+    public long count(LocalDate from, LocalDate to) {
+        return counts.count(from.toEpochDay(), to.toEpochDay());
+    }
+}
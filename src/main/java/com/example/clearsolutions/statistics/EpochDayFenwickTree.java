@@ -0,0 +1,79 @@
+package com.example.clearsolutions.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fenwick tree of counts per epoch day over a fixed span of days. Adding to a day and counting a range of days
+ * both cost O(log n) atomic reads or adds for a span of n days, and neither allocates. Days outside the span
+ * are counted at its nearest end.
+ *
+ * <p>Adds are atomic per cell but not across the cells of one add, so a count that runs concurrently with
+ * an add may include it in one prefix and not in the other. Counts are exact once writers are quiescent.
+ */
+class EpochDayFenwickTree {
+    private final long firstDay;
+    private final long lastDay;
+    private final AtomicLongArray tree;
+
+    /**
+     * Creates an empty tree.
+     *
+     * @param firstDay the first epoch day of the span
+     * @param lastDay  the last epoch day of the span
+     */
+    EpochDayFenwickTree(long firstDay, long lastDay) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.tree = new AtomicLongArray(Math.toIntExact(lastDay - firstDay + 2));
+    }
+
+    /**
+     * Adds to the count of a day.
+     *
+     * @param epochDay the day
+     * @param delta    the amount to add, negative to subtract
+     */
+    void add(long epochDay, long delta) {
+        for (int i = position(epochDay); i < tree.length(); i += i & -i) {
+            tree.addAndGet(i, delta);
+        }
+    }
+
+    /**
+     * Counts the days of a range.
+     *
+     * @param fromDay the first day of the range, inclusive
+     * @param toDay   the last day of the range, inclusive
+     * @return the sum of the counts of the days in the range, or zero for an empty range
+     */
+    long count(long fromDay, long toDay) {
+        if (fromDay > toDay) {
+            return 0;
+        }
+        return prefix(position(toDay)) - prefix(position(fromDay) - 1);
+    }
+
+    /**
+     * Sums the counts of the positions up to the given one.
+     *
+     * @param position the last position, from zero
+     * @return the sum
+     */
+    private long prefix(int position) {
+        long sum = 0;
+        for (int i = position; i > 0; i -= i & -i) {
+            sum += tree.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Maps a day to its one-based position in the tree, clamping it to the span.
+     *
+     * @param epochDay the day
+     * @return the position
+     */
+    private int position(long epochDay) {
+        return (int) (Math.min(Math.max(epochDay, firstDay), lastDay) - firstDay + 1);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.clearsolutions.transfer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.dto.UserImportResultDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a bulk import or export of a file when the application is started with {@code user.bulk.mode}, and
+ * stops the application once it is done. The format is taken from the file extension. Imported users are
+ * written through the configured store, so they are in its log when the application stops, and rejected
+ * records are logged with their line numbers.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "user.bulk.mode")
+@RequiredArgsConstructor
+public class UserBulkCommandLineRunner implements ApplicationRunner {
+    private final UserBulkImporter userBulkImporter;
+    private final UserBulkExporter userBulkExporter;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${user.bulk.mode}")
+    private Mode mode;
+
+    @Value("${user.bulk.file}")
+    private Path file;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        UserTransferFormat format = UserTransferFormat.ofFile(file);
+        switch (mode) {
+            case IMPORT -> {
+                UserImportResultDto result;
+                try (InputStream input = Files.newInputStream(file)) {
+                    result = userBulkImporter.importUsers(input, format);
+                }
+                result.getErrors().forEach(error -> log.warn("Rejected line {}: {}", error.getLine(),
+                        error.getError()));
+                log.info("Imported {} users from {}, rejected {}", result.getImported(), file, result.getRejected());
+            }
+            case EXPORT -> {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    long exported = userBulkExporter.exportUsers(channel, format);
+                    log.info("Exported {} users to {}", exported, file);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown bulk mode " + mode);
+        }
+        SpringApplication.exit(context);
+    }
+
+    /**
+     * What the runner does with the file.
+     */
+    public enum Mode {
+        IMPORT,
+        EXPORT
+    }
+}
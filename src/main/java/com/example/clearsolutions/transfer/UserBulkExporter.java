@@ -0,0 +1,136 @@
+package com.example.clearsolutions.transfer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exports every user to a channel as CSV or NDJSON in constant memory. Users are read from the store as they
+ * are written, formatted into a reusable text buffer, and encoded as UTF-8 into a direct byte buffer that is
+ * written to the channel whenever it fills up, so a file channel writes without an intermediate copy.
+ *
+ * <p>The export is not a snapshot: users created, updated or deleted while it runs may or may not be in it.
+ */
+@Slf4j
+@Component
+public class UserBulkExporter {
+    static final String CSV_HEADER = "id,email,firstName,lastName,birthDate,address,phoneNumber";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int FLUSH_CHARS = BUFFER_SIZE / 2;
+
+    private final UserService userService;
+    private final ObjectWriter userWriter;
+
+    public UserBulkExporter(UserService userService, ObjectMapper objectMapper) {
+        this.userService = userService;
+        this.userWriter = objectMapper.writerFor(UserDto.class);
+    }
+
+    /**
+     * Writes every user to a channel. The channel is not closed.
+     *
+     * @param channel the channel to write to
+     * @param format  the format to write
+     * @return the number of exported users
+     * @throws IOException if the channel cannot be written
+     */
+    public long exportUsers(WritableByteChannel channel, UserTransferFormat format) throws IOException {
+        ChannelWriter writer = new ChannelWriter(channel);
+        StringBuilder text = writer.text();
+        if (format == UserTransferFormat.CSV) {
+            text.append(CSV_HEADER).append('\n');
+        }
+        long exported = 0;
+        try (Stream<UserDto> users = userService.streamAllUsers()) {
+            Iterator<UserDto> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                UserDto user = iterator.next();
+                if (format == UserTransferFormat.CSV) {
+                    appendCsv(text, user);
+                } else {
+                    text.append(userWriter.writeValueAsString(user));
+                }
+                text.append('\n');
+                exported++;
+                if (text.length() >= FLUSH_CHARS) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        writer.drain();
+        log.info("Exported {} users", exported);
+        return exported;
+    }
+
+    private void appendCsv(StringBuilder text, UserDto user) {
+        text.append(user.getId()).append(',');
+        UserCsv.appendField(text, user.getEmail());
+        text.append(',');
+        UserCsv.appendField(text, user.getFirstName());
+        text.append(',');
+        UserCsv.appendField(text, user.getLastName());
+        text.append(',');
+        if (user.getBirthDate() != null) {
+            text.append(user.getBirthDate());
+        }
+        text.append(',');
+        UserCsv.appendField(text, user.getAddress());
+        text.append(',');
+        UserCsv.appendField(text, user.getPhoneNumber());
+    }
+
+    /**
+     * Encodes text into a direct buffer and writes the buffer to a channel whenever it is full.
+     * Text is only flushed at record boundaries, so no surrogate pair is split between two flushes.
+     */
+    private static final class ChannelWriter {
+        private final WritableByteChannel channel;
+        private final StringBuilder pending = new StringBuilder(BUFFER_SIZE);
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private ChannelWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private StringBuilder text() {
+            return pending;
+        }
+
+        private void flush() throws IOException {
+            CharBuffer chars = CharBuffer.wrap(pending);
+            CoderResult result = encoder.encode(chars, buffer, false);
+            while (result.isOverflow()) {
+                drain();
+                result = encoder.encode(chars, buffer, false);
+            }
+            pending.setLength(0);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.clearsolutions.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.dto.UserImportErrorDto;
+import com.example.clearsolutions.dto.UserImportResultDto;
+import com.example.clearsolutions.exceptions.InvalidImportException;
+import com.example.clearsolutions.service.UserService;
+import com.example.clearsolutions.validator.UserDtoValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports users from a CSV or NDJSON stream in constant memory. The calling thread splits the input into
+ * chunks of raw records, a pool of threads parses and validates the chunks in parallel, and the calling thread
+ * creates the valid users of each chunk in input order with a single {@link UserService#importUsers(List)} call,
+ * so a durable store commits once per chunk. At most a few chunks per thread are in flight at any time.
+ *
+ * <p>Invalid records, and records whose email is already taken, are counted and skipped; the first
+ * {@value #MAX_ERRORS} of them are reported with their line numbers. Ids are always allocated by the store,
+ * so an id column or property in the input is ignored.
+ */
+@Slf4j
+@Component
+public class UserBulkImporter implements DisposableBean {
+    static final int CHUNK_SIZE = 4096;
+    static final int MAX_ERRORS = 100;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    private static final String EMAIL = "email";
+    private static final String FIRST_NAME = "firstName";
+    private static final String LAST_NAME = "lastName";
+    private static final String BIRTH_DATE = "birthDate";
+    private static final String ADDRESS = "address";
+    private static final String PHONE_NUMBER = "phoneNumber";
+    private static final List<String> REQUIRED_COLUMNS = List.of(EMAIL, FIRST_NAME, LAST_NAME);
+
+    private final UserService userService;
+    private final UserDtoValidator userDtoValidator;
+    private final ObjectReader userReader;
+    private final ExecutorService executor;
+    private final int maxPendingChunks;
+
+    public UserBulkImporter(UserService userService, UserDtoValidator userDtoValidator, ObjectMapper objectMapper,
+                            @Value("${user.bulk.threads}") int threads) {
+        this.userService = userService;
+        this.userDtoValidator = userDtoValidator;
+        this.userReader = objectMapper.readerFor(UserDto.class);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger created = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxPendingChunks = poolSize * 2;
+    }
+
+    /**
+     * Imports the users of a stream. The stream is read to its end but not closed.
+     *
+     * @param input  the UTF-8 encoded input
+     * @param format the format of the input
+     * @return the number of imported and rejected users and the first errors
+     * @throws IOException            if the input cannot be read
+     * @throws InvalidImportException if a CSV input has no header or misses a required column
+     */
+    public UserImportResultDto importUsers(InputStream input, UserTransferFormat format) throws IOException {
+        UserRecordReader records = new UserRecordReader(new BufferedReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8), READ_BUFFER_SIZE), format);
+        Function<String, UserDto> parser = format == UserTransferFormat.CSV
+                ? csvParser(records.next())
+                : this::parseJson;
+        ImportTally tally = new ImportTally();
+        Deque<Future<ParsedChunk>> pending = new ArrayDeque<>();
+        try {
+            List<RawRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (String record = records.next(); record != null; record = records.next()) {
+                chunk.add(new RawRecord(records.line(), record));
+                if (chunk.size() == CHUNK_SIZE) {
+                    pending.add(submit(chunk, parser));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                    if (pending.size() > maxPendingChunks) {
+                        apply(await(pending.poll()), tally);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(submit(chunk, parser));
+            }
+            while (!pending.isEmpty()) {
+                apply(await(pending.poll()), tally);
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        log.info("Imported {} users, rejected {}", tally.imported, tally.rejected);
+        return new UserImportResultDto(tally.imported, tally.rejected, tally.errors);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates the parser of the records of a CSV input from its header.
+     *
+     * @param header the first record of the input
+     * @return the parser of the following records
+     * @throws InvalidImportException if there is no header or it misses a required column
+     */
+    private Function<String, UserDto> csvParser(String header) {
+        if (header == null) {
+            throw new InvalidImportException("CSV header is required");
+        }
+        List<String> names = UserCsv.split(header.strip());
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).strip(), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                log.debug("CSV header misses column {}", required);
+                throw new InvalidImportException("CSV header misses column " + required);
+            }
+        }
+        int count = names.size();
+        int email = columns.get(EMAIL);
+        int firstName = columns.get(FIRST_NAME);
+        int lastName = columns.get(LAST_NAME);
+        int birthDate = columns.getOrDefault(BIRTH_DATE, -1);
+        int address = columns.getOrDefault(ADDRESS, -1);
+        int phoneNumber = columns.getOrDefault(PHONE_NUMBER, -1);
+        return record -> {
+            List<String> fields = UserCsv.split(record);
+            if (fields.size() != count) {
+                throw new IllegalArgumentException("Expected " + count + " fields but found " + fields.size());
+            }
+            String birthDateField = field(fields, birthDate);
+            return new UserDto(null, field(fields, email), field(fields, firstName), field(fields, lastName),
+                    birthDateField == null ? null : LocalDate.parse(birthDateField), field(fields, address),
+                    field(fields, phoneNumber));
+        };
+    }
+
+    private String field(List<String> fields, int column) {
+        if (column < 0) {
+            return null;
+        }
+        String value = fields.get(column);
+        return value.isEmpty() ? null : value;
+    }
+
+    private UserDto parseJson(String record) {
+        try {
+            UserDto user = userReader.readValue(record);
+            user.setId(null);
+            return user;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed user: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private Future<ParsedChunk> submit(List<RawRecord> chunk, Function<String, UserDto> parser) {
+        return executor.submit(() -> parse(chunk, parser));
+    }
+
+    /**
+     * Parses and validates the records of a chunk.
+     *
+     * @param chunk  the raw records
+     * @param parser the parser of a record
+     * @return the valid users and the errors of the invalid records
+     */
+    private ParsedChunk parse(List<RawRecord> chunk, Function<String, UserDto> parser) {
+        List<UserDto> users = new ArrayList<>(chunk.size());
+        List<Long> lines = new ArrayList<>(chunk.size());
+        List<UserImportErrorDto> errors = new ArrayList<>();
+        for (RawRecord record : chunk) {
+            String error;
+            try {
+                UserDto user = parser.apply(record.text());
+                error = userDtoValidator.checkUser(user).orElse(null);
+                if (error == null) {
+                    users.add(user);
+                    lines.add(record.line());
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                error = e.getMessage();
+            }
+            if (error != null) {
+                errors.add(new UserImportErrorDto(record.line(), error));
+            }
+        }
+        return new ParsedChunk(users, lines, errors);
+    }
+
+    private ParsedChunk await(Future<ParsedChunk> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to parse users", e.getCause());
+        }
+    }
+
+    /**
+     * Creates the valid users of a parsed chunk and counts the outcome of every record.
+     *
+     * @param chunk the parsed chunk
+     * @param tally the outcome of the import so far
+     */
+    private void apply(ParsedChunk chunk, ImportTally tally) {
+        chunk.errors().forEach(tally::reject);
+        if (chunk.users().isEmpty()) {
+            return;
+        }
+        List<Long> ids = userService.importUsers(chunk.users());
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                tally.reject(new UserImportErrorDto(chunk.lines().get(i), "Email is already in use"));
+            } else {
+                tally.imported++;
+            }
+        }
+    }
+
+    /**
+     * A record as read from the input, with the line it starts on.
+     */
+    private record RawRecord(long line, String text) {
+    }
+
+    /**
+     * The valid users of a chunk with their line numbers, and the errors of its invalid records.
+     */
+    private record ParsedChunk(List<UserDto> users, List<Long> lines, List<UserImportErrorDto> errors) {
+    }
+
+    /**
+     * Outcome of an import so far. Only the calling thread updates it.
+     */
+    private static final class ImportTally {
+        private final List<UserImportErrorDto> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private void reject(UserImportErrorDto error) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.clearsolutions.transfer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits and writes comma-separated records as RFC 4180 describes them: fields that contain a comma, a quote
+ * or a line break are enclosed in double quotes, and quotes inside them are doubled.
+ */
+final class UserCsv {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private UserCsv() {
+    }
+
+    /**
+     * Checks whether a line has an odd number of quotes, that is whether it opens or closes a quoted field that
+     * spans a line break. A record is complete when the parity over all its lines is even.
+     *
+     * @param line one line of a record
+     * @return true if the line has an odd number of quotes
+     */
+    static boolean hasOddQuotes(CharSequence line) {
+        boolean odd = false;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == QUOTE) {
+                odd = !odd;
+            }
+        }
+        return odd;
+    }
+
+    /**
+     * Splits a complete record into its fields, removing the quotes around and inside quoted fields.
+     *
+     * @param record the record, without its final line break
+     * @return the fields of the record
+     * @throws IllegalArgumentException if a quoted field is not closed or is followed by other characters
+     */
+    static List<String> split(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            if (i < record.length() && record.charAt(i) == QUOTE) {
+                i = readQuoted(record, i + 1, field);
+                if (i < record.length() && record.charAt(i) != SEPARATOR) {
+                    throw new IllegalArgumentException("Unexpected character after a quoted field at " + i);
+                }
+            } else {
+                int end = record.indexOf(SEPARATOR, i);
+                end = end < 0 ? record.length() : end;
+                field.append(record, i, end);
+                i = end;
+            }
+            fields.add(field.toString());
+            field.setLength(0);
+            if (i >= record.length()) {
+                return fields;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Appends a field to a record, quoting it if it needs to be.
+     *
+     * @param record the record to append to
+     * @param value  the field, or {@code null} for an empty field
+     */
+    static void appendField(StringBuilder record, String value) {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuotes(value)) {
+            record.append(value);
+            return;
+        }
+        record.append(QUOTE);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                record.append(QUOTE);
+            }
+            record.append(c);
+        }
+        record.append(QUOTE);
+    }
+
+    private static int readQuoted(String record, int start, StringBuilder field) {
+        int i = start;
+        while (i < record.length()) {
+            char c = record.charAt(i++);
+            if (c != QUOTE) {
+                field.append(c);
+            } else if (i < record.length() && record.charAt(i) == QUOTE) {
+                field.append(QUOTE);
+                i++;
+            } else {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Quoted field is not closed");
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
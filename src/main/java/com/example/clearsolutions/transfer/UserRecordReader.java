@@ -0,0 +1,73 @@
+package com.example.clearsolutions.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads the raw records of a bulk import one after the other, without parsing them, so that the parsing can
+ * be spread over several threads. A CSV record ends at the first line break outside a quoted field; an NDJSON
+ * record is one line. Blank lines are skipped. A CSV record that is still inside a quoted field after
+ * {@value #MAX_RECORD_LENGTH} characters is cut off at the end of that line, so that it is rejected as not
+ * closed and memory stays bounded; the next line starts a new record.
+ */
+final class UserRecordReader {
+    static final int MAX_RECORD_LENGTH = 1 << 16;
+    private final BufferedReader reader;
+    private final UserTransferFormat format;
+    private long lineNumber;
+    private long recordLine;
+
+    /**
+     * Creates a reader.
+     *
+     * @param reader the buffered input
+     * @param format the format of the input
+     */
+    UserRecordReader(BufferedReader reader, UserTransferFormat format) {
+        this.reader = reader;
+        this.format = format;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record without its final line break, or {@code null} at the end of the input
+     * @throws IOException if the input cannot be read
+     */
+    String next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+        recordLine = lineNumber;
+        boolean quoted = format == UserTransferFormat.CSV && UserCsv.hasOddQuotes(line);
+        if (!quoted) {
+            return line;
+        }
+
+        StringBuilder record = new StringBuilder(line);
+        while (quoted && record.length() <= MAX_RECORD_LENGTH) {
+            line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            lineNumber++;
+            record.append('\n').append(line);
+            quoted ^= UserCsv.hasOddQuotes(line);
+        }
+        return record.toString();
+    }
+
+    /**
+     * Returns the line the last record started on, counting from 1.
+     *
+     * @return the line number of the last record
+     */
+    long line() {
+        return recordLine;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.clearsolutions.transfer;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+import com.example.clearsolutions.exceptions.InvalidImportException;
+
+/**
+ * File format of a bulk import or export, one user per record.
+ */
+public enum UserTransferFormat {
+    /**
+     * Comma-separated values with a header row naming the columns, quoted as in RFC 4180.
+     */
+    CSV,
+    /**
+     * Newline-delimited JSON, one user object per line.
+     */
+    NDJSON;
+
+    /**
+     * Finds the format of a file by its extension: {@code .csv}, or {@code .ndjson} or {@code .jsonl}.
+     *
+     * @param file the file
+     * @return the format of the file
+     * @throws InvalidImportException if the extension is not one of a known format
+     */
+    public static UserTransferFormat ofFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new InvalidImportException("Unknown file format of " + file.getFileName());
+    }
+}
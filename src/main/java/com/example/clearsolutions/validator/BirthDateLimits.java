@@ -0,0 +1,74 @@
+package com.example.clearsolutions.validator;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Today's date and the latest birth date of a user of the minimum age, read from the clock once per day instead
+ * of on every check. A check reads the milliseconds of the clock and compares them with the bounds of the
+ * cached day; the dates are recomputed by the first check after midnight in the zone of the clock, or after the
+ * clock is set back.
+ */
+@Component
+public class BirthDateLimits {
+    private final Clock clock;
+    private final int minAge;
+    private volatile Day day;
+
+    public BirthDateLimits(Clock clock, @Value("${user.min.age}") int minAge) {
+        this.clock = clock;
+        this.minAge = minAge;
+        this.day = dayOf(clock.millis());
+    }
+
+    /**
+     * Returns today's date in the zone of the clock.
+     *
+     * @return today's date
+     */
+    public LocalDate today() {
+        return current().today();
+    }
+
+    /**
+     * Returns the latest birth date of a user who is at least the minimum age today.
+     *
+     * @return today's date minus the minimum age
+     */
+    public LocalDate latestAdultBirthDate() {
+        return current().latestAdultBirthDate();
+    }
+
+    private Day current() {
+        Day current = day;
+        long now = clock.millis();
+        if (now < current.start() || now >= current.end()) {
+            current = dayOf(now);
+            day = current;
+        }
+        return current;
+    }
+
+    private Day dayOf(long millis) {
+        ZoneId zone = clock.getZone();
+        LocalDate today = LocalDate.ofInstant(Instant.ofEpochMilli(millis), zone);
+        return new Day(today, today.minusYears(minAge), today.atStartOfDay(zone).toInstant().toEpochMilli(),
+                today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+    }
+
+    /**
+     * Dates of one day of the clock.
+     *
+     * @param today                today's date
+     * @param latestAdultBirthDate today's date minus the minimum age
+     * @param start                the first millisecond of the day
+     * @param end                  the first millisecond of the next day
+     */
+    private record Day(LocalDate today, LocalDate latestAdultBirthDate, long start, long end) {
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.clearsolutions.validator;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.net.IDN;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.StringJoiner;
+import java.util.stream.IntStream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import com.example.clearsolutions.dto.UserDto;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Precompiled checks of the bean validation constraints declared on {@link UserDto}, used for request bodies
+ * and bulk imports instead of the reflective validator. Each constraint is checked by hand-written code that
+ * accepts what Hibernate Validator accepts, without regular expressions and without allocating, and all
+ * violations are collected in one pass as bits of an {@code int}.
+ *
+ * <p>The messages are read from the annotations once, at startup, which also fails if the annotations declare
+ * a constraint or a phone number pattern that these checks do not implement. Email domains given as an IPv6
+ * address literal are rejected; any other email is judged as by {@code @Email}, including quoted local parts
+ * and internationalized domains.
+ */
+@Component
+public class UserConstraints implements Validator {
+    private static final String PHONE_NUMBER_REGEXP = "\\d{7,10}";
+    private static final String ANY_EMAIL_REGEXP = ".*";
+    private static final int MIN_PHONE_NUMBER_DIGITS = 7;
+    private static final int MAX_PHONE_NUMBER_DIGITS = 10;
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_DOMAIN_LENGTH = 255;
+    private static final int MAX_LABEL_LENGTH = 63;
+    private static final int MAX_IP_OCTET_DIGITS = 3;
+    private static final int IP_OCTETS = 4;
+    private static final char LAST_BLANK = ' ';
+    private static final char DOT = '.';
+    private static final char HYPHEN = '-';
+    private static final char QUOTE = '"';
+    private static final char BACKSLASH = '\\';
+    private static final char LITERAL_START = '[';
+    private static final char LITERAL_END = ']';
+    private static final String CONSTRAINTS_PACKAGE = NotBlank.class.getPackageName();
+    private static final Constraint[] CONSTRAINTS = Constraint.values();
+
+    private final BirthDateLimits birthDateLimits;
+    private final String[] messages = new String[CONSTRAINTS.length];
+    private final String[] descriptions = new String[CONSTRAINTS.length];
+    private final int[] describedOrder;
+
+    public UserConstraints(BirthDateLimits birthDateLimits) {
+        this.birthDateLimits = birthDateLimits;
+        for (Constraint constraint : CONSTRAINTS) {
+            messages[constraint.ordinal()] = constraint.message();
+            descriptions[constraint.ordinal()] = constraint.field + ": " + messages[constraint.ordinal()];
+        }
+        describedOrder = IntStream.range(0, CONSTRAINTS.length)
+                .boxed()
+                .sorted(Comparator.comparing(index -> descriptions[index]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        checkDeclaredConstraints();
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return UserDto.class == clazz;
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        int violations = violations((UserDto) target);
+        for (Constraint constraint : CONSTRAINTS) {
+            if ((violations & constraint.bit()) != 0) {
+                errors.rejectValue(constraint.field, constraint.annotation.getSimpleName(),
+                        messages[constraint.ordinal()]);
+            }
+        }
+    }
+
+    /**
+     * Checks every constraint of a user.
+     *
+     * @param userDto the user
+     * @return the violated constraints as bits, or zero if the user is valid
+     */
+    public int violations(UserDto userDto) {
+        int violations = 0;
+        LocalDate birthDate = userDto.getBirthDate();
+        if (birthDate != null && !birthDate.isBefore(birthDateLimits.today())) {
+            violations |= Constraint.BIRTH_DATE_PAST.bit();
+        }
+        String email = userDto.getEmail();
+        if (isBlank(email)) {
+            violations |= Constraint.EMAIL_NOT_BLANK.bit();
+        }
+        if (!isEmail(email)) {
+            violations |= Constraint.EMAIL_VALID.bit();
+        }
+        if (isBlank(userDto.getFirstName())) {
+            violations |= Constraint.FIRST_NAME_NOT_BLANK.bit();
+        }
+        if (isBlank(userDto.getLastName())) {
+            violations |= Constraint.LAST_NAME_NOT_BLANK.bit();
+        }
+        if (!isPhoneNumber(userDto.getPhoneNumber())) {
+            violations |= Constraint.PHONE_NUMBER_PATTERN.bit();
+        }
+        return violations;
+    }
+
+    /**
+     * Describes violated constraints as {@code field: message} pairs, sorted and separated by commas.
+     *
+     * @param violations the violated constraints as bits, as returned by {@link #violations(UserDto)}
+     * @return the description of the violations
+     */
+    public String describe(int violations) {
+        StringJoiner description = new StringJoiner(", ");
+        for (int index : describedOrder) {
+            if ((violations & CONSTRAINTS[index].bit()) != 0) {
+                description.add(descriptions[index]);
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * Checks a string as {@code @NotBlank} does: it must have a character other than a space or a control
+     * character.
+     *
+     * @param value the string, or {@code null}
+     * @return true if the string is missing or blank
+     */
+    static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > LAST_BLANK) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks a phone number against the {@code \d{7,10}} pattern. A missing phone number is valid.
+     *
+     * @param value the phone number, or {@code null}
+     * @return true if the phone number is missing or has 7 to 10 ASCII digits and nothing else
+     */
+    static boolean isPhoneNumber(String value) {
+        if (value == null) {
+            return true;
+        }
+        if (value.length() < MIN_PHONE_NUMBER_DIGITS || value.length() > MAX_PHONE_NUMBER_DIGITS) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks an email address as {@code @Email} does: a local part of at most 64 characters made of dot
+     * separated atoms or quoted strings, and a domain of dot separated labels, or an IPv4 address in brackets.
+     * A missing or empty email is valid.
+     *
+     * @param value the email address, or {@code null}
+     * @return true if the email address is missing, empty or well-formed
+     */
+    static boolean isEmail(String value) {
+        if (value == null || value.isEmpty()) {
+            return true;
+        }
+        int at = value.lastIndexOf('@');
+        return at >= 0 && isLocalPart(value, at) && isDomain(value, at + 1);
+    }
+
+    private static boolean isLocalPart(String value, int end) {
+        if (end > MAX_LOCAL_PART_LENGTH) {
+            return false;
+        }
+        int position = 0;
+        while (true) {
+            position = position < end && value.charAt(position) == QUOTE
+                    ? skipQuoted(value, position, end)
+                    : skipAtom(value, position, end);
+            if (position < 0) {
+                return false;
+            }
+            if (position == end) {
+                return true;
+            }
+            if (value.charAt(position) != DOT) {
+                return false;
+            }
+            position++;
+        }
+    }
+
+    private static int skipAtom(String value, int start, int end) {
+        int position = start;
+        while (position < end && isAtomChar(value.charAt(position))) {
+            position++;
+        }
+        return position > start ? position : -1;
+    }
+
+    private static int skipQuoted(String value, int start, int end) {
+        int position = start + 1;
+        while (position < end) {
+            char c = value.charAt(position);
+            if (c == QUOTE) {
+                return position > start + 1 ? position + 1 : -1;
+            }
+            if (c == BACKSLASH) {
+                if (position + 1 >= end
+                        || value.charAt(position + 1) != BACKSLASH && value.charAt(position + 1) != QUOTE) {
+                    return -1;
+                }
+                position += 2;
+            } else if (isAtomChar(c) || isQuotedOnlyChar(c)) {
+                position++;
+            } else {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isDomain(String value, int start) {
+        int end = value.length();
+        if (start == end || value.charAt(end - 1) == DOT) {
+            return false;
+        }
+        if (value.charAt(start) == LITERAL_START) {
+            return isIpv4Literal(value, start, end);
+        }
+        boolean ascii = true;
+        int labelStart = start;
+        for (int position = start; position <= end; position++) {
+            char c = position < end ? value.charAt(position) : DOT;
+            if (c == DOT) {
+                if (position == labelStart || value.charAt(position - 1) == HYPHEN
+                        || ascii && position - labelStart > MAX_LABEL_LENGTH) {
+                    return false;
+                }
+                labelStart = position + 1;
+            } else if (c == HYPHEN) {
+                if (position == labelStart) {
+                    return false;
+                }
+            } else if (!isDomainChar(c)) {
+                return false;
+            } else {
+                ascii &= c < 0x80;
+            }
+        }
+        return ascii ? end - start <= MAX_DOMAIN_LENGTH : isInternationalDomain(value.substring(start));
+    }
+
+    private static boolean isInternationalDomain(String domain) {
+        try {
+            return IDN.toASCII(domain).length() <= MAX_DOMAIN_LENGTH;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isIpv4Literal(String value, int start, int end) {
+        if (value.charAt(end - 1) != LITERAL_END) {
+            return false;
+        }
+        int position = start + 1;
+        for (int octet = 0; octet < IP_OCTETS; octet++) {
+            if (octet > 0) {
+                if (position >= end || value.charAt(position) != DOT) {
+                    return false;
+                }
+                position++;
+            }
+            int digits = 0;
+            while (position < end && isDigit(value.charAt(position))) {
+                position++;
+                digits++;
+            }
+            if (digits == 0 || digits > MAX_IP_OCTET_DIGITS) {
+                return false;
+            }
+        }
+        return position == end - 1;
+    }
+
+    private static boolean isAtomChar(char c) {
+        return isDomainChar(c) || c == HYPHEN;
+    }
+
+    private static boolean isDomainChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || isDigit(c) || c >= 0x80 && !Character.isSurrogate(c)
+                || "!#$%&'*+/=?^_`{|}~".indexOf(c) >= 0;
+    }
+
+    private static boolean isQuotedOnlyChar(char c) {
+        return ".(),<>[]:; @".indexOf(c) >= 0;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Fails if a field of {@link UserDto} declares a constraint that is not checked here, a phone number pattern
+     * other than the one implemented, or an additional email pattern.
+     */
+    private static void checkDeclaredConstraints() {
+        for (Field field : UserDto.class.getDeclaredFields()) {
+            for (Annotation annotation : field.getAnnotations()) {
+                Class<? extends Annotation> type = annotation.annotationType();
+                boolean checked = Arrays.stream(CONSTRAINTS)
+                        .anyMatch(constraint -> constraint.field.equals(field.getName())
+                                && constraint.annotation == type);
+                if (type.getPackageName().equals(CONSTRAINTS_PACKAGE) && !checked) {
+                    throw new IllegalStateException("Unchecked constraint @" + type.getSimpleName() + " on "
+                            + field.getName());
+                }
+                if (annotation instanceof Pattern pattern && !PHONE_NUMBER_REGEXP.equals(pattern.regexp())
+                        || annotation instanceof Email email && !ANY_EMAIL_REGEXP.equals(email.regexp())) {
+                    throw new IllegalStateException("Unchecked pattern on " + field.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Constraint declared on a field of {@link UserDto}, in the order its violation is reported.
+     */
+    private enum Constraint {
+        BIRTH_DATE_PAST("birthDate", Past.class),
+        EMAIL_NOT_BLANK("email", NotBlank.class),
+        EMAIL_VALID("email", Email.class),
+        FIRST_NAME_NOT_BLANK("firstName", NotBlank.class),
+        LAST_NAME_NOT_BLANK("lastName", NotBlank.class),
+        PHONE_NUMBER_PATTERN("phoneNumber", Pattern.class);
+
+        private final String field;
+        private final Class<? extends Annotation> annotation;
+
+        Constraint(String field, Class<? extends Annotation> annotation) {
+            this.field = field;
+            this.annotation = annotation;
+        }
+
+        private int bit() {
+            return 1 << ordinal();
+        }
+
+        private String message() {
+            try {
+                Annotation declared = UserDto.class.getDeclaredField(field).getAnnotation(annotation);
+                if (declared == null) {
+                    throw new IllegalStateException("Missing constraint @" + annotation.getSimpleName() + " on "
+                            + field);
+                }
+                return (String) annotation.getMethod("message").invoke(declared);
+            } catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException
+                     | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot read constraint @" + annotation.getSimpleName() + " on "
+                        + field, e);
+            }
+        }
+    }
+}
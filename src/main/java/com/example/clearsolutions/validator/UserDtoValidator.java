@@ -1,13 +1,24 @@
 package com.example.clearsolutions.validator;
 
 import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.example.clearsolutions.dto.BatchOperationType;
+import com.example.clearsolutions.dto.BirthDatePeriod;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
 import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.exceptions.InvalidAggregationException;
 import com.example.clearsolutions.exceptions.InvalidDateRangeException;
+import com.example.clearsolutions.exceptions.InvalidPageLimitException;
+import com.example.clearsolutions.exceptions.InvalidSearchQueryException;
 import com.example.clearsolutions.exceptions.UserUnderAgeException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -15,11 +26,19 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class UserDtoValidator {
+    private static final int MAX_EDITS = 2;
+
+    private final UserConstraints userConstraints;
+    private final BirthDateLimits birthDateLimits;
 
     @Value("${user.min.age}")
     private int minAge;
 
+    @Value("${user.search.max.limit}")
+    private int maxLimit;
+
     /**
      * Validates the user's age.
      *
@@ -27,11 +46,11 @@ public class UserDtoValidator {
      * @throws IllegalArgumentException if the user's age is less than the minimum age
      */
     public void validateUser(UserDto userDto) {
-        if (userDto.getBirthDate().isAfter(LocalDate.now().minusYears(minAge))) {
-            log.error("User must be at least {} years old", minAge);
+        if (userDto.getBirthDate() != null && isUnderAge(userDto.getBirthDate())) {
+            log.debug("User must be at least {} years old", minAge);
             throw new UserUnderAgeException("User must be at least " + minAge + " years old");
         }
-        log.info("User validation passed for {}", userDto);
+        log.debug("User validation passed");
     }
 
     /**
@@ -43,9 +62,140 @@ public class UserDtoValidator {
      */
     public void validateDateRange(LocalDate from, LocalDate to) {
         if (from.isAfter(to)) {
-            log.error("'From' date must be less than 'To' date");
+            log.debug("'From' date must be less than 'To' date");
             throw new InvalidDateRangeException("'From' date must be less than 'To' date");
         }
-        log.info("Date range validation passed for from: {}, to: {}", from, to);
+        log.debug("Date range validation passed for from: {}, to: {}", from, to);
+    }
+
+    /**
+     * Validates the page limit of a paginated search.
+     *
+     * @param limit the requested number of users per page
+     * @throws InvalidPageLimitException if the limit is not between 1 and the maximum page limit
+     */
+    public void validatePageLimit(int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            log.debug("Page limit must be between 1 and {}", maxLimit);
+            throw new InvalidPageLimitException("Page limit must be between 1 and " + maxLimit);
+        }
+        log.debug("Page limit validation passed for limit: {}", limit);
+    }
+
+    /**
+     * Validates a birth date range counted per period, so that the response has at most the maximum page limit
+     * of periods.
+     *
+     * @param from   the start of the date range
+     * @param to     the end of the date range
+     * @param period the length of the periods
+     * @throws InvalidDateRangeException   if the 'from' date is after the 'to' date
+     * @throws InvalidAggregationException if the range spans more periods than the maximum page limit
+     */
+    public void validatePeriodRange(LocalDate from, LocalDate to, BirthDatePeriod period) {
+        validateDateRange(from, to);
+        long periods = switch (period) {
+            case YEAR -> ChronoUnit.YEARS.between(Year.from(from), Year.from(to)) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(YearMonth.from(from), YearMonth.from(to)) + 1;
+        };
+        if (periods > maxLimit) {
+            log.debug("Date range must span at most {} periods", maxLimit);
+            throw new InvalidAggregationException("Date range must span at most " + maxLimit + " periods");
+        }
+        log.debug("Period range validation passed for {} periods", periods);
+    }
+
+    /**
+     * Validates the buckets of an age histogram, which start at the minimum age.
+     *
+     * @param width  the number of years per bucket
+     * @param maxAge the age at which the last, open-ended bucket starts
+     * @throws InvalidAggregationException if the width is not positive, the maximum age is not above the minimum
+     *                                     age, or there would be more buckets than the maximum page limit
+     */
+    public void validateAgeHistogram(int width, int maxAge) {
+        if (width < 1 || maxAge <= minAge) {
+            log.debug("Bucket width must be positive and maximum age must be above {}", minAge);
+            throw new InvalidAggregationException("Bucket width must be positive and maximum age must be above "
+                    + minAge);
+        }
+        if ((maxAge - minAge + width - 1) / width >= maxLimit) {
+            log.debug("Age histogram must have at most {} buckets", maxLimit);
+            throw new InvalidAggregationException("Age histogram must have at most " + maxLimit + " buckets");
+        }
+        log.debug("Age histogram validation passed for width: {}, max age: {}", width, maxAge);
+    }
+
+    /**
+     * Validates a free text search query.
+     *
+     * @param query    the query
+     * @param maxEdits the maximum number of edits per query token
+     * @throws InvalidSearchQueryException if the query is blank or the number of edits is not between 0 and 2
+     */
+    public void validateTextQuery(String query, int maxEdits) {
+        if (query.isBlank()) {
+            log.debug("Search query must not be blank");
+            throw new InvalidSearchQueryException("Search query must not be blank");
+        }
+        if (maxEdits < 0 || maxEdits > MAX_EDITS) {
+            log.debug("Maximum number of edits must be between 0 and {}", MAX_EDITS);
+            throw new InvalidSearchQueryException("Maximum number of edits must be between 0 and " + MAX_EDITS);
+        }
+        log.debug("Search query validation passed for max edits: {}", maxEdits);
+    }
+
+    /**
+     * Checks a batch operation without throwing, so that one invalid item does not fail the whole batch.
+     * Applies the same constraints as a single create, update or patch request.
+     *
+     * @param operation the batch operation
+     * @return the validation error, or an empty optional if the operation is valid
+     */
+    public Optional<String> checkOperation(UserBatchOperationDto operation) {
+        BatchOperationType type = operation.getOperation();
+        if (type == null) {
+            return Optional.of("Operation is required");
+        }
+        if (type != BatchOperationType.CREATE && operation.getId() == null) {
+            return Optional.of("Id is required");
+        }
+        if (type == BatchOperationType.DELETE) {
+            return Optional.empty();
+        }
+
+        UserDto userDto = operation.getUser();
+        if (userDto == null) {
+            return Optional.of("User is required");
+        }
+        return checkUser(userDto);
+    }
+
+    /**
+     * Checks a user against the bean validation constraints and the minimum age without throwing,
+     * for bulk operations that report invalid items instead of failing.
+     *
+     * @param userDto the user to check
+     * @return the validation error, or an empty optional if the user is valid
+     */
+    public Optional<String> checkUser(UserDto userDto) {
+        int violations = userConstraints.violations(userDto);
+        if (violations != 0) {
+            return Optional.of(userConstraints.describe(violations));
+        }
+        if (userDto.getBirthDate() != null && isUnderAge(userDto.getBirthDate())) {
+            return Optional.of("User must be at least " + minAge + " years old");
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Checks whether a birth date is younger than the minimum age, against the cutoff cached for today.
+     *
+     * @param birthDate the birth date
+     * @return true if the user would be under age
+     */
+    private boolean isUnderAge(LocalDate birthDate) {
+        return birthDate.isAfter(birthDateLimits.latestAdultBirthDate());
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.example.clearsolutions.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import com.example.clearsolutions.codec.UserJsonCodec;
+import com.example.clearsolutions.dto.UserCacheStatsDto;
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.mapper.UserMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+public class UserResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+
+    @Test
+    public void get_RepeatedLookups_LoadsOnceAndCountsHits() throws Exception {
+        // Given
+        UserResponseCache cache = new UserResponseCache(new UserJsonCodec(), 1 << 20, Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+        User user = createTestUser(1L);
+
+        // When
+        UserResponse first = cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(user);
+        }).orElseThrow();
+        UserResponse second = cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(user);
+        }).orElseThrow();
+
+        // Then
+        assertEquals(1, loads.get());
+        assertArrayEquals(objectMapper.writeValueAsBytes(userMapper.toUserDto(user)), first.body());
+        assertEquals(user.getVersion(), first.version());
+        assertSame(first, second);
+        UserCacheStatsDto stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(first.body().length, stats.getWeightBytes());
+    }
+
+    @Test
+    public void get_MissingUser_IsNotCached() {
+        // Given
+        UserResponseCache cache = new UserResponseCache(new UserJsonCodec(), 1 << 20, Runnable::run);
+
+        // When
+        Optional<UserResponse> user = cache.get(1L, id -> Optional.empty());
+
+        // Then
+        assertTrue(user.isEmpty());
+        assertEquals(0, cache.stats().getEntries());
+    }
+
+    @Test
+    public void invalidate_ReloadsOnNextLookup() {
+        // Given
+        UserResponseCache cache = new UserResponseCache(new UserJsonCodec(), 1 << 20, Runnable::run);
+        cache.get(1L, id -> Optional.of(createTestUser(id)));
+
+        // When
+        cache.invalidate(1L);
+        User updated = createTestUser(1L).toBuilder().firstName("Updated").version(1L).build();
+        UserResponse reloaded = cache.get(1L, id -> Optional.of(updated)).orElseThrow();
+
+        // Then
+        assertTrue(new String(reloaded.body(), StandardCharsets.UTF_8).contains("Updated"));
+        assertEquals(1L, reloaded.version());
+        assertEquals(2, cache.stats().getMisses());
+    }
+
+    @Test
+    public void get_OverWeightLimit_EvictsAndCountsEvictions() {
+        // Given
+        UserResponseCache cache = new UserResponseCache(new UserJsonCodec(), 1024, Runnable::run);
+
+        // When
+        for (long id = 1; id <= 100; id++) {
+            cache.get(id, key -> Optional.of(createTestUser(key)));
+        }
+        cache.cleanUp();
+
+        // Then
+        UserCacheStatsDto stats = cache.stats();
+        assertTrue(stats.getEvictions() > 0);
+        assertTrue(stats.getWeightBytes() <= 1024);
+    }
+
+    private User createTestUser(Long id) {
+        return new User(id, "test" + id + "@example.com", "Test", "User", LocalDate.of(1990, 1, 1),
+                null, "1234567890", 0L);
+    }
+}
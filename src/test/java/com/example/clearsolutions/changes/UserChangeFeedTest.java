@@ -0,0 +1,108 @@
+package com.example.clearsolutions.changes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.clearsolutions.dto.UserChangeEventDto;
+import com.example.clearsolutions.dto.UserChangeType;
+
+public class UserChangeFeedTest {
+
+    private UserChangeFeed userChangeFeed;
+
+    @BeforeEach
+    public void setUp() {
+        userChangeFeed = new UserChangeFeed(6);
+    }
+
+    @Test
+    public void read_AfterPosition_ReturnsNewerEventsInOrderUpToLimit() {
+        // Given
+        LongStream.rangeClosed(1, 5).forEach(id -> userChangeFeed.publish(UserChangeType.CREATED, id, 0L, null));
+
+        // When
+        List<UserChangeEventDto> events = userChangeFeed.read(1, 3);
+        List<UserChangeEventDto> rest = userChangeFeed.read(events.get(events.size() - 1).getSequence(), 10);
+
+        // Then
+        assertEquals(List.of(2L, 3L, 4L), events.stream().map(UserChangeEventDto::getId).toList());
+        assertEquals(List.of(5L), rest.stream().map(UserChangeEventDto::getSequence).toList());
+        assertEquals(List.of(), userChangeFeed.read(5, 10));
+    }
+
+    @Test
+    public void read_PositionOverwritten_ReturnsResyncAtLatestSequence() {
+        // Given
+        LongStream.rangeClosed(1, 20).forEach(id -> userChangeFeed.publish(UserChangeType.UPDATED, id, 1L, null));
+
+        // When
+        List<UserChangeEventDto> events = userChangeFeed.read(3, 10);
+        List<UserChangeEventDto> retained = userChangeFeed.read(12, 10);
+
+        // Then
+        assertEquals(1, events.size());
+        assertEquals(UserChangeType.RESYNC, events.get(0).getType());
+        assertEquals(20L, events.get(0).getSequence());
+        assertEquals(LongStream.rangeClosed(13, 20).boxed().toList(),
+                retained.stream().map(UserChangeEventDto::getSequence).toList());
+    }
+
+    @Test
+    public void read_PositionFromBeforeRestart_ReturnsResync() {
+        // Given
+        userChangeFeed.publish(UserChangeType.CREATED, 1L, 0L, null);
+
+        // When
+        List<UserChangeEventDto> events = userChangeFeed.read(42, 10);
+
+        // Then
+        assertEquals(UserChangeType.RESYNC, events.get(0).getType());
+        assertEquals(1L, events.get(0).getSequence());
+    }
+
+    @Test
+    public void poll_NoNewerEvent_WaitsForTimeoutAndReturnsNothing() {
+        // Given
+        long start = System.nanoTime();
+
+        // When
+        List<UserChangeEventDto> events = userChangeFeed.poll(0, 10, Duration.ofMillis(50));
+
+        // Then
+        assertEquals(List.of(), events);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void read_ConcurrentPublishers_ReaderSeesEverySequenceOnce() throws InterruptedException {
+        // Given
+        UserChangeFeed feed = new UserChangeFeed(1 << 16);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        IntStream.range(0, 4).forEach(i -> executor.execute(() -> IntStream.range(0, 5_000)
+                .forEach(j -> feed.publish(UserChangeType.CREATED, (long) j, 0L, null))));
+        List<Long> sequences = new ArrayList<>();
+        while (sequences.size() < 20_000) {
+            long after = sequences.isEmpty() ? 0 : sequences.get(sequences.size() - 1);
+            feed.read(after, 1_000).forEach(event -> sequences.add(event.getSequence()));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(LongStream.rangeClosed(1, 20_000).boxed().toList(), sequences);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.clearsolutions.codec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.entity.UserField;
+import com.example.clearsolutions.entity.UserFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+public class UserJsonCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final UserJsonCodec userJsonCodec = new UserJsonCodec();
+
+    @Test
+    public void toBytes_UsersWithEscapesNullsAndEdgeDates_WritesSameBytesAsJackson() throws Exception {
+        // Given
+        List<UserDto> users = List.of(
+                new UserDto(1L, "test@example.com", "Test", "User", LocalDate.of(1990, 1, 31), null, "1234567890"),
+                new UserDto(null, null, null, null, null, null, null),
+                new UserDto(-42L, "a\"b\\c/d", "Line\nbreak\ttab\u0001\u001f", "Мельник", LocalDate.of(1, 12, 1),
+                        "Kyiv 😀 é€", ""),
+                new UserDto(Long.MAX_VALUE, "x@y.z", "X", "Y", LocalDate.of(10_000, 2, 29), "\r\b\f", "0"),
+                new UserDto(Long.MIN_VALUE, "x@y.z", "X", "Y", LocalDate.of(-1, 6, 15), "a", "1"));
+
+        // When & Then
+        for (UserDto user : users) {
+            assertArrayEquals(objectMapper.writeValueAsBytes(user), userJsonCodec.toBytes(user));
+        }
+    }
+
+    @Test
+    public void toBytes_PairedAndLoneSurrogates_WritesSameEscapesAsJackson() throws Exception {
+        // Given
+        UserDto user = new UserDto(1L, "x@y.z", "😀", "a\uD800b", LocalDate.of(1990, 1, 31), "\uDFFF", "\uD83D");
+
+        // When
+        byte[] json = userJsonCodec.toBytes(user);
+
+        // Then
+        assertArrayEquals(objectMapper.writeValueAsBytes(user), json);
+    }
+
+    @Test
+    public void toBytes_Entity_WritesDataTransferObjectWithoutVersion() throws Exception {
+        // Given
+        User user = new User(7L, "test@example.com", "Test", "User", LocalDate.of(1990, 5, 1), "Kyiv",
+                "1234567890", 3L);
+        UserDto userDto = new UserDto(7L, "test@example.com", "Test", "User", LocalDate.of(1990, 5, 1), "Kyiv",
+                "1234567890");
+
+        // When
+        byte[] json = userJsonCodec.toBytes(user);
+
+        // Then
+        assertArrayEquals(objectMapper.writeValueAsBytes(userDto), json);
+    }
+
+    @Test
+    public void writeArrayAndLines_MoreThanOneBuffer_WritesSameBytesAsJackson() throws Exception {
+        // Given
+        List<UserDto> users = LongStream.rangeClosed(1, 1_000)
+                .mapToObj(id -> new UserDto(id, "user" + id + "@example.com", "First" + id, "Last" + id,
+                        LocalDate.of(1950, 1, 1).plusDays(id * 37), "Kyiv, Khreshchatyk " + id, "1234567890"))
+                .toList();
+        ByteArrayOutputStream array = new ByteArrayOutputStream();
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+
+        // When
+        userJsonCodec.writeArray(users, array);
+        userJsonCodec.writeLines(users.iterator(), lines);
+
+        // Then
+        assertArrayEquals(objectMapper.writeValueAsBytes(users), array.toByteArray());
+        StringBuilder expected = new StringBuilder();
+        for (UserDto user : users) {
+            expected.append(objectMapper.writeValueAsString(user)).append('\n');
+        }
+        assertEquals(expected.toString(), lines.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void toBytesAndWriters_SparseFieldset_WritesOnlyRequestedFieldsInOrder() throws Exception {
+        // Given
+        UserDto user = new UserDto(7L, "test@example.com", "Test", null, LocalDate.of(1990, 5, 1), "Kyiv",
+                "1234567890");
+        ByteArrayOutputStream array = new ByteArrayOutputStream();
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+
+        // When
+        byte[] json = userJsonCodec.toBytes(user, UserFields.parse("phoneNumber, id,lastName,birthDate"));
+        userJsonCodec.writeArray(List.of(user, user), UserFields.of(UserField.EMAIL), array);
+        userJsonCodec.writeLines(List.of(user).iterator(), UserFields.of(), lines);
+
+        // Then
+        assertEquals("{\"id\":7,\"lastName\":null,\"birthDate\":\"1990-05-01\",\"phoneNumber\":\"1234567890\"}",
+                new String(json, StandardCharsets.UTF_8));
+        assertEquals("[{\"email\":\"test@example.com\"},{\"email\":\"test@example.com\"}]",
+                array.toString(StandardCharsets.UTF_8));
+        assertEquals("{}\n", lines.toString(StandardCharsets.UTF_8));
+        assertArrayEquals(objectMapper.writeValueAsBytes(user), userJsonCodec.toBytes(user, UserFields.ALL));
+    }
+
+    @Test
+    public void read_JacksonOutput_RoundTrips() throws Exception {
+        // Given
+        UserDto user = new UserDto(5L, "a\"b@example.com", "Тарас", "O'Neil", LocalDate.of(1990, 5, 1),
+                "Kyiv 😀\n", "1234567890");
+
+        // When
+        UserDto read = userJsonCodec.read(objectMapper.writeValueAsBytes(user));
+
+        // Then
+        assertEquals(user, read);
+    }
+
+    @Test
+    public void read_UnknownFieldsWhitespaceEscapesAndScalars_ReadsKnownFields() {
+        // Given
+        String json = """
+                 {
+                  "extra": {"nested": [1, {"a": "}"}, null], "b": true},
+                  "phoneNumber" : 1234567890,
+                  "email": "t\\u0065st@example.com",
+                  "birthDate": "1990-05-01",
+                  "firstName": "A\\/B",
+                  "id": "12",
+                  "address": null,
+                  "more": -1.5e3
+                }
+                """;
+
+        // When
+        UserDto user = userJsonCodec.read(json.getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        assertEquals(new UserDto(12L, "test@example.com", "A/B", null, LocalDate.of(1990, 5, 1), null,
+                "1234567890"), user);
+    }
+
+    @Test
+    public void read_MalformedInput_ThrowsException() {
+        // When & Then
+        for (String json : List.of("", "[]", "{\"email\": }", "{\"id\": \"x\"}", "{\"birthDate\": \"1990-13-01\"}",
+                "{\"email\": \"a\"", "{\"email\": \"a\nb\"}", "{\"email\" \"a\"}")) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> userJsonCodec.read(json.getBytes(StandardCharsets.UTF_8)), json);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.clearsolutions.codec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.clearsolutions.dto.BatchOperationType;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
+import com.example.clearsolutions.dto.UserBatchResultDto;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.User;
+
+public class UserProtobufCodecTest {
+
+    private final UserProtobufCodec userProtobufCodec = new UserProtobufCodec();
+
+    @Test
+    public void toBytesAndRead_UsersWithNullsAndEdgeValues_RoundTrip() {
+        // Given
+        List<UserDto> users = List.of(
+                new UserDto(1L, "test@example.com", "Test", "User", LocalDate.of(1990, 1, 31), null, "1234567890"),
+                new UserDto(null, null, null, null, null, null, null),
+                new UserDto(-42L, "a\"b", "Мельник", "", LocalDate.of(1, 12, 1), "Kyiv 😀 é€", ""),
+                new UserDto(Long.MAX_VALUE, "x@y.z", "X", "Y", LocalDate.of(1969, 12, 31), "a", "0"),
+                new UserDto(Long.MIN_VALUE, "x@y.z", "X", "Y", LocalDate.of(10_000, 2, 29), "b", "1"));
+
+        // When & Then
+        for (UserDto user : users) {
+            assertEquals(user, userProtobufCodec.read(userProtobufCodec.toBytes(user)));
+        }
+    }
+
+    @Test
+    public void toBytes_User_WritesProtobufWireFormat() {
+        // Given
+        UserDto user = new UserDto(1L, "a@b.c", null, null, LocalDate.of(1969, 12, 31), null, "1");
+        byte[] expected = {
+            0x08, 0x01,
+            0x12, 0x05, 'a', '@', 'b', '.', 'c',
+            0x28, 0x01,
+            0x3a, 0x01, '1'
+        };
+
+        // When
+        byte[] message = userProtobufCodec.toBytes(user);
+
+        // Then
+        assertArrayEquals(expected, message);
+    }
+
+    @Test
+    public void read_UnknownFields_SkipsThem() {
+        // Given
+        byte[] message = {
+            0x08, 0x07,
+            0x40, (byte) 0x96, 0x01,
+            0x49, 1, 2, 3, 4, 5, 6, 7, 8,
+            0x52, 0x02, 'z', 'z',
+            0x5d, 1, 2, 3, 4,
+            0x1a, 0x02, 'A', 'l'
+        };
+
+        // When
+        UserDto user = userProtobufCodec.read(message);
+
+        // Then
+        assertEquals(new UserDto(7L, null, "Al", null, null, null, null), user);
+    }
+
+    @Test
+    public void read_TruncatedMessage_ThrowsIllegalArgumentException() {
+        // Given
+        byte[] message = userProtobufCodec.toBytes(
+                new UserDto(1L, "test@example.com", "Test", "User", LocalDate.of(1990, 1, 31), "Kyiv", "1"));
+        byte[] truncated = Arrays.copyOf(message, message.length - 2);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> userProtobufCodec.read(truncated));
+        assertThrows(IllegalArgumentException.class, () -> userProtobufCodec.read(new byte[] {0x08, (byte) 0x80}));
+    }
+
+    @Test
+    public void writeUsers_EntitiesAndDataTransferObjects_ReadsBackAsUserList() throws Exception {
+        // Given
+        User entity = new User(7L, "test@example.com", "Test", "User", LocalDate.of(1990, 5, 1), "Kyiv",
+                "1234567890", 3L);
+        UserDto userDto = new UserDto(8L, "other@example.com", "Other", "User", LocalDate.of(1960, 5, 1), null,
+                "0987654321");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        userProtobufCodec.writeUsers(List.of(entity, userDto).iterator(), out);
+
+        // Then
+        assertEquals(List.of(new UserDto(7L, "test@example.com", "Test", "User", LocalDate.of(1990, 5, 1), "Kyiv",
+                "1234567890"), userDto), userProtobufCodec.readUsers(out.toByteArray()));
+    }
+
+    @Test
+    public void writeUsers_MoreThanOneBuffer_ReadsBackEveryUser() throws Exception {
+        // Given
+        String address = "x".repeat(5_000);
+        List<UserDto> users = List.of(
+                new UserDto(1L, "a@b.c", "A", "B", LocalDate.of(1990, 1, 1), address, "1"),
+                new UserDto(2L, "b@b.c", "B", "C", LocalDate.of(1991, 1, 1), address, "2"),
+                new UserDto(3L, "c@b.c", "C", "D", LocalDate.of(1992, 1, 1), address, "3"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        userProtobufCodec.writeUsers(users.iterator(), out);
+
+        // Then
+        assertEquals(users, userProtobufCodec.readUsers(out.toByteArray()));
+    }
+
+    @Test
+    public void writeBatchOperations_EveryOperationType_RoundTrips() throws Exception {
+        // Given
+        UserDto user = new UserDto(null, "test@example.com", "Test", "User", LocalDate.of(1990, 1, 31), null, "1");
+        List<UserBatchOperationDto> operations = List.of(
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, user),
+                new UserBatchOperationDto(BatchOperationType.UPDATE, 1L, user),
+                new UserBatchOperationDto(BatchOperationType.PATCH, 2L, new UserDto()),
+                new UserBatchOperationDto(BatchOperationType.DELETE, 3L, null),
+                new UserBatchOperationDto(null, null, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        userProtobufCodec.writeBatchOperations(operations, out);
+
+        // Then
+        assertEquals(operations, userProtobufCodec.readBatchOperations(out.toByteArray()));
+    }
+
+    @Test
+    public void readBatchOperations_UnknownOperationType_ReadsNullType() {
+        // Given
+        byte[] message = {0x0a, 0x04, 0x08, 0x09, 0x10, 0x05};
+
+        // When
+        List<UserBatchOperationDto> operations = userProtobufCodec.readBatchOperations(message);
+
+        // Then
+        assertEquals(List.of(new UserBatchOperationDto(null, 5L, null)), operations);
+    }
+
+    @Test
+    public void writeBatchResults_SuccessesAndErrors_RoundTrip() throws Exception {
+        // Given
+        UserDto user = new UserDto(1L, "test@example.com", "Test", "User", LocalDate.of(1990, 1, 31), null, "1");
+        List<UserBatchResultDto> results = List.of(
+                new UserBatchResultDto(0, 201, 1L, user, null),
+                new UserBatchResultDto(1, 204, 2L, null, null),
+                new UserBatchResultDto(2, 409, null, null, "Email already in use: тест@example.com"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        userProtobufCodec.writeBatchResults(results, out);
+
+        // Then
+        assertEquals(results, userProtobufCodec.readBatchResults(out.toByteArray()));
+    }
+
+    @Test
+    public void toBytes_LoneSurrogates_WritesQuestionMarksLikeStringGetBytes() {
+        // Given
+        UserDto user = new UserDto(null, null, "a\uD800b", "\uDC00😀\uD83D", null, null, null);
+
+        // When
+        byte[] message = userProtobufCodec.toBytes(user);
+        UserDto read = userProtobufCodec.read(message);
+
+        // Then
+        assertEquals("a?b", read.getFirstName());
+        assertEquals("?😀?", read.getLastName());
+        assertEquals(2 + "a?b".length() + 2 + "?😀?".getBytes(StandardCharsets.UTF_8).length, message.length);
+    }
+}
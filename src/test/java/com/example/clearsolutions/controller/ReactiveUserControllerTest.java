@@ -0,0 +1,233 @@
+package com.example.clearsolutions.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.clearsolutions.cache.UserResponse;
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.dto.UserPageDto;
+import com.example.clearsolutions.dto.VersionedUserDto;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.UserNotFoundException;
+import com.example.clearsolutions.service.UserService;
+import com.example.clearsolutions.validator.UserDtoValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+public class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private UserDtoValidator userDtoValidator;
+
+    private UserDto userDto;
+
+    @BeforeEach
+    public void setUp() {
+        userDto = new UserDto();
+        userDto.setEmail("test@example.com");
+        userDto.setFirstName("Test");
+        userDto.setLastName("User");
+        userDto.setBirthDate(LocalDate.now().minusYears(20));
+        userDto.setPhoneNumber("1234567890");
+    }
+
+    @Test
+    public void createUser_Returns201() {
+        // Given
+        when(userService.createUser(any(UserDto.class))).thenReturn(userDto);
+
+        // When & Then
+        webTestClient.post().uri("/api/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userDto)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo(userDto.getEmail());
+    }
+
+    @Test
+    public void createUser_InvalidEmail_Returns400WithFieldErrors() {
+        // Given
+        userDto.setEmail("not an email");
+
+        // When & Then
+        webTestClient.post().uri("/api/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userDto)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("Email should be valid");
+        verify(userService, never()).createUser(any(UserDto.class));
+    }
+
+    @Test
+    public void getUser_ReturnsCachedBodyWithEntityTag() throws Exception {
+        // Given
+        userDto.setId(1L);
+        byte[] body = objectMapper.writeValueAsBytes(userDto);
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+        when(userService.getUser(1L)).thenReturn(new UserResponse(3L, body));
+
+        // When & Then
+        webTestClient.get().uri("/api/v1/users/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectBody().json(new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void getUser_MatchingIfNoneMatch_Returns304WithoutReadingUser() {
+        // Given
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+
+        // When & Then
+        webTestClient.get().uri("/api/v1/users/1")
+                .header("If-None-Match", "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"3\"");
+        verify(userService, never()).getUser(1L);
+    }
+
+    @Test
+    public void getUser_MissingUser_Returns404ProblemDetails() {
+        // Given
+        when(userService.getUserVersion(1L)).thenThrow(new UserNotFoundException("User not found"));
+
+        // When & Then
+        webTestClient.get().uri("/api/v1/users/1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404);
+    }
+
+    @Test
+    public void updateUserFields_IfMatch_PassesExpectedVersionAndReturnsNewTag() {
+        // Given
+        when(userService.updateUserFields(eq(1L), any(UserDto.class), eq(3L)))
+                .thenReturn(new VersionedUserDto(userDto, 4L));
+
+        // When & Then
+        webTestClient.patch().uri("/api/v1/users/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"4\"");
+    }
+
+    @Test
+    public void deleteUser_Returns204() {
+        // When & Then
+        webTestClient.delete().uri("/api/v1/users/1")
+                .exchange()
+                .expectStatus().isNoContent();
+        verify(userService).deleteUser(1L);
+    }
+
+    @Test
+    public void searchUsersByBirthDateRange_Limit_ReturnsPageWithNextCursor() {
+        // Given
+        LocalDate from = LocalDate.now().minusYears(30);
+        LocalDate to = LocalDate.now().minusYears(10);
+        when(userService.getStoreVersion()).thenReturn(7L);
+        when(userService.searchUsersByBirthDateRange(from, to, null, 1, UserFields.ALL))
+                .thenReturn(new UserPageDto(List.of(userDto), "next"));
+
+        // When & Then
+        webTestClient.get().uri(uri -> uri.path("/api/v1/users/search")
+                        .queryParam("from", from)
+                        .queryParam("to", to)
+                        .queryParam("limit", 1)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-Cursor", "next")
+                .expectBody()
+                .jsonPath("$[0].email").isEqualTo(userDto.getEmail());
+    }
+
+    @Test
+    public void streamUsersByBirthDateRange_NewlineDelimitedJson_StreamsUsers() throws Exception {
+        // Given
+        LocalDate from = LocalDate.now().minusYears(30);
+        LocalDate to = LocalDate.now().minusYears(10);
+        when(userService.streamUsersByBirthDateRange(eq(from), eq(to), isNull(), eq(UserFields.ALL)))
+                .thenReturn(Stream.of(userDto, userDto));
+
+        // When & Then
+        String line = objectMapper.writeValueAsString(userDto);
+        webTestClient.get().uri(uri -> uri.path("/api/v1/users/search")
+                        .queryParam("from", from)
+                        .queryParam("to", to)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo(line + "\n" + line + "\n");
+    }
+
+    @Test
+    public void applyBatch_NewlineDelimitedJson_AppliesAllLines() {
+        // Given
+        String body = "{\"operation\":\"DELETE\",\"id\":1}\n{\"operation\":\"DELETE\",\"id\":2}\n";
+        when(userService.applyBatch(anyList(), any())).thenReturn(List.of());
+
+        // When & Then
+        webTestClient.post().uri("/api/v1/users/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk();
+        verify(userService).applyBatch(argThat(operations -> operations.size() == 2), any());
+    }
+
+    @Test
+    public void applyBatch_MalformedNewlineDelimitedJson_Returns400() {
+        // When & Then
+        webTestClient.post().uri("/api/v1/users/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"operation\": \"CREATE\"}\n{not json")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
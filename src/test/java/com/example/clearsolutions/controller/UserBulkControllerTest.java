@@ -0,0 +1,73 @@
+package com.example.clearsolutions.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.clearsolutions.dto.UserImportErrorDto;
+import com.example.clearsolutions.dto.UserImportResultDto;
+import com.example.clearsolutions.transfer.UserBulkExporter;
+import com.example.clearsolutions.transfer.UserBulkImporter;
+import com.example.clearsolutions.transfer.UserTransferFormat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserBulkControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserBulkImporter userBulkImporter;
+
+    @MockBean
+    private UserBulkExporter userBulkExporter;
+
+    @Test
+    public void importUsers_Csv_ReturnsImportResult() throws Exception {
+        // Given
+        when(userBulkImporter.importUsers(any(InputStream.class), eq(UserTransferFormat.CSV)))
+                .thenReturn(new UserImportResultDto(1, 1, List.of(new UserImportErrorDto(3, "Invalid"))));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/users/bulk/import")
+                        .contentType("text/csv")
+                        .content("email,firstName,lastName\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    public void exportUsers_Ndjson_StreamsAttachment() throws Exception {
+        // Given
+        when(userBulkExporter.exportUsers(any(WritableByteChannel.class), eq(UserTransferFormat.NDJSON)))
+                .thenReturn(0L);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/bulk/export").param("format", "NDJSON"))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.ndjson\""));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.clearsolutions.controller;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.clearsolutions.changes.UserChangeFeed;
+import com.example.clearsolutions.dto.UserChangeEventDto;
+import com.example.clearsolutions.dto.UserChangeType;
+import com.example.clearsolutions.exceptions.InvalidPageLimitException;
+import com.example.clearsolutions.validator.UserDtoValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserChangeFeed userChangeFeed;
+
+    @MockBean
+    private UserDtoValidator userDtoValidator;
+
+    @Test
+    public void pollChanges_AfterPosition_ReturnsNewerEventsAsNewlineDelimitedJson() throws Exception {
+        // Given
+        long after = userChangeFeed.lastSequence();
+        long sequence = userChangeFeed.publish(UserChangeType.DELETED, 7L, 3L, null);
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/users/changes")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("after", String.valueOf(after)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String line = objectMapper.writeValueAsString(
+                new UserChangeEventDto(sequence, UserChangeType.DELETED, 7L, 3L, null));
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + "\n"));
+    }
+
+    @Test
+    public void pollChanges_InvalidLimit_ReturnsBadRequest() throws Exception {
+        // Given
+        doThrow(new InvalidPageLimitException("Page limit must be between 1 and 1000"))
+                .when(userDtoValidator).validatePageLimit(anyInt());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/changes")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void subscribeToChanges_EventStream_StartsAsyncStream() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", userChangeFeed.lastSequence()))
+                .andExpect(request().asyncStarted());
+    }
+}
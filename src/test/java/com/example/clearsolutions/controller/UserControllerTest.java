@@ -1,21 +1,36 @@
 package com.example.clearsolutions.controller;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,11 +42,33 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import com.example.clearsolutions.cache.UserResponse;
+import com.example.clearsolutions.codec.UserMediaTypes;
+import com.example.clearsolutions.codec.UserProtobufCodec;
+import com.example.clearsolutions.dto.BatchOperationType;
+import com.example.clearsolutions.dto.BirthDateCountDto;
+import com.example.clearsolutions.dto.BirthDatePeriod;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
+import com.example.clearsolutions.dto.UserBatchResultDto;
+import com.example.clearsolutions.dto.UserCountDto;
 import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.dto.UserMatchDto;
+import com.example.clearsolutions.dto.UserPageDto;
+import com.example.clearsolutions.dto.VersionedUserDto;
+import com.example.clearsolutions.entity.UserField;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+import com.example.clearsolutions.exceptions.InvalidAggregationException;
+import com.example.clearsolutions.exceptions.InvalidSearchQueryException;
+import com.example.clearsolutions.exceptions.UserNotFoundException;
 import com.example.clearsolutions.exceptions.UserUnderAgeException;
+import com.example.clearsolutions.exceptions.UserVersionMismatchException;
 import com.example.clearsolutions.service.UserService;
 import com.example.clearsolutions.validator.UserDtoValidator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -43,6 +80,9 @@ public class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private UserProtobufCodec userProtobufCodec;
+
     @MockBean
     private UserService userService;
 
@@ -86,6 +126,54 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.phoneNumber").value(newUser.getPhoneNumber()));
     }
 
+    @Test
+    public void createUser_DuplicateEmail_Returns409() throws Exception {
+        // Given
+        when(userService.createUser(any(UserDto.class)))
+                .thenThrow(new EmailAlreadyExistsException("Email is already in use"));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void createUser_InvalidFields_Returns400WithEveryFieldError() throws Exception {
+        // Given
+        userDto.setEmail("not an email");
+        userDto.setFirstName(" ");
+        userDto.setBirthDate(LocalDate.now().plusDays(1));
+        userDto.setPhoneNumber("12-34-567");
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.email").value("Email should be valid"))
+                .andExpect(jsonPath("$.firstName").value("First name is required"))
+                .andExpect(jsonPath("$.birthDate").value("Birth date must be in the past"))
+                .andExpect(jsonPath("$.phoneNumber").value("Phone number should contain between 7 and 10 digits"));
+        verify(userService, never()).createUser(any(UserDto.class));
+    }
+
+    @Test
+    public void getUserByEmail_Returns200WithEntityTag() throws Exception {
+        // Given
+        userDto.setId(1L);
+        when(userService.getUserByEmail("Test@Example.com", UserFields.ALL)).thenReturn(new VersionedUserDto(userDto, 3L));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users").param("email", "Test@Example.com"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.email").value(userDto.getEmail()));
+    }
+
     @Test
     public void updateUserFields_Returns200() throws Exception {
         // Given
@@ -95,13 +183,15 @@ public class UserControllerTest {
         updatedUser.setLastName("UpdatedLastName");
 
         // When
-        when(userService.updateUserFields(anyLong(), any(UserDto.class))).thenReturn(updatedUser);
+        when(userService.updateUserFields(anyLong(), any(UserDto.class), isNull()))
+                .thenReturn(new VersionedUserDto(updatedUser, 1L));
 
         // Then
         mockMvc.perform(patch("/api/v1/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updatedUser)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
                 .andExpect(jsonPath("$.email").value(updatedUser.getEmail()))
                 .andExpect(jsonPath("$.firstName").value(updatedUser.getFirstName()))
                 .andExpect(jsonPath("$.lastName").value(updatedUser.getLastName()));
@@ -118,7 +208,8 @@ public class UserControllerTest {
         updatedUser.setPhoneNumber("0987654321");
 
         // When
-        when(userService.updateUser(anyLong(), any(UserDto.class))).thenReturn(updatedUser);
+        when(userService.updateUser(anyLong(), any(UserDto.class), isNull()))
+                .thenReturn(new VersionedUserDto(updatedUser, 1L));
 
         // Then
         mockMvc.perform(put("/api/v1/users/1")
@@ -132,6 +223,45 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.phoneNumber").value(updatedUser.getPhoneNumber()));
     }
 
+    @Test
+    public void updateUser_WithIfMatch_PassesExpectedVersion() throws Exception {
+        // Given
+        when(userService.updateUser(eq(1L), any(UserDto.class), eq(3L)))
+                .thenReturn(new VersionedUserDto(userDto, 4L));
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/users/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    public void updateUser_WithStaleIfMatch_Returns412() throws Exception {
+        // Given
+        when(userService.updateUser(eq(1L), any(UserDto.class), eq(3L)))
+                .thenThrow(new UserVersionMismatchException("User version does not match"));
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/users/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void updateUserFields_WithWeakIfMatch_Returns412() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/api/v1/users/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
 
     @Test
     public void deleteUser_Returns204() throws Exception {
@@ -159,28 +289,183 @@ public class UserControllerTest {
                 .andExpect(status().isNoContent());
 
         // Check if the user is deleted by searching for users with the same birth date
-        mockMvc.perform(get("/api/v1/users/search")
+        when(userService.streamUsersByBirthDateRange(any(LocalDate.class), any(LocalDate.class), isNull(),
+                eq(UserFields.ALL)))
+                .thenReturn(Stream.empty());
+        MvcResult search = mockMvc.perform(get("/api/v1/users/search")
                         .param("from", createdUser.getBirthDate().toString())
                         .param("to", createdUser.getBirthDate().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(search))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
     }
 
     @Test
-    public void searchUsersByBirthDateRange_Returns200() throws Exception {
+    public void getUser_Returns200() throws Exception {
         // Given
-        LocalDate from = LocalDate.now().minusYears(22);
-        LocalDate to = LocalDate.now().minusYears(18);
-        List<UserDto> users = Collections.singletonList(userDto);
+        userDto.setId(1L);
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+        when(userService.getUser(1L)).thenReturn(new UserResponse(2L, objectMapper.writeValueAsBytes(userDto)));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.email").value(userDto.getEmail()));
+    }
+
+    @Test
+    public void getUser_MissingUser_Returns404() throws Exception {
+        // Given
+        when(userService.getUserVersion(1L)).thenThrow(new UserNotFoundException("User not found"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/1"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.title").value("User not found"))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("User not found"));
+    }
+
+    @Test
+    public void getUser_WithMatchingIfNoneMatch_Returns304WithoutReadingUser() throws Exception {
+        // Given
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/1")
+                        .header("If-None-Match", "W/\"1\", \"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(header().string("Vary", "Accept"));
+        verify(userService, never()).getUser(anyLong());
+    }
+
+    @Test
+    public void getUserFields_Returns200WithOnlyRequestedFields() throws Exception {
+        // Given
+        UserFields fields = UserFields.of(UserField.ID, UserField.EMAIL);
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+        when(userService.getUser(1L, fields)).thenReturn(new VersionedUserDto(
+                new UserDto(1L, "test@example.com", null, null, null, null, null), 2L));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/1").param("fields", "email,id"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2;id+email\""))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("{\"id\":1,\"email\":\"test@example.com\"}"));
+        verify(userService, never()).getUser(anyLong());
+    }
+
+    @Test
+    public void searchUserFieldsByBirthDateRange_Returns200WithOnlyRequestedFields() throws Exception {
+        // Given
+        UserFields fields = UserFields.of(UserField.EMAIL);
+        when(userService.getStoreVersion()).thenReturn(7L);
+        when(userService.searchUsersByBirthDateRange(LocalDate.of(2000, 1, 1), LocalDate.of(2001, 1, 1), null, 1,
+                fields)).thenReturn(new UserPageDto(List.of(new UserDto(null, "test@example.com", null, null, null,
+                null, null)), "next"));
 
         // When
-        when(userService.searchUsersByBirthDateRange(any(LocalDate.class), any(LocalDate.class))).thenReturn(users);
+        MvcResult result = mockMvc.perform(get("/api/v1/users/search")
+                        .param("from", "2000-01-01")
+                        .param("to", "2001-01-01")
+                        .param("limit", "1")
+                        .param("fields", "email"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
         // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("[{\"email\":\"test@example.com\"}]"));
+    }
+
+    @Test
+    public void getUserFields_WithMatchingIfNoneMatch_Returns304VaryingByAccept() throws Exception {
+        // Given
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/1")
+                        .param("fields", "email,id")
+                        .header("If-None-Match", "\"2;id+email\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2;id+email\""))
+                .andExpect(header().string("Vary", "Accept"));
+        verify(userService, never()).getUser(anyLong(), any(UserFields.class));
+    }
+
+    @Test
+    public void getUserFields_UnknownField_Returns400() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/1").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail").value("Unknown user fields: password"));
+        verify(userService, never()).getUserVersion(anyLong());
+    }
+
+    @Test
+    public void searchUsersByBirthDateRange_WithMatchingIfNoneMatch_Returns304() throws Exception {
+        // Given
+        when(userService.getStoreVersion()).thenReturn(7L);
+        when(userService.streamUsersByBirthDateRange(any(LocalDate.class), any(LocalDate.class), isNull(),
+                eq(UserFields.ALL)))
+                .thenAnswer(invocation -> Stream.empty());
+        String etag = mockMvc.perform(get("/api/v1/users/search")
+                        .param("from", "2000-01-01")
+                        .param("to", "2001-01-01"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
         mockMvc.perform(get("/api/v1/users/search")
+                        .param("from", "2000-01-01")
+                        .param("to", "2001-01-01")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept"));
+        when(userService.getStoreVersion()).thenReturn(8L);
+        mockMvc.perform(get("/api/v1/users/search")
+                        .param("from", "2000-01-01")
+                        .param("to", "2001-01-01")
+                        .header("If-None-Match", etag))
+                .andExpect(request().asyncStarted());
+        verify(userService, times(2)).streamUsersByBirthDateRange(any(LocalDate.class), any(LocalDate.class),
+                isNull(), eq(UserFields.ALL));
+    }
+
+    @Test
+    public void searchUsersByBirthDateRange_Returns200() throws Exception {
+        // Given
+        LocalDate from = LocalDate.now().minusYears(22);
+        LocalDate to = LocalDate.now().minusYears(18);
+
+        // When
+        when(userService.streamUsersByBirthDateRange(any(LocalDate.class), any(LocalDate.class), isNull(),
+                eq(UserFields.ALL)))
+                .thenReturn(Stream.of(userDto));
+        MvcResult result = mockMvc.perform(get("/api/v1/users/search")
                         .param("from", from.toString())
                         .param("to", to.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].email").value(userDto.getEmail()))
                 .andExpect(jsonPath("$[0].firstName").value(userDto.getFirstName()))
                 .andExpect(jsonPath("$[0].lastName").value(userDto.getLastName()))
@@ -188,6 +473,332 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[0].phoneNumber").value(userDto.getPhoneNumber()));
     }
 
+    @Test
+    public void searchUsersByBirthDateRange_WithLimit_ReturnsPageAndNextCursor() throws Exception {
+        // Given
+        LocalDate from = LocalDate.now().minusYears(22);
+        LocalDate to = LocalDate.now().minusYears(18);
+        UserPageDto page = new UserPageDto(Collections.singletonList(userDto), "next-cursor");
+
+        // When
+        when(userService.searchUsersByBirthDateRange(any(LocalDate.class), any(LocalDate.class), isNull(), anyInt(),
+                eq(UserFields.ALL)))
+                .thenReturn(page);
+        MvcResult result = mockMvc.perform(get("/api/v1/users/search")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .param("limit", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next-cursor"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].email").value(userDto.getEmail()));
+    }
+
+    @Test
+    public void countUsersByBirthPeriod_Returns200WithCountsPerPeriod() throws Exception {
+        // Given
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(1991, 12, 31);
+        when(userService.countUsersByBirthPeriod(from, to, BirthDatePeriod.YEAR)).thenReturn(
+                List.of(new BirthDateCountDto("1990", 3), new BirthDateCountDto("1991", 0)));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/stats/birth-dates").param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].period").value("1990"))
+                .andExpect(jsonPath("$[0].count").value(3));
+        verify(userDtoValidator).validatePeriodRange(from, to, BirthDatePeriod.YEAR);
+    }
+
+    @Test
+    public void getAgeHistogram_InvalidBuckets_Returns400() throws Exception {
+        // Given
+        doThrow(new InvalidAggregationException("Bucket width must be positive"))
+                .when(userDtoValidator).validateAgeHistogram(0, 100);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/stats/ages").param("width", "0"))
+                .andExpect(status().isBadRequest());
+        verify(userService, never()).getAgeHistogram(anyInt(), anyInt());
+    }
+
+    @Test
+    public void countUsersByBirthDateRange_Returns200WithCount() throws Exception {
+        // Given
+        LocalDate from = LocalDate.of(1990, 1, 1);
+        LocalDate to = LocalDate.of(1999, 12, 31);
+        when(userService.countUsersByBirthDateRange(from, to)).thenReturn(new UserCountDto(42));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/stats/count").param("from", from.toString()).param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(42));
+    }
+
+    @Test
+    public void searchUsersByText_Returns200WithScores() throws Exception {
+        // Given
+        userDto.setId(1L);
+        when(userService.searchUsersByText("tst usr", 1, 5)).thenReturn(List.of(new UserMatchDto(userDto, 1.6)));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/search").param("q", "tst usr")
+                        .param("maxEdits", "1").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].user.id").value(1))
+                .andExpect(jsonPath("$[0].score").value(1.6));
+    }
+
+    @Test
+    public void searchUsersByText_BlankQuery_Returns400() throws Exception {
+        // Given
+        doThrow(new InvalidSearchQueryException("Search query must not be blank"))
+                .when(userDtoValidator).validateTextQuery(" ", 2);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+        verify(userService, never()).searchUsersByText(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void streamUsersByBirthDateRange_ReturnsNewlineDelimitedJson() throws Exception {
+        // Given
+        LocalDate from = LocalDate.now().minusYears(22);
+        LocalDate to = LocalDate.now().minusYears(18);
+
+        // When
+        when(userService.streamUsersByBirthDateRange(any(LocalDate.class), any(LocalDate.class), isNull(),
+                eq(UserFields.ALL)))
+                .thenReturn(Stream.of(userDto, userDto));
+        MvcResult result = mockMvc.perform(get("/api/v1/users/search")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String line = objectMapper.writeValueAsString(userDto);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + "\n" + line + "\n"));
+    }
+
+    @Test
+    public void applyBatch_JsonArray_ReturnsPerItemResults() throws Exception {
+        // Given
+        List<UserBatchOperationDto> operations = List.of(
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, userDto),
+                new UserBatchOperationDto(BatchOperationType.DELETE, 5L, null));
+        List<UserBatchResultDto> results = List.of(
+                new UserBatchResultDto(0, 201, 1L, userDto, null),
+                new UserBatchResultDto(1, 404, 5L, null, "User not found"));
+
+        // When
+        when(userService.applyBatch(anyList(), any())).thenReturn(results);
+
+        // Then
+        mockMvc.perform(post("/api/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].user.email").value(userDto.getEmail()))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].error").value("User not found"));
+    }
+
+    @Test
+    public void applyBatch_NewlineDelimitedJson_ParsesEveryLine() throws Exception {
+        // Given
+        String body = objectMapper.writeValueAsString(
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, userDto)) + "\n"
+                + objectMapper.writeValueAsString(new UserBatchOperationDto(BatchOperationType.DELETE, 5L, null));
+
+        // When
+        when(userService.applyBatch(anyList(), any())).thenReturn(List.of());
+
+        // Then
+        mockMvc.perform(post("/api/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk());
+        verify(userService).applyBatch(argThat(operations -> operations.size() == 2), any());
+    }
+
+    @Test
+    public void applyBatch_MalformedNewlineDelimitedJson_Returns400() throws Exception {
+        // Then
+        mockMvc.perform(post("/api/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"operation\": \"CREATE\"}\n{not json"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getUser_AcceptCbor_Returns200WithCborBody() throws Exception {
+        // Given
+        userDto.setId(1L);
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+        when(userService.getUser(1L, UserFields.ALL)).thenReturn(new VersionedUserDto(userDto, 2L));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/users/1").accept(UserMediaTypes.CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2;cbor\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().contentType(UserMediaTypes.CBOR))
+                .andReturn();
+
+        // Then
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory()).registerModule(new JavaTimeModule());
+        assertEquals(userDto, cborMapper.readValue(result.getResponse().getContentAsByteArray(), UserDto.class));
+        verify(userService, never()).getUser(anyLong());
+    }
+
+    @Test
+    public void getUser_AcceptSmileWithJsonEntityTag_Returns200WithSmileEntityTag() throws Exception {
+        // Given
+        when(userService.getUserVersion(1L)).thenReturn(2L);
+        when(userService.getUser(1L, UserFields.ALL)).thenReturn(new VersionedUserDto(userDto, 2L));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/users/1")
+                        .accept(UserMediaTypes.SMILE)
+                        .header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2;smile\""))
+                .andExpect(content().contentType(UserMediaTypes.SMILE));
+        mockMvc.perform(get("/api/v1/users/1")
+                        .accept(UserMediaTypes.SMILE)
+                        .header("If-None-Match", "\"2;smile\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept"));
+    }
+
+    @Test
+    public void getUserByEmail_AcceptProtobuf_Returns200WithProtobufEntityTag() throws Exception {
+        // Given
+        userDto.setId(1L);
+        when(userService.getUserByEmail("test@example.com", UserFields.ALL)).thenReturn(new VersionedUserDto(userDto, 3L));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/users")
+                        .param("email", "test@example.com")
+                        .accept(UserMediaTypes.PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3;protobuf\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andExpect(content().contentType(UserMediaTypes.PROTOBUF))
+                .andReturn();
+
+        // Then
+        assertEquals(userDto, userProtobufCodec.read(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    public void updateUser_WithBinaryIfMatch_PassesExpectedVersion() throws Exception {
+        // Given
+        when(userService.updateUser(eq(1L), any(UserDto.class), eq(3L)))
+                .thenReturn(new VersionedUserDto(userDto, 4L));
+
+        // When & Then
+        mockMvc.perform(put("/api/v1/users/1")
+                        .header("If-Match", "\"3;cbor\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userDto)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void getUserFields_AcceptProtobuf_Returns406() throws Exception {
+        // Then
+        mockMvc.perform(get("/api/v1/users/1").param("fields", "id").accept(UserMediaTypes.PROTOBUF))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    public void createUser_SmileBody_Returns201WithSmileBody() throws Exception {
+        // Given
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).registerModule(new JavaTimeModule());
+
+        // When
+        when(userService.createUser(any(UserDto.class))).thenReturn(userDto);
+        MvcResult result = mockMvc.perform(post("/api/v1/users")
+                        .contentType(UserMediaTypes.SMILE)
+                        .accept(UserMediaTypes.SMILE)
+                        .content(smileMapper.writeValueAsBytes(userDto)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(UserMediaTypes.SMILE))
+                .andReturn();
+
+        // Then
+        assertEquals(userDto, smileMapper.readValue(result.getResponse().getContentAsByteArray(), UserDto.class));
+        verify(userService).createUser(userDto);
+    }
+
+    @Test
+    public void searchUsersByBirthDateRange_AcceptProtobuf_StreamsUserList() throws Exception {
+        // Given
+        LocalDate from = LocalDate.now().minusYears(22);
+        LocalDate to = LocalDate.now().minusYears(18);
+
+        // When
+        when(userService.streamUsersByBirthDateRange(any(LocalDate.class), any(LocalDate.class), isNull(),
+                eq(UserFields.ALL)))
+                .thenReturn(Stream.of(userDto, userDto));
+        MvcResult result = mockMvc.perform(get("/api/v1/users/search")
+                        .accept(UserMediaTypes.PROTOBUF)
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserMediaTypes.PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(List.of(userDto, userDto), userProtobufCodec.readUsers(body));
+    }
+
+    @Test
+    public void applyBatch_Protobuf_ReturnsProtobufResults() throws Exception {
+        // Given
+        List<UserBatchOperationDto> operations = List.of(
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, userDto),
+                new UserBatchOperationDto(BatchOperationType.DELETE, 5L, null));
+        List<UserBatchResultDto> results = List.of(
+                new UserBatchResultDto(0, 201, 1L, userDto, null),
+                new UserBatchResultDto(1, 404, 5L, null, "User not found"));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        userProtobufCodec.writeBatchOperations(operations, body);
+
+        // When
+        when(userService.applyBatch(eq(operations), any())).thenReturn(results);
+        MvcResult result = mockMvc.perform(post("/api/v1/users/batch")
+                        .contentType(UserMediaTypes.PROTOBUF)
+                        .accept(UserMediaTypes.PROTOBUF)
+                        .content(body.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserMediaTypes.PROTOBUF))
+                .andReturn();
+
+        // Then
+        assertEquals(results, userProtobufCodec.readBatchResults(result.getResponse().getContentAsByteArray()));
+    }
+
     @Test
     public void createUser_UnderAge_Returns400() throws Exception {
         // Given
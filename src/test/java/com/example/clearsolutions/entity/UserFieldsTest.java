@@ -0,0 +1,49 @@
+package com.example.clearsolutions.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.clearsolutions.exceptions.InvalidFieldsException;
+
+public class UserFieldsTest {
+
+    @Test
+    public void parse_NamesInAnyOrderWithWhitespaceAndRepeats_ReturnsFieldsInDeclarationOrder() {
+        // When
+        UserFields fields = UserFields.parse(" phoneNumber,email, id,email,");
+
+        // Then
+        assertEquals(UserFields.of(UserField.ID, UserField.EMAIL, UserField.PHONE_NUMBER), fields);
+        assertTrue(fields.contains(UserField.EMAIL));
+        assertFalse(fields.contains(UserField.FIRST_NAME));
+        assertFalse(fields.isAll());
+        assertEquals("id,email,phoneNumber", fields.toString());
+    }
+
+    @Test
+    public void parse_AllNames_ReturnsAll() {
+        // When
+        UserFields fields = UserFields.parse("id,email,firstName,lastName,birthDate,address,phoneNumber");
+
+        // Then
+        assertEquals(UserFields.ALL, fields);
+        assertTrue(fields.isAll());
+        assertEquals(UserFields.ALL, UserFields.of(UserField.ID).with(UserField.EMAIL).with(UserField.FIRST_NAME)
+                .with(UserField.LAST_NAME).with(UserField.BIRTH_DATE).with(UserField.ADDRESS)
+                .with(UserField.PHONE_NUMBER));
+    }
+
+    @Test
+    public void parse_UnknownOrNoNames_ThrowsException() {
+        // When & Then
+        InvalidFieldsException unknown = assertThrows(InvalidFieldsException.class,
+                () -> UserFields.parse("id,Email,version"));
+        assertEquals("Unknown user fields: Email, version", unknown.getMessage());
+        assertThrows(InvalidFieldsException.class, () -> UserFields.parse(""));
+        assertThrows(InvalidFieldsException.class, () -> UserFields.parse(" , "));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.clearsolutions.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+import com.example.clearsolutions.exceptions.UserException;
+import com.example.clearsolutions.exceptions.UserUnderAgeException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ProblemResponsesTest {
+
+    private final ProblemResponses problemResponses =
+            new ProblemResponses(Thread.currentThread().getContextClassLoader());
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void responseOf_AnnotatedException_ReturnsProblemDetailsWithItsStatusAndReason() throws Exception {
+        // When
+        ResponseEntity<byte[]> response = problemResponses.responseOf(
+                new EmailAlreadyExistsException("Email is already in use"));
+
+        // Then
+        JsonNode body = objectMapper.readTree(response.getBody());
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON, response.getHeaders().getContentType());
+        assertEquals(409, body.get("status").asInt());
+        assertEquals("Email is already in use", body.get("detail").asText());
+        assertEquals("about:blank", body.get("type").asText());
+    }
+
+    @Test
+    public void responseOf_MessageWithQuotesAndNonAscii_EscapesDetail() throws Exception {
+        // Given
+        String message = "Користувач \"test\"\n must be 18";
+
+        // When
+        ResponseEntity<byte[]> response = problemResponses.responseOf(new UserUnderAgeException(message));
+
+        // Then
+        assertEquals(message, objectMapper.readTree(new String(response.getBody(), StandardCharsets.UTF_8))
+                .get("detail").asText());
+    }
+
+    @Test
+    public void responseOf_ExceptionWithoutAnnotation_ReturnsInternalServerError() throws Exception {
+        // When
+        ResponseEntity<byte[]> response = problemResponses.responseOf(new UserException("Unexpected"));
+
+        // Then
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("Internal Server Error", objectMapper.readTree(response.getBody()).get("title").asText());
+    }
+
+    @Test
+    public void userException_IsStackless() {
+        assertEquals(0, new UserUnderAgeException("User must be at least 18 years old").getStackTrace().length);
+    }
+}
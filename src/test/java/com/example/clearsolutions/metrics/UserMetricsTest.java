@@ -0,0 +1,68 @@
+package com.example.clearsolutions.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.exceptions.UserNotFoundException;
+import com.example.clearsolutions.exceptions.UserUnderAgeException;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class UserMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+    private final UserMetrics userMetrics = new UserMetrics(meterRegistry, userRepository);
+
+    @Test
+    public void time_ActionThrows_RecordsDurationAndRethrows() {
+        // Given
+        Runnable failing = () -> {
+            throw new UserNotFoundException("User not found");
+        };
+
+        // When
+        assertThrows(UserNotFoundException.class, () -> userMetrics.time(UserOperation.DELETE, failing));
+        String result = userMetrics.time(UserOperation.GET, () -> "user");
+
+        // Then
+        assertEquals("user", result);
+        assertEquals(1, meterRegistry.get(UserMetrics.OPERATION_TIMER).tag("operation", "delete").timer().count());
+        assertEquals(1, meterRegistry.get(UserMetrics.OPERATION_TIMER).tag("operation", "get").timer().count());
+        assertEquals(0, meterRegistry.get(UserMetrics.OPERATION_TIMER).tag("operation", "search").timer().count());
+    }
+
+    @Test
+    public void countError_DifferentExceptionTypes_CountsEachTypeSeparately() {
+        // When
+        userMetrics.countError(new UserNotFoundException("User not found"));
+        userMetrics.countError(new UserNotFoundException("User not found"));
+        userMetrics.countError(new UserUnderAgeException("User is under 18"));
+
+        // Then
+        assertEquals(2.0, meterRegistry.get(UserMetrics.ERRORS)
+                .tag("exception", "UserNotFoundException").counter().count());
+        assertEquals(1.0, meterRegistry.get(UserMetrics.ERRORS)
+                .tag("exception", "UserUnderAgeException").counter().count());
+    }
+
+    @Test
+    public void gauges_UsersStored_ReportUserCountAndIndexSizes() {
+        // Given
+        userRepository.save(User.builder().id(1L).email("a@example.com").birthDate(LocalDate.of(1990, 1, 1)).build());
+        userRepository.save(User.builder().id(2L).email("b@example.com").build());
+
+        // When
+        double users = meterRegistry.get(UserMetrics.USER_COUNT).gauge().value();
+        double indexed = meterRegistry.get(UserMetrics.INDEX_SIZE).tag("index", "birthDate").gauge().value();
+
+        // Then
+        assertEquals(2.0, users);
+        assertEquals(1.0, indexed);
+    }
+}
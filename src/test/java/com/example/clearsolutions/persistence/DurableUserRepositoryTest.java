@@ -0,0 +1,260 @@
+package com.example.clearsolutions.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.repository.ColumnarUserRepository;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+import com.example.clearsolutions.repository.RecoverableUserRepository;
+
+public class DurableUserRepositoryTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void restart_ReplaysLog_RestoresUsersAndIdSequence() throws Exception {
+        // Given
+        DurableUserRepository userRepository = openRepository();
+        User kept = userRepository.save(createTestUser(userRepository.nextId(), "test1@example.com"));
+        User deleted = userRepository.save(createTestUser(userRepository.nextId(), "test2@example.com"));
+        userRepository.update(kept.getId(), user -> user.setFirstName("Updated"));
+        userRepository.deleteById(deleted.getId());
+        userRepository.destroy();
+
+        // When
+        DurableUserRepository restartedRepository = openRepository();
+
+        // Then
+        assertEquals(1, restartedRepository.count());
+        assertEquals("Updated", restartedRepository.findById(kept.getId()).orElseThrow().getFirstName());
+        assertTrue(restartedRepository.findById(deleted.getId()).isEmpty());
+        assertEquals(1, restartedRepository.findByBirthDateBetween(
+                kept.getBirthDate(), kept.getBirthDate()).count());
+        assertEquals(kept.getId(), restartedRepository.findByEmail("test1@example.com").orElseThrow().getId());
+        assertTrue(restartedRepository.findByEmail("test2@example.com").isEmpty());
+        assertEquals(deleted.getId() + 1, restartedRepository.nextId());
+        restartedRepository.destroy();
+    }
+
+    @Test
+    public void restart_ColumnarEngine_RestoresUsersFromSnapshotAndLog() throws Exception {
+        // Given
+        DurableUserRepository userRepository = openRepository(new ColumnarUserRepository());
+        User kept = userRepository.save(createTestUser(userRepository.nextId(), "test1@example.com"));
+        User deleted = userRepository.save(createTestUser(userRepository.nextId(), "test2@example.com"));
+        userRepository.snapshot();
+        userRepository.deleteById(deleted.getId());
+        userRepository.update(kept.getId(), user -> user.setEmail("test2@example.com"));
+        userRepository.destroy();
+
+        // When
+        DurableUserRepository restartedRepository = openRepository(new ColumnarUserRepository());
+
+        // Then
+        assertEquals(1, restartedRepository.count());
+        assertEquals(kept.getId(), restartedRepository.findByEmail("test2@example.com").orElseThrow().getId());
+        assertTrue(restartedRepository.findByEmail("test1@example.com").isEmpty());
+        assertEquals(deleted.getId() + 1, restartedRepository.nextId());
+        restartedRepository.destroy();
+    }
+
+    @Test
+    public void restart_AfterSnapshot_LoadsSnapshotAndNewerLog() throws Exception {
+        // Given
+        DurableUserRepository userRepository = openRepository();
+        User kept = userRepository.save(createTestUser(userRepository.nextId(), "test1@example.com"));
+        User deleted = userRepository.save(createTestUser(userRepository.nextId(), "test2@example.com"));
+        userRepository.deleteById(deleted.getId());
+        userRepository.snapshot();
+        userRepository.update(kept.getId(), user -> user.setFirstName("Updated"));
+        User added = userRepository.save(createTestUser(userRepository.nextId(), "test3@example.com"));
+        userRepository.destroy();
+
+        // When
+        DurableUserRepository restartedRepository = openRepository();
+
+        // Then
+        assertEquals(List.of("users-00000000000000000001.snapshot", "users-00000000000000000001.wal"),
+                listFiles());
+        assertEquals(2, restartedRepository.count());
+        assertEquals("Updated", restartedRepository.findById(kept.getId()).orElseThrow().getFirstName());
+        assertEquals(added, restartedRepository.findById(added.getId()).orElseThrow());
+        assertEquals(added.getId() + 1, restartedRepository.nextId());
+        restartedRepository.destroy();
+    }
+
+    @Test
+    public void snapshot_WhileWriting_KeepsEveryMutation() throws Exception {
+        // Given
+        int writers = 4;
+        int usersPerWriter = 300;
+        DurableUserRepository userRepository = openRepository();
+        List<Thread> threads = new ArrayList<>();
+        for (int writer = 0; writer < writers; writer++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < usersPerWriter; i++) {
+                    long id = userRepository.nextId();
+                    User user = userRepository.save(createTestUser(id, "test" + id + "@example.com"));
+                    userRepository.update(user.getId(), updated -> updated.setFirstName("Updated"));
+                    if (user.getId() % 2 == 0) {
+                        userRepository.deleteById(user.getId());
+                    }
+                }
+            }));
+        }
+
+        // When
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (int i = 0; i < 5; i++) {
+            userRepository.snapshot();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Map<Long, User> expected = snapshotOf(userRepository);
+        userRepository.destroy();
+        DurableUserRepository restartedRepository = openRepository();
+
+        // Then
+        assertEquals(writers * usersPerWriter / 2, expected.size());
+        assertEquals(expected, snapshotOf(restartedRepository));
+        restartedRepository.destroy();
+    }
+
+    @Test
+    public void restart_AfterConcurrentSavesUpdatesAndDeletesOfSameUsers_RestoresFinalStates() throws Exception {
+        // Given
+        int users = 2_000;
+        DurableUserRepository userRepository = openRepository();
+        for (int i = 0; i < users; i++) {
+            long id = userRepository.nextId();
+            userRepository.save(createTestUser(id, "test" + id + "@example.com"));
+        }
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        List<Thread> threads = List.of(
+                writer(barrier, users, id -> {
+                    User user = createTestUser(id, "test" + id + "@example.com");
+                    user.setFirstName("Saved");
+                    userRepository.save(user);
+                }),
+                writer(barrier, users, id -> userRepository.update(id, updated -> updated.setLastName("Updated"))),
+                writer(barrier, users, id -> {
+                    if (id % 2 == 0) {
+                        userRepository.deleteById(id);
+                    }
+                }));
+
+        // When
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Map<Long, User> expected = snapshotOf(userRepository);
+        userRepository.destroy();
+        DurableUserRepository restartedRepository = openRepository();
+
+        // Then
+        assertEquals(expected, snapshotOf(restartedRepository));
+        restartedRepository.destroy();
+    }
+
+    @Test
+    public void restart_WithCorruptSnapshot_Fails() throws Exception {
+        // Given
+        DurableUserRepository userRepository = openRepository();
+        userRepository.save(createTestUser(userRepository.nextId(), "test1@example.com"));
+        userRepository.snapshot();
+        userRepository.destroy();
+        Path snapshot = directory.resolve("users-00000000000000000001.snapshot");
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), Files.size(snapshot) - 1);
+        }
+
+        // When / Then
+        assertThrows(IOException.class, this::openRepository);
+    }
+
+    @Test
+    public void saveAll_DuplicateEmails_SkipsThemAndRestoresSavedUsersAfterRestart() throws Exception {
+        // Given
+        DurableUserRepository userRepository = openRepository();
+        userRepository.save(createTestUser(userRepository.nextId(), "test1@example.com"));
+        List<User> users = List.of(createTestUser(userRepository.nextId(), "test2@example.com"),
+                createTestUser(userRepository.nextId(), "TEST1@example.com"),
+                createTestUser(userRepository.nextId(), "test3@example.com"),
+                createTestUser(userRepository.nextId(), "test3@example.com"));
+
+        // When
+        List<User> saved = userRepository.saveAll(users);
+        userRepository.destroy();
+        DurableUserRepository restartedRepository = openRepository();
+
+        // Then
+        assertEquals(List.of(users.get(0), users.get(2)), saved);
+        assertEquals(3, restartedRepository.count());
+        assertEquals(users.get(2).getId(), restartedRepository.findByEmail("test3@example.com").orElseThrow().getId());
+        restartedRepository.destroy();
+    }
+
+    private DurableUserRepository openRepository() throws IOException {
+        return openRepository(new InMemoryUserRepository());
+    }
+
+    private DurableUserRepository openRepository(RecoverableUserRepository delegate) throws IOException {
+        return new DurableUserRepository(delegate, directory, FsyncPolicy.ALWAYS, 1, Long.MAX_VALUE / 2);
+    }
+
+    private Thread writer(CyclicBarrier barrier, int users, LongConsumer write) {
+        return new Thread(() -> {
+            for (long id = 1; id <= users; id++) {
+                try {
+                    barrier.await();
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    throw new IllegalStateException(e);
+                }
+                write.accept(id);
+            }
+        });
+    }
+
+    private List<String> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private Map<Long, User> snapshotOf(DurableUserRepository userRepository) {
+        return userRepository.findAll().collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private User createTestUser(Long id, String email) {
+        return new User(id, email, "Test", "User", LocalDate.now().minusYears(20), null, "1234567890", 0L);
+    }
+}
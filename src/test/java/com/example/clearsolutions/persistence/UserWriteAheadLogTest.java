@@ -0,0 +1,153 @@
+package com.example.clearsolutions.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.example.clearsolutions.entity.User;
+
+public class UserWriteAheadLogTest {
+
+    @TempDir
+    private Path directory;
+
+    private final List<User> savedUsers = new ArrayList<>();
+    private final List<Long> deletedIds = new ArrayList<>();
+
+    @ParameterizedTest
+    @EnumSource(FsyncPolicy.class)
+    public void open_AfterAppends_ReplaysRecordsInOrder(FsyncPolicy fsyncPolicy) throws IOException {
+        // Given
+        User user = new User(1L, "test1@example.com", "Test1", "User1", LocalDate.of(1990, 5, 1),
+                "Kyiv, Khreshchatyk 1", "1234567890", 3L);
+        User userWithNulls = new User(2L, "test2@example.com", "Test2", "User2", null, null, null, 0L);
+        try (UserWriteAheadLog writeAheadLog = openLog(fsyncPolicy)) {
+            writeAheadLog.commit(writeAheadLog.appendSave(user));
+            writeAheadLog.commit(writeAheadLog.appendSave(userWithNulls));
+            writeAheadLog.commit(writeAheadLog.appendDelete(1L));
+        }
+
+        // When
+        openLog(fsyncPolicy).close();
+
+        // Then
+        assertEquals(List.of(user, userWithNulls), savedUsers);
+        assertEquals(List.of(1L), deletedIds);
+    }
+
+    @Test
+    public void open_WithTornTail_TruncatesAndKeepsAppending() throws IOException {
+        // Given
+        User user = new User(1L, "test1@example.com", "Test1", "User1", LocalDate.of(1990, 5, 1),
+                null, "1234567890", 0L);
+        try (UserWriteAheadLog writeAheadLog = openLog(FsyncPolicy.ALWAYS)) {
+            writeAheadLog.commit(writeAheadLog.appendSave(user));
+        }
+        Path file = directory.resolve("users-" + UserWriteAheadLog.formatGeneration(0) + ".wal");
+        long validLength = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 42, 1, 2}));
+        }
+
+        // When
+        try (UserWriteAheadLog writeAheadLog = openLog(FsyncPolicy.ALWAYS)) {
+            assertEquals(validLength, Files.size(file));
+            writeAheadLog.commit(writeAheadLog.appendDelete(1L));
+        }
+        savedUsers.clear();
+        openLog(FsyncPolicy.ALWAYS).close();
+
+        // Then
+        assertEquals(List.of(user), savedUsers);
+        assertEquals(List.of(1L), deletedIds);
+    }
+
+    @Test
+    public void open_CorruptRecordBeforeLastSegment_Fails() throws IOException {
+        // Given
+        try (UserWriteAheadLog writeAheadLog = openLog(FsyncPolicy.ALWAYS)) {
+            writeAheadLog.commit(writeAheadLog.appendDelete(1L));
+            writeAheadLog.commit(writeAheadLog.appendDelete(2L));
+            writeAheadLog.rotate();
+            writeAheadLog.commit(writeAheadLog.appendDelete(3L));
+        }
+        Path file = directory.resolve("users-" + UserWriteAheadLog.formatGeneration(0) + ".wal");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), Files.size(file) - 1);
+        }
+
+        // When & Then
+        assertThrows(IOException.class, () -> openLog(FsyncPolicy.ALWAYS));
+    }
+
+    @Test
+    public void commit_ConcurrentWriters_PersistsEveryRecord() throws Exception {
+        // Given
+        int writers = 8;
+        int recordsPerWriter = 500;
+        List<Thread> threads = new ArrayList<>();
+        try (UserWriteAheadLog writeAheadLog = openLog(FsyncPolicy.OS)) {
+            for (int writer = 0; writer < writers; writer++) {
+                long firstId = (long) writer * recordsPerWriter;
+                threads.add(new Thread(() -> {
+                    for (long id = firstId; id < firstId + recordsPerWriter; id++) {
+                        writeAheadLog.commit(writeAheadLog.appendDelete(id));
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        // When
+        openLog(FsyncPolicy.OS).close();
+
+        // Then
+        assertEquals(writers * recordsPerWriter, deletedIds.size());
+        assertTrue(deletedIds.containsAll(List.of(0L, 1999L, 3999L)));
+    }
+
+    @Test
+    public void rotate_ThenDeleteOldSegments_ReplaysOnlyNewerSegments() throws IOException {
+        // Given
+        long generation;
+        try (UserWriteAheadLog writeAheadLog = openLog(FsyncPolicy.OS)) {
+            writeAheadLog.commit(writeAheadLog.appendDelete(1L));
+            generation = writeAheadLog.rotate();
+            writeAheadLog.commit(writeAheadLog.appendDelete(2L));
+            writeAheadLog.rotate();
+            writeAheadLog.commit(writeAheadLog.appendDelete(3L));
+            writeAheadLog.deleteSegmentsBefore(generation);
+        }
+
+        // When
+        openLog(FsyncPolicy.OS).close();
+
+        // Then
+        assertEquals(1L, generation);
+        assertEquals(List.of(2L, 3L), deletedIds);
+    }
+
+    private UserWriteAheadLog openLog(FsyncPolicy fsyncPolicy) throws IOException {
+        return UserWriteAheadLog.open(directory, 0, fsyncPolicy, 1, savedUsers::add, deletedIds::add);
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.clearsolutions.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.entity.UserField;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+
+public class ColumnarUserRepositoryTest {
+
+    private ColumnarUserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = new ColumnarUserRepository();
+    }
+
+    @Test
+    public void save_StoresUser_FindByIdReturnsEqualCopy() {
+        // Given
+        User user = createTestUser(userRepository.nextId(), "test1@example.com", LocalDate.of(1990, 5, 1));
+        user.setAddress("Kyiv, Хрещатик 1, " + "x".repeat(300));
+        user.setVersion(7);
+
+        // When
+        userRepository.save(user);
+        User found = userRepository.findById(user.getId()).orElseThrow();
+
+        // Then
+        assertEquals(user, found);
+        assertNotSame(user, found);
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    public void save_MissingOptionalFields_ReadsThemAsNull() {
+        // Given
+        User user = User.builder().id(1L).email("test1@example.com").build();
+
+        // When
+        userRepository.save(user);
+
+        // Then
+        assertEquals(user, userRepository.findById(1L).orElseThrow());
+        assertEquals(0L, userRepository.indexSizes().get("birthDate"));
+    }
+
+    @Test
+    public void update_ModifiesCopy_IncrementsVersion() {
+        // Given
+        User user = userRepository.save(createTestUser(userRepository.nextId(), "test1@example.com"));
+
+        // When
+        User updated = userRepository.update(user.getId(), u -> u.setFirstName("Updated")).orElseThrow();
+
+        // Then
+        assertEquals("Test", user.getFirstName());
+        assertEquals(1, updated.getVersion());
+        assertEquals(updated, userRepository.findById(user.getId()).orElseThrow());
+        assertTrue(userRepository.update(42L, u -> u.setFirstName("Missing")).isEmpty());
+    }
+
+    @Test
+    public void update_ListenerThrows_KeepsUserAndReleasesNewEmail() {
+        // Given
+        User user = userRepository.save(createTestUser(1L, "test1@example.com"));
+
+        // When
+        assertThrows(IllegalStateException.class, () -> userRepository.update(1L,
+                u -> u.setEmail("test2@example.com"), u -> {
+                    throw new IllegalStateException("Log is closed");
+                }));
+
+        // Then
+        assertEquals(user, userRepository.findById(1L).orElseThrow());
+        assertTrue(userRepository.findByEmail("test2@example.com").isEmpty());
+        userRepository.save(createTestUser(2L, "test2@example.com"));
+    }
+
+    @Test
+    public void deleteById_RemovesUserFromEveryIndex() {
+        // Given
+        userRepository.save(createNamedUser(1L, "Taras", "Melnyk"));
+
+        // When
+        User deleted = userRepository.deleteById(1L).orElseThrow();
+
+        // Then
+        assertEquals("Melnyk", deleted.getLastName());
+        assertTrue(userRepository.findById(1L).isEmpty());
+        assertTrue(userRepository.deleteById(1L).isEmpty());
+        assertTrue(userRepository.findByEmail("taras@example.com").isEmpty());
+        assertTrue(userRepository.findByText("melnyk", 0, 10).isEmpty());
+        assertEquals(0, userRepository.count());
+        assertEquals(List.of(0L, 0L, 0L), List.of(userRepository.indexSizes().get("birthDate"),
+                userRepository.indexSizes().get("email"), userRepository.indexSizes().get("text")));
+    }
+
+    @Test
+    public void save_DuplicateEmailInOtherCase_ThrowsExceptionAndKeepsStore() {
+        // Given
+        userRepository.save(createTestUser(1L, "test1@example.com"));
+
+        // When & Then
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> userRepository.save(createTestUser(2L, "Test1@Example.COM")));
+        assertEquals(1, userRepository.count());
+        assertEquals(1L, userRepository.findByEmail(" TEST1@example.com ").orElseThrow().getId());
+    }
+
+    @Test
+    public void update_EmailOfOtherUserWithSameHashAsPreviousEmail_ThrowsExceptionAndKeepsStore() {
+        // Given
+        userRepository.save(createTestUser(2L, "c0@example.com"));
+        userRepository.save(createTestUser(1L, "an@example.com"));
+
+        // When & Then
+        assertEquals("c0@example.com".hashCode(), "an@example.com".hashCode());
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> userRepository.update(2L, u -> u.setEmail("an@example.com")));
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> userRepository.save(createTestUser(2L, "an@example.com")));
+        assertEquals("c0@example.com", userRepository.findById(2L).orElseThrow().getEmail());
+        assertEquals(1L, userRepository.findByEmail("an@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    public void update_ChangesEmail_ReleasesPreviousEmail() {
+        // Given
+        userRepository.save(createTestUser(1L, "test1@example.com"));
+
+        // When
+        userRepository.update(1L, u -> u.setEmail("test2@example.com"));
+
+        // Then
+        assertTrue(userRepository.findByEmail("test1@example.com").isEmpty());
+        assertEquals(1L, userRepository.findByEmail("test2@example.com").orElseThrow().getId());
+        assertEquals(2L, userRepository.save(createTestUser(2L, "test1@example.com")).getId());
+        assertEquals(2L, userRepository.indexSizes().get("email"));
+    }
+
+    @Test
+    public void restore_EmailHeldByOtherUser_TakesOverEmail() {
+        // Given
+        userRepository.restore(createTestUser(1L, "test1@example.com"));
+        userRepository.restore(createTestUser(2L, "test1@example.com"));
+
+        // When
+        userRepository.restore(createTestUser(1L, "test2@example.com"));
+
+        // Then
+        assertEquals(2L, userRepository.findByEmail("test1@example.com").orElseThrow().getId());
+        assertEquals(1L, userRepository.findByEmail("test2@example.com").orElseThrow().getId());
+        assertEquals(3L, userRepository.nextId());
+    }
+
+    @Test
+    public void findByBirthDateBetween_WithCursor_ContinuesAfterCursor() {
+        // Given
+        User older = userRepository.save(createTestUser(1L, "test1@example.com", LocalDate.of(1990, 5, 1)));
+        User younger = userRepository.save(createTestUser(2L, "test2@example.com", LocalDate.of(1995, 1, 1)));
+        User sameDay = userRepository.save(createTestUser(3L, "test3@example.com", LocalDate.of(1990, 5, 1)));
+        userRepository.save(createTestUser(4L, "test4@example.com", LocalDate.of(2000, 1, 1)));
+        LocalDate from = LocalDate.of(1990, 5, 1);
+        LocalDate to = LocalDate.of(1995, 1, 1);
+
+        // When
+        List<User> users = userRepository.findByBirthDateBetween(from, to).toList();
+        List<User> rest = userRepository.findByBirthDateBetween(from, to, BirthDateCursor.of(older)).toList();
+
+        // Then
+        assertEquals(List.of(older, sameDay, younger), users);
+        assertEquals(List.of(sameDay, younger), rest);
+    }
+
+    @Test
+    public void findByBirthDateBetween_SparseFieldset_DecodesOnlyRequestedStrings() {
+        // Given
+        User user = createTestUser(1L, "test1@example.com", LocalDate.of(1990, 5, 1));
+        user.setAddress("Kyiv");
+        user.setVersion(4);
+        userRepository.save(user);
+        userRepository.save(createTestUser(2L, "test2@example.com", LocalDate.of(1991, 1, 1)));
+        UserFields fields = UserFields.of(UserField.EMAIL, UserField.ADDRESS);
+
+        // When
+        List<User> users = userRepository.findByBirthDateBetween(LocalDate.of(1990, 1, 1),
+                LocalDate.of(1991, 1, 1), null, fields).toList();
+        User found = userRepository.findById(1L, UserFields.of(UserField.PHONE_NUMBER)).orElseThrow();
+
+        // Then
+        assertEquals(List.of(new User(1L, "test1@example.com", null, null, LocalDate.of(1990, 5, 1), "Kyiv", null, 4L),
+                new User(2L, "test2@example.com", null, null, LocalDate.of(1991, 1, 1), null, null, 0L)), users);
+        assertEquals(new User(1L, null, null, null, LocalDate.of(1990, 5, 1), null, "1234567890", 4L), found);
+        assertEquals(user, userRepository.findById(1L, UserFields.ALL).orElseThrow());
+    }
+
+    @Test
+    public void update_ChangesBirthDate_MovesUserInIndex() {
+        // Given
+        userRepository.save(createTestUser(1L, "test1@example.com", LocalDate.of(1990, 5, 1)));
+
+        // When
+        userRepository.update(1L, u -> u.setBirthDate(LocalDate.of(1980, 1, 1)));
+
+        // Then
+        assertTrue(userRepository.findByBirthDateBetween(
+                LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31)).findAny().isEmpty());
+        assertEquals(1, userRepository.findByBirthDateBetween(
+                LocalDate.of(1980, 1, 1), LocalDate.of(1980, 1, 1)).count());
+    }
+
+    @Test
+    public void update_RepeatedRewrites_ReclaimsSpaceAndKeepsUsers() {
+        // Given
+        int usersCount = 1_000;
+        IntStream.rangeClosed(1, usersCount).forEach(id ->
+                userRepository.save(createTestUser((long) id, "user" + id + "@example.com")));
+
+        // When
+        for (int round = 0; round < 100; round++) {
+            String phoneNumber = "0".repeat(200) + round;
+            IntStream.rangeClosed(1, usersCount).forEach(id ->
+                    userRepository.update((long) id, user -> user.setPhoneNumber(phoneNumber)));
+        }
+
+        // Then
+        assertTrue(userRepository.allocatedBytes() <= 8L << 20, "allocated " + userRepository.allocatedBytes());
+        assertEquals(usersCount, userRepository.findAll()
+                .filter(user -> user.getPhoneNumber().endsWith("099") && user.getVersion() == 100)
+                .count());
+        assertEquals(7L, userRepository.findByEmail("user7@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    public void findById_ConcurrentRewrites_AlwaysReadsCompleteUser() throws InterruptedException {
+        // Given
+        userRepository.save(createTestUser(1L, "test1@example.com"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        String phoneNumber = "0".repeat(1_000);
+
+        // When
+        executor.execute(() -> IntStream.range(0, 20_000).forEach(i ->
+                userRepository.update(1L, user -> user.setPhoneNumber(phoneNumber + i))));
+        List<User> reads = IntStream.range(0, 20_000)
+                .mapToObj(i -> userRepository.findById(1L).orElseThrow())
+                .toList();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertTrue(reads.stream().allMatch(user -> "test1@example.com".equals(user.getEmail())
+                && (user.getVersion() == 0 ? "1234567890".equals(user.getPhoneNumber())
+                : user.getPhoneNumber().equals(phoneNumber + (user.getVersion() - 1)))));
+    }
+
+    @Test
+    public void findByText_AfterUpdate_FindsOnlyCurrentTokens() {
+        // Given
+        userRepository.save(createNamedUser(1L, "Taras", "Melnyk"));
+        userRepository.update(1L, user -> user.setLastName("Bondarenko"));
+
+        // When
+        List<UserMatch> oldName = userRepository.findByText("melnyk", 0, 10);
+        List<UserMatch> newName = userRepository.findByText("bondar", 0, 10);
+
+        // Then
+        assertTrue(oldName.isEmpty());
+        assertEquals(List.of(1L), newName.stream().map(match -> match.user().getId()).toList());
+    }
+
+    private User createNamedUser(Long id, String firstName, String lastName) {
+        return new User(id, firstName.toLowerCase() + "@example.com", firstName, lastName,
+                LocalDate.of(1990, 1, 1), null, "1234567890", 0L);
+    }
+
+    private User createTestUser(Long id, String email) {
+        return createTestUser(id, email, LocalDate.of(1990, 1, 1));
+    }
+
+    private User createTestUser(Long id, String email, LocalDate birthDate) {
+        return new User(id, email, "Test", "User", birthDate, null, "1234567890", 0L);
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.clearsolutions.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+
+public class InMemoryUserRepositoryTest {
+
+    private InMemoryUserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = new InMemoryUserRepository();
+    }
+
+    @Test
+    public void save_StoresUser_FindByIdReturnsUser() {
+        // Given
+        User user = createTestUser(userRepository.nextId(), "test1@example.com");
+
+        // When
+        userRepository.save(user);
+
+        // Then
+        assertEquals(user, userRepository.findById(user.getId()).orElseThrow());
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    public void save_WithExplicitId_AdvancesIdSequence() {
+        // Given
+        userRepository.save(createTestUser(42L, "test1@example.com"));
+
+        // When
+        long nextId = userRepository.nextId();
+
+        // Then
+        assertEquals(43L, nextId);
+    }
+
+    @Test
+    public void update_ModifiesCopy_ReplacesStoredUser() {
+        // Given
+        User user = userRepository.save(createTestUser(userRepository.nextId(), "test1@example.com"));
+
+        // When
+        User updatedUser = userRepository.update(user.getId(), u -> u.setEmail("updated@example.com"))
+                .orElseThrow();
+
+        // Then
+        assertNotSame(user, updatedUser);
+        assertEquals("test1@example.com", user.getEmail());
+        assertEquals("updated@example.com", userRepository.findById(user.getId()).orElseThrow().getEmail());
+    }
+
+    @Test
+    public void update_MissingUser_ReturnsEmpty() {
+        // When & Then
+        assertTrue(userRepository.update(1L, u -> u.setEmail("updated@example.com")).isEmpty());
+    }
+
+    @Test
+    public void deleteById_RemovesUser_FindByIdReturnsEmpty() {
+        // Given
+        User user = userRepository.save(createTestUser(userRepository.nextId(), "test1@example.com"));
+
+        // When
+        userRepository.deleteById(user.getId());
+
+        // Then
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+        assertTrue(userRepository.deleteById(user.getId()).isEmpty());
+    }
+
+    @Test
+    public void save_ConcurrentWriters_KeepsEveryUser() throws InterruptedException {
+        // Given
+        int usersCount = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        IntStream.range(0, usersCount).forEach(i -> executor.execute(() ->
+                userRepository.save(createTestUser(userRepository.nextId(), "user" + i + "@example.com"))));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(usersCount, userRepository.count());
+        assertEquals(usersCount, userRepository.findAll().map(User::getId).distinct().count());
+    }
+
+    @Test
+    public void findByBirthDateBetween_ReturnsUsersInRange_OrderedByBirthDate() {
+        // Given
+        User older = userRepository.save(createTestUser(1L, "test1@example.com", LocalDate.of(1990, 5, 1)));
+        User younger = userRepository.save(createTestUser(2L, "test2@example.com", LocalDate.of(1995, 1, 1)));
+        User sameDay = userRepository.save(createTestUser(3L, "test3@example.com", LocalDate.of(1990, 5, 1)));
+        userRepository.save(createTestUser(4L, "test4@example.com", LocalDate.of(2000, 1, 1)));
+
+        // When
+        List<User> users = userRepository.findByBirthDateBetween(
+                LocalDate.of(1990, 5, 1), LocalDate.of(1995, 1, 1)).toList();
+
+        // Then
+        assertEquals(List.of(older, sameDay, younger), users);
+    }
+
+    @Test
+    public void update_ChangesBirthDate_MovesUserInIndex() {
+        // Given
+        User user = userRepository.save(createTestUser(1L, "test1@example.com", LocalDate.of(1990, 5, 1)));
+
+        // When
+        userRepository.update(user.getId(), u -> u.setBirthDate(LocalDate.of(1980, 1, 1)));
+
+        // Then
+        assertTrue(userRepository.findByBirthDateBetween(
+                LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31)).findAny().isEmpty());
+        assertEquals(1, userRepository.findByBirthDateBetween(
+                LocalDate.of(1980, 1, 1), LocalDate.of(1980, 1, 1)).count());
+    }
+
+    @Test
+    public void deleteById_RemovesUserFromIndex() {
+        // Given
+        User user = userRepository.save(createTestUser(1L, "test1@example.com", LocalDate.of(1990, 5, 1)));
+
+        // When
+        userRepository.deleteById(user.getId());
+
+        // Then
+        assertTrue(userRepository.findByBirthDateBetween(
+                LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31)).findAny().isEmpty());
+    }
+
+    @Test
+    public void save_DuplicateEmailInOtherCase_ThrowsExceptionAndKeepsStore() {
+        // Given
+        userRepository.save(createTestUser(1L, "test1@example.com"));
+
+        // When & Then
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> userRepository.save(createTestUser(2L, "Test1@Example.COM")));
+        assertEquals(1, userRepository.count());
+        assertEquals(1L, userRepository.findByEmail(" TEST1@example.com ").orElseThrow().getId());
+    }
+
+    @Test
+    public void deleteById_ReleasesEmail_AllowsNewUserWithSameEmail() {
+        // Given
+        userRepository.save(createTestUser(1L, "test1@example.com"));
+        userRepository.deleteById(1L);
+
+        // When
+        userRepository.save(createTestUser(2L, "test1@example.com"));
+
+        // Then
+        assertEquals(2L, userRepository.findByEmail("test1@example.com").orElseThrow().getId());
+        assertEquals(1L, userRepository.indexSizes().get("email"));
+    }
+
+    @Test
+    public void save_ConcurrentWritersWithSameEmail_KeepsOneUser() throws InterruptedException {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger conflicts = new AtomicInteger();
+
+        // When
+        IntStream.range(0, 100).forEach(i -> executor.execute(() -> {
+            try {
+                userRepository.save(createTestUser(userRepository.nextId(), "same@example.com"));
+            } catch (EmailAlreadyExistsException e) {
+                conflicts.incrementAndGet();
+            }
+        }));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(1, userRepository.count());
+        assertEquals(99, conflicts.get());
+    }
+
+    @Test
+    public void restore_EmailHeldByOtherUser_TakesOverEmail() {
+        // Given
+        userRepository.restore(createTestUser(1L, "test1@example.com"));
+        userRepository.restore(createTestUser(2L, "test1@example.com"));
+
+        // When
+        userRepository.restore(createTestUser(1L, "test2@example.com"));
+
+        // Then
+        assertEquals(2L, userRepository.findByEmail("test1@example.com").orElseThrow().getId());
+        assertEquals(1L, userRepository.findByEmail("test2@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    public void findByText_PrefixAndTypo_RanksExactMatchesFirst() {
+        // Given
+        userRepository.save(createNamedUser(1L, "John", "Smith", "Kyiv, Khreshchatyk 1"));
+        userRepository.save(createNamedUser(2L, "Johnny", "Smithson", "Lviv, Svobody 2"));
+        userRepository.save(createNamedUser(3L, "Jon", "Smyth", "Kyiv, Sahaidachnoho 3"));
+        userRepository.save(createNamedUser(4L, "Anna", "Kovalenko", "Odesa, Deribasivska 4"));
+
+        // When
+        List<UserMatch> prefix = userRepository.findByText("joh smi", 0, 10);
+        List<UserMatch> typo = userRepository.findByText("Smiht", 1, 10);
+        List<UserMatch> address = userRepository.findByText("kyiv khresh", 2, 10);
+
+        // Then
+        assertEquals(List.of(1L, 2L), prefix.stream().map(match -> match.user().getId()).toList());
+        assertTrue(prefix.get(0).score() > prefix.get(1).score());
+        assertEquals(List.of(1L), typo.stream().map(match -> match.user().getId()).toList());
+        assertEquals(List.of(1L), address.stream().map(match -> match.user().getId()).toList());
+    }
+
+    @Test
+    public void findByText_WithLimit_ReturnsTopMatchesOrderedById() {
+        // Given
+        IntStream.rangeClosed(1, 20).forEach(id ->
+                userRepository.save(createNamedUser((long) id, "Olena", "Shevchenko", null)));
+        userRepository.save(createNamedUser(21L, "Olena", "Shevchenko-Bondar", null));
+
+        // When
+        List<UserMatch> matches = userRepository.findByText("olena shevchenko", 2, 3);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), matches.stream().map(match -> match.user().getId()).toList());
+    }
+
+    @Test
+    public void findByText_AfterUpdateAndDelete_FindsOnlyCurrentTokens() {
+        // Given
+        userRepository.save(createNamedUser(1L, "Taras", "Melnyk", null));
+        userRepository.save(createNamedUser(2L, "Iryna", "Melnyk", null));
+        userRepository.update(1L, user -> user.setLastName("Bondarenko"));
+        userRepository.deleteById(2L);
+
+        // When
+        List<UserMatch> oldName = userRepository.findByText("melnyk", 0, 10);
+        List<UserMatch> newName = userRepository.findByText("bondarenko", 0, 10);
+
+        // Then
+        assertTrue(oldName.isEmpty());
+        assertEquals(List.of(1L), newName.stream().map(match -> match.user().getId()).toList());
+        assertEquals(2L, userRepository.indexSizes().get("text"));
+    }
+
+    @Test
+    public void findByText_DiacriticsAndShortTokens_MatchesNormalizedTokensWithoutTypos() {
+        // Given
+        userRepository.save(createNamedUser(1L, "Zoë", "Li", null));
+        userRepository.save(createNamedUser(2L, "Zoe", "Lu", null));
+
+        // When
+        List<UserMatch> matches = userRepository.findByText("ZOE li", 2, 10);
+
+        // Then
+        assertEquals(List.of(1L), matches.stream().map(match -> match.user().getId()).toList());
+    }
+
+    private User createNamedUser(Long id, String firstName, String lastName, String address) {
+        return new User(id, "test" + id + "@example.com", firstName, lastName, LocalDate.of(1990, 1, 1), address,
+                "1234567890", 0L);
+    }
+
+    private User createTestUser(Long id, String email) {
+        return createTestUser(id, email, LocalDate.now().minusYears(20));
+    }
+
+    private User createTestUser(Long id, String email, LocalDate birthDate) {
+        return new User(id, email, "Test", "User", birthDate, null, "1234567890", 0L);
+    }
+}
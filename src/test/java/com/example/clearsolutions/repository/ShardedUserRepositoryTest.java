@@ -0,0 +1,167 @@
+package com.example.clearsolutions.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+
+public class ShardedUserRepositoryTest {
+
+    private ShardedUserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = new ShardedUserRepository(4);
+    }
+
+    @Test
+    public void constructor_ShardCountNotPowerOfTwo_RoundsUp() {
+        assertEquals(8, new ShardedUserRepository(5).shardCount());
+        assertTrue(new ShardedUserRepository(0).shardCount() >= 1);
+    }
+
+    @Test
+    public void save_UsersOfEveryShard_FindsAndCountsThem() {
+        // Given
+        List<User> users = LongStream.rangeClosed(1, 100)
+                .mapToObj(id -> createTestUser(id, "user" + id + "@example.com"))
+                .toList();
+
+        // When
+        users.forEach(userRepository::save);
+
+        // Then
+        users.forEach(user -> assertEquals(user, userRepository.findById(user.getId()).orElseThrow()));
+        assertEquals(100, userRepository.count());
+        assertEquals(100, userRepository.findAll().count());
+        assertEquals(100L, userRepository.version());
+        assertEquals(List.of(100L, 100L), List.of(userRepository.indexSizes().get("birthDate"),
+                userRepository.indexSizes().get("email")));
+    }
+
+    @Test
+    public void save_DuplicateEmailInOtherShard_ThrowsExceptionAndKeepsStore() {
+        // Given
+        userRepository.save(createTestUser(1L, "test1@example.com"));
+
+        // When & Then
+        for (long id = 2; id <= 9; id++) {
+            long otherId = id;
+            assertThrows(EmailAlreadyExistsException.class,
+                    () -> userRepository.save(createTestUser(otherId, "Test1@Example.COM")));
+        }
+        assertEquals(1, userRepository.count());
+        assertEquals(1L, userRepository.findByEmail(" TEST1@example.com ").orElseThrow().getId());
+    }
+
+    @Test
+    public void deleteById_ReleasesEmail_AllowsUserOfOtherShardWithSameEmail() {
+        // Given
+        userRepository.save(createTestUser(1L, "test1@example.com"));
+
+        // When
+        userRepository.deleteById(1L);
+        userRepository.save(createTestUser(2L, "test1@example.com"));
+
+        // Then
+        assertEquals(2L, userRepository.findByEmail("test1@example.com").orElseThrow().getId());
+        assertEquals(1L, userRepository.indexSizes().get("email"));
+    }
+
+    @Test
+    public void findByBirthDateBetween_UsersOfEveryShard_MergesInBirthDateOrderAndContinuesAfterCursor() {
+        // Given
+        LongStream.rangeClosed(1, 50).forEach(id -> userRepository.save(createTestUser(id,
+                "user" + id + "@example.com", LocalDate.of(1990, 1, 1).plusDays(id % 7))));
+        LocalDate from = LocalDate.of(1990, 1, 2);
+        LocalDate to = LocalDate.of(1990, 1, 5);
+
+        // When
+        List<User> users = userRepository.findByBirthDateBetween(from, to).toList();
+        List<User> rest = userRepository.findByBirthDateBetween(from, to, BirthDateCursor.of(users.get(9))).toList();
+
+        // Then
+        assertEquals(LongStream.rangeClosed(1, 50).filter(id -> id % 7 >= 1 && id % 7 <= 4).count(), users.size());
+        assertEquals(users.stream().sorted((a, b) -> BirthDateCursor.of(a).compareTo(BirthDateCursor.of(b)))
+                .toList(), users);
+        assertEquals(users.subList(10, users.size()), rest);
+    }
+
+    @Test
+    public void findByText_MatchesInEveryShard_MergesBestMatchesFirst() {
+        // Given
+        LongStream.rangeClosed(1, 20).forEach(id -> userRepository.save(createNamedUser(id, "Melnyk")));
+        userRepository.save(createNamedUser(21L, "Melnychenko"));
+
+        // When
+        List<UserMatch> matches = userRepository.findByText("melnyk", 0, 5);
+        List<UserMatch> prefixMatches = userRepository.findByText("melnych", 0, 5);
+
+        // Then
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), matches.stream().map(match -> match.user().getId()).toList());
+        assertEquals(List.of(21L), prefixMatches.stream().map(match -> match.user().getId()).toList());
+    }
+
+    @Test
+    public void nextId_ConcurrentWriters_AllocatesUniqueIds() throws InterruptedException {
+        // Given
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        IntStream.range(0, 8).forEach(i -> executor.execute(() -> IntStream.range(0, 1_000).forEach(j -> {
+            long id = userRepository.nextId();
+            ids.add(id);
+            userRepository.save(createTestUser(id, "user" + id + "@example.com"));
+        })));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(8_000, ids.size());
+        assertEquals(8_000, userRepository.count());
+        assertTrue(ids.stream().allMatch(id -> id <= userRepository.lastId()));
+    }
+
+    @Test
+    public void nextId_AfterReserveAndExplicitSave_SkipsReservedIds() {
+        // Given
+        long first = userRepository.nextId();
+
+        // When
+        userRepository.restore(createTestUser(first + 10, "test1@example.com"));
+        userRepository.save(createTestUser(1_000L, "test2@example.com"));
+        long next = userRepository.nextId();
+
+        // Then
+        assertTrue(next > 1_000L, "next id " + next);
+    }
+
+    private User createNamedUser(Long id, String lastName) {
+        return new User(id, "user" + id + "@example.com", "Taras", lastName, LocalDate.of(1990, 1, 1), null,
+                "1234567890", 0L);
+    }
+
+    private User createTestUser(Long id, String email) {
+        return createTestUser(id, email, LocalDate.of(1990, 1, 1));
+    }
+
+    private User createTestUser(Long id, String email, LocalDate birthDate) {
+        return new User(id, email, "Test", "User", birthDate, null, "1234567890", 0L);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.clearsolutions.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.UserNotFoundException;
+import reactor.test.StepVerifier;
+
+public class ReactiveUserServiceTest {
+    private static final LocalDate FROM = LocalDate.of(1990, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2000, 1, 1);
+
+    private UserService userService;
+    private ReactiveUserService reactiveUserService;
+
+    @BeforeEach
+    public void setUp() {
+        userService = mock(UserService.class);
+        reactiveUserService = new ReactiveUserService(userService);
+    }
+
+    @Test
+    public void streamUsersByBirthDateRange_LimitedDemand_ReadsOnlyRequestedUsersAndClosesOnCancel() {
+        // Given
+        AtomicInteger read = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userService.streamUsersByBirthDateRange(FROM, TO, null, UserFields.ALL))
+                .thenReturn(IntStream.range(0, 1_000)
+                        .mapToObj(i -> new UserDto())
+                        .peek(user -> read.incrementAndGet())
+                        .onClose(() -> closed.set(true)));
+
+        // When
+        StepVerifier.create(reactiveUserService.streamUsersByBirthDateRange(FROM, TO, null), 0)
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+
+        // Then
+        assertTrue(read.get() <= 4, "read " + read.get() + " users");
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void createUser_RunsOffTheSubscribingThread() {
+        // Given
+        AtomicReference<String> thread = new AtomicReference<>();
+        UserDto userDto = new UserDto();
+        when(userService.createUser(any(UserDto.class))).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return userDto;
+        });
+
+        // When
+        StepVerifier.create(reactiveUserService.createUser(userDto))
+                .expectNext(userDto)
+                .verifyComplete();
+
+        // Then
+        assertTrue(thread.get().startsWith("boundedElastic"), thread.get());
+    }
+
+    @Test
+    public void getUserVersion_MissingUser_SignalsError() {
+        // Given
+        when(userService.getUserVersion(1L)).thenThrow(new UserNotFoundException("User not found"));
+
+        // When & Then
+        StepVerifier.create(reactiveUserService.getUserVersion(1L))
+                .expectErrorSatisfies(e -> assertEquals("User not found", e.getMessage()))
+                .verify();
+    }
+}
@@ -1,35 +1,71 @@
 package com.example.clearsolutions.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.example.clearsolutions.cache.UserResponseCache;
+import com.example.clearsolutions.changes.UserChangeFeed;
+import com.example.clearsolutions.codec.UserJsonCodec;
+import com.example.clearsolutions.dto.AgeCountDto;
+import com.example.clearsolutions.dto.BatchOperationType;
+import com.example.clearsolutions.dto.BirthDateCountDto;
+import com.example.clearsolutions.dto.BirthDatePeriod;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
+import com.example.clearsolutions.dto.UserBatchResultDto;
+import com.example.clearsolutions.dto.UserChangeEventDto;
+import com.example.clearsolutions.dto.UserChangeType;
 import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.dto.UserMatchDto;
+import com.example.clearsolutions.dto.UserPageDto;
+import com.example.clearsolutions.dto.VersionedUserDto;
 import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.entity.UserField;
+import com.example.clearsolutions.entity.UserFields;
+import com.example.clearsolutions.exceptions.EmailAlreadyExistsException;
+import com.example.clearsolutions.exceptions.InvalidCursorException;
 import com.example.clearsolutions.exceptions.UserNotFoundException;
+import com.example.clearsolutions.exceptions.UserVersionMismatchException;
 import com.example.clearsolutions.mapper.UserMapper;
+import com.example.clearsolutions.metrics.UserMetrics;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+import com.example.clearsolutions.statistics.BirthDateStatistics;
+import com.example.clearsolutions.validator.BirthDateLimits;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @SpringBootTest
 public class UserServiceTest {
 
     private UserService userService;
     private List<UserDto> createdUsers;
+    private SimpleMeterRegistry meterRegistry;
+    private UserChangeFeed userChangeFeed;
 
 
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @BeforeEach
     public void setUp() {
-        userService = new UserService(userMapper);
+        userService = newUserService(Clock.systemDefaultZone());
         createdUsers = new ArrayList<>();
         createdUsers.add(createTestUser("test1@example.com", "Test1",
                 "User1", LocalDate.now().minusYears(20), "9999999999"));
@@ -41,8 +77,8 @@ public class UserServiceTest {
     @Test
     public void createUser_CreatesNewUser_ReturnsUserWithId() {
         // Given
-        UserDto userTest = createTestUser("test5@example.com", "Test5",
-                "User5", LocalDate.now().minusYears(20), "1234567890");
+        UserDto userTest = new UserDto(null, "test5@example.com", "Test5", "User5",
+                LocalDate.now().minusYears(20), null, "1234567890");
 
         // When
         UserDto createdUser = userService.createUser(userTest);
@@ -70,7 +106,7 @@ public class UserServiceTest {
     public void updateUser_ReplacesUser_ReturnsUpdatedUser() {
         // Given
         UserDto user1 = createdUsers.get(0);
-        UserDto user2 = createdUsers.get(1);
+        UserDto user2 = withEmail(createdUsers.get(1), "replaced@example.com");
 
         // When
         UserDto updatedUser = userService.updateUser(user1.getId(), user2);
@@ -89,22 +125,361 @@ public class UserServiceTest {
         assertThrows(UserNotFoundException.class, () -> userService.updateUserFields(user2.getId(), new UserDto()));
     }
 
+    @Test
+    public void getUser_AfterUpdate_ReturnsUpdatedUser() throws Exception {
+        // Given
+        Long id = createdUsers.get(0).getId();
+        UserDto cachedUser = objectMapper.readValue(userService.getUser(id).body(), UserDto.class);
+        userService.updateUserFields(id, new UserDto(null, null, "Updated", null, null, null, null));
+
+        // When
+        UserDto user = objectMapper.readValue(userService.getUser(id).body(), UserDto.class);
+
+        // Then
+        assertEquals(createdUsers.get(0), cachedUser);
+        assertEquals("Updated", user.getFirstName());
+        assertEquals(2, userService.getCacheStats().getMisses());
+    }
+
+    @Test
+    public void updateUser_WithExpectedVersion_IncrementsVersion() {
+        // Given
+        Long id = createdUsers.get(0).getId();
+        long version = userService.getUserVersion(id);
+        long storeVersion = userService.getStoreVersion();
+
+        // When
+        VersionedUserDto updatedUser = userService.updateUser(id,
+                withEmail(createdUsers.get(1), "replaced@example.com"), version);
+
+        // Then
+        assertEquals(version + 1, updatedUser.getVersion());
+        assertEquals(version + 1, userService.getUser(id).version());
+        assertEquals(storeVersion + 1, userService.getStoreVersion());
+    }
+
+    @Test
+    public void updateUserFields_WithStaleVersion_ThrowsExceptionAndKeepsUser() {
+        // Given
+        Long id = createdUsers.get(0).getId();
+        long staleVersion = userService.getUserVersion(id);
+        userService.updateUserFields(id, new UserDto(null, null, "First", null, null, null, null), staleVersion);
+
+        // When & Then
+        assertThrows(UserVersionMismatchException.class, () -> userService.updateUserFields(id,
+                new UserDto(null, null, "Second", null, null, null, null), staleVersion));
+        assertEquals(staleVersion + 1, userService.getUserVersion(id));
+    }
+
+    @Test
+    public void getUser_AfterDelete_ThrowsException() {
+        // Given
+        Long id = createdUsers.get(1).getId();
+        userService.getUser(id);
+
+        // When
+        userService.applyBatch(List.of(new UserBatchOperationDto(BatchOperationType.DELETE, id, null)),
+                operation -> Optional.empty());
+
+        // Then
+        assertThrows(UserNotFoundException.class, () -> userService.getUser(id));
+    }
+
     @Test
     public void searchUsersByBirthDateRange_FiltersUsers_ReturnsUsersWithinRange() {
         // Given
-        UserDto user1 = createTestUser("test1@example.com", "Test1",
-                "User1", LocalDate.now().minusYears(20), "1234567890");
+        UserDto user1 = createTestUser("test4@example.com", "Test4",
+                "User4", LocalDate.now().minusYears(20), "1234567890");
         UserDto user2 = createTestUser("test2@example.com", "Test2",
                 "User2", LocalDate.now().minusYears(25), "0987654321");
 
         // When
         List<UserDto> users = userService.searchUsersByBirthDateRange(
-                LocalDate.now().minusYears(22), LocalDate.now().minusYears(18));
+                LocalDate.now().minusYears(22), LocalDate.now().minusYears(18), UserFields.ALL);
 
         // Then
         assertEquals(2, users.size());
     }
 
+    @Test
+    public void searchUsersByBirthDateRange_WithLimit_PagesThroughUsersInBirthDateOrder() {
+        // Given
+        LocalDate from = LocalDate.now().minusYears(40);
+        LocalDate to = LocalDate.now().minusYears(10);
+
+        // When
+        UserPageDto firstPage = userService.searchUsersByBirthDateRange(from, to, null, 1, UserFields.ALL);
+        UserPageDto secondPage = userService.searchUsersByBirthDateRange(from, to, firstPage.getNextCursor(), 1,
+                UserFields.ALL);
+
+        // Then
+        assertEquals(createdUsers.get(1).getId(), firstPage.getUsers().get(0).getId());
+        assertEquals(createdUsers.get(0).getId(), secondPage.getUsers().get(0).getId());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    public void streamUsersByBirthDateRange_StreamsUsersInBirthDateOrder() {
+        // When
+        List<UserDto> users = userService.streamUsersByBirthDateRange(
+                LocalDate.now().minusYears(40), LocalDate.now().minusYears(10), null, UserFields.ALL).toList();
+
+        // Then
+        assertEquals(List.of(createdUsers.get(1), createdUsers.get(0)), users);
+    }
+
+    @Test
+    public void searchUsersByBirthDateRange_SparseFieldset_ReturnsOnlyRequestedFields() {
+        // Given
+        LocalDate from = LocalDate.now().minusYears(40);
+        LocalDate to = LocalDate.now().minusYears(10);
+        UserFields fields = UserFields.of(UserField.ID, UserField.EMAIL);
+        UserDto older = createdUsers.get(1);
+        UserDto younger = createdUsers.get(0);
+
+        // When
+        List<UserDto> users = userService.searchUsersByBirthDateRange(from, to, fields);
+        UserPageDto page = userService.searchUsersByBirthDateRange(from, to, null, 1, fields);
+        UserDto found = userService.getUser(older.getId(), UserFields.of(UserField.LAST_NAME)).getUser();
+
+        // Then
+        assertEquals(List.of(new UserDto(older.getId(), older.getEmail(), null, null, null, null, null),
+                new UserDto(younger.getId(), younger.getEmail(), null, null, null, null, null)), users);
+        assertEquals(List.of(users.get(0)), page.getUsers());
+        assertEquals(younger.getId(), userService.searchUsersByBirthDateRange(from, to, page.getNextCursor(), 1,
+                fields).getUsers().get(0).getId());
+        assertEquals(new UserDto(null, null, null, older.getLastName(), null, null, null), found);
+    }
+
+    @Test
+    public void searchUsersByBirthDateRange_WithMalformedCursor_ThrowsException() {
+        // When & Then
+        assertThrows(InvalidCursorException.class, () -> userService.searchUsersByBirthDateRange(
+                LocalDate.now().minusYears(40), LocalDate.now(), "not-a-cursor", 1, UserFields.ALL));
+    }
+
+    @Test
+    public void applyBatch_AppliesOperationsInOrder_ReturnsPerItemResults() {
+        // Given
+        UserDto newUser = new UserDto(null, "test6@example.com", "Test6", "User6",
+                LocalDate.now().minusYears(30), null, "1234567890");
+        UserDto invalidUser = new UserDto(null, "test7@example.com", "Test7", "User7",
+                LocalDate.now().minusYears(30), null, "1234567890");
+        List<UserBatchOperationDto> operations = List.of(
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, newUser),
+                new UserBatchOperationDto(BatchOperationType.PATCH, createdUsers.get(0).getId(),
+                        new UserDto(null, null, "Patched", null, null, null, null)),
+                new UserBatchOperationDto(BatchOperationType.DELETE, createdUsers.get(1).getId(), null),
+                new UserBatchOperationDto(BatchOperationType.UPDATE, 999L, newUser),
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, invalidUser));
+
+        // When
+        List<UserBatchResultDto> results = userService.applyBatch(operations,
+                operation -> operation.getUser() == invalidUser ? Optional.of("Invalid") : Optional.empty());
+
+        // Then
+        assertEquals(List.of(201, 200, 204, 404, 400), results.stream().map(UserBatchResultDto::getStatus).toList());
+        assertUserEquals(newUser, results.get(0).getUser());
+        assertEquals("Patched", results.get(1).getUser().getFirstName());
+        assertEquals("Invalid", results.get(4).getError());
+        assertThrows(UserNotFoundException.class,
+                () -> userService.updateUserFields(createdUsers.get(1).getId(), new UserDto()));
+    }
+
+    @Test
+    public void applyBatch_TimesOperation_RecordsBatchSizeAndStoreGauges() {
+        // Given
+        List<UserBatchOperationDto> operations = List.of(
+                new UserBatchOperationDto(BatchOperationType.DELETE, createdUsers.get(0).getId(), null),
+                new UserBatchOperationDto(BatchOperationType.DELETE, createdUsers.get(1).getId(), null));
+
+        // When
+        userService.applyBatch(operations, operation -> Optional.empty());
+
+        // Then
+        assertEquals(1, meterRegistry.get("users.operation").tag("operation", "batch").timer().count());
+        assertEquals(2, meterRegistry.get("users.operation").tag("operation", "create").timer().count());
+        assertEquals(2.0, meterRegistry.get("users.batch.size").summary().totalAmount());
+        assertEquals(0.0, meterRegistry.get("users.count").gauge().value());
+        assertEquals(0.0, meterRegistry.get("users.index.size").tag("index", "birthDate").gauge().value());
+    }
+
+    @Test
+    public void createUser_DuplicateEmailInOtherCase_ThrowsException() {
+        // Given
+        UserDto duplicate = new UserDto(null, " TEST1@Example.com", "Other", "User",
+                LocalDate.now().minusYears(20), null, "1234567890");
+
+        // When & Then
+        assertThrows(EmailAlreadyExistsException.class, () -> userService.createUser(duplicate));
+        assertEquals(createdUsers.get(0), userService.getUserByEmail("test1@EXAMPLE.com", UserFields.ALL).getUser());
+    }
+
+    @Test
+    public void updateUserFields_EmailOfOtherUser_ThrowsExceptionAndKeepsBothUsers() {
+        // Given
+        Long id = createdUsers.get(0).getId();
+
+        // When & Then
+        assertThrows(EmailAlreadyExistsException.class, () -> userService.updateUserFields(id,
+                new UserDto(null, "test3@example.com", null, null, null, null, null)));
+        assertEquals(id, userService.getUserByEmail("test1@example.com", UserFields.ALL).getUser().getId());
+        assertEquals(createdUsers.get(1).getId(),
+                userService.getUserByEmail("test3@example.com", UserFields.ALL).getUser().getId());
+    }
+
+    @Test
+    public void getUserByEmail_AfterEmailChange_FindsOnlyNewEmail() {
+        // Given
+        Long id = createdUsers.get(0).getId();
+        userService.updateUserFields(id, new UserDto(null, "changed@example.com", null, null, null, null, null));
+
+        // When
+        VersionedUserDto user = userService.getUserByEmail("Changed@Example.com", UserFields.ALL);
+
+        // Then
+        assertEquals(id, user.getUser().getId());
+        assertEquals(1, user.getVersion());
+        assertThrows(UserNotFoundException.class,
+                () -> userService.getUserByEmail("test1@example.com", UserFields.ALL));
+    }
+
+    @Test
+    public void applyBatch_DuplicateEmail_ReportsConflictForItem() {
+        // Given
+        UserDto duplicate = new UserDto(null, "test3@example.com", "Test8", "User8",
+                LocalDate.now().minusYears(30), null, "1234567890");
+        List<UserBatchOperationDto> operations = List.of(
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, duplicate),
+                new UserBatchOperationDto(BatchOperationType.DELETE, createdUsers.get(1).getId(), null),
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, duplicate));
+
+        // When
+        List<UserBatchResultDto> results = userService.applyBatch(operations, operation -> Optional.empty());
+
+        // Then
+        assertEquals(List.of(409, 204, 201), results.stream().map(UserBatchResultDto::getStatus).toList());
+        assertEquals("Email is already in use", results.get(0).getError());
+    }
+
+    @Test
+    public void searchUsersByText_AfterRename_MatchesOnlyNewName() {
+        // Given
+        Long id = createdUsers.get(1).getId();
+        userService.updateUserFields(id, new UserDto(null, null, "Renamed", null, null, null, null));
+
+        // When
+        List<UserMatchDto> matches = userService.searchUsersByText("renam", 0, 10);
+
+        // Then
+        assertEquals(List.of(id), matches.stream().map(match -> match.getUser().getId()).toList());
+        assertEquals("Renamed", matches.get(0).getUser().getFirstName());
+        assertEquals(List.of(), userService.searchUsersByText("Test3", 0, 10));
+        assertEquals(2, meterRegistry.get("users.operation")
+                .tag("operation", "search_text").timer().count());
+    }
+
+    @Test
+    public void countUsersByBirthDateRange_AfterUpdateDeleteAndBatch_FollowsMutations() {
+        // Given
+        Long id = createdUsers.get(0).getId();
+        LocalDate today = LocalDate.now();
+
+        // When
+        userService.updateUserFields(id, new UserDto(null, null, null, null, today.minusYears(50), null, null));
+        userService.deleteUser(createdUsers.get(1).getId());
+        userService.applyBatch(List.of(new UserBatchOperationDto(BatchOperationType.CREATE, null,
+                new UserDto(null, "test9@example.com", "Test9", "User9", today.minusYears(40), null, "1234567890"))),
+                operation -> Optional.empty());
+
+        // Then
+        assertEquals(0, userService.countUsersByBirthDateRange(today.minusYears(35), today).getCount());
+        assertEquals(2, userService.countUsersByBirthDateRange(today.minusYears(60), today).getCount());
+        assertEquals(1, userService.countUsersByBirthDateRange(today.minusYears(50), today.minusYears(45))
+                .getCount());
+    }
+
+    @Test
+    public void countUsersByBirthPeriod_PerYear_CountsEveryYearOfRange() {
+        // Given
+        LocalDate from = LocalDate.now().minusYears(31);
+        LocalDate to = LocalDate.now().minusYears(19);
+
+        // When
+        List<BirthDateCountDto> counts = userService.countUsersByBirthPeriod(from, to, BirthDatePeriod.YEAR);
+
+        // Then
+        assertEquals(13, counts.size());
+        assertEquals(String.valueOf(from.getYear()), counts.get(0).getPeriod());
+        assertEquals(2, counts.stream().mapToLong(BirthDateCountDto::getCount).sum());
+        assertEquals(1, counts.get(1).getCount());
+    }
+
+    @Test
+    public void getAgeHistogram_CountsUsersPerBucketFromMinAge() {
+        // When
+        List<AgeCountDto> histogram = userService.getAgeHistogram(10, 40);
+
+        // Then
+        assertEquals(List.of(new AgeCountDto(18, 28, 1), new AgeCountDto(28, 38, 1), new AgeCountDto(38, 40, 0),
+                new AgeCountDto(40, null, 0)), histogram);
+    }
+
+    @Test
+    public void getAgeHistogram_FixedClock_CountsAgesAsOfClockDate() {
+        // Given
+        userService = newUserService(Clock.fixed(Instant.parse("2000-06-15T12:00:00Z"), ZoneOffset.UTC));
+        createTestUser("test@example.com", "Test", "User", LocalDate.of(1980, 6, 15), "9999999999");
+
+        // When
+        List<AgeCountDto> histogram = userService.getAgeHistogram(10, 40);
+
+        // Then
+        assertEquals(List.of(new AgeCountDto(18, 28, 1), new AgeCountDto(28, 38, 0), new AgeCountDto(38, 40, 0),
+                new AgeCountDto(40, null, 0)), histogram);
+    }
+
+    @Test
+    public void userChangeFeed_AfterUpdateDeleteAndBatch_PublishesEventsInOrder() {
+        // Given
+        Long id = createdUsers.get(0).getId();
+        long after = userChangeFeed.lastSequence();
+
+        // When
+        userService.updateUserFields(id, new UserDto(null, null, "Renamed", null, null, null, null));
+        userService.deleteUser(id);
+        userService.applyBatch(List.of(new UserBatchOperationDto(BatchOperationType.DELETE,
+                createdUsers.get(1).getId(), null)), operation -> Optional.empty());
+        List<UserChangeEventDto> events = userChangeFeed.read(after, 10);
+
+        // Then
+        assertEquals(2, after);
+        assertEquals(List.of(UserChangeType.UPDATED, UserChangeType.DELETED, UserChangeType.DELETED),
+                events.stream().map(UserChangeEventDto::getType).toList());
+        assertEquals(List.of(3L, 4L, 5L), events.stream().map(UserChangeEventDto::getSequence).toList());
+        assertEquals("Renamed", events.get(0).getUser().getFirstName());
+        assertEquals(events.get(0).getVersion() + 1, events.get(1).getVersion());
+        assertNull(events.get(1).getUser());
+        assertEquals(createdUsers.get(1).getId(), events.get(2).getId());
+    }
+
+    private UserDto withEmail(UserDto userDto, String email) {
+        return new UserDto(null, email, userDto.getFirstName(), userDto.getLastName(), userDto.getBirthDate(),
+                userDto.getAddress(), userDto.getPhoneNumber());
+    }
+
+    private UserService newUserService(Clock clock) {
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        meterRegistry = new SimpleMeterRegistry();
+        userChangeFeed = new UserChangeFeed(16);
+        UserService service = new UserService(userMapper, userRepository,
+                new UserResponseCache(new UserJsonCodec(), 1 << 20),
+                new UserMetrics(meterRegistry, userRepository), new BirthDateStatistics(userRepository),
+                userChangeFeed, new BirthDateLimits(clock, 18));
+        ReflectionTestUtils.setField(service, "minAge", 18);
+        return service;
+    }
+
     private UserDto createTestUser(String email, String firstName, String lastName,
                                    LocalDate birthDate, String phoneNumber) {
         UserDto user = new UserDto();
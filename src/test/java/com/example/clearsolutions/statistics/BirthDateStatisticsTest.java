@@ -0,0 +1,64 @@
+package com.example.clearsolutions.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.clearsolutions.entity.User;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+
+public class BirthDateStatisticsTest {
+
+    @Test
+    public void constructor_SeedsCountsFromStoredUsers() {
+        // Given
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        userRepository.save(createTestUser(1L, LocalDate.of(1990, 5, 1)));
+        userRepository.save(createTestUser(2L, LocalDate.of(1990, 5, 31)));
+        userRepository.save(createTestUser(3L, null));
+
+        // When
+        BirthDateStatistics statistics = new BirthDateStatistics(userRepository);
+
+        // Then
+        assertEquals(2, statistics.count(LocalDate.of(1990, 5, 1), LocalDate.of(1990, 5, 31)));
+        assertEquals(1, statistics.count(LocalDate.of(1990, 5, 2), LocalDate.of(1990, 6, 30)));
+        assertEquals(0, statistics.count(LocalDate.of(1990, 6, 1), LocalDate.of(1990, 5, 1)));
+    }
+
+    @Test
+    public void move_ChangesBirthDate_CountsUserOnce() {
+        // Given
+        BirthDateStatistics statistics = new BirthDateStatistics(new InMemoryUserRepository());
+        statistics.add(LocalDate.of(1990, 1, 1));
+
+        // When
+        statistics.move(LocalDate.of(1990, 1, 1), LocalDate.of(2000, 1, 1));
+        statistics.move(LocalDate.of(2000, 1, 1), LocalDate.of(2000, 1, 1));
+
+        // Then
+        assertEquals(0, statistics.count(LocalDate.of(1990, 1, 1), LocalDate.of(1999, 12, 31)));
+        assertEquals(1, statistics.count(LocalDate.MIN, LocalDate.MAX));
+    }
+
+    @Test
+    public void add_DateBeforeSpan_CountsItAtStartOfSpan() {
+        // Given
+        BirthDateStatistics statistics = new BirthDateStatistics(new InMemoryUserRepository());
+
+        // When
+        statistics.add(LocalDate.of(1500, 6, 1));
+        statistics.add(LocalDate.of(BirthDateStatistics.FIRST_YEAR, 1, 2));
+        statistics.remove(LocalDate.of(BirthDateStatistics.FIRST_YEAR, 1, 2));
+
+        // Then
+        assertEquals(1, statistics.count(LocalDate.MIN, LocalDate.of(BirthDateStatistics.FIRST_YEAR, 1, 1)));
+        assertEquals(0, statistics.count(LocalDate.of(BirthDateStatistics.FIRST_YEAR, 1, 2), LocalDate.MAX));
+    }
+
+    private User createTestUser(Long id, LocalDate birthDate) {
+        return new User(id, "test" + id + "@example.com", "Test", "User", birthDate, null, "1234567890", 0L);
+    }
+}
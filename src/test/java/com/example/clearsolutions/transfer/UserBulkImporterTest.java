@@ -0,0 +1,178 @@
+package com.example.clearsolutions.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.clearsolutions.cache.UserResponseCache;
+import com.example.clearsolutions.changes.UserChangeFeed;
+import com.example.clearsolutions.codec.UserJsonCodec;
+import com.example.clearsolutions.dto.UserImportErrorDto;
+import com.example.clearsolutions.dto.UserImportResultDto;
+import com.example.clearsolutions.exceptions.InvalidImportException;
+import com.example.clearsolutions.mapper.UserMapper;
+import com.example.clearsolutions.metrics.UserMetrics;
+import com.example.clearsolutions.repository.InMemoryUserRepository;
+import com.example.clearsolutions.service.UserService;
+import com.example.clearsolutions.statistics.BirthDateStatistics;
+import com.example.clearsolutions.validator.BirthDateLimits;
+import com.example.clearsolutions.validator.UserConstraints;
+import com.example.clearsolutions.validator.UserDtoValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+public class UserBulkImporterTest {
+
+    private InMemoryUserRepository userRepository;
+    private UserBulkImporter userBulkImporter;
+    private UserBulkExporter userBulkExporter;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = new InMemoryUserRepository();
+        BirthDateLimits birthDateLimits = new BirthDateLimits(Clock.systemDefaultZone(), 18);
+        UserService userService = new UserService(userMapper, userRepository,
+                new UserResponseCache(new UserJsonCodec(), 1 << 20),
+                new UserMetrics(new SimpleMeterRegistry(), userRepository), new BirthDateStatistics(userRepository),
+                new UserChangeFeed(16), birthDateLimits);
+        UserDtoValidator userDtoValidator = new UserDtoValidator(new UserConstraints(birthDateLimits),
+                birthDateLimits);
+        ReflectionTestUtils.setField(userDtoValidator, "minAge", 18);
+        userBulkImporter = new UserBulkImporter(userService, userDtoValidator, objectMapper, 2);
+        userBulkExporter = new UserBulkExporter(userService, objectMapper);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userBulkImporter.destroy();
+    }
+
+    @Test
+    public void importUsers_CsvWithInvalidAndDuplicateRecords_ImportsValidOnesAndReportsLines() throws IOException {
+        // Given
+        String csv = """
+                phoneNumber,email,firstName,lastName,birthDate,address
+                1234567890,test1@example.com,Test1,User1,1990-01-01,"Kyiv, Main st"
+                1234567890,not-an-email,Test2,User2,1990-01-01,
+
+                1234567890,test3@example.com,Test3,User3,1990-13-01,
+                1234567890,TEST1@example.com,Test4,User4,1990-01-01,
+                1234567890,test5@example.com,Test5,User5,,"two
+                lines"
+                """;
+
+        // When
+        UserImportResultDto result = userBulkImporter.importUsers(input(csv), UserTransferFormat.CSV);
+
+        // Then
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(List.of(3L, 5L, 6L), result.getErrors().stream().map(UserImportErrorDto::getLine).toList());
+        assertEquals("Email is already in use", result.getErrors().get(2).getError());
+        assertEquals("Kyiv, Main st", userRepository.findByEmail("test1@example.com").orElseThrow().getAddress());
+        assertEquals("two\nlines", userRepository.findByEmail("test5@example.com").orElseThrow().getAddress());
+    }
+
+    @Test
+    public void importUsers_NdjsonOfSeveralChunks_ImportsEveryUserInOrder() throws IOException {
+        // Given
+        int users = UserBulkImporter.CHUNK_SIZE * 3 + 7;
+        String ndjson = IntStream.rangeClosed(1, users)
+                .mapToObj(i -> "{\"id\":999,\"email\":\"user" + i + "@example.com\",\"firstName\":\"Test\","
+                        + "\"lastName\":\"User\",\"birthDate\":\"1990-01-01\",\"phoneNumber\":\"1234567890\"}")
+                .collect(Collectors.joining("\n"));
+
+        // When
+        UserImportResultDto result = userBulkImporter.importUsers(input(ndjson), UserTransferFormat.NDJSON);
+
+        // Then
+        assertEquals(users, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals(users, userRepository.count());
+        assertEquals(1L, userRepository.findByEmail("user1@example.com").orElseThrow().getId());
+        assertEquals((long) users, userRepository.findByEmail("user" + users + "@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    public void importUsers_CsvWithUnclosedQuote_RejectsOnlyThatRecordOnceTooLong() throws IOException {
+        // Given
+        String csv = "email,firstName,lastName,address\n"
+                + "test1@example.com,Test1,User1,\"never closed\n"
+                + "x".repeat(UserRecordReader.MAX_RECORD_LENGTH) + "\n"
+                + "test2@example.com,Test2,User2,Kyiv\n";
+
+        // When
+        UserImportResultDto result = userBulkImporter.importUsers(input(csv), UserTransferFormat.CSV);
+
+        // Then
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        assertEquals("Quoted field is not closed", result.getErrors().get(0).getError());
+        assertEquals("Kyiv", userRepository.findByEmail("test2@example.com").orElseThrow().getAddress());
+    }
+
+    @Test
+    public void importUsers_CsvWithoutRequiredColumn_ThrowsException() {
+        assertThrows(InvalidImportException.class, () -> userBulkImporter.importUsers(
+                input("email,firstName\ntest1@example.com,Test1\n"), UserTransferFormat.CSV));
+    }
+
+    @Test
+    public void exportUsers_Csv_ImportsBackIntoEmptyStore() throws IOException {
+        // Given
+        String csv = """
+                email,firstName,lastName,birthDate,address,phoneNumber
+                test1@example.com,Test1,User1,1990-01-01,"Kyiv, ""Main"" st",1234567890
+                test2@example.com,Test2,User2,,,
+                """;
+        userBulkImporter.importUsers(input(csv), UserTransferFormat.CSV);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long exported = userBulkExporter.exportUsers(Channels.newChannel(output), UserTransferFormat.CSV);
+        userBulkImporter.destroy();
+        setUp();
+        UserImportResultDto result = userBulkImporter.importUsers(
+                new ByteArrayInputStream(output.toByteArray()), UserTransferFormat.CSV);
+
+        // Then
+        assertEquals(2, exported);
+        assertEquals(UserBulkExporter.CSV_HEADER, output.toString(StandardCharsets.UTF_8).lines().findFirst()
+                .orElseThrow());
+        assertEquals(2, result.getImported());
+        assertEquals("Kyiv, \"Main\" st", userRepository.findByEmail("test1@example.com").orElseThrow()
+                .getAddress());
+        assertEquals(LocalDate.of(1990, 1, 1), userRepository.findByEmail("test1@example.com").orElseThrow()
+                .getBirthDate());
+    }
+
+    private InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
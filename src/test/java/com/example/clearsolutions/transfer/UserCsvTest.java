@@ -0,0 +1,64 @@
+package com.example.clearsolutions.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class UserCsvTest {
+
+    @Test
+    public void split_QuotedFieldsWithSeparatorsQuotesAndLineBreaks_UnquotesThem() {
+        // Given
+        String record = "1,\"Kyiv, \"\"Main\"\" st\",,\"line1\nline2\",last";
+
+        // When
+        List<String> fields = UserCsv.split(record);
+
+        // Then
+        assertEquals(List.of("1", "Kyiv, \"Main\" st", "", "line1\nline2", "last"), fields);
+    }
+
+    @Test
+    public void split_TrailingSeparator_ReturnsEmptyLastField() {
+        assertEquals(List.of("a", "b", ""), UserCsv.split("a,b,"));
+        assertEquals(List.of(""), UserCsv.split(""));
+    }
+
+    @Test
+    public void split_MalformedQuotes_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> UserCsv.split("\"open,field"));
+        assertThrows(IllegalArgumentException.class, () -> UserCsv.split("\"closed\"x,field"));
+    }
+
+    @Test
+    public void appendField_ValuesThatNeedQuotes_SplitsBackToSameValues() {
+        // Given
+        List<String> values = List.of("plain", "with,comma", "with \"quote\"", "with\nbreak");
+        StringBuilder record = new StringBuilder();
+
+        // When
+        for (String value : values) {
+            if (!record.isEmpty()) {
+                record.append(',');
+            }
+            UserCsv.appendField(record, value);
+        }
+
+        // Then
+        assertEquals("plain,\"with,comma\",\"with \"\"quote\"\"\",\"with\nbreak\"", record.toString());
+        assertEquals(values, UserCsv.split(record.toString()));
+    }
+
+    @Test
+    public void hasOddQuotes_LineOpensOrClosesQuotedField_ReturnsTrue() {
+        assertTrue(UserCsv.hasOddQuotes("1,\"first line"));
+        assertTrue(UserCsv.hasOddQuotes("second\",x"));
+        assertFalse(UserCsv.hasOddQuotes("1,\"first \"\"line\"\"\",x"));
+        assertFalse(UserCsv.hasOddQuotes(""));
+    }
+}
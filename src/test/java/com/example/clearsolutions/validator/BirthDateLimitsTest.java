@@ -0,0 +1,80 @@
+package com.example.clearsolutions.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.Test;
+
+public class BirthDateLimitsTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Kyiv");
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-02-28T21:59:59.999Z"));
+    private final BirthDateLimits birthDateLimits = new BirthDateLimits(clock, 18);
+
+    @Test
+    public void today_BeforeAndAfterMidnightInZoneOfClock_RollsOverOnce() {
+        // Given
+        LocalDate before = birthDateLimits.today();
+
+        // When
+        clock.instant = Instant.parse("2024-02-28T22:00:00Z");
+        LocalDate after = birthDateLimits.today();
+
+        // Then
+        assertEquals(LocalDate.of(2024, 2, 28), before);
+        assertEquals(LocalDate.of(2024, 2, 29), after);
+    }
+
+    @Test
+    public void latestAdultBirthDate_LeapDay_IsTodayMinusMinAge() {
+        // Given
+        clock.instant = Instant.parse("2024-02-29T12:00:00Z");
+
+        // When
+        LocalDate latestAdultBirthDate = birthDateLimits.latestAdultBirthDate();
+
+        // Then
+        assertEquals(LocalDate.of(2006, 2, 28), latestAdultBirthDate);
+    }
+
+    @Test
+    public void today_ClockSetBack_RecomputesDay() {
+        // Given
+        clock.instant = Instant.parse("2024-03-10T12:00:00Z");
+        assertEquals(LocalDate.of(2024, 3, 10), birthDateLimits.today());
+
+        // When
+        clock.instant = Instant.parse("2024-03-01T12:00:00Z");
+
+        // Then
+        assertEquals(LocalDate.of(2024, 3, 1), birthDateLimits.today());
+        assertEquals(LocalDate.of(2006, 3, 1), birthDateLimits.latestAdultBirthDate());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.clearsolutions.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+
+import com.example.clearsolutions.dto.UserDto;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+public class UserConstraintsTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-05-01T12:00:00Z"), ZoneOffset.UTC);
+
+    private final ValidatorFactory validatorFactory = Validation.byDefaultProvider()
+            .configure()
+            .clockProvider(() -> CLOCK)
+            .buildValidatorFactory();
+    private final Validator beanValidator = validatorFactory.getValidator();
+    private final UserConstraints userConstraints = new UserConstraints(new BirthDateLimits(CLOCK, 18));
+
+    @AfterEach
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "test@example.com", "Test.User+tag@Example.COM", "a@b", "a@b.c-d.e",
+        "user@localhost", "first.last@sub.example.co.uk", "!#$%&'*+/=?^_`{|}~-@example.com", "a@b--c.com",
+        "\"quoted\"@example.com", "\uD83D\uDE00@example.com", "\"with space\"@example.com", "\"a@b\"@example.com",
+        "\"esc\\\"aped\"@example.com", "\"\\\\\"@example.com", "\"a\".b@example.com", "user@[192.168.0.1]",
+        "user@[1.2.3]", "user@[1234.1.1.1]", "user@[::1]",
+        "пошта@приклад.укр", "user@xn--80ak6aa92e.com", "user@exam_ple.com", "not an email", "no-at-sign",
+        "@example.com", "user@", "user@.example.com", "user@example.com.", "user@example..com", "user@-example.com",
+        "user@example-.com", "user@ex-ample.com", ".user@example.com", "user.@example.com", "us..er@example.com",
+        "\"\"@example.com", "\"unterminated@example.com", "\"bad\\x\"@example.com", "user@exa mple.com",
+        " user@example.com", "user@example.com ", "a@b@c.com", "\"a@b\"@c@d.com", "(comment)user@example.com",
+        "user@example.com\n",
+        "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa@example.com",
+        "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa@example.com",
+        "user@aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa.com",
+        "user@aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa.com"})
+    public void violations_Email_MatchesBeanValidator(String email) {
+        // Given
+        UserDto userDto = validUser();
+        userDto.setEmail(email);
+
+        // When & Then
+        assertEquals(beanViolations(userDto), userConstraints.describe(userConstraints.violations(userDto)), email);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1234567", "1234567890", "123456", "12345678901", "123-4567", "12345678a", " 1234567",
+        "١٢٣٤٥٦٧", "+380123456"})
+    public void violations_PhoneNumber_MatchesBeanValidator(String phoneNumber) {
+        // Given
+        UserDto userDto = validUser();
+        userDto.setPhoneNumber(phoneNumber);
+
+        // When & Then
+        assertEquals(beanViolations(userDto), userConstraints.describe(userConstraints.violations(userDto)),
+                phoneNumber);
+    }
+
+    @Test
+    public void violations_ValidUserWithoutOptionalFields_ReturnsZero() {
+        // Given
+        UserDto userDto = new UserDto(null, "test@example.com", "Test", "User", null, null, null);
+
+        // When & Then
+        assertEquals(0, userConstraints.violations(userDto));
+        assertEquals(0, userConstraints.violations(validUser()));
+    }
+
+    @Test
+    public void violations_EveryFieldInvalid_ReportsEveryViolationInOnePass() {
+        // Given
+        UserDto userDto = new UserDto(null, "\t", null, "", LocalDate.now(CLOCK), "Kyiv", "123");
+
+        // When
+        int violations = userConstraints.violations(userDto);
+
+        // Then
+        assertEquals(beanViolations(userDto), userConstraints.describe(violations));
+        assertEquals("birthDate: Birth date must be in the past, email: Email is required, "
+                + "email: Email should be valid, firstName: First name is required, "
+                + "lastName: Last name is required, "
+                + "phoneNumber: Phone number should contain between 7 and 10 digits",
+                userConstraints.describe(violations));
+    }
+
+    @Test
+    public void validate_InvalidUser_RejectsFieldsWithAnnotationCodes() {
+        // Given
+        UserDto userDto = validUser();
+        userDto.setEmail("not an email");
+        userDto.setBirthDate(LocalDate.now(CLOCK).plusDays(1));
+        Errors errors = new BeanPropertyBindingResult(userDto, "userDto");
+
+        // When
+        userConstraints.validate(userDto, errors);
+
+        // Then
+        assertEquals(List.of("birthDate Past Birth date must be in the past", "email Email Email should be valid"),
+                errors.getFieldErrors().stream()
+                        .map(error -> error.getField() + " " + error.getCode() + " " + error.getDefaultMessage())
+                        .toList());
+        assertEquals(List.of(LocalDate.now(CLOCK).plusDays(1), "not an email"),
+                errors.getFieldErrors().stream().map(FieldError::getRejectedValue).toList());
+    }
+
+    @Test
+    public void supports_OnlyUserDto() {
+        assertTrue(userConstraints.supports(UserDto.class));
+        assertFalse(userConstraints.supports(Object.class));
+    }
+
+    private String beanViolations(UserDto userDto) {
+        return beanValidator.validate(userDto).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private UserDto validUser() {
+        return new UserDto(null, "test@example.com", "Test", "User", LocalDate.of(1990, 5, 1), "Kyiv", "1234567890");
+    }
+}
@@ -1,17 +1,27 @@
 package com.example.clearsolutions.validator;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Clock;
 import java.time.LocalDate;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.example.clearsolutions.dto.BatchOperationType;
+import com.example.clearsolutions.dto.BirthDatePeriod;
+import com.example.clearsolutions.dto.UserBatchOperationDto;
 import com.example.clearsolutions.dto.UserDto;
+import com.example.clearsolutions.exceptions.InvalidAggregationException;
 import com.example.clearsolutions.exceptions.InvalidDateRangeException;
+import com.example.clearsolutions.exceptions.InvalidPageLimitException;
+import com.example.clearsolutions.exceptions.InvalidSearchQueryException;
 import com.example.clearsolutions.exceptions.UserUnderAgeException;
 
 @DisplayName("UserValidator Test")
@@ -21,8 +31,10 @@ public class UserDtoValidatorTest {
 
     @BeforeEach
     public void setUp() {
-        userDtoValidator = new UserDtoValidator();
+        BirthDateLimits birthDateLimits = new BirthDateLimits(Clock.systemDefaultZone(), 18);
+        userDtoValidator = new UserDtoValidator(new UserConstraints(birthDateLimits), birthDateLimits);
         ReflectionTestUtils.setField(userDtoValidator, "minAge", 18);
+        ReflectionTestUtils.setField(userDtoValidator, "maxLimit", 100);
     }
 
     @Test
@@ -61,6 +73,17 @@ public class UserDtoValidatorTest {
         assertThrows(UserUnderAgeException.class, () -> userDtoValidator.validateUser(user));
     }
 
+    @Test
+    @DisplayName("Given user without birth date, when validate user, then no exception thrown")
+    public void givenUserWithoutBirthDate_whenValidateUser_thenNoExceptionThrown() {
+        // Given
+        UserDto user = new UserDto();
+
+        // When
+        // Then
+        assertDoesNotThrow(() -> userDtoValidator.validateUser(user));
+    }
+
     @Test
     @DisplayName("Given valid date range, when validate date range, then no exception thrown")
     public void givenValidDateRange_whenValidateDateRange_thenNoExceptionThrown() {
@@ -96,4 +119,122 @@ public class UserDtoValidatorTest {
         // Then
         assertDoesNotThrow(() -> userDtoValidator.validateDateRange(from, to));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Given limit within bounds, when validate page limit, then no exception thrown")
+    public void givenLimitWithinBounds_whenValidatePageLimit_thenNoExceptionThrown() {
+        // When
+        // Then
+        assertDoesNotThrow(() -> userDtoValidator.validatePageLimit(1));
+        assertDoesNotThrow(() -> userDtoValidator.validatePageLimit(100));
+    }
+
+    @Test
+    @DisplayName("Given limit out of bounds, when validate page limit, then InvalidPageLimitException thrown")
+    public void givenLimitOutOfBounds_whenValidatePageLimit_thenInvalidPageLimitExceptionThrown() {
+        // When
+        // Then
+        assertThrows(InvalidPageLimitException.class, () -> userDtoValidator.validatePageLimit(0));
+        assertThrows(InvalidPageLimitException.class, () -> userDtoValidator.validatePageLimit(101));
+    }
+
+    @Test
+    @DisplayName("Given range spanning too many periods, when validate period range, then exception thrown")
+    public void givenRangeSpanningTooManyPeriods_whenValidatePeriodRange_thenInvalidAggregationExceptionThrown() {
+        // Given
+        LocalDate from = LocalDate.of(1990, 1, 31);
+
+        // When
+        // Then
+        assertDoesNotThrow(() -> userDtoValidator.validatePeriodRange(from, from.plusMonths(99),
+                BirthDatePeriod.MONTH));
+        assertDoesNotThrow(() -> userDtoValidator.validatePeriodRange(from, from.plusYears(99), BirthDatePeriod.YEAR));
+        assertThrows(InvalidAggregationException.class, () -> userDtoValidator.validatePeriodRange(from,
+                from.plusMonths(100), BirthDatePeriod.MONTH));
+        assertThrows(InvalidDateRangeException.class, () -> userDtoValidator.validatePeriodRange(from,
+                from.minusDays(1), BirthDatePeriod.YEAR));
+    }
+
+    @Test
+    @DisplayName("Given invalid age buckets, when validate age histogram, then exception thrown")
+    public void givenInvalidAgeBuckets_whenValidateAgeHistogram_thenInvalidAggregationExceptionThrown() {
+        // When
+        // Then
+        assertDoesNotThrow(() -> userDtoValidator.validateAgeHistogram(10, 100));
+        assertThrows(InvalidAggregationException.class, () -> userDtoValidator.validateAgeHistogram(0, 100));
+        assertThrows(InvalidAggregationException.class, () -> userDtoValidator.validateAgeHistogram(10, 18));
+        assertThrows(InvalidAggregationException.class, () -> userDtoValidator.validateAgeHistogram(1, 200));
+    }
+
+    @Test
+    @DisplayName("Given valid text query, when validate text query, then no exception thrown")
+    public void givenValidTextQuery_whenValidateTextQuery_thenNoExceptionThrown() {
+        // When
+        // Then
+        assertDoesNotThrow(() -> userDtoValidator.validateTextQuery("smith", 0));
+        assertDoesNotThrow(() -> userDtoValidator.validateTextQuery("smith", 2));
+    }
+
+    @Test
+    @DisplayName("Given blank query or edits out of bounds, when validate text query, then exception thrown")
+    public void givenInvalidTextQuery_whenValidateTextQuery_thenInvalidSearchQueryExceptionThrown() {
+        // When
+        // Then
+        assertThrows(InvalidSearchQueryException.class, () -> userDtoValidator.validateTextQuery(" ", 1));
+        assertThrows(InvalidSearchQueryException.class, () -> userDtoValidator.validateTextQuery("smith", -1));
+        assertThrows(InvalidSearchQueryException.class, () -> userDtoValidator.validateTextQuery("smith", 3));
+    }
+
+    @Test
+    @DisplayName("Given valid create operation, when check operation, then no error returned")
+    public void givenValidCreateOperation_whenCheckOperation_thenNoErrorReturned() {
+        // Given
+        UserDto user = new UserDto(null, "test@example.com", "Test", "User",
+                LocalDate.now().minusYears(20), null, "1234567890");
+
+        // When
+        Optional<String> error = userDtoValidator.checkOperation(
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, user));
+
+        // Then
+        assertTrue(error.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Given invalid operations, when check operation, then error returned")
+    public void givenInvalidOperations_whenCheckOperation_thenErrorReturned() {
+        // Given
+        UserDto underAgeUser = new UserDto(null, "test@example.com", "Test", "User",
+                LocalDate.now().minusYears(17), null, "1234567890");
+        UserDto invalidEmailUser = new UserDto(null, "not-an-email", "Test", "User",
+                LocalDate.now().minusYears(20), null, "1234567890");
+
+        // When
+        // Then
+        assertEquals(Optional.of("Operation is required"),
+                userDtoValidator.checkOperation(new UserBatchOperationDto(null, 1L, underAgeUser)));
+        assertEquals(Optional.of("Id is required"), userDtoValidator.checkOperation(
+                new UserBatchOperationDto(BatchOperationType.DELETE, null, null)));
+        assertEquals(Optional.of("User is required"), userDtoValidator.checkOperation(
+                new UserBatchOperationDto(BatchOperationType.UPDATE, 1L, null)));
+        assertEquals(Optional.of("User must be at least 18 years old"), userDtoValidator.checkOperation(
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, underAgeUser)));
+        assertEquals(Optional.of("email: Email should be valid"), userDtoValidator.checkOperation(
+                new UserBatchOperationDto(BatchOperationType.CREATE, null, invalidEmailUser)));
+    }
+
+    @Test
+    @DisplayName("Given user violating several constraints, when check user, then every violation returned sorted")
+    public void givenUserViolatingSeveralConstraints_whenCheckUser_thenEveryViolationReturnedSorted() {
+        // Given
+        UserDto user = new UserDto(null, " ", "Test", null, LocalDate.now().plusDays(1), null, "12");
+
+        // When
+        Optional<String> error = userDtoValidator.checkUser(user);
+
+        // Then
+        assertEquals(Optional.of("birthDate: Birth date must be in the past, email: Email is required, "
+                + "email: Email should be valid, lastName: Last name is required, "
+                + "phoneNumber: Phone number should contain between 7 and 10 digits"), error);
+    }
+}